@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit
+
+import com.blockset.walletkit.events.EventFilter
+import com.blockset.walletkit.events.EventFlow
+import com.blockset.walletkit.events.EventRecord
+import com.blockset.walletkit.events.SystemEventPublisher.BufferStrategy
+import com.blockset.walletkit.events.SystemEventPublisher.DEFAULT_BUFFER_SIZE
+import com.blockset.walletkit.events.network.NetworkEvent
+import com.blockset.walletkit.events.system.SystemEvent
+import com.blockset.walletkit.events.system.SystemListener
+import com.blockset.walletkit.events.transfer.TransferChangedEvent
+import com.blockset.walletkit.events.transfer.TransferEvent
+import com.blockset.walletkit.events.wallet.WalletBalanceUpdatedEvent
+import com.blockset.walletkit.events.wallet.WalletEvent
+import com.blockset.walletkit.events.wallet.WalletTransferAddedEvent
+import com.blockset.walletkit.events.wallet.WalletTransferChangedEvent
+import com.blockset.walletkit.events.wallet.WalletTransferDeletedEvent
+import com.blockset.walletkit.events.wallet.WalletTransferSubmittedEvent
+import com.blockset.walletkit.events.walletmanager.WalletManagerEvent
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.channels.BufferOverflow
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.channels.SendChannel
+import kotlinx.coroutines.channels.awaitClose
+import kotlinx.coroutines.channels.sendBlocking
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.buffer
+import kotlinx.coroutines.flow.callbackFlow
+import kotlinx.coroutines.flow.flow
+
+// Events requested ahead of the collector by System.eventFlow
+private const val EVENT_PREFETCH = 64L
+
+/**
+ * This system's events, as selected by [filter]; see [System.events].
+ *
+ * Events are requested as they are collected, so those the collector has yet to reach are
+ * buffered by the system, up to [bufferSize], and then handled according to [strategy]; with
+ * [BufferStrategy.ERROR] the flow fails with an [IllegalStateException].  The flow completes
+ * when the system is deleted, and cancelling its collector cancels the subscription.
+ */
+fun System.eventFlow(
+        filter: EventFilter = EventFilter.all(),
+        bufferSize: Int = DEFAULT_BUFFER_SIZE,
+        strategy: BufferStrategy = BufferStrategy.ERROR
+): Flow<EventRecord> = publishedFlow(filter, bufferSize, strategy, EVENT_PREFETCH, null) { it }
+
+/**
+ * This wallet's balance; the current balance and then each update.
+ *
+ * Updates are conflated: a collector that falls behind skips to the latest balance.
+ */
+fun Wallet.balanceFlow(): Flow<Amount> = walletManager.system.publishedFlow(
+        EventFilter.all().forWallet(this).forEventTypes(WalletBalanceUpdatedEvent::class.java),
+        1,
+        BufferStrategy.DROP_OLDEST,
+        1,
+        { balance }
+) { it.getEvent(WalletBalanceUpdatedEvent::class.java).get().balance }
+
+/**
+ * This wallet's transfers; the current transfers and then the transfers each time one is added,
+ * submitted, changed or deleted.
+ *
+ * Changes are conflated: a collector that falls behind gets the transfers once, as of the latest
+ * change.
+ */
+fun Wallet.transfersFlow(): Flow<List<Transfer>> = walletManager.system.publishedFlow(
+        EventFilter.all().forWallet(this).forEventTypes(
+                WalletTransferAddedEvent::class.java,
+                WalletTransferSubmittedEvent::class.java,
+                WalletTransferChangedEvent::class.java,
+                WalletTransferDeletedEvent::class.java,
+                TransferChangedEvent::class.java),
+        1,
+        BufferStrategy.DROP_OLDEST,
+        1,
+        { transfers }
+) { transfers }
+
+/**
+ * The events dispatched by this listener to its system listeners; see
+ * [DispatchingSystemListener.addSystemListener].
+ *
+ * Up to [capacity] events are buffered for the collector; once full, [onBufferOverflow] decides
+ * whether an event is dropped or, with [BufferOverflow.SUSPEND], whether dispatch waits for the
+ * collector.  Cancelling the collector removes its listener.
+ */
+@ExperimentalCoroutinesApi
+fun DispatchingSystemListener.eventFlow(
+        capacity: Int = Channel.BUFFERED,
+        onBufferOverflow: BufferOverflow = BufferOverflow.SUSPEND
+): Flow<EventRecord> = callbackFlow<EventRecord> {
+    val listener = EventRecordListener(this)
+    addSystemListener(listener)
+    awaitClose { removeSystemListener(listener) }
+}.buffer(capacity, onBufferOverflow)
+
+/** The events of [manager], as dispatched by this listener; see [eventFlow]. */
+@ExperimentalCoroutinesApi
+fun DispatchingSystemListener.eventFlow(
+        manager: WalletManager,
+        capacity: Int = Channel.BUFFERED,
+        onBufferOverflow: BufferOverflow = BufferOverflow.SUSPEND
+): Flow<EventRecord> = callbackFlow<EventRecord> {
+    val listener = EventRecordListener(this)
+    addWalletManagerListener(manager, listener)
+    awaitClose { removeWalletManagerListener(manager, listener) }
+}.buffer(capacity, onBufferOverflow)
+
+/** The events of [wallet], as dispatched by this listener; see [eventFlow]. */
+@ExperimentalCoroutinesApi
+fun DispatchingSystemListener.eventFlow(
+        wallet: Wallet,
+        capacity: Int = Channel.BUFFERED,
+        onBufferOverflow: BufferOverflow = BufferOverflow.SUSPEND
+): Flow<EventRecord> = callbackFlow<EventRecord> {
+    val listener = EventRecordListener(this)
+    addWalletListener(wallet, listener)
+    awaitClose { removeWalletListener(wallet, listener) }
+}.buffer(capacity, onBufferOverflow)
+
+/**
+ * Emit, once subscribed to the events selected by [filter], [initial] (if any) and then each
+ * event, as transformed; with [prefetch] events requested ahead of the collector.
+ */
+private fun <T> System.publishedFlow(
+        filter: EventFilter,
+        bufferSize: Int,
+        strategy: BufferStrategy,
+        prefetch: Long,
+        initial: (() -> T)?,
+        transform: (EventRecord) -> T
+): Flow<T> = flow {
+    // Holds no more than the events requested
+    val inbox = Channel<EventRecord>(Channel.UNLIMITED)
+    var subscription: EventFlow.Subscription? = null
+
+    events(filter, bufferSize, strategy).subscribe(object : EventFlow.Subscriber<EventRecord> {
+        override fun onSubscribe(s: EventFlow.Subscription) {
+            subscription = s
+        }
+
+        override fun onNext(item: EventRecord) {
+            inbox.offer(item)
+        }
+
+        override fun onError(throwable: Throwable) {
+            inbox.close(throwable)
+        }
+
+        override fun onComplete() {
+            inbox.close()
+        }
+    })
+
+    val requests = checkNotNull(subscription)
+    try {
+        requests.request(prefetch)
+        if (null != initial) emit(initial())
+        for (record in inbox) {
+            emit(transform(record))
+            requests.request(1)
+        }
+    } finally {
+        requests.cancel()
+    }
+}
+
+private class EventRecordListener(private val channel: SendChannel<EventRecord>) : SystemListener {
+
+    override fun handleSystemEvent(system: System, event: SystemEvent) =
+            send(EventRecord(system, null, null, null, null, event))
+
+    override fun handleNetworkEvent(system: System, network: Network, event: NetworkEvent) =
+            send(EventRecord(system, network, null, null, null, event))
+
+    override fun handleManagerEvent(system: System, manager: WalletManager, event: WalletManagerEvent) =
+            send(EventRecord(system, manager.network, manager, null, null, event))
+
+    override fun handleWalletEvent(system: System, manager: WalletManager, wallet: Wallet, event: WalletEvent) =
+            send(EventRecord(system, manager.network, manager, wallet, null, event))
+
+    override fun handleTransferEvent(system: System, manager: WalletManager, wallet: Wallet, transfer: Transfer, event: TransferEvent) =
+            send(EventRecord(system, manager.network, manager, wallet, transfer, event))
+
+    private fun send(record: EventRecord) {
+        // Waits only with BufferOverflow.SUSPEND; once the flow is cancelled, the event is dropped
+        runCatching { channel.sendBlocking(record) }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit
+
+import com.blockset.walletkit.errors.SystemClientError
+import com.blockset.walletkit.utility.ChunkedCompletionHandler
+import com.blockset.walletkit.utility.CompletionHandler
+import com.google.common.primitives.UnsignedLong
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.channels.awaitClose
+import kotlinx.coroutines.channels.sendBlocking
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.callbackFlow
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+// Each request is made through its own scoped client (see SystemClient.createScopedClient) so
+// that cancelling the coroutine cancels exactly that request's calls, including any further pages.
+// A client without scoped cancellation is left to run the request to completion.
+
+/** See [SystemClient.getBlockchains]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getBlockchains(isMainnet: Boolean): List<SystemClient.Blockchain> =
+        scopedRequest { getBlockchains(isMainnet, it) }
+
+/** See [SystemClient.getBlockchain]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getBlockchain(blockchainId: String): SystemClient.Blockchain =
+        scopedRequest { getBlockchain(blockchainId, it) }
+
+/** See [SystemClient.getCurrencies]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getCurrencies(blockchainId: String?, isMainnet: Boolean?): List<SystemClient.Currency> =
+        scopedRequest { getCurrencies(blockchainId, isMainnet, it) }
+
+/** See [SystemClient.getCurrency]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getCurrency(currencyId: String): SystemClient.Currency =
+        scopedRequest { getCurrency(currencyId, it) }
+
+/** See [SystemClient.getTransfers]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getTransfers(
+        blockchainId: String,
+        addresses: List<String>,
+        beginBlockNumber: UnsignedLong?,
+        endBlockNumber: UnsignedLong?,
+        maxPageSize: Int?
+): List<SystemClient.Transfer> = scopedRequest<List<SystemClient.Transfer>> {
+    getTransfers(blockchainId, addresses, beginBlockNumber, endBlockNumber, maxPageSize, it)
+}
+
+/** The transfers of [SystemClient.getTransfers], a chunk at a time as retrieved. */
+@ExperimentalCoroutinesApi
+fun SystemClient.getTransfersFlow(
+        blockchainId: String,
+        addresses: List<String>,
+        beginBlockNumber: UnsignedLong?,
+        endBlockNumber: UnsignedLong?,
+        maxPageSize: Int?
+): Flow<List<SystemClient.Transfer>> = scopedChunks<SystemClient.Transfer> {
+    getTransfers(blockchainId, addresses, beginBlockNumber, endBlockNumber, maxPageSize, it)
+}
+
+/** See [SystemClient.getTransfer]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getTransfer(transferId: String): SystemClient.Transfer =
+        scopedRequest { getTransfer(transferId, it) }
+
+/** See [SystemClient.getTransactions]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getTransactions(
+        blockchainId: String,
+        addresses: List<String>,
+        beginBlockNumber: UnsignedLong?,
+        endBlockNumber: UnsignedLong?,
+        includeRaw: Boolean,
+        includeProof: Boolean,
+        includeTransfers: Boolean,
+        isSweep: Boolean,
+        maxPageSize: Int?
+): List<SystemClient.Transaction> = scopedRequest<List<SystemClient.Transaction>> {
+    getTransactions(blockchainId, addresses, beginBlockNumber, endBlockNumber,
+            includeRaw, includeProof, includeTransfers, isSweep, maxPageSize, it)
+}
+
+/** The transactions of [SystemClient.getTransactions], a chunk at a time as retrieved. */
+@ExperimentalCoroutinesApi
+fun SystemClient.getTransactionsFlow(
+        blockchainId: String,
+        addresses: List<String>,
+        beginBlockNumber: UnsignedLong?,
+        endBlockNumber: UnsignedLong?,
+        includeRaw: Boolean,
+        includeProof: Boolean,
+        includeTransfers: Boolean,
+        isSweep: Boolean,
+        maxPageSize: Int?
+): Flow<List<SystemClient.Transaction>> = scopedChunks<SystemClient.Transaction> {
+    getTransactions(blockchainId, addresses, beginBlockNumber, endBlockNumber,
+            includeRaw, includeProof, includeTransfers, isSweep, maxPageSize, it)
+}
+
+/** See [SystemClient.getTransaction]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getTransaction(
+        transactionId: String,
+        includeRaw: Boolean,
+        includeProof: Boolean,
+        includeTransfers: Boolean
+): SystemClient.Transaction = scopedRequest {
+    getTransaction(transactionId, includeRaw, includeProof, includeTransfers, it)
+}
+
+/** See [SystemClient.createTransaction]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.createTransaction(
+        blockchainId: String,
+        data: ByteArray,
+        identifier: String,
+        exchangeId: String?,
+        secondFactorCode: String?,
+        secondFactorBackup: String?,
+        proTransfer: String?,
+        isSweep: Boolean
+): SystemClient.TransactionIdentifier = scopedRequest {
+    createTransaction(blockchainId, data, identifier, exchangeId, secondFactorCode, secondFactorBackup,
+            proTransfer, isSweep, it)
+}
+
+/** See [SystemClient.estimateTransactionFee]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.estimateTransactionFee(blockchainId: String, data: ByteArray): SystemClient.TransactionFee =
+        scopedRequest { estimateTransactionFee(blockchainId, data, it) }
+
+/** See [SystemClient.getBlocks]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getBlocks(
+        blockchainId: String,
+        beginBlockNumber: UnsignedLong,
+        endBlockNumber: UnsignedLong,
+        includeRaw: Boolean,
+        includeTxRaw: Boolean,
+        includeTx: Boolean,
+        includeTxProof: Boolean,
+        maxPageSize: Int?
+): List<SystemClient.Block> = scopedRequest<List<SystemClient.Block>> {
+    getBlocks(blockchainId, beginBlockNumber, endBlockNumber,
+            includeRaw, includeTxRaw, includeTx, includeTxProof, maxPageSize, it)
+}
+
+/** The blocks of [SystemClient.getBlocks], in order, a chunk at a time as retrieved. */
+@ExperimentalCoroutinesApi
+fun SystemClient.getBlocksFlow(
+        blockchainId: String,
+        beginBlockNumber: UnsignedLong,
+        endBlockNumber: UnsignedLong,
+        includeRaw: Boolean,
+        includeTxRaw: Boolean,
+        includeTx: Boolean,
+        includeTxProof: Boolean,
+        maxPageSize: Int?
+): Flow<List<SystemClient.Block>> = scopedChunks<SystemClient.Block> {
+    getBlocks(blockchainId, beginBlockNumber, endBlockNumber,
+            includeRaw, includeTxRaw, includeTx, includeTxProof, maxPageSize, it)
+}
+
+/** See [SystemClient.getBlock]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getBlock(
+        blockId: String,
+        includeRaw: Boolean,
+        includeTx: Boolean,
+        includeTxRaw: Boolean,
+        includeTxProof: Boolean
+): SystemClient.Block = scopedRequest {
+    getBlock(blockId, includeRaw, includeTx, includeTxRaw, includeTxProof, it)
+}
+
+/** See [SystemClient.getSubscriptions]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getSubscriptions(): List<SystemClient.Subscription> =
+        scopedRequest { getSubscriptions(it) }
+
+/** See [SystemClient.getSubscription]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getSubscription(subscriptionId: String): SystemClient.Subscription =
+        scopedRequest { getSubscription(subscriptionId, it) }
+
+/** See [SystemClient.getOrCreateSubscription]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getOrCreateSubscription(subscription: SystemClient.Subscription): SystemClient.Subscription =
+        scopedRequest { getOrCreateSubscription(subscription, it) }
+
+/** See [SystemClient.createSubscription]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.createSubscription(
+        deviceId: String,
+        endpoint: SystemClient.SubscriptionEndpoint,
+        currencies: List<SystemClient.SubscriptionCurrency>
+): SystemClient.Subscription = scopedRequest {
+    createSubscription(deviceId, endpoint, currencies, it)
+}
+
+/** See [SystemClient.updateSubscription]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.updateSubscription(subscription: SystemClient.Subscription): SystemClient.Subscription =
+        scopedRequest { updateSubscription(subscription, it) }
+
+/** See [SystemClient.deleteSubscription]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.deleteSubscription(subscriptionId: String) {
+    scopedRequest<Void?> { deleteSubscription(subscriptionId, it) }
+}
+
+/** See [SystemClient.getHederaAccount]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.getHederaAccount(blockchainId: String, publicKey: String): List<SystemClient.HederaAccount> =
+        scopedRequest { getHederaAccount(blockchainId, publicKey, it) }
+
+/** See [SystemClient.createHederaAccount]. */
+@Throws(SystemClientError::class)
+suspend fun SystemClient.createHederaAccount(blockchainId: String, publicKey: String): List<SystemClient.HederaAccount> =
+        scopedRequest { createHederaAccount(blockchainId, publicKey, it) }
+
+private suspend fun <R> SystemClient.scopedRequest(
+        block: SystemClient.(CompletionHandler<R, SystemClientError>) -> kotlin.Unit
+): R {
+    val scoped = createScopedClient()
+    return suspendCancellableCoroutine { continuation ->
+        if (scoped !== this) continuation.invokeOnCancellation { scoped.cancelAll() }
+
+        scoped.block(object : CompletionHandler<R, SystemClientError> {
+            override fun handleData(data: R) {
+                if (continuation.isActive) {
+                    continuation.resume(data)
+                }
+            }
+
+            override fun handleError(error: SystemClientError) {
+                if (continuation.isActive) {
+                    continuation.resumeWithException(error)
+                }
+            }
+        })
+    }
+}
+
+/**
+ * Emit the chunks of a chunked request, which is made once the flow is collected.  Chunks wait,
+ * holding up those that follow, until the collector takes them; the flow fails with the
+ * request's [SystemClientError].  Cancelling the collector cancels the request, and so stops
+ * any further paging.
+ */
+@ExperimentalCoroutinesApi
+private fun <T> SystemClient.scopedChunks(
+        block: SystemClient.(ChunkedCompletionHandler<T, SystemClientError>) -> kotlin.Unit
+): Flow<List<T>> = callbackFlow<List<T>> {
+    val scoped = createScopedClient()
+    scoped.block(object : ChunkedCompletionHandler<T, SystemClientError> {
+        override fun handleChunk(chunk: List<T>) {
+            // Once the flow is cancelled, the chunk is dropped
+            runCatching { sendBlocking(chunk) }
+        }
+
+        override fun handleComplete() {
+            close()
+        }
+
+        override fun handleError(error: SystemClientError) {
+            close(error)
+        }
+    })
+    awaitClose { if (scoped !== this@scopedChunks) scoped.cancelAll() }
+}
@@ -8,29 +8,49 @@
 package com.blockset.walletkit;
 
 import com.blockset.walletkit.events.network.NetworkEvent;
-import com.blockset.walletkit.events.system.DefaultSystemListener;
 import com.blockset.walletkit.events.system.SystemEvent;
 import com.blockset.walletkit.events.system.SystemListener;
 import com.blockset.walletkit.events.transfer.TransferEvent;
 import com.blockset.walletkit.events.wallet.WalletEvent;
 import com.blockset.walletkit.events.walletmanager.WalletManagerEvent;
 
-import java.util.Objects;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
+/**
+ * A SystemListener that dispatches events to listeners for all events and to listeners scoped to
+ * a {@link WalletManager}, {@link Wallet} or {@link Transfer}.
+ *
+ * Scoped listeners are indexed by their scope, so an event is dispatched only to the listeners
+ * interested in it, however many listeners are registered for other scopes.  Listeners may be
+ * added and removed from any thread; dispatch does not lock.
+ *
+ * Listeners are called in turn, on the thread dispatching the event.  Register a slow listener
+ * wrapped in a {@link QueuedSystemListener} so that it does not hold up the others.
+ */
 public final class DispatchingSystemListener implements SystemListener {
 
     private final CopyOnWriteArraySet<SystemListener> listeners;
 
+    private final ConcurrentMap<WalletManager, Set<SystemListener>> managerListeners;
+    private final ConcurrentMap<Wallet, Set<SystemListener>> walletListeners;
+    private final ConcurrentMap<Transfer, Set<SystemListener>> transferListeners;
+
     public DispatchingSystemListener() {
         this.listeners = new CopyOnWriteArraySet<>();
+        this.managerListeners = new ConcurrentHashMap<>();
+        this.walletListeners = new ConcurrentHashMap<>();
+        this.transferListeners = new ConcurrentHashMap<>();
     }
 
     @Override
     public void handleSystemEvent(System system, SystemEvent event) {
         for (SystemListener listener: listeners) {
             listener.handleSystemEvent(system, event);
-        };
+        }
     }
 
     @Override
@@ -45,6 +65,9 @@ public final class DispatchingSystemListener implements SystemListener {
         for (SystemListener listener: listeners) {
             listener.handleManagerEvent(system, manager, event);
         }
+        for (SystemListener listener: scopedListeners(managerListeners, manager)) {
+            listener.handleManagerEvent(system, manager, event);
+        }
     }
 
     @Override
@@ -52,6 +75,12 @@ public final class DispatchingSystemListener implements SystemListener {
         for (SystemListener listener: listeners) {
             listener.handleWalletEvent(system, manager, wallet, event);
         }
+        for (SystemListener listener: scopedListeners(managerListeners, manager)) {
+            listener.handleWalletEvent(system, manager, wallet, event);
+        }
+        for (SystemListener listener: scopedListeners(walletListeners, wallet)) {
+            listener.handleWalletEvent(system, manager, wallet, event);
+        }
     }
 
     @Override
@@ -59,6 +88,15 @@ public final class DispatchingSystemListener implements SystemListener {
         for (SystemListener listener: listeners) {
             listener.handleTransferEvent(system, manager, wallet, transfer, event);
         }
+        for (SystemListener listener: scopedListeners(managerListeners, manager)) {
+            listener.handleTransferEvent(system, manager, wallet, transfer, event);
+        }
+        for (SystemListener listener: scopedListeners(walletListeners, wallet)) {
+            listener.handleTransferEvent(system, manager, wallet, transfer, event);
+        }
+        for (SystemListener listener: scopedListeners(transferListeners, transfer)) {
+            listener.handleTransferEvent(system, manager, wallet, transfer, event);
+        }
     }
 
     // SystemListener registration
@@ -85,14 +123,14 @@ public final class DispatchingSystemListener implements SystemListener {
      * This includes {@link WalletManagerEvent}, {@link WalletEvent} and {@link TransferEvent} events.
      */
     public void addWalletManagerListener(WalletManager manager, SystemListener listener) {
-        listeners.add(new ScopedWalletManagerListener(manager, listener));
+        addScopedListener(managerListeners, manager, listener);
     }
 
     /**
      * Remove a listener for events scoped to a {@link WalletManager}.
      */
     public void removeWalletManagerListener(WalletManager manager, SystemListener listener) {
-        listeners.remove(new ScopedWalletManagerListener(manager, listener));
+        removeScopedListener(managerListeners, manager, listener);
     }
 
     // WalletListener registration
@@ -103,14 +141,14 @@ public final class DispatchingSystemListener implements SystemListener {
      * This includes {@link WalletEvent} and {@link TransferEvent} events.
      */
     public void addWalletListener(Wallet wallet, SystemListener listener) {
-        listeners.add(new ScopedWalletListener(wallet, listener));
+        addScopedListener(walletListeners, wallet, listener);
     }
 
     /**
      * Remove a listener for events scoped to a {@link Wallet}.
      */
     public void removeWalletListener(Wallet wallet, SystemListener listener) {
-        listeners.remove(new ScopedWalletListener(wallet, listener));
+        removeScopedListener(walletListeners, wallet, listener);
     }
 
     // TransferListener registration
@@ -121,148 +159,36 @@ public final class DispatchingSystemListener implements SystemListener {
      * This includes {@link TransferEvent} events.
      */
     public void addTransferListener(Transfer transfer, SystemListener listener) {
-        listeners.add(new ScopedTransferListener(transfer, listener));
+        addScopedListener(transferListeners, transfer, listener);
     }
 
     /**
      * Remove a listener for events scoped to a {@link Transfer}.
      */
     public void removeTransferListener(Transfer transfer, SystemListener listener) {
-        listeners.remove(new ScopedTransferListener(transfer, listener));
+        removeScopedListener(transferListeners, transfer, listener);
     }
 
-    private static class ScopedWalletManagerListener implements DefaultSystemListener {
-
-        private final WalletManager manager;
-        private final SystemListener listener;
-
-        ScopedWalletManagerListener(WalletManager manager, SystemListener listener) {
-            this.manager = manager;
-            this.listener = listener;
-        }
+    // Scoped listener index
 
-        @Override
-        public void handleManagerEvent(System system, WalletManager manager, WalletManagerEvent event) {
-            if (this.manager.equals(manager)) {
-                listener.handleManagerEvent(system, manager, event);
-            }
-        }
-
-        @Override
-        public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
-            if (this.manager.equals(manager)) {
-                listener.handleWalletEvent(system, manager, wallet, event);
-            }
-        }
-
-        @Override
-        public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TransferEvent event) {
-            if (this.manager.equals(manager)) {
-                listener.handleTransferEvent(system, manager, wallet, transfer, event);
-            }
-        }
-
-        @Override
-        public boolean equals(Object object) {
-            if (this == object) {
-                return true;
-            }
-
-            if (!(object instanceof ScopedWalletManagerListener)) {
-                return false;
-            }
-
-            ScopedWalletManagerListener that = (ScopedWalletManagerListener) object;
-            return manager.equals(that.manager) &&
-                    listener.equals(that.listener);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(manager, listener);
-        }
+    private static <K> Set<SystemListener> scopedListeners(ConcurrentMap<K, Set<SystemListener>> index, K scope) {
+        Set<SystemListener> scoped = index.get(scope);
+        return null == scoped ? Collections.emptySet() : scoped;
     }
 
-    private static class ScopedWalletListener implements DefaultSystemListener {
-
-        private final Wallet wallet;
-        private final SystemListener listener;
-
-        ScopedWalletListener(Wallet wallet, SystemListener listener) {
-            this.wallet = wallet;
-            this.listener = listener;
-        }
-
-        @Override
-        public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
-            if (this.wallet.equals(wallet)) {
-                listener.handleWalletEvent(system, manager, wallet, event);
-            }
-        }
-
-        @Override
-        public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TransferEvent event) {
-            if (this.wallet.equals(wallet)) {
-                listener.handleTransferEvent(system, manager, wallet, transfer, event);
-            }
-        }
-
-        @Override
-        public boolean equals(Object object) {
-            if (this == object) {
-                return true;
-            }
-
-            if (!(object instanceof ScopedWalletListener)) {
-                return false;
-            }
-
-            ScopedWalletListener that = (ScopedWalletListener) object;
-            return wallet.equals(that.wallet) &&
-                    listener.equals(that.listener);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(wallet, listener);
-        }
+    private static <K> void addScopedListener(ConcurrentMap<K, Set<SystemListener>> index, K scope, SystemListener listener) {
+        // Atomic with respect to a removal of the scope's last listener, which drops its set
+        index.compute(scope, (k, scoped) -> {
+            if (null == scoped) scoped = new CopyOnWriteArraySet<>();
+            scoped.add(listener);
+            return scoped;
+        });
     }
 
-    private static class ScopedTransferListener implements DefaultSystemListener {
-
-        private final Transfer transfer;
-        private final SystemListener listener;
-
-        ScopedTransferListener(Transfer transfer, SystemListener listener) {
-            this.transfer = transfer;
-            this.listener = listener;
-        }
-
-        @Override
-        public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TransferEvent event) {
-            if (this.transfer.equals(transfer)) {
-                listener.handleTransferEvent(system, manager, wallet, transfer, event);
-            }
-        }
-
-        @Override
-        public boolean equals(Object object) {
-            if (this == object) {
-                return true;
-            }
-
-            if (!(object instanceof ScopedTransferListener)) {
-                return false;
-            }
-
-            ScopedTransferListener that = (ScopedTransferListener) object;
-            return transfer.equals(that.transfer) &&
-                    listener.equals(that.listener);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(transfer, listener);
-        }
+    private static <K> void removeScopedListener(ConcurrentMap<K, Set<SystemListener>> index, K scope, SystemListener listener) {
+        index.computeIfPresent(scope, (k, scoped) -> {
+            scoped.remove(listener);
+            return scoped.isEmpty() ? null : scoped;
+        });
     }
 }
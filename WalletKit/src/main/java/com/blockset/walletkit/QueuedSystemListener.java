@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit;
+
+import androidx.annotation.Nullable;
+
+import com.blockset.walletkit.events.network.NetworkEvent;
+import com.blockset.walletkit.events.network.NetworkFeesUpdatedEvent;
+import com.blockset.walletkit.events.network.NetworkUpdatedEvent;
+import com.blockset.walletkit.events.system.SystemEvent;
+import com.blockset.walletkit.events.system.SystemListener;
+import com.blockset.walletkit.events.transfer.TransferChangedEvent;
+import com.blockset.walletkit.events.transfer.TransferEvent;
+import com.blockset.walletkit.events.wallet.WalletBalanceUpdatedEvent;
+import com.blockset.walletkit.events.wallet.WalletEvent;
+import com.blockset.walletkit.events.wallet.WalletFeeBasisUpdatedEvent;
+import com.blockset.walletkit.events.walletmanager.WalletManagerBlockUpdatedEvent;
+import com.blockset.walletkit.events.walletmanager.WalletManagerEvent;
+import com.blockset.walletkit.events.walletmanager.WalletManagerSyncProgressEvent;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A SystemListener that queues events for another listener, to be handled on that listener's own
+ * executor; so that a slow listener, as one writing to a database, holds up neither the System nor
+ * other listeners.
+ *
+ * The queue is bounded.  When it is full, the {@link OverflowPolicy} decides what becomes of a new
+ * event.  Events are handled in the order queued, one at a time.
+ */
+public final class QueuedSystemListener implements SystemListener {
+
+    public enum OverflowPolicy {
+        /** Block the thread announcing the event until there is room; no event is lost. */
+        BLOCK,
+
+        /** Drop the oldest queued event to make room. */
+        DROP_OLDEST,
+
+        /**
+         * Replace a queued event superseded by the new event: a balance, fee basis, sync progress,
+         * block height or network update for the same object, or a transfer change (merged into
+         * one change, from the queued old state to the new state).  This is done whenever such an
+         * event is queued, full or not.  When the queue is full and nothing can be replaced, block.
+         */
+        COALESCE
+    }
+
+    /** A snapshot of the queue and its lag. */
+    public static final class Metrics {
+        private final int queueDepth;
+        private final int maxQueueDepth;
+        private final long handledCount;
+        private final long failedCount;
+        private final long droppedCount;
+        private final long coalescedCount;
+        private final long lagNanos;
+        private final long maxLagNanos;
+
+        private Metrics(int queueDepth,
+                        int maxQueueDepth,
+                        long handledCount,
+                        long failedCount,
+                        long droppedCount,
+                        long coalescedCount,
+                        long lagNanos,
+                        long maxLagNanos) {
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.handledCount = handledCount;
+            this.failedCount = failedCount;
+            this.droppedCount = droppedCount;
+            this.coalescedCount = coalescedCount;
+            this.lagNanos = lagNanos;
+            this.maxLagNanos = maxLagNanos;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        /** The number of events handled, including those whose handling threw. */
+        public long getHandledCount() {
+            return handledCount;
+        }
+
+        /** The number of events whose handling threw a RuntimeException. */
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        public long getDroppedCount() {
+            return droppedCount;
+        }
+
+        public long getCoalescedCount() {
+            return coalescedCount;
+        }
+
+        /** The time the oldest queued event has been waiting. */
+        public long getLag(TimeUnit unit) {
+            return unit.convert(lagNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /** The longest time an event has waited before being handled. */
+        public long getMaxLag(TimeUnit unit) {
+            return unit.convert(maxLagNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return "Metrics{" +
+                    "queueDepth=" + queueDepth +
+                    ", maxQueueDepth=" + maxQueueDepth +
+                    ", handledCount=" + handledCount +
+                    ", failedCount=" + failedCount +
+                    ", droppedCount=" + droppedCount +
+                    ", coalescedCount=" + coalescedCount +
+                    ", lagMillis=" + getLag(TimeUnit.MILLISECONDS) +
+                    ", maxLagMillis=" + getMaxLag(TimeUnit.MILLISECONDS) +
+                    '}';
+        }
+    }
+
+    // Hands an event, as queued or as superseded, to the listener
+    private interface Handler {
+        void handle(SystemListener listener, Object event);
+    }
+
+    private static final class Delivery {
+        @Nullable private final List<Object> supersedeKey;
+        private final long queuedNanos;
+        private Object event;
+        private Handler handler;
+
+        private Delivery(@Nullable List<Object> supersedeKey, Object event, Handler handler) {
+            this.supersedeKey = supersedeKey;
+            this.queuedNanos = java.lang.System.nanoTime();
+            this.event = event;
+            this.handler = handler;
+        }
+    }
+
+    private static final Logger Log = Logger.getLogger(QueuedSystemListener.class.getName());
+
+    private final SystemListener listener;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Executor executor;
+
+    // Guarded by `this`
+    private final ArrayDeque<Delivery> queue = new ArrayDeque<>();
+    private final Map<List<Object>, Delivery> superseded = new HashMap<>();
+    private boolean isDraining = false;
+    private int maxQueueDepth = 0;
+    private long handledCount = 0;
+    private long failedCount = 0;
+    private long droppedCount = 0;
+    private long coalescedCount = 0;
+    private long maxLagNanos = 0;
+
+    /** Queue up to `capacity` events for `listener`, handled on a thread of its own. */
+    public QueuedSystemListener(SystemListener listener, int capacity, OverflowPolicy policy) {
+        this(listener, capacity, policy, new ThreadPoolExecutor(0, 1,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("walletkit-queued-listener-%d").setDaemon(true).build()));
+    }
+
+    /** Queue up to `capacity` events for `listener`, handled on `executor`. */
+    public QueuedSystemListener(SystemListener listener, int capacity, OverflowPolicy policy, Executor executor) {
+        checkArgument(capacity > 0);
+        this.listener = listener;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.executor = executor;
+    }
+
+    public SystemListener getListener() {
+        return listener;
+    }
+
+    public synchronized Metrics getMetrics() {
+        Delivery oldest = queue.peek();
+        return new Metrics(queue.size(),
+                maxQueueDepth,
+                handledCount,
+                failedCount,
+                droppedCount,
+                coalescedCount,
+                null == oldest ? 0 : java.lang.System.nanoTime() - oldest.queuedNanos,
+                maxLagNanos);
+    }
+
+    @Override
+    public void handleSystemEvent(System system, SystemEvent event) {
+        enqueue(null, event, (l, e) -> l.handleSystemEvent(system, (SystemEvent) e));
+    }
+
+    @Override
+    public void handleNetworkEvent(System system, Network network, NetworkEvent event) {
+        List<Object> key = (event instanceof NetworkFeesUpdatedEvent || event instanceof NetworkUpdatedEvent)
+                ? Arrays.asList(event.getClass(), network)
+                : null;
+        enqueue(key, event, (l, e) -> l.handleNetworkEvent(system, network, (NetworkEvent) e));
+    }
+
+    @Override
+    public void handleManagerEvent(System system, WalletManager manager, WalletManagerEvent event) {
+        List<Object> key = (event instanceof WalletManagerSyncProgressEvent || event instanceof WalletManagerBlockUpdatedEvent)
+                ? Arrays.asList(event.getClass(), manager)
+                : null;
+        enqueue(key, event, (l, e) -> l.handleManagerEvent(system, manager, (WalletManagerEvent) e));
+    }
+
+    @Override
+    public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+        List<Object> key = (event instanceof WalletBalanceUpdatedEvent || event instanceof WalletFeeBasisUpdatedEvent)
+                ? Arrays.asList(event.getClass(), wallet)
+                : null;
+        enqueue(key, event, (l, e) -> l.handleWalletEvent(system, manager, wallet, (WalletEvent) e));
+    }
+
+    @Override
+    public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TransferEvent event) {
+        List<Object> key = (event instanceof TransferChangedEvent)
+                ? Arrays.asList(event.getClass(), transfer)
+                : null;
+        enqueue(key, event, (l, e) -> l.handleTransferEvent(system, manager, wallet, transfer, (TransferEvent) e));
+    }
+
+    private synchronized void enqueue(@Nullable List<Object> supersedeKey, Object event, Handler handler) {
+        if (policy == OverflowPolicy.COALESCE && null != supersedeKey) {
+            Delivery queued = superseded.get(supersedeKey);
+            if (null != queued) {
+                supersede(queued, event, handler);
+                coalescedCount += 1;
+                return;
+            }
+        }
+
+        while (queue.size() >= capacity) {
+            if (policy == OverflowPolicy.DROP_OLDEST) {
+                unindex(queue.remove());
+                droppedCount += 1;
+            } else {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    // Give up on the event rather than on the interrupt
+                    Thread.currentThread().interrupt();
+                    droppedCount += 1;
+                    return;
+                }
+            }
+        }
+
+        Delivery delivery = new Delivery(supersedeKey, event, handler);
+        queue.add(delivery);
+        if (null != supersedeKey) superseded.put(supersedeKey, delivery);
+        maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+
+        if (!isDraining) {
+            isDraining = true;
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Leave the event queued; the next one tries the executor again
+                isDraining = false;
+                Log.log(Level.SEVERE, "drain rejected", e);
+            }
+        }
+    }
+
+    // Guarded by `this`
+    private void supersede(Delivery queued, Object event, Handler handler) {
+        if (event instanceof TransferChangedEvent) {
+            // Keep the queued change's old state
+            event = new TransferChangedEvent(
+                    ((TransferChangedEvent) queued.event).getOldState(),
+                    ((TransferChangedEvent) event).getNewState());
+        }
+        queued.event = event;
+        queued.handler = handler;
+    }
+
+    // Guarded by `this`
+    private void unindex(Delivery delivery) {
+        if (null != delivery.supersedeKey && superseded.get(delivery.supersedeKey) == delivery) {
+            superseded.remove(delivery.supersedeKey);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Delivery delivery;
+            synchronized (this) {
+                delivery = queue.poll();
+                if (null == delivery) {
+                    isDraining = false;
+                    return;
+                }
+                unindex(delivery);
+                maxLagNanos = Math.max(maxLagNanos, java.lang.System.nanoTime() - delivery.queuedNanos);
+                notifyAll();
+            }
+
+            boolean failed = false;
+            try {
+                delivery.handler.handle(listener, delivery.event);
+            } catch (RuntimeException e) {
+                Log.log(Level.SEVERE, "listener failed", e);
+                failed = true;
+            }
+
+            synchronized (this) {
+                handledCount += 1;
+                if (failed) failedCount += 1;
+            }
+        }
+    }
+}
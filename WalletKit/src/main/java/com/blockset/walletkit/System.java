@@ -14,6 +14,10 @@ import com.blockset.walletkit.SystemClient.HederaAccount;
 import com.blockset.walletkit.errors.AccountInitializationError;
 import com.blockset.walletkit.errors.CurrencyUpdateError;
 import com.blockset.walletkit.errors.NetworkFeeUpdateError;
+import com.blockset.walletkit.events.EventFilter;
+import com.blockset.walletkit.events.EventFlow;
+import com.blockset.walletkit.events.EventRecord;
+import com.blockset.walletkit.events.SystemEventPublisher;
 import com.blockset.walletkit.events.system.SystemListener;
 import com.blockset.walletkit.utility.CompletionHandler;
 import com.google.common.base.Optional;
@@ -22,6 +26,7 @@ import com.google.common.primitives.UnsignedInteger;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public interface System {
 
@@ -194,6 +199,37 @@ public interface System {
      */
     void setNetworkReachable(boolean isNetworkReachable);
 
+    /**
+     * Set the window within which wallet and transfer events, such as those announced throughout a
+     * sync, are coalesced before delivery to the listener; 0, the default, to deliver every event.
+     *
+     * While coalescing, a wallet's balance updates are collapsed into the latest and a transfer's
+     * repeated changes into one.  Coalesced events are delivered at the end of the window, or when
+     * the manager's sync stops, whichever comes first.  Terminal events (deletions, and transfers
+     * becoming included, failed or deleted) are never coalesced and are delivered in order after
+     * all held events.
+     */
+    void setEventCoalescingWindow(long window, TimeUnit unit);
+
+    /**
+     * Get a Publisher of this system's events, as selected by `filter`.  Each subscriber buffers up
+     * to {@link SystemEventPublisher#DEFAULT_BUFFER_SIZE} events that it has not yet requested;
+     * should it fall further behind, its stream fails.
+     *
+     * Events are published as they are announced to the {@link SystemListener}, and passed to
+     * subscribers on the system's executor; a subscriber receives those announced after it
+     * subscribes.  Streams complete once the system is deleted, and the events of its managers
+     * that were queued by then are handled.
+     */
+    EventFlow.Publisher<EventRecord> events(EventFilter filter);
+
+    /**
+     * Get a Publisher of this system's events, as selected by `filter`, with each subscriber
+     * buffering up to `bufferSize` events that it has not yet requested and handling further
+     * events according to `strategy`.
+     */
+    EventFlow.Publisher<EventRecord> events(EventFilter filter, int bufferSize, SystemEventPublisher.BufferStrategy strategy);
+
     Account getAccount();
 
     String getPath();
@@ -12,6 +12,7 @@ package com.blockset.walletkit;
 import androidx.annotation.Nullable;
 
 import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.ChunkedCompletionHandler;
 import com.blockset.walletkit.utility.CompletionHandler;
 import com.google.common.primitives.UnsignedInteger;
 import com.google.common.primitives.UnsignedLong;
@@ -172,6 +173,43 @@ public interface SystemClient {
      */
     public void cancelAll();
 
+    /**
+     * Create a client that issues its requests through this client, but whose requests are
+     * cancelled by its own `cancelAll()` without affecting this client's other requests.
+     * Cancelling this client cancels the requests of the created client as well.
+     *
+     * The default implementation does not support scoped cancellation and returns this client.
+     *
+     * @return The scoped client
+     */
+    default SystemClient createScopedClient() {
+        return this;
+    }
+
+    /**
+     * Provides a directory, within a System's persistent storage, that the client may use for
+     * its own persistent data, such as cached responses.  Called as each System is created; a
+     * client shared by several Systems is called once per System.
+     *
+     * The default implementation does nothing.
+     *
+     * @param storagePath The System's storage path
+     */
+    default void setStoragePath(String storagePath) {
+    }
+
+    /**
+     * Informs the client of the network's reachability, as reported to
+     * {@link com.blockset.walletkit.System#setNetworkReachable(boolean)}.  A client may use it
+     * to fail requests early, without using the network, while it is unreachable.
+     *
+     * The default implementation does nothing.
+     *
+     * @param isNetworkReachable If the network is reachable
+     */
+    default void setNetworkReachable(boolean isNetworkReachable) {
+    }
+
     /**
      * Gets a list of blockchains. Results are directed to the specified completion handler
      *
@@ -234,6 +272,39 @@ public interface SystemClient {
                              @Nullable Integer maxPageSize,
                              CompletionHandler<List<Transfer>, SystemClientError> handler);
 
+    /**
+     * Gets transfers for a particular list of addresses within a particular blockchain,
+     * delivering them in chunks as they are retrieved rather than as one list once all have
+     * been.  Chunks are unordered with respect to one another and may contain transfers also
+     * present in other chunks.
+     *
+     * The default implementation delivers the entire result as a single chunk.
+     *
+     * @param handler          The handler for chunks of retrieved {@link Transfer Transfer}'s
+     * @throws IllegalArgumentException If addresses list is empty
+     * @see #getTransfers(String, List, UnsignedLong, UnsignedLong, Integer, CompletionHandler)
+     */
+    default void getTransfers(String blockchainId,
+                              List<String> addresses,
+                              @Nullable UnsignedLong beginBlockNumber,
+                              @Nullable UnsignedLong endBlockNumber,
+                              @Nullable Integer maxPageSize,
+                              ChunkedCompletionHandler<Transfer, SystemClientError> handler) {
+        getTransfers(blockchainId, addresses, beginBlockNumber, endBlockNumber, maxPageSize,
+                new CompletionHandler<List<Transfer>, SystemClientError>() {
+                    @Override
+                    public void handleData(List<Transfer> data) {
+                        handler.handleChunk(data);
+                        handler.handleComplete();
+                    }
+
+                    @Override
+                    public void handleError(SystemClientError error) {
+                        handler.handleError(error);
+                    }
+                });
+    }
+
     /**
      * Gets a specific transfer identified by the transfer identifier.
      *
@@ -268,6 +339,43 @@ public interface SystemClient {
                                 @Nullable Integer maxPageSize,
                                 CompletionHandler<List<Transaction>, SystemClientError> handler);
 
+    /**
+     * Gets transactions for the specified blockchain, delivering them in chunks as they are
+     * retrieved rather than as one list once all have been.  Chunks are unordered with respect
+     * to one another and may contain transactions also present in other chunks.
+     *
+     * The default implementation delivers the entire result as a single chunk.
+     *
+     * @param handler          The handler for chunks of retrieved {@link Transaction Transaction}'s
+     * @throws IllegalArgumentException If addresses list is empty
+     * @see #getTransactions(String, List, UnsignedLong, UnsignedLong, boolean, boolean, boolean, boolean, Integer, CompletionHandler)
+     */
+    default void getTransactions(String blockchainId,
+                                 List<String> addresses,
+                                 @Nullable UnsignedLong beginBlockNumber,
+                                 @Nullable UnsignedLong endBlockNumber,
+                                 boolean includeRaw,
+                                 boolean includeProof,
+                                 boolean includeTransfers,
+                                 boolean isSweep,
+                                 @Nullable Integer maxPageSize,
+                                 ChunkedCompletionHandler<Transaction, SystemClientError> handler) {
+        getTransactions(blockchainId, addresses, beginBlockNumber, endBlockNumber,
+                includeRaw, includeProof, includeTransfers, isSweep, maxPageSize,
+                new CompletionHandler<List<Transaction>, SystemClientError>() {
+                    @Override
+                    public void handleData(List<Transaction> data) {
+                        handler.handleChunk(data);
+                        handler.handleComplete();
+                    }
+
+                    @Override
+                    public void handleError(SystemClientError error) {
+                        handler.handleError(error);
+                    }
+                });
+    }
+
     /**
      * Get a specific transaction referenced by transaction identifier.
      *
@@ -333,6 +441,40 @@ public interface SystemClient {
                           @Nullable Integer maxPageSize,
                           CompletionHandler<List<Block>, SystemClientError> handler);
 
+    /**
+     * Gets blocks within the specified blockchain, delivering them in chunks, in order, as they
+     * are retrieved rather than as one list once all have been.
+     *
+     * The default implementation delivers the entire result as a single chunk.
+     *
+     * @param handler          The handler for chunks of retrieved {@link Block}'s
+     * @see #getBlocks(String, UnsignedLong, UnsignedLong, boolean, boolean, boolean, boolean, Integer, CompletionHandler)
+     */
+    default void getBlocks(String blockchainId,
+                           UnsignedLong beginBlockNumber,
+                           UnsignedLong endBlockNumber,
+                           boolean includeRaw,
+                           boolean includeTxRaw,
+                           boolean includeTx,
+                           boolean includeTxProof,
+                           @Nullable Integer maxPageSize,
+                           ChunkedCompletionHandler<Block, SystemClientError> handler) {
+        getBlocks(blockchainId, beginBlockNumber, endBlockNumber, includeRaw, includeTxRaw, includeTx, includeTxProof,
+                maxPageSize,
+                new CompletionHandler<List<Block>, SystemClientError>() {
+                    @Override
+                    public void handleData(List<Block> data) {
+                        handler.handleChunk(data);
+                        handler.handleComplete();
+                    }
+
+                    @Override
+                    public void handleError(SystemClientError error) {
+                        handler.handleError(error);
+                    }
+                });
+    }
+
     /**
      *
      * @param blockId The Id of the block to fetch
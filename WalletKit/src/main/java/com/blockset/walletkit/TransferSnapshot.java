@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit;
+
+import com.google.common.base.Optional;
+import com.google.common.primitives.UnsignedLong;
+
+import java.util.Date;
+
+/**
+ * An immutable view of the commonly read fields of a transfer, as of when it was taken; see
+ * {@link Wallet#getTransferSnapshots()}.
+ *
+ * Unlike a {@link Transfer}, reading a snapshot's fields does not call into the core; except that
+ * its amount and fee are created in the core, once each, when first read.
+ */
+public interface TransferSnapshot {
+
+    Wallet getWallet();
+
+    /** The hash, as with {@link TransferHash#toString()}, if the transfer has one. */
+    Optional<String> getHash();
+
+    TransferDirection getDirection();
+
+    TransferState.Type getStateType();
+
+    /** The block number, if included. */
+    Optional<UnsignedLong> getBlockNumber();
+
+    /** The block timestamp, if included. */
+    Optional<Date> getBlockTimestamp();
+
+    /** See {@link Transfer#getAmount()}. */
+    Amount getAmount();
+
+    /** The confirmed fee or, if not yet included, the estimated fee. */
+    Optional<? extends Amount> getFee();
+
+    /** The source address, as with {@link Address#toString()}. */
+    Optional<String> getSource();
+
+    /** The target address, as with {@link Address#toString()}. */
+    Optional<String> getTarget();
+}
@@ -119,6 +119,14 @@ public interface Wallet {
 
     List<? extends Transfer> getTransfers();
 
+    /**
+     * Get snapshots of the commonly read fields of this wallet's transfers, all read at once.
+     *
+     * This is much cheaper than reading the fields of each of {@link #getTransfers()}, as when
+     * rendering or exporting a long transfer history.
+     */
+    List<? extends TransferSnapshot> getTransferSnapshots();
+
     Optional<? extends Transfer> getTransferByHash(TransferHash hash);
 
     Set<? extends TransferAttribute> getTransferAttributesFor (@Nullable Address address);
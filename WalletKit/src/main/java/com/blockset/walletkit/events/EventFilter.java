@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.events;
+
+import androidx.annotation.Nullable;
+
+import com.blockset.walletkit.Network;
+import com.blockset.walletkit.Wallet;
+import com.blockset.walletkit.WalletManager;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
+
+/**
+ * Selects the events of a published stream.  An event is selected if it concerns the filter's
+ * network, manager and wallet, where set, and is of one of the filter's event types, where set.
+ *
+ * Filters are immutable; `EventFilter.all().forWallet(wallet).forEventTypes(WalletEvent.class)`
+ * selects the wallet events of `wallet`.
+ */
+public final class EventFilter {
+
+    private static final EventFilter ALL = new EventFilter(null, null, null, ImmutableSet.of());
+
+    /** Select all events. */
+    public static EventFilter all() {
+        return ALL;
+    }
+
+    @Nullable private final Network network;
+    @Nullable private final WalletManager manager;
+    @Nullable private final Wallet wallet;
+    private final Set<Class<?>> eventTypes;
+
+    private EventFilter(@Nullable Network network,
+                        @Nullable WalletManager manager,
+                        @Nullable Wallet wallet,
+                        Set<Class<?>> eventTypes) {
+        this.network = network;
+        this.manager = manager;
+        this.wallet = wallet;
+        this.eventTypes = eventTypes;
+    }
+
+    /** Select only the events of `network`, including those of its managers, wallets and transfers. */
+    public EventFilter forNetwork(Network network) {
+        return new EventFilter(network, manager, wallet, eventTypes);
+    }
+
+    /** Select only the events of `manager`, including those of its wallets and transfers. */
+    public EventFilter forManager(WalletManager manager) {
+        return new EventFilter(network, manager, wallet, eventTypes);
+    }
+
+    /** Select only the events of `wallet`, including those of its transfers. */
+    public EventFilter forWallet(Wallet wallet) {
+        return new EventFilter(network, manager, wallet, eventTypes);
+    }
+
+    /**
+     * Select only events that are instances of one of `eventTypes`; as {@link
+     * com.blockset.walletkit.events.transfer.TransferEvent} or {@link
+     * com.blockset.walletkit.events.wallet.WalletBalanceUpdatedEvent}.
+     */
+    public EventFilter forEventTypes(Class<?>... eventTypes) {
+        return new EventFilter(network, manager, wallet, ImmutableSet.copyOf(eventTypes));
+    }
+
+    public boolean matches(EventRecord record) {
+        if (null != network && !network.equals(record.getNetwork().orNull())) return false;
+        if (null != manager && !manager.equals(record.getManager().orNull())) return false;
+        if (null != wallet && !wallet.equals(record.getWallet().orNull())) return false;
+
+        if (eventTypes.isEmpty()) return true;
+        for (Class<?> type : eventTypes) {
+            if (type.isInstance(record.getEvent())) return true;
+        }
+        return false;
+    }
+}
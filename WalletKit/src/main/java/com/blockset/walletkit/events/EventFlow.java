@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.events;
+
+/**
+ * Interfaces for demand-driven streams of events, with the contract of the Reactive Streams
+ * interfaces (as `java.util.concurrent.Flow`, which is not available to all of WalletKit's
+ * platforms).  A Subscriber receives no more items than it has requested.
+ */
+public final class EventFlow {
+
+    public interface Publisher<T> {
+
+        /**
+         * Add `subscriber`, which is first given its Subscription with
+         * {@link Subscriber#onSubscribe(Subscription)}.
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        /** The stream has failed; there will be no more signals. */
+        void onError(Throwable throwable);
+
+        /** The stream has ended; there will be no more signals. */
+        void onComplete();
+    }
+
+    public interface Subscription {
+
+        /** Request up to `n` more items.  A non-positive `n` fails the stream. */
+        void request(long n);
+
+        /** Stop receiving items; those buffered are discarded. */
+        void cancel();
+    }
+
+    private EventFlow() {}
+}
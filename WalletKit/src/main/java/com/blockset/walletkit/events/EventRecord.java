@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.events;
+
+import androidx.annotation.Nullable;
+
+import com.blockset.walletkit.Network;
+import com.blockset.walletkit.System;
+import com.blockset.walletkit.Transfer;
+import com.blockset.walletkit.Wallet;
+import com.blockset.walletkit.WalletManager;
+import com.google.common.base.Optional;
+
+/**
+ * An event, as published by a System, along with the objects it concerns: a {@link
+ * com.blockset.walletkit.events.system.SystemEvent}, {@link
+ * com.blockset.walletkit.events.network.NetworkEvent}, {@link
+ * com.blockset.walletkit.events.walletmanager.WalletManagerEvent}, {@link
+ * com.blockset.walletkit.events.wallet.WalletEvent} or {@link
+ * com.blockset.walletkit.events.transfer.TransferEvent}.
+ */
+public final class EventRecord {
+
+    private final System system;
+    @Nullable private final Network network;
+    @Nullable private final WalletManager manager;
+    @Nullable private final Wallet wallet;
+    @Nullable private final Transfer transfer;
+    private final Object event;
+
+    public EventRecord(System system,
+                       @Nullable Network network,
+                       @Nullable WalletManager manager,
+                       @Nullable Wallet wallet,
+                       @Nullable Transfer transfer,
+                       Object event) {
+        this.system = system;
+        this.network = network;
+        this.manager = manager;
+        this.wallet = wallet;
+        this.transfer = transfer;
+        this.event = event;
+    }
+
+    public System getSystem() {
+        return system;
+    }
+
+    /** The network of a network event, or of the manager of a manager, wallet or transfer event. */
+    public Optional<Network> getNetwork() {
+        return Optional.fromNullable(network);
+    }
+
+    public Optional<WalletManager> getManager() {
+        return Optional.fromNullable(manager);
+    }
+
+    public Optional<Wallet> getWallet() {
+        return Optional.fromNullable(wallet);
+    }
+
+    public Optional<Transfer> getTransfer() {
+        return Optional.fromNullable(transfer);
+    }
+
+    public Object getEvent() {
+        return event;
+    }
+
+    /** Get the event if it is a `type`. */
+    public <T> Optional<T> getEvent(Class<T> type) {
+        return type.isInstance(event) ? Optional.of(type.cast(event)) : Optional.absent();
+    }
+
+    @Override
+    public String toString() {
+        return "EventRecord{" +
+                "event=" + event.getClass().getSimpleName() +
+                ", network=" + network +
+                ", manager=" + manager +
+                ", wallet=" + wallet +
+                ", transfer=" + transfer +
+                '}';
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.events;
+
+import com.blockset.walletkit.Network;
+import com.blockset.walletkit.System;
+import com.blockset.walletkit.Transfer;
+import com.blockset.walletkit.Wallet;
+import com.blockset.walletkit.WalletManager;
+import com.blockset.walletkit.events.network.NetworkEvent;
+import com.blockset.walletkit.events.system.SystemEvent;
+import com.blockset.walletkit.events.system.SystemListener;
+import com.blockset.walletkit.events.transfer.TransferEvent;
+import com.blockset.walletkit.events.wallet.WalletEvent;
+import com.blockset.walletkit.events.walletmanager.WalletManagerEvent;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A SystemListener that publishes the events it handles as {@link EventFlow.Publisher}s of
+ * {@link EventRecord}s; for consumers that pull events at their own rate.
+ *
+ * Each subscription selects events with its {@link EventFilter} as they are handled, buffers those
+ * selected, and passes them to its Subscriber, on the executor, as requested.  When a buffer is
+ * full, its {@link BufferStrategy} decides what becomes of a new event.  A subscriber receives the
+ * events handled after it subscribes; the stream completes once {@link #complete()} is called and
+ * the buffered events are passed on.
+ */
+public final class SystemEventPublisher implements SystemListener {
+
+    public enum BufferStrategy {
+        /** Drop the oldest buffered event to make room. */
+        DROP_OLDEST,
+
+        /** Drop the new event. */
+        DROP_LATEST,
+
+        /** Fail the stream with an {@link IllegalStateException}; the buffered events are discarded. */
+        ERROR
+    }
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private final class EventSubscription implements EventFlow.Subscription {
+        private final EventFlow.Subscriber<? super EventRecord> subscriber;
+        private final EventFilter filter;
+        private final int bufferSize;
+        private final BufferStrategy strategy;
+
+        // Guarded by `this`
+        private final ArrayDeque<EventRecord> buffer = new ArrayDeque<>();
+        private long demand = 0;
+        private boolean isCancelled = false;
+        private boolean isCompleted = false;
+        private boolean isDraining = false;
+        private Throwable error = null;
+
+        private EventSubscription(EventFlow.Subscriber<? super EventRecord> subscriber,
+                                  EventFilter filter,
+                                  int bufferSize,
+                                  BufferStrategy strategy) {
+            this.subscriber = subscriber;
+            this.filter = filter;
+            this.bufferSize = bufferSize;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (isCancelled) return;
+            if (n <= 0) {
+                fail(new IllegalArgumentException("non-positive request: " + n));
+                return;
+            }
+
+            demand += n;
+            if (demand < 0) demand = Long.MAX_VALUE;    // Unbounded
+            scheduleDrain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                isCancelled = true;
+                buffer.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        private void offer(EventRecord record) {
+            if (!filter.matches(record)) return;
+
+            synchronized (this) {
+                if (isCancelled || isCompleted || null != error) return;
+
+                if (buffer.size() >= bufferSize) {
+                    switch (strategy) {
+                        case DROP_OLDEST:
+                            buffer.remove();
+                            break;
+                        case DROP_LATEST:
+                            return;
+                        case ERROR:
+                            fail(new IllegalStateException("buffer overflow: " + bufferSize + " events"));
+                            return;
+                    }
+                }
+                buffer.add(record);
+                scheduleDrain();
+            }
+        }
+
+        private synchronized void complete() {
+            isCompleted = true;
+            scheduleDrain();
+        }
+
+        // Guarded by `this`
+        private void fail(Throwable throwable) {
+            error = throwable;
+            buffer.clear();
+            scheduleDrain();
+        }
+
+        // Guarded by `this`
+        private void scheduleDrain() {
+            if (isDraining || isCancelled) return;
+            if (null != error || (isCompleted && buffer.isEmpty()) || (demand > 0 && !buffer.isEmpty())) {
+                isDraining = true;
+                executor.execute(this::drain);
+            }
+        }
+
+        // Signals are passed on one at a time, from one drain
+        private void drain() {
+            while (true) {
+                EventRecord record;
+                Throwable error;
+                synchronized (this) {
+                    if (isCancelled) {
+                        isDraining = false;
+                        return;
+                    }
+
+                    error = this.error;
+                    if (null == error && buffer.isEmpty() && !isCompleted) {
+                        isDraining = false;
+                        return;
+                    }
+
+                    if (null != error || buffer.isEmpty()) {
+                        // Failed, or completed and drained; this is the last signal
+                        isCancelled = true;
+                        isDraining = false;
+                        record = null;
+                    } else if (0 == demand) {
+                        isDraining = false;
+                        return;
+                    } else {
+                        record = buffer.remove();
+                        if (Long.MAX_VALUE != demand) demand -= 1;
+                    }
+                }
+
+                if (null == record) {
+                    subscriptions.remove(this);
+                    if (null != error) subscriber.onError(error);
+                    else subscriber.onComplete();
+                    return;
+                }
+
+                try {
+                    subscriber.onNext(record);
+                } catch (RuntimeException e) {
+                    // A Subscriber may not throw; treat it as cancelled
+                    cancel();
+                    return;
+                }
+            }
+        }
+    }
+
+    private final Executor executor;
+    private final CopyOnWriteArraySet<EventSubscription> subscriptions = new CopyOnWriteArraySet<>();
+    private volatile boolean isCompleted = false;
+
+    /** Publish events to subscribers on `executor`. */
+    public SystemEventPublisher(Executor executor) {
+        this.executor = executor;
+    }
+
+    /** Get a Publisher of the events selected by `filter`, buffering up to `bufferSize` events per subscriber. */
+    public EventFlow.Publisher<EventRecord> publisher(EventFilter filter, int bufferSize, BufferStrategy strategy) {
+        checkNotNull(filter);
+        checkNotNull(strategy);
+        checkArgument(bufferSize > 0);
+
+        return subscriber -> {
+            checkNotNull(subscriber);
+            EventSubscription subscription = new EventSubscription(subscriber, filter, bufferSize, strategy);
+            subscriber.onSubscribe(subscription);
+
+            synchronized (subscription) {
+                if (subscription.isCancelled) return;
+                subscriptions.add(subscription);
+            }
+
+            // Subscribed too late for any event
+            if (isCompleted) subscription.complete();
+        };
+    }
+
+    /** Check if any subscriber would receive an event; if not, there is no need to publish it. */
+    public boolean hasSubscriptions() {
+        return !subscriptions.isEmpty();
+    }
+
+    /** End every subscription's stream, once its buffered events are passed on. */
+    public void complete() {
+        isCompleted = true;
+        for (EventSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    public void publish(EventRecord record) {
+        for (EventSubscription subscription : subscriptions) {
+            subscription.offer(record);
+        }
+    }
+
+    @Override
+    public void handleSystemEvent(System system, SystemEvent event) {
+        if (hasSubscriptions()) publish(new EventRecord(system, null, null, null, null, event));
+    }
+
+    @Override
+    public void handleNetworkEvent(System system, Network network, NetworkEvent event) {
+        if (hasSubscriptions()) publish(new EventRecord(system, network, null, null, null, event));
+    }
+
+    @Override
+    public void handleManagerEvent(System system, WalletManager manager, WalletManagerEvent event) {
+        if (hasSubscriptions()) publish(new EventRecord(system, manager.getNetwork(), manager, null, null, event));
+    }
+
+    @Override
+    public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+        if (hasSubscriptions()) publish(new EventRecord(system, manager.getNetwork(), manager, wallet, null, event));
+    }
+
+    @Override
+    public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TransferEvent event) {
+        if (hasSubscriptions()) publish(new EventRecord(system, manager.getNetwork(), manager, wallet, transfer, event));
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.utility;
+
+import java.util.List;
+
+/**
+ * A handler for results that arrive in chunks.
+ *
+ * `handleChunk` is called once per completed chunk, in completion order, and never
+ * concurrently; it is followed by exactly one of `handleComplete` or `handleError`.  No chunk
+ * is delivered after `handleError`, but chunks delivered before it are not retracted.
+ */
+public interface ChunkedCompletionHandler<T, E> {
+    void handleChunk(List<T> chunk);
+    void handleComplete();
+    void handleError(E error);
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit;
+
+import com.blockset.walletkit.events.system.DefaultSystemListener;
+import com.blockset.walletkit.events.transfer.TransferCreatedEvent;
+import com.blockset.walletkit.events.transfer.TransferEvent;
+import com.blockset.walletkit.events.wallet.WalletCreatedEvent;
+import com.blockset.walletkit.events.wallet.WalletEvent;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DispatchingSystemListenerIT {
+
+    // An instance of `type`, equal only to itself, that supports nothing else
+    private static <T> T createScope(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":   return proxy == args[0];
+                case "hashCode": return java.lang.System.identityHashCode(proxy);
+                case "toString": return type.getSimpleName();
+                default:         throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+    }
+
+    private static final class RecordingListener implements DefaultSystemListener {
+        final List<Object> events = new ArrayList<>();
+
+        @Override
+        public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TransferEvent event) {
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void testScopedDispatch() {
+        DispatchingSystemListener dispatcher = new DispatchingSystemListener();
+        WalletManager manager = createScope(WalletManager.class);
+        Wallet wallet = createScope(Wallet.class);
+        Wallet otherWallet = createScope(Wallet.class);
+        Transfer transfer = createScope(Transfer.class);
+
+        RecordingListener all = new RecordingListener();
+        RecordingListener managerScoped = new RecordingListener();
+        RecordingListener walletScoped = new RecordingListener();
+        RecordingListener otherWalletScoped = new RecordingListener();
+        RecordingListener transferScoped = new RecordingListener();
+
+        dispatcher.addSystemListener(all);
+        dispatcher.addWalletManagerListener(manager, managerScoped);
+        dispatcher.addWalletListener(wallet, walletScoped);
+        dispatcher.addWalletListener(otherWallet, otherWalletScoped);
+        dispatcher.addTransferListener(transfer, transferScoped);
+
+        dispatcher.handleWalletEvent(null, manager, wallet, new WalletCreatedEvent());
+        dispatcher.handleTransferEvent(null, manager, wallet, transfer, new TransferCreatedEvent());
+
+        assertEquals(2, all.events.size());
+        assertEquals(2, managerScoped.events.size());
+        assertEquals(2, walletScoped.events.size());
+        assertEquals(0, otherWalletScoped.events.size());
+        assertEquals(1, transferScoped.events.size());
+    }
+
+    @Test
+    public void testRemoveScopedListener() {
+        DispatchingSystemListener dispatcher = new DispatchingSystemListener();
+        WalletManager manager = createScope(WalletManager.class);
+        Wallet wallet = createScope(Wallet.class);
+
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        dispatcher.addWalletListener(wallet, first);
+        dispatcher.addWalletListener(wallet, second);
+
+        // Adding again does not register twice
+        dispatcher.addWalletListener(wallet, first);
+        dispatcher.handleWalletEvent(null, manager, wallet, new WalletCreatedEvent());
+        assertEquals(1, first.events.size());
+
+        dispatcher.removeWalletListener(wallet, first);
+        dispatcher.handleWalletEvent(null, manager, wallet, new WalletCreatedEvent());
+        assertEquals(1, first.events.size());
+        assertEquals(2, second.events.size());
+
+        // Removing from another scope has no effect
+        dispatcher.removeWalletListener(createScope(Wallet.class), second);
+        dispatcher.removeWalletListener(wallet, second);
+        dispatcher.handleWalletEvent(null, manager, wallet, new WalletCreatedEvent());
+        assertEquals(2, second.events.size());
+    }
+}
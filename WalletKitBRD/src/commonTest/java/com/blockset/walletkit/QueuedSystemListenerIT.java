@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit;
+
+import com.blockset.walletkit.events.system.DefaultSystemListener;
+import com.blockset.walletkit.events.transfer.TransferChangedEvent;
+import com.blockset.walletkit.events.transfer.TransferEvent;
+import com.blockset.walletkit.events.wallet.WalletBalanceUpdatedEvent;
+import com.blockset.walletkit.events.wallet.WalletCreatedEvent;
+import com.blockset.walletkit.events.wallet.WalletEvent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class QueuedSystemListenerIT {
+
+    // Runs tasks only when told to, on the calling thread
+    private static final class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            List<Runnable> pending;
+            synchronized (this) {
+                pending = new ArrayList<>(tasks);
+                tasks.clear();
+            }
+            for (Runnable task : pending) task.run();
+        }
+    }
+
+    private static final class RecordingListener implements DefaultSystemListener {
+        final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TransferEvent event) {
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void testHandledOnOwnExecutorInOrder() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingListener recording = new RecordingListener();
+        QueuedSystemListener queued = new QueuedSystemListener(recording, 10, QueuedSystemListener.OverflowPolicy.BLOCK, executor);
+
+        WalletCreatedEvent first = new WalletCreatedEvent();
+        WalletCreatedEvent second = new WalletCreatedEvent();
+        queued.handleWalletEvent(null, null, null, first);
+        queued.handleWalletEvent(null, null, null, second);
+        assertTrue(recording.events.isEmpty());
+        assertEquals(2, queued.getMetrics().getQueueDepth());
+
+        executor.runAll();
+        assertEquals(2, recording.events.size());
+        assertSame(first, recording.events.get(0));
+        assertSame(second, recording.events.get(1));
+        assertEquals(2, queued.getMetrics().getHandledCount());
+    }
+
+    @Test
+    public void testDropOldest() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingListener recording = new RecordingListener();
+        QueuedSystemListener queued = new QueuedSystemListener(recording, 2, QueuedSystemListener.OverflowPolicy.DROP_OLDEST, executor);
+
+        for (int i = 0; i < 5; i++) queued.handleWalletEvent(null, null, null, new WalletCreatedEvent());
+        assertEquals(2, queued.getMetrics().getQueueDepth());
+        assertEquals(3, queued.getMetrics().getDroppedCount());
+
+        executor.runAll();
+        assertEquals(2, recording.events.size());
+    }
+
+    @Test
+    public void testCoalesce() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingListener recording = new RecordingListener();
+        QueuedSystemListener queued = new QueuedSystemListener(recording, 10, QueuedSystemListener.OverflowPolicy.COALESCE, executor);
+
+        WalletBalanceUpdatedEvent latest = new WalletBalanceUpdatedEvent(null);
+        queued.handleWalletEvent(null, null, null, new WalletBalanceUpdatedEvent(null));
+        queued.handleTransferEvent(null, null, null, null,
+                new TransferChangedEvent(TransferState.CREATED(), TransferState.SUBMITTED()));
+        queued.handleWalletEvent(null, null, null, latest);
+        queued.handleTransferEvent(null, null, null, null,
+                new TransferChangedEvent(TransferState.SUBMITTED(), TransferState.PENDING()));
+
+        assertEquals(2, queued.getMetrics().getQueueDepth());
+        assertEquals(2, queued.getMetrics().getCoalescedCount());
+
+        executor.runAll();
+        assertSame(latest, recording.events.get(0));
+        TransferChangedEvent merged = (TransferChangedEvent) recording.events.get(1);
+        assertEquals(TransferState.CREATED(), merged.getOldState());
+        assertEquals(TransferState.PENDING(), merged.getNewState());
+    }
+
+    @Test
+    public void testBlockWaitsForRoom() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> handled = Collections.synchronizedList(new ArrayList<>());
+        QueuedSystemListener queued = new QueuedSystemListener(new DefaultSystemListener() {
+            @Override
+            public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                handled.add(event);
+            }
+        }, 1, QueuedSystemListener.OverflowPolicy.BLOCK);
+
+        CountDownLatch announced = new CountDownLatch(1);
+        Thread announcer = new Thread(() -> {
+            for (int i = 0; i < 3; i++) queued.handleWalletEvent(null, null, null, new WalletCreatedEvent());
+            announced.countDown();
+        });
+        announcer.start();
+
+        // One event is being handled, one is queued, and the announcer waits with the third
+        assertFalse(announced.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(announced.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 100 && handled.size() < 3; i++) Thread.sleep(10);
+        assertEquals(3, handled.size());
+        assertEquals(0, queued.getMetrics().getDroppedCount());
+    }
+
+    @Test
+    public void testFailingListenerKeepsHandling() {
+        ManualExecutor executor = new ManualExecutor();
+        QueuedSystemListener queued = new QueuedSystemListener(new DefaultSystemListener() {
+            @Override
+            public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+                throw new IllegalStateException();
+            }
+        }, 10, QueuedSystemListener.OverflowPolicy.BLOCK, executor);
+
+        queued.handleWalletEvent(null, null, null, new WalletCreatedEvent());
+        queued.handleWalletEvent(null, null, null, new WalletCreatedEvent());
+        executor.runAll();
+
+        assertEquals(2, queued.getMetrics().getHandledCount());
+        assertEquals(2, queued.getMetrics().getFailedCount());
+    }
+
+    @Test
+    public void testDrainsAfterRejectedExecution() {
+        ManualExecutor manual = new ManualExecutor();
+        boolean[] isRejecting = { true };
+        Executor executor = task -> {
+            if (isRejecting[0]) throw new RejectedExecutionException();
+            manual.execute(task);
+        };
+        RecordingListener recording = new RecordingListener();
+        QueuedSystemListener queued = new QueuedSystemListener(recording, 10, QueuedSystemListener.OverflowPolicy.BLOCK, executor);
+
+        queued.handleWalletEvent(null, null, null, new WalletCreatedEvent());
+        assertEquals(1, queued.getMetrics().getQueueDepth());
+
+        // The next event tries the executor again, and both are handled
+        isRejecting[0] = false;
+        queued.handleWalletEvent(null, null, null, new WalletCreatedEvent());
+        manual.runAll();
+        assertEquals(2, recording.events.size());
+        assertEquals(0, queued.getMetrics().getQueueDepth());
+    }
+}
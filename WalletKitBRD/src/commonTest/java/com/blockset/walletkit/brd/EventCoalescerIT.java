@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import com.blockset.walletkit.TransferState;
+import com.blockset.walletkit.events.transfer.TransferChangedEvent;
+import com.blockset.walletkit.events.transfer.TransferCreatedEvent;
+import com.blockset.walletkit.events.transfer.TransferEvent;
+import com.blockset.walletkit.events.wallet.WalletBalanceUpdatedEvent;
+import com.blockset.walletkit.events.wallet.WalletCreatedEvent;
+import com.blockset.walletkit.events.wallet.WalletEvent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EventCoalescerIT {
+
+    private ScheduledExecutorService scheduler;
+    private List<Object> delivered;
+    private EventCoalescer<String, String, String> coalescer;
+
+    @Before
+    public void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        delivered = Collections.synchronizedList(new ArrayList<>());
+        coalescer = new EventCoalescer<>(scheduler, new EventCoalescer.Sink<String, String, String>() {
+            @Override
+            public void deliverWalletEvent(String manager, String wallet, WalletEvent event,
+                                           EventLatencyMonitor.Trace trace) {
+                delivered.add(event);
+            }
+
+            @Override
+            public void deliverTransferEvent(String manager, String wallet, String transfer, TransferEvent event,
+                                             EventLatencyMonitor.Trace trace) {
+                delivered.add(event);
+            }
+        });
+    }
+
+    @After
+    public void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testDeliversImmediatelyByDefault() {
+        WalletBalanceUpdatedEvent first = new WalletBalanceUpdatedEvent(null);
+        WalletBalanceUpdatedEvent second = new WalletBalanceUpdatedEvent(null);
+        coalescer.walletEvent("manager", "wallet", first, null);
+        coalescer.walletEvent("manager", "wallet", second, null);
+
+        assertEquals(2, delivered.size());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void testLatestBalanceSupersedes() {
+        coalescer.setWindow(1, TimeUnit.HOURS);
+
+        WalletCreatedEvent created = new WalletCreatedEvent();
+        WalletBalanceUpdatedEvent latest = new WalletBalanceUpdatedEvent(null);
+        coalescer.walletEvent("manager", "wallet", new WalletBalanceUpdatedEvent(null), null);
+        coalescer.walletEvent("manager", "wallet", created, null);
+        coalescer.walletEvent("manager", "wallet", latest, null);
+
+        // Events that are not coalesced pass straight through
+        assertEquals(Collections.singletonList(created), delivered);
+
+        coalescer.flush("manager");
+        assertEquals(2, delivered.size());
+        assertSame(latest, delivered.get(1));
+        assertEquals(1, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void testTransferChangesMerge() {
+        coalescer.setWindow(1, TimeUnit.HOURS);
+
+        coalescer.transferEvent("manager", "wallet", "transfer", new TransferCreatedEvent(), null);
+        coalescer.transferEvent("manager", "wallet", "transfer",
+                new TransferChangedEvent(TransferState.CREATED(), TransferState.SIGNED()), null);
+        coalescer.transferEvent("manager", "wallet", "transfer",
+                new TransferChangedEvent(TransferState.SIGNED(), TransferState.SUBMITTED()), null);
+        coalescer.transferEvent("manager", "wallet", "transfer",
+                new TransferChangedEvent(TransferState.SUBMITTED(), TransferState.PENDING()), null);
+        coalescer.flush("manager");
+
+        assertEquals(2, delivered.size());
+        TransferChangedEvent merged = (TransferChangedEvent) delivered.get(1);
+        assertEquals(TransferState.CREATED(), merged.getOldState());
+        assertEquals(TransferState.PENDING(), merged.getNewState());
+        assertEquals(2, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void testTerminalEventFollowsHeldEvents() {
+        coalescer.setWindow(1, TimeUnit.HOURS);
+
+        WalletBalanceUpdatedEvent balance = new WalletBalanceUpdatedEvent(null);
+        TransferChangedEvent pending = new TransferChangedEvent(TransferState.SUBMITTED(), TransferState.PENDING());
+        TransferChangedEvent deleted = new TransferChangedEvent(TransferState.PENDING(), TransferState.DELETED());
+        coalescer.walletEvent("manager", "wallet", balance, null);
+        coalescer.transferEvent("manager", "wallet", "transfer", pending, null);
+        coalescer.transferEvent("manager", "wallet", "transfer", deleted, null);
+
+        // Not merged into the held change, but delivered after it
+        assertEquals(3, delivered.size());
+        assertSame(balance, delivered.get(0));
+        assertSame(pending, delivered.get(1));
+        assertSame(deleted, delivered.get(2));
+    }
+
+    @Test
+    public void testWindowEndDelivers() throws InterruptedException {
+        coalescer.setWindow(50, TimeUnit.MILLISECONDS);
+        coalescer.walletEvent("manager", "wallet", new WalletBalanceUpdatedEvent(null), null);
+        coalescer.walletEvent("manager", "other", new WalletBalanceUpdatedEvent(null), null);
+        assertTrue(delivered.isEmpty());
+
+        for (int i = 0; i < 100 && delivered.size() < 2; i++) Thread.sleep(10);
+        assertEquals(2, delivered.size());
+    }
+
+    @Test
+    public void testDisablingDeliversHeldEvents() {
+        coalescer.setWindow(1, TimeUnit.HOURS);
+        coalescer.walletEvent("manager", "wallet", new WalletBalanceUpdatedEvent(null), null);
+        coalescer.walletEvent("other", "wallet", new WalletBalanceUpdatedEvent(null), null);
+
+        coalescer.setWindow(0, TimeUnit.MILLISECONDS);
+        assertEquals(2, delivered.size());
+    }
+}
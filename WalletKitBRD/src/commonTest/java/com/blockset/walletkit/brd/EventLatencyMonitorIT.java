@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import com.blockset.walletkit.events.transfer.TransferCreatedEvent;
+import com.blockset.walletkit.events.wallet.WalletBalanceUpdatedEvent;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EventLatencyMonitorIT {
+
+    private static EventLatencyMonitor.EventTypeMetrics getMetrics(EventLatencyMonitor monitor, String eventType) {
+        for (EventLatencyMonitor.EventTypeMetrics metrics : monitor.getMetrics()) {
+            if (metrics.getEventType().equals(eventType)) return metrics;
+        }
+        throw new AssertionError("no metrics for " + eventType);
+    }
+
+    @Test
+    public void testOffByDefault() {
+        EventLatencyMonitor monitor = new EventLatencyMonitor();
+        assertFalse(monitor.isEnabled());
+        assertNull(monitor.arrived());
+
+        Runnable listener = () -> {};
+        assertSame(listener, monitor.announced(null, new TransferCreatedEvent(), listener));
+        assertTrue(monitor.getMetrics().isEmpty());
+    }
+
+    @Test
+    public void testRecordsEachStage() throws InterruptedException {
+        EventLatencyMonitor monitor = new EventLatencyMonitor();
+        monitor.setEnabled(true);
+
+        EventLatencyMonitor.Trace trace = monitor.arrived();
+        assertEquals(1, monitor.getQueueMetrics().getExtractQueueDepth());
+        Thread.sleep(5);
+        monitor.extracted(trace);
+        assertEquals(0, monitor.getQueueMetrics().getExtractQueueDepth());
+
+        Runnable listener = monitor.announced(trace, new WalletBalanceUpdatedEvent(null), () -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals(1, monitor.getQueueMetrics().getListenerQueueDepth());
+        listener.run();
+
+        EventLatencyMonitor.QueueMetrics queues = monitor.getQueueMetrics();
+        assertEquals(0, queues.getListenerQueueDepth());
+        assertEquals(1, queues.getMaxListenerQueueDepth());
+        assertEquals(1, queues.getMaxExtractQueueDepth());
+
+        EventLatencyMonitor.EventTypeMetrics metrics = getMetrics(monitor, "WalletBalanceUpdatedEvent");
+        for (EventLatencyMonitor.Stage stage : EventLatencyMonitor.Stage.values()) {
+            assertEquals(1, metrics.getHistogram(stage).getCount());
+        }
+        assertTrue(metrics.getHistogram(EventLatencyMonitor.Stage.EXTRACT).getMax(TimeUnit.MILLISECONDS) >= 5);
+        assertTrue(metrics.getHistogram(EventLatencyMonitor.Stage.LISTENER).getMax(TimeUnit.MILLISECONDS) >= 20);
+        assertTrue(metrics.getHistogram(EventLatencyMonitor.Stage.TOTAL).getMax(TimeUnit.MILLISECONDS) >= 25);
+    }
+
+    @Test
+    public void testPercentiles() {
+        EventLatencyMonitor monitor = new EventLatencyMonitor();
+        monitor.setEnabled(true);
+
+        for (int i = 0; i < 100; i++) {
+            EventLatencyMonitor.Trace trace = monitor.arrived();
+            monitor.extracted(trace);
+            monitor.announced(trace, new TransferCreatedEvent(), () -> {}).run();
+        }
+
+        EventLatencyMonitor.Histogram histogram =
+                getMetrics(monitor, "TransferCreatedEvent").getHistogram(EventLatencyMonitor.Stage.TOTAL);
+        assertEquals(100, histogram.getCount());
+
+        long p50 = histogram.getPercentile(50, TimeUnit.NANOSECONDS);
+        long p99 = histogram.getPercentile(99, TimeUnit.NANOSECONDS);
+        assertTrue(p50 <= p99);
+        assertTrue(p99 <= histogram.getMax(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testReset() {
+        EventLatencyMonitor monitor = new EventLatencyMonitor();
+        monitor.setEnabled(true);
+
+        EventLatencyMonitor.Trace trace = monitor.arrived();
+        monitor.extracted(trace);
+        monitor.announced(trace, new TransferCreatedEvent(), () -> {}).run();
+
+        // An event still in flight is still counted after a reset
+        EventLatencyMonitor.Trace pending = monitor.arrived();
+        monitor.reset();
+
+        List<EventLatencyMonitor.EventTypeMetrics> metrics = monitor.getMetrics();
+        assertTrue(metrics.isEmpty());
+        assertEquals(1, monitor.getQueueMetrics().getExtractQueueDepth());
+        assertEquals(1, monitor.getQueueMetrics().getMaxExtractQueueDepth());
+
+        monitor.extracted(pending);
+        assertEquals(0, monitor.getQueueMetrics().getExtractQueueDepth());
+    }
+}
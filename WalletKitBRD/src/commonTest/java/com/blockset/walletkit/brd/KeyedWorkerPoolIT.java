@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class KeyedWorkerPoolIT {
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testEqualKeysRunInOrderOneAtATime() throws InterruptedException {
+        KeyedWorkerPool pool = new KeyedWorkerPool("test", 4);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(100);
+
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            pool.execute("manager", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(value);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+        for (int i = 0; i < 100; i++) assertEquals(i, order.get(i).intValue());
+    }
+
+    @Test
+    public void testBusyKeyDoesNotBlockOthers() throws InterruptedException {
+        KeyedWorkerPool pool = new KeyedWorkerPool("test", 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+
+        pool.execute("busy", () -> await(release));
+        pool.execute("busy", () -> {});
+        pool.execute("other", otherDone::countDown);
+
+        assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+        assertEquals(1, pool.getPendingCount());
+        release.countDown();
+    }
+
+    @Test
+    public void testPriorityTasksRunFirst() throws InterruptedException {
+        KeyedWorkerPool pool = new KeyedWorkerPool("test", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3);
+
+        // Occupy the only worker, then queue a sync behind a fee estimate
+        pool.execute("blocker", () -> await(release));
+        pool.execute("manager", () -> { order.add("sync"); done.countDown(); });
+        pool.execute("other", () -> { order.add("other"); done.countDown(); });
+        pool.execute("manager", true, () -> { order.add("fee"); done.countDown(); });
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("fee", order.get(0));
+        assertEquals("sync", order.get(1));
+        assertEquals("other", order.get(2));
+    }
+
+    @Test
+    public void testFailedTaskDoesNotStallKey() throws InterruptedException {
+        KeyedWorkerPool pool = new KeyedWorkerPool("test", 2);
+        CountDownLatch done = new CountDownLatch(1);
+
+        pool.execute("manager", () -> { throw new IllegalStateException(); });
+        pool.execute("manager", done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testResize() throws InterruptedException {
+        KeyedWorkerPool pool = new KeyedWorkerPool("test", 1);
+        pool.setSize(3);
+        assertEquals(3, pool.getSize());
+
+        // Three keys, each blocked until all three are running
+        CountDownLatch running = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            pool.execute(i, () -> {
+                running.countDown();
+                await(running);
+            });
+        }
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        pool.setSize(1);
+        assertEquals(1, pool.getSize());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StripedExecutorIT {
+
+    @Test
+    public void testEqualKeysRunInOrder() throws InterruptedException {
+        StripedExecutor executor = new StripedExecutor("test", 4);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(100);
+
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            executor.execute("manager", () -> {
+                order.add(value);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) assertEquals(i, order.get(i).intValue());
+    }
+
+    @Test
+    public void testBusyKeyDoesNotBlockOthers() throws InterruptedException {
+        StripedExecutor executor = new StripedExecutor("test", 2);
+
+        // Find a key on the other stripe from "busy"
+        String other = "other";
+        for (int i = 0; executor.getStripe(other) == executor.getStripe("busy"); i++) other = "other" + i;
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(1);
+        executor.execute("busy", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute("busy", () -> {});
+        executor.execute(other, otherDone::countDown);
+
+        assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+
+        StripedExecutor.StripeMetrics busy = executor.getMetrics().get(executor.getStripe("busy"));
+        assertEquals(1, busy.getQueueDepth());
+        assertEquals(1, busy.getDispatchedCount());
+        release.countDown();
+    }
+
+    @Test
+    public void testMetricsCountDispatches() throws InterruptedException {
+        StripedExecutor executor = new StripedExecutor("test", 3);
+        CountDownLatch done = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) executor.execute(i, done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        long dispatched = 0;
+        for (StripedExecutor.StripeMetrics metrics : executor.getMetrics()) {
+            dispatched += metrics.getDispatchedCount();
+            assertTrue(metrics.getMaxQueueDepth() <= 10);
+        }
+        assertEquals(10, dispatched);
+        assertEquals(3, executor.getStripeCount());
+    }
+
+    @Test
+    public void testExecuteAfterAllWaitsForEveryStripe() throws InterruptedException {
+        StripedExecutor executor = new StripedExecutor("test", 3);
+        List<Object> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute("busy", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            order.add("busy");
+        });
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            executor.execute(i, () -> order.add(value));
+        }
+        executor.executeAfterAll(() -> {
+            order.add("after");
+            done.countDown();
+        });
+
+        // Held up by the busy stripe alone
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(12, order.size());
+        assertEquals("after", order.get(11));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import com.blockset.walletkit.SystemClient.Transaction;
+import com.blockset.walletkit.brd.systemclient.BlocksetAmount;
+import com.blockset.walletkit.brd.systemclient.BlocksetTransaction;
+import com.google.common.primitives.UnsignedLong;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TransactionChunkMergerIT {
+
+    private static Transaction createTransaction(String id, Long blockHeight, Long index) {
+        return BlocksetTransaction.create(id, id, id, "bitcoin-mainnet", UnsignedLong.ONE,
+                BlocksetAmount.create("bitcoin-mainnet:__native__", "0"),
+                null == blockHeight ? "submitted" : "confirmed",
+                null, null, null,
+                null == index ? null : UnsignedLong.valueOf(index),
+                null,
+                null == blockHeight ? null : UnsignedLong.valueOf(blockHeight),
+                null, null, null, null,
+                Collections.emptyMap());
+    }
+
+    private final List<String> converted = new ArrayList<>();
+    private final List<String> disposed = new ArrayList<>();
+
+    private final TransactionChunkMerger<String> merger = new TransactionChunkMerger<>(
+            t -> {
+                converted.add(t.getId());
+                return "skip".equals(t.getId())
+                        ? Collections.emptyList()
+                        : Collections.singletonList(t.getId() + "@" + t.getBlockHeight().orNull());
+            },
+            disposed::add);
+
+    @Test
+    public void testMergesChunksAscending() {
+        merger.add(Arrays.asList(
+                createTransaction("pending", null, null),
+                createTransaction("10/1", 10L, 1L),
+                createTransaction("5/0", 5L, 0L)));
+        merger.add(Arrays.asList(
+                createTransaction("10/0", 10L, 0L),
+                createTransaction("7/3", 7L, 3L)));
+
+        // Each chunk is converted as it is added
+        assertEquals(5, converted.size());
+
+        assertEquals(Arrays.asList("5/0@5", "7/3@7", "10/0@10", "10/1@10", "pending@null"), merger.merge());
+    }
+
+    @Test
+    public void testRemovesDuplicatesAndEmptyConversions() {
+        merger.add(Arrays.asList(
+                createTransaction("5/0", 5L, 0L),
+                createTransaction("skip", 6L, 0L)));
+        merger.add(Arrays.asList(
+                createTransaction("5/0", 5L, 0L),
+                createTransaction("8/0", 8L, 0L)));
+
+        assertEquals(Arrays.asList("5/0@5", "8/0@8"), merger.merge());
+        assertEquals(Arrays.asList("5/0", "skip", "8/0"), converted);
+        assertTrue(disposed.isEmpty());
+    }
+
+    @Test
+    public void testKeepsGreatestOfDuplicates() {
+        // Seen included in one chunk and pending in another; as with canonicalizeTransactions,
+        // the greater {BlockHeight, Index} is kept, whichever chunk arrives first
+        merger.add(Arrays.asList(
+                createTransaction("a", 5L, 0L),
+                createTransaction("b", 8L, 0L)));
+        merger.add(Arrays.asList(
+                createTransaction("a", null, null),
+                createTransaction("b", 7L, 0L),
+                createTransaction("c", 6L, 0L),
+                createTransaction("c", 9L, 0L)));
+
+        assertEquals(Arrays.asList("b@8", "c@9", "a@null"), merger.merge());
+        assertEquals(Arrays.asList("c@6", "a@5"), disposed);
+    }
+
+    @Test
+    public void testDrain() {
+        merger.add(Collections.singletonList(createTransaction("5/0", 5L, 0L)));
+        merger.add(Collections.singletonList(createTransaction("3/0", 3L, 0L)));
+
+        assertEquals(2, merger.drain().size());
+        assertTrue(merger.merge().isEmpty());
+    }
+}
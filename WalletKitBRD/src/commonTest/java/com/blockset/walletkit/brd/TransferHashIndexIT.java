@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Optional;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TransferHashIndexIT {
+
+    // Stands in for a Transfer, whose hash is set once signed
+    private static final class FakeTransfer {
+        @Nullable String hash;
+
+        FakeTransfer(@Nullable String hash) {
+            this.hash = hash;
+        }
+    }
+
+    private static final TransferHashIndex.Hasher<FakeTransfer> HASHER = t -> Optional.fromNullable(t.hash);
+
+    private int builds = 0;
+
+    private List<FakeTransfer> build(FakeTransfer... transfers) {
+        builds += 1;
+        return Arrays.asList(transfers);
+    }
+
+    @Test
+    public void testBuiltLazilyThenUpdated() {
+        TransferHashIndex<FakeTransfer> index = new TransferHashIndex<>(HASHER);
+        FakeTransfer a = new FakeTransfer("a");
+        FakeTransfer b = new FakeTransfer("b");
+
+        // Not built, so updates are ignored
+        index.update(a);
+        assertFalse(index.isBuilt());
+
+        assertEquals(Optional.of(a), index.get("a", () -> build(a)));
+        assertEquals(1, builds);
+        assertTrue(index.isBuilt());
+
+        index.update(b);
+        assertEquals(Optional.of(b), index.get("b", () -> build(a)));
+        assertEquals(1, builds);
+        assertEquals(2, index.size());
+
+        index.remove(a);
+        assertFalse(index.get("a", () -> build(a)).isPresent());
+        assertEquals(1, builds);
+    }
+
+    @Test
+    public void testReindexedOnceHashed() {
+        TransferHashIndex<FakeTransfer> index = new TransferHashIndex<>(HASHER);
+        FakeTransfer unsigned = new FakeTransfer(null);
+
+        assertFalse(index.get("a", () -> build(unsigned)).isPresent());
+        assertEquals(0, index.size());
+
+        // Signed
+        unsigned.hash = "a";
+        index.update(unsigned);
+        assertEquals(Optional.of(unsigned), index.get("a", () -> build(unsigned)));
+
+        // Changed hash; the old one no longer finds it
+        unsigned.hash = "b";
+        index.update(unsigned);
+        assertFalse(index.get("a", () -> build(unsigned)).isPresent());
+        assertEquals(Optional.of(unsigned), index.get("b", () -> build(unsigned)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRemoveKeepsLaterTransferWithSameHash() {
+        TransferHashIndex<FakeTransfer> index = new TransferHashIndex<>(HASHER);
+        FakeTransfer first = new FakeTransfer("a");
+        FakeTransfer second = new FakeTransfer("a");
+
+        index.get("a", () -> build(first));
+        index.update(second);
+        assertEquals(Optional.of(second), index.get("a", () -> build(first)));
+
+        // `first` is still recorded under "a", but "a" now finds `second`
+        index.remove(first);
+        assertEquals(Optional.of(second), index.get("a", () -> build(first)));
+
+        index.remove(second);
+        assertFalse(index.get("a", () -> build(first)).isPresent());
+    }
+
+    @Test
+    public void testDroppedWithWallet() {
+        TransferHashIndex.ByWallet<String, FakeTransfer> indexes = new TransferHashIndex.ByWallet<>(HASHER);
+        FakeTransfer a = new FakeTransfer("a");
+        FakeTransfer b = new FakeTransfer("b");
+
+        assertSame(indexes.get("wallet"), indexes.get("wallet"));
+        indexes.get("wallet").get("a", () -> build(a));
+        indexes.update("wallet", b);
+        assertEquals(2, indexes.get("wallet").size());
+
+        // Updates for a wallet without an index create none
+        indexes.update("other", a);
+        indexes.remove("other", a);
+        assertEquals(1, indexes.size());
+
+        // Deleted; the next lookup builds a new index
+        indexes.drop("wallet");
+        assertEquals(0, indexes.size());
+        indexes.update("wallet", b);
+        assertFalse(indexes.get("wallet").isBuilt());
+        assertFalse(indexes.get("wallet").get("b", () -> build(a)).isPresent());
+        assertEquals(2, builds);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import com.blockset.walletkit.AddressScheme;
+import com.blockset.walletkit.Network;
+import com.blockset.walletkit.System;
+import com.blockset.walletkit.Transfer;
+import com.blockset.walletkit.TransferConfirmation;
+import com.blockset.walletkit.TransferSnapshot;
+import com.blockset.walletkit.Wallet;
+import com.blockset.walletkit.WalletManager;
+import com.blockset.walletkit.WalletManagerMode;
+import com.blockset.walletkit.brd.HelpersAIT.RecordingSystemListener;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TransferSnapshotAIT {
+
+    private File coreDataDir;
+
+    @Before
+    public void setup() {
+        HelpersAIT.registerCryptoApiProvider();
+
+        coreDataDir = HelpersAIT.generateCoreDataDir();
+        HelpersAIT.createOrOverwriteDirectory(coreDataDir);
+    }
+
+    @After
+    public void teardown() {
+        HelpersAIT.deleteFile(coreDataDir);
+    }
+
+    @Test
+    public void testSnapshotsMatchTransfers() {
+        Wallet wallet = createSyncedWallet("btc");
+
+        List<? extends Transfer> transfers = wallet.getTransfers();
+        List<? extends TransferSnapshot> snapshots = wallet.getTransferSnapshots();
+        assertEquals(transfers.size(), snapshots.size());
+
+        for (int i = 0; i < transfers.size(); i++) {
+            Transfer transfer = transfers.get(i);
+            TransferSnapshot snapshot = snapshots.get(i);
+
+            assertSame(wallet, snapshot.getWallet());
+            assertEquals(transfer.getHash().transform(Object::toString), snapshot.getHash());
+            assertEquals(transfer.getDirection(), snapshot.getDirection());
+            assertEquals(transfer.getState().getType(), snapshot.getStateType());
+            assertEquals(transfer.getConfirmation().transform(TransferConfirmation::getBlockNumber), snapshot.getBlockNumber());
+            assertEquals(transfer.getConfirmation().transform(TransferConfirmation::getConfirmationTime), snapshot.getBlockTimestamp());
+            assertEquals(transfer.getAmount(), snapshot.getAmount());
+            if (snapshot.getFee().isPresent()) assertEquals(transfer.getFee(), snapshot.getFee().get());
+            assertEquals(transfer.getSource().transform(Object::toString), snapshot.getSource());
+            assertEquals(transfer.getTarget().transform(Object::toString), snapshot.getTarget());
+        }
+    }
+
+    @Test
+    public void testSnapshotAmountsAreCreatedOnce() {
+        Wallet wallet = createSyncedWallet("btc");
+
+        for (TransferSnapshot snapshot : wallet.getTransferSnapshots()) {
+            assertSame(snapshot.getAmount(), snapshot.getAmount());
+            assertSame(snapshot.getFee().orNull(), snapshot.getFee().orNull());
+        }
+    }
+
+    // Support
+
+    // The default account's wallet on testnet, synced and then disconnected so that its
+    // transfers hold still
+    private Wallet createSyncedWallet(String currencyCode) {
+        RecordingSystemListener recorder = HelpersAIT.createRecordingListener();
+        System system = HelpersAIT.createAndConfigureSystemWithListener(coreDataDir, recorder, false);
+
+        Optional<Network> maybeNetwork = HelpersAIT.getNetworkByCurrencyCode(recorder.getAddedNetworks(), currencyCode);
+        assertTrue(maybeNetwork.isPresent());
+
+        system.createWalletManager(maybeNetwork.get(), WalletManagerMode.API_ONLY, AddressScheme.BTC_SEGWIT, Collections.emptySet());
+        Uninterruptibles.sleepUninterruptibly(5, TimeUnit.SECONDS);
+
+        Optional<WalletManager> maybeManager = HelpersAIT.getManagerByCode(recorder.getAddedManagers(), currencyCode);
+        assertTrue(maybeManager.isPresent());
+
+        WalletManager manager = maybeManager.get();
+        manager.connect(null);
+        Uninterruptibles.sleepUninterruptibly(30, TimeUnit.SECONDS);
+        manager.disconnect();
+        Uninterruptibles.sleepUninterruptibly(5, TimeUnit.SECONDS);
+
+        Optional<Wallet> maybeWallet = HelpersAIT.getWalletByCode(recorder.getAddedWallets(), currencyCode);
+        assertTrue(maybeWallet.isPresent());
+        return maybeWallet.get();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.PointerType;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WeakWrapperMapIT {
+
+    // A core object at a fixed address; never dereferenced
+    private static final class FakeCore extends PointerType {
+        FakeCore(long address) {
+            super(new Pointer(address));
+        }
+    }
+
+    @Test
+    public void testSameAddressSharesWrapper() {
+        WeakWrapperMap<Object> map = new WeakWrapperMap<>();
+        AtomicInteger created = new AtomicInteger();
+
+        Object first = map.getOrCreate(new FakeCore(0x1000), () -> { created.incrementAndGet(); return new Object(); });
+        Object second = map.getOrCreate(new FakeCore(0x1000), () -> { created.incrementAndGet(); return new Object(); });
+        Object other = map.getOrCreate(new FakeCore(0x2000), () -> { created.incrementAndGet(); return new Object(); });
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, created.get());
+        assertEquals(1, map.getHitCount());
+        assertEquals(2, map.getMissCount());
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testNullWrapperIsNotMapped() {
+        WeakWrapperMap<Object> map = new WeakWrapperMap<>();
+
+        assertNull(map.getOrCreate(new FakeCore(0x1000), () -> null));
+        assertEquals(0, map.size());
+        assertNotNull(map.getOrCreate(new FakeCore(0x1000), Object::new));
+    }
+
+    @Test
+    public void testUnreachableWrapperIsReplaced() throws InterruptedException {
+        WeakWrapperMap<Object> map = new WeakWrapperMap<>();
+        map.getOrCreate(new FakeCore(0x1000), Object::new);
+
+        for (int i = 0; i < 50 && map.size() > 0; i++) {
+            java.lang.System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, map.size());
+
+        AtomicInteger created = new AtomicInteger();
+        map.getOrCreate(new FakeCore(0x1000), () -> { created.incrementAndGet(); return new Object(); });
+        assertEquals(1, created.get());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMultimap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AddressChunkPlannerIT {
+
+    private static final String BASE_URL = "https://api.blockset.com";
+
+    private static final ImmutableMultimap<String, String> PARAMS = ImmutableListMultimap.of(
+            "blockchain_id", "bitcoin-mainnet",
+            "max_page_size", "60");
+
+    private static List<String> createAddresses(int count, int length) {
+        List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String index = String.valueOf(i);
+            addresses.add(Strings.padStart(index, length, 'a'));
+        }
+        return addresses;
+    }
+
+    private static void assertCoversAddresses(List<String> addresses, AddressChunkPlan plan) {
+        List<String> planned = new ArrayList<>();
+        for (List<String> chunk : plan.getChunks()) planned.addAll(chunk);
+        assertEquals(addresses, planned);
+    }
+
+    @Test
+    public void testInitialPlanWithoutHistory() {
+        AddressChunkPlanner planner = new AddressChunkPlanner(BASE_URL);
+        List<String> addresses = createAddresses(120, 34);
+
+        AddressChunkPlan plan = planner.plan("bitcoin-mainnet", "transactions", PARAMS, addresses);
+        assertCoversAddresses(addresses, plan);
+
+        // 120 addresses at 50 per chunk, balanced as 40/40/40
+        assertEquals(3, plan.getChunkCount());
+        assertEquals(40, plan.getChunks().get(2).size());
+        assertEquals(0, plan.getSamples());
+        assertSame(plan, planner.getPlan("bitcoin-mainnet").get());
+    }
+
+    @Test
+    public void testUrlByteBudget() {
+        AddressChunkPlanner planner = new AddressChunkPlanner(BASE_URL);
+        planner.setUrlByteBudget(1000);
+
+        List<String> shortAddresses = createAddresses(40, 20);
+        List<String> longAddresses = createAddresses(40, 62);
+
+        AddressChunkPlan shortPlan = planner.plan("bitcoin-mainnet", "transactions", PARAMS, shortAddresses);
+        AddressChunkPlan longPlan = planner.plan("bitcoin-mainnet", "transactions", PARAMS, longAddresses);
+
+        assertCoversAddresses(shortAddresses, shortPlan);
+        assertCoversAddresses(longAddresses, longPlan);
+        assertTrue(longPlan.getChunkCount() > shortPlan.getChunkCount());
+        assertTrue(shortPlan.getMaxUrlBytes() <= 1000);
+        assertTrue(longPlan.getMaxUrlBytes() <= 1000);
+    }
+
+    @Test
+    public void testHistoryGrowsAndShrinksChunks() {
+        AddressChunkPlanner planner = new AddressChunkPlanner(BASE_URL);
+        List<String> addresses = createAddresses(400, 34);
+
+        // Fast and empty - chunks grow to the maximum
+        planner.record("bitcoin-mainnet", 50, 250, 0);
+        AddressChunkPlan fast = planner.plan("bitcoin-mainnet", "transactions", PARAMS, addresses);
+        assertEquals(AddressChunkPlanner.DEFAULT_MAX_CHUNK_SIZE, fast.getTargetChunkSize());
+        assertCoversAddresses(addresses, fast);
+
+        // Results-heavy on another network - chunks shrink
+        planner.record("ethereum-mainnet", 10, 1000, 200);
+        AddressChunkPlan heavy = planner.plan("ethereum-mainnet", "transactions", PARAMS, addresses);
+        assertEquals(15, heavy.getTargetChunkSize());
+        assertEquals(1, heavy.getSamples());
+
+        // Histories are per network
+        assertEquals(AddressChunkPlanner.DEFAULT_MAX_CHUNK_SIZE,
+                planner.plan("bitcoin-mainnet", "transactions", PARAMS, addresses).getTargetChunkSize());
+    }
+}
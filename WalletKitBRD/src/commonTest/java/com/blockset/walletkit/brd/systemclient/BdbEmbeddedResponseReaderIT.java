@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.blockset.walletkit.SystemClient.Transaction;
+import com.blockset.walletkit.SystemClient.Transfer;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class BdbEmbeddedResponseReaderIT {
+
+    private final ObjectCoder coder = ObjectCoder.createObjectCoderWithFailOnUnknownProperties();
+
+    @Test
+    public void testReadEmbeddedAndLinks() throws Exception {
+        String json = "{\"_embedded\":{\"transfers\":[" + transferJson(0) + "," + transferJson(1) + "]}," +
+                "\"_links\":{\"self\":{\"href\":\"s\"},\"next\":{\"href\":\"n\"},\"prev\":{\"href\":\"p\"}}}";
+
+        PagedData<Transfer> paged = read(json, "transfers", BlocksetTransfer.class);
+        assertEquals(2, paged.getData().size());
+        assertEquals("bitcoin-mainnet:t0", paged.getData().get(0).getId());
+        assertEquals("bitcoin-mainnet:t1", paged.getData().get(1).getId());
+        assertEquals("n", paged.getNextUrl().orNull());
+        assertEquals("p", paged.getPrevUrl().orNull());
+    }
+
+    @Test
+    public void testReadLinksBeforeEmbedded() throws Exception {
+        String json = "{\"_links\":{\"next\":{\"href\":\"n\"}},\"_embedded\":{\"transfers\":[" + transferJson(0) + "]}}";
+
+        PagedData<Transfer> paged = read(json, "transfers", BlocksetTransfer.class);
+        assertEquals(1, paged.getData().size());
+        assertEquals("n", paged.getNextUrl().orNull());
+        assertFalse(paged.getPrevUrl().isPresent());
+    }
+
+    @Test
+    public void testReadMissingEmbedded() throws Exception {
+        assertTrue(read("{}", "transfers", BlocksetTransfer.class).getData().isEmpty());
+        assertTrue(read("{\"_embedded\":{\"blocks\":[]}}", "transfers", BlocksetTransfer.class).getData().isEmpty());
+        assertTrue(read("{\"_embedded\":{\"transfers\":null}}", "transfers", BlocksetTransfer.class).getData().isEmpty());
+        assertTrue(read("null", "transfers", BlocksetTransfer.class).getData().isEmpty());
+    }
+
+    @Test(expected = ObjectCoder.ObjectCoderException.class)
+    public void testReadEmpty() throws Exception {
+        read("", "transfers", BlocksetTransfer.class);
+    }
+
+    @Test(expected = ObjectCoder.ObjectCoderException.class)
+    public void testReadInvalidElement() throws Exception {
+        read("{\"_embedded\":{\"transfers\":[{\"transfer_id\":\"x\"}]}}", "transfers", BlocksetTransfer.class);
+    }
+
+    @Test
+    public void testReadTransactionsPage() throws Exception {
+        byte[] page = transactionsPage(2000).getBytes(StandardCharsets.UTF_8);
+
+        PagedData<Transaction> paged = BdbEmbeddedResponseReader.read(coder,
+                new ByteArrayInputStream(page),
+                "transactions",
+                BlocksetTransaction.class);
+        assertEquals(2000, paged.getData().size());
+        assertEquals("bitcoin-mainnet:tx1999", paged.getData().get(1999).getId());
+        assertEquals(2, paged.getData().get(1999).getTransfers().size());
+        assertTrue(paged.getData().get(0).getRaw().isPresent());
+        assertEquals("https://api.blockset.com/transactions?cursor=x", paged.getNextUrl().orNull());
+    }
+
+    // Support
+
+    private <T> PagedData<T> read(String json, String path, Class<? extends T> clazz) throws Exception {
+        return BdbEmbeddedResponseReader.read(coder,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                path,
+                clazz);
+    }
+
+    private static String transferJson(int index) {
+        return "{\"transfer_id\":\"bitcoin-mainnet:t" + index + "\"," +
+                "\"blockchain_id\":\"bitcoin-mainnet\"," +
+                "\"index\":" + index + "," +
+                "\"amount\":{\"currency_id\":\"bitcoin-mainnet:__native__\",\"amount\":\"" + (1000 + index) + "\"}," +
+                "\"meta\":{}," +
+                "\"from_address\":\"1JfbZRwdDHKZmuiZgYArJZhcuuzuw2HuMu\"," +
+                "\"to_address\":\"bc1qar0srrr7xfkvy5l643lydnw9re59gtzzwf5mdq\"," +
+                "\"transaction_id\":\"bitcoin-mainnet:tx" + index + "\"," +
+                "\"acknowledgements\":6}";
+    }
+
+    private static String transactionsPage(int count) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < 64; i++) raw.append("AQAAAAGRT0kHr5Q3Y2J5vB3x");
+
+        StringBuilder builder = new StringBuilder("{\"_embedded\":{\"transactions\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("{\"transaction_id\":\"bitcoin-mainnet:tx").append(i).append("\",")
+                    .append("\"identifier\":\"tx").append(i).append("\",")
+                    .append("\"hash\":\"tx").append(i).append("\",")
+                    .append("\"blockchain_id\":\"bitcoin-mainnet\",")
+                    .append("\"size\":225,")
+                    .append("\"fee\":{\"currency_id\":\"bitcoin-mainnet:__native__\",\"amount\":\"226\"},")
+                    .append("\"status\":\"confirmed\",")
+                    .append("\"_embedded\":{\"transfers\":[").append(transferJson(2 * i)).append(',').append(transferJson(2 * i + 1)).append("]},")
+                    .append("\"timestamp\":\"2021-03-01T00:00:00.000+0000\",")
+                    .append("\"index\":").append(i).append(',')
+                    .append("\"block_hash\":\"0000000000000000000b\",")
+                    .append("\"block_height\":").append(600000 + i).append(',')
+                    .append("\"acknowledgements\":6,")
+                    .append("\"confirmations\":6,")
+                    .append("\"raw\":\"").append(raw).append("\",")
+                    .append("\"meta\":{}}");
+        }
+        builder.append("]},\"_links\":{\"next\":{\"href\":\"https://api.blockset.com/transactions?cursor=x\"}}}");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.blockset.walletkit.SystemClient.Blockchain;
+import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.CompletionHandler;
+import com.google.common.collect.ImmutableMultimap;
+
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+
+import static org.junit.Assert.*;
+
+public class ConnectivityMonitorIT {
+
+    private static class CountingProbe implements ConnectivityMonitor.Probe {
+        final AtomicInteger probes = new AtomicInteger();
+        volatile boolean reachable;
+
+        CountingProbe(boolean reachable) {
+            this.reachable = reachable;
+        }
+
+        @Override
+        public boolean isReachable() {
+            probes.incrementAndGet();
+            return reachable;
+        }
+    }
+
+    private static class Result implements CompletionHandler<List<Blockchain>, SystemClientError> {
+        SystemClientError error;
+
+        @Override
+        public void handleData(List<Blockchain> data) {
+        }
+
+        @Override
+        public void handleError(SystemClientError error) {
+            this.error = error;
+        }
+    }
+
+    @Test
+    public void testProbesOncePerInterval() {
+        CountingProbe probe = new CountingProbe(false);
+        ConnectivityMonitor monitor = new ConnectivityMonitor(probe);
+        monitor.setProbeInterval(1, TimeUnit.HOURS);
+
+        for (int i = 0; i < 20; i++) assertTrue(monitor.lostConnectivity());
+        assertEquals(1, probe.probes.get());
+
+        monitor.setProbeInterval(0, TimeUnit.MILLISECONDS);
+        probe.reachable = true;
+        assertFalse(monitor.lostConnectivity());
+        assertEquals(2, probe.probes.get());
+    }
+
+    @Test
+    public void testReportedReachabilityOverridesProbe() {
+        CountingProbe probe = new CountingProbe(true);
+        ConnectivityMonitor monitor = new ConnectivityMonitor(probe);
+        monitor.setProbeInterval(1, TimeUnit.HOURS);
+
+        assertFalse(monitor.lostConnectivity());
+
+        monitor.setNetworkReachable(false);
+        assertTrue(monitor.isReportedUnreachable());
+        assertTrue(monitor.lostConnectivity());
+
+        // Becoming reachable discards the cached probe
+        monitor.setNetworkReachable(true);
+        assertFalse(monitor.lostConnectivity());
+        assertEquals(2, probe.probes.get());
+    }
+
+    @Test
+    public void testUnreachableFailsWithoutSending() {
+        AtomicInteger sent = new AtomicInteger();
+        BdbApiClient client = new BdbApiClient(new OkHttpClient(),
+                "https://api.blockset.com",
+                (cli, request, callback) -> {
+                    sent.incrementAndGet();
+                    callback.onFailure(null, new ConnectException());
+                },
+                ObjectCoder.createObjectCoderWithFailOnUnknownProperties());
+
+        client.setNetworkReachable(false);
+        Result result = new Result();
+        client.sendGetForArray("blockchains", ImmutableMultimap.of(), BlocksetBlockchain.class, result);
+        assertTrue(result.error instanceof SystemClientError.LostConnectivity);
+        assertEquals(0, sent.get());
+    }
+}
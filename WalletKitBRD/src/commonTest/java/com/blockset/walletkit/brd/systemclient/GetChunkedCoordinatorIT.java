@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.ChunkedCompletionHandler;
+import com.blockset.walletkit.utility.CompletionHandler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GetChunkedCoordinatorIT {
+
+    private static final List<String> CHUNK_A = Arrays.asList("a0", "a1");
+    private static final List<String> CHUNK_B = Collections.singletonList("b0");
+
+    private static class Recorder implements ChunkedCompletionHandler<Integer, SystemClientError> {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void handleChunk(List<Integer> chunk) {
+            events.add("chunk:" + chunk);
+        }
+
+        @Override
+        public void handleComplete() {
+            events.add("complete");
+        }
+
+        @Override
+        public void handleError(SystemClientError error) {
+            events.add("error");
+        }
+    }
+
+    @Test
+    public void testChunksDeliveredAsCompleted() {
+        Recorder recorder = new Recorder();
+        GetChunkedCoordinator<String, Integer> coordinator =
+                new GetChunkedCoordinator<>(Arrays.asList(CHUNK_A, CHUNK_B), recorder);
+
+        coordinator.handleChunkData(CHUNK_B, Collections.singletonList(2));
+        assertEquals(Collections.singletonList("chunk:[2]"), recorder.events);
+
+        coordinator.handleChunkData(CHUNK_A, Arrays.asList(0, 1));
+        assertEquals(Arrays.asList("chunk:[2]", "chunk:[0, 1]", "complete"), recorder.events);
+    }
+
+    @Test
+    public void testNoChunksAfterError() {
+        Recorder recorder = new Recorder();
+        GetChunkedCoordinator<String, Integer> coordinator =
+                new GetChunkedCoordinator<>(Arrays.asList(CHUNK_A, CHUNK_B), recorder);
+
+        coordinator.handleChunkData(CHUNK_A, Arrays.asList(0, 1));
+        coordinator.handleError(new SystemClientError.Unavailable());
+        coordinator.handleChunkData(CHUNK_B, Collections.singletonList(2));
+        coordinator.handleError(new SystemClientError.Resource());
+
+        assertEquals(Arrays.asList("chunk:[0, 1]", "error"), recorder.events);
+    }
+
+    @Test
+    public void testAccumulatedResults() {
+        List<List<Integer>> results = new ArrayList<>();
+        GetChunkedCoordinator<String, Integer> coordinator =
+                new GetChunkedCoordinator<>(Arrays.asList(CHUNK_A, CHUNK_B), new CompletionHandler<List<Integer>, SystemClientError>() {
+                    @Override
+                    public void handleData(List<Integer> data) {
+                        results.add(data);
+                    }
+
+                    @Override
+                    public void handleError(SystemClientError error) {
+                        fail();
+                    }
+                });
+
+        coordinator.handleChunkData(CHUNK_A, Arrays.asList(0, 1));
+        assertTrue(results.isEmpty());
+
+        coordinator.handleChunkData(CHUNK_B, Collections.singletonList(2));
+        assertEquals(Collections.singletonList(Arrays.asList(0, 1, 2)), results);
+    }
+}
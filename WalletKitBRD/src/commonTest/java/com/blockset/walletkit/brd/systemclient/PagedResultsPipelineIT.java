@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.ChunkedCompletionHandler;
+import com.blockset.walletkit.utility.CompletionHandler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PagedResultsPipelineIT {
+
+    // A page request whose links and data are released by the test
+    private static class PendingPage {
+        final String url;
+        final BdbEmbeddedResponseReader.LinksListener links;
+        final CompletionHandler<PagedData<Integer>, SystemClientError> handler;
+
+        PendingPage(String url,
+                    BdbEmbeddedResponseReader.LinksListener links,
+                    CompletionHandler<PagedData<Integer>, SystemClientError> handler) {
+            this.url = url;
+            this.links = links;
+            this.handler = handler;
+        }
+    }
+
+    private static class Recorder implements CompletionHandler<List<Integer>, SystemClientError> {
+        List<Integer> data;
+        SystemClientError error;
+        int calls;
+
+        @Override
+        public void handleData(List<Integer> data) {
+            this.data = data;
+            calls++;
+        }
+
+        @Override
+        public void handleError(SystemClientError error) {
+            this.error = error;
+            calls++;
+        }
+    }
+
+    private final List<PendingPage> requests = new ArrayList<>();
+    private final Recorder recorder = new Recorder();
+
+    private PagedResultsPipeline<Integer> createPipeline(int window) {
+        return new PagedResultsPipeline<>(
+                window,
+                Runnable::run,
+                (nextUrl, links, handler) -> requests.add(new PendingPage(null == nextUrl ? "first" : nextUrl, links, handler)),
+                recorder);
+    }
+
+    @Test
+    public void testRequestsNextPageOnLinks() {
+        createPipeline(2).start();
+        assertEquals(1, requests.size());
+
+        // The next page is requested as soon as the links are known, before the data
+        requests.get(0).links.handleLinks(null, "p1");
+        assertEquals(2, requests.size());
+        assertEquals("p1", requests.get(1).url);
+
+        // Window of 2 is full; page 2 is held until page 0 is parsed
+        requests.get(1).links.handleLinks(null, "p2");
+        assertEquals(2, requests.size());
+
+        requests.get(0).handler.handleData(new PagedData<>(Arrays.asList(0, 1), null, "p1"));
+        assertEquals(3, requests.size());
+        assertEquals("p2", requests.get(2).url);
+
+        // Out-of-order completion is reassembled in page order
+        requests.get(2).links.handleLinks(null, null);
+        requests.get(2).handler.handleData(new PagedData<>(Arrays.asList(4, 5), null, null));
+        assertEquals(0, recorder.calls);
+
+        requests.get(1).handler.handleData(new PagedData<>(Arrays.asList(2, 3), null, "p2"));
+        assertEquals(1, recorder.calls);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), recorder.data);
+    }
+
+    @Test
+    public void testSerialWindow() {
+        createPipeline(1).start();
+
+        requests.get(0).links.handleLinks(null, "p1");
+        assertEquals(1, requests.size());
+
+        requests.get(0).handler.handleData(new PagedData<>(Collections.singletonList(0), null, "p1"));
+        assertEquals(2, requests.size());
+
+        requests.get(1).links.handleLinks(null, null);
+        requests.get(1).handler.handleData(new PagedData<>(Collections.singletonList(1), null, null));
+        assertEquals(Arrays.asList(0, 1), recorder.data);
+    }
+
+    @Test
+    public void testDeliversPagesInOrder() {
+        List<List<Integer>> pages = new ArrayList<>();
+        boolean[] isComplete = {false};
+        new PagedResultsPipeline<Integer>(
+                2,
+                Runnable::run,
+                (nextUrl, links, handler) -> requests.add(new PendingPage(null == nextUrl ? "first" : nextUrl, links, handler)),
+                new ChunkedCompletionHandler<Integer, SystemClientError>() {
+                    @Override
+                    public void handleChunk(List<Integer> chunk) {
+                        pages.add(chunk);
+                    }
+
+                    @Override
+                    public void handleComplete() {
+                        isComplete[0] = true;
+                    }
+
+                    @Override
+                    public void handleError(SystemClientError error) {
+                        fail();
+                    }
+                }).start();
+
+        requests.get(0).links.handleLinks(null, "p1");
+        requests.get(1).links.handleLinks(null, null);
+
+        // Page 1 waits on page 0; then both are delivered
+        requests.get(1).handler.handleData(new PagedData<>(Collections.singletonList(1), null, null));
+        assertTrue(pages.isEmpty());
+
+        requests.get(0).handler.handleData(new PagedData<>(Collections.singletonList(0), null, "p1"));
+        assertEquals(Arrays.asList(Collections.singletonList(0), Collections.singletonList(1)), pages);
+        assertTrue(isComplete[0]);
+    }
+
+    @Test
+    public void testFirstErrorWins() {
+        createPipeline(2).start();
+
+        requests.get(0).links.handleLinks(null, "p1");
+        requests.get(1).handler.handleError(new SystemClientError.Resource());
+        requests.get(0).handler.handleError(new SystemClientError.Unavailable());
+        requests.get(0).handler.handleData(new PagedData<>(Collections.singletonList(0), null, "p1"));
+
+        assertEquals(1, recorder.calls);
+        assertTrue(recorder.error instanceof SystemClientError.Resource);
+    }
+}
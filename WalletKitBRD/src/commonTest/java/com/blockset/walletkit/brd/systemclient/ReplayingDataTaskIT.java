@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.blockset.walletkit.SystemClient.Blockchain;
+import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.CompletionHandler;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.io.Files;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
+import okio.Timeout;
+
+import static org.junit.Assert.*;
+
+public class ReplayingDataTaskIT {
+
+    private static final String BLOCKCHAINS_TEMPLATE =
+            "{\"_embedded\":{\"blockchains\":[{" +
+                    "\"id\":\"bitcoin-mainnet\",\"name\":\"Bitcoin\",\"network\":\"mainnet\",\"is_mainnet\":true," +
+                    "\"native_currency_id\":\"bitcoin-mainnet:__native__\",\"verified_height\":%d," +
+                    "\"fee_estimates\":[],\"confirmations_until_final\":6}]}}";
+
+    private static class Result<T> implements CompletionHandler<T, SystemClientError> {
+        final CountDownLatch done = new CountDownLatch(1);
+        T data;
+        SystemClientError error;
+
+        @Override
+        public void handleData(T data) {
+            this.data = data;
+            done.countDown();
+        }
+
+        @Override
+        public void handleError(SystemClientError error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        Result<T> await() throws InterruptedException {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            return this;
+        }
+    }
+
+    private File directory;
+    private final AtomicInteger height = new AtomicInteger(100);
+
+    // The 'live' server; each response reports a higher block height
+    private final DataTask server = (client, request, callback) -> {
+        Response response = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .header("Content-Type", "application/json")
+                .body(ResponseBody.create(String.format(BLOCKCHAINS_TEMPLATE, height.getAndIncrement()),
+                        MediaType.get("application/json")))
+                .build();
+        try {
+            callback.onResponse(null, response);
+        } catch (IOException e) {
+            callback.onFailure(null, e);
+        }
+    };
+
+    @Before
+    public void setup() {
+        directory = Files.createTempDir();
+    }
+
+    private static BdbApiClient createClient(DataTask dataTask) {
+        BdbApiClient client = new BdbApiClient(new OkHttpClient(),
+                "https://api.blockset.com",
+                dataTask,
+                ObjectCoder.createObjectCoderWithFailOnUnknownProperties());
+        client.setRetryPolicy(RetryPolicy.NONE);
+        return client;
+    }
+
+    private static Result<List<Blockchain>> getBlockchains(BdbApiClient client, boolean isMainnet) throws InterruptedException {
+        Result<List<Blockchain>> result = new Result<>();
+        client.sendGetForArray("blockchains", ImmutableMultimap.of("testnet", Boolean.toString(!isMainnet)),
+                BlocksetBlockchain.class, result);
+        return result.await();
+    }
+
+    @Test
+    public void testReplaysInRecordedOrder() throws Exception {
+        BdbApiClient recording = createClient(new RecordingDataTask(server, directory));
+        assertEquals(100, getBlockchains(recording, true).data.get(0).getBlockHeight().get().longValue());
+        assertEquals(101, getBlockchains(recording, true).data.get(0).getBlockHeight().get().longValue());
+
+        ReplayingDataTask replay = new ReplayingDataTask(directory);
+        BdbApiClient replaying = createClient(replay);
+        assertEquals(100, getBlockchains(replaying, true).data.get(0).getBlockHeight().get().longValue());
+        assertEquals(101, getBlockchains(replaying, true).data.get(0).getBlockHeight().get().longValue());
+
+        // Once exhausted, the last response repeats
+        assertEquals(101, getBlockchains(replaying, true).data.get(0).getBlockHeight().get().longValue());
+        assertEquals(3, replay.getReplayedCount());
+    }
+
+    @Test
+    public void testRecordingFailsOnUnreadableBody() throws Exception {
+        // A body that fails part way, as on a connection reset
+        DataTask resetting = (client, request, callback) -> {
+            Response response = new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .body(new ResponseBody() {
+                        @Override
+                        public MediaType contentType() {
+                            return MediaType.get("application/json");
+                        }
+
+                        @Override
+                        public long contentLength() {
+                            return -1;
+                        }
+
+                        @Override
+                        public BufferedSource source() {
+                            return Okio.buffer(new Source() {
+                                @Override
+                                public long read(Buffer sink, long byteCount) throws IOException {
+                                    throw new IOException("connection reset");
+                                }
+
+                                @Override
+                                public Timeout timeout() {
+                                    return Timeout.NONE;
+                                }
+
+                                @Override
+                                public void close() {
+                                }
+                            });
+                        }
+                    })
+                    .build();
+            try {
+                callback.onResponse(null, response);
+            } catch (IOException e) {
+                fail("the failure was not passed on to the callback");
+            }
+        };
+
+        Result<List<Blockchain>> result = getBlockchains(createClient(new RecordingDataTask(resetting, directory)), true);
+        assertNotNull(result.error);
+    }
+
+    @Test
+    public void testUnrecordedRequestFails() throws Exception {
+        getBlockchains(createClient(new RecordingDataTask(server, directory)), true);
+
+        ReplayingDataTask replay = new ReplayingDataTask(directory);
+        Result<List<Blockchain>> result = getBlockchains(createClient(replay), false);
+        assertNotNull(result.error);
+        assertEquals(1, replay.getMissedCount());
+    }
+
+    @Test
+    public void testLatencyAndBandwidthDelayResponses() throws Exception {
+        getBlockchains(createClient(new RecordingDataTask(server, directory)), true);
+        int size = String.format(BLOCKCHAINS_TEMPLATE, 100).length();
+
+        ReplayingDataTask replay = new ReplayingDataTask(directory);
+        replay.setLatency(50, TimeUnit.MILLISECONDS);
+        replay.setBandwidth(size * 10);     // 100 ms per body
+
+        BdbApiClient replaying = createClient(replay);
+        long start = java.lang.System.nanoTime();
+        Result<List<Blockchain>> first = new Result<>();
+        Result<List<Blockchain>> second = new Result<>();
+        replaying.sendGetForArray("blockchains", ImmutableMultimap.of("testnet", "false"), BlocksetBlockchain.class, first);
+        replaying.sendGetForArray("blockchains", ImmutableMultimap.of("testnet", "false"), BlocksetBlockchain.class, second);
+        first.await();
+        second.await();
+
+        // Concurrent identical reads share one request; the one body arrives after 150 ms
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(java.lang.System.nanoTime() - start) >= 150);
+        assertEquals(1, replay.getReplayedCount());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.Assert.*;
+
+public class RequestSchedulerIT {
+
+    // Holds sent requests until the test fails them
+    private static class PendingDataTask implements DataTask {
+        final List<Request> sent = new ArrayList<>();
+        final List<Callback> callbacks = new ArrayList<>();
+
+        @Override
+        public void execute(OkHttpClient client, Request request, Callback callback) {
+            sent.add(request);
+            callbacks.add(callback);
+        }
+
+        List<String> sentPaths() {
+            List<String> paths = new ArrayList<>();
+            for (Request request : sent) paths.add(request.url().encodedPath());
+            return paths;
+        }
+
+        void complete(int index) {
+            callbacks.get(index).onFailure(null, new IOException("done"));
+        }
+    }
+
+    private static class Recorder implements Callback {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            events.add("response");
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            events.add(e.getMessage());
+        }
+    }
+
+    private final OkHttpClient client = new OkHttpClient();
+    private final PendingDataTask dataTask = new PendingDataTask();
+    private final RequestScheduler scheduler = new RequestScheduler();
+    private final RequestScope root = RequestScope.createRoot();
+
+    private static Request createRequest(String path) {
+        return new Request.Builder().url("https://api.blockset.com/" + path).build();
+    }
+
+    private void execute(String path, RequestScope scope, RequestPriority priority, Callback callback) {
+        scheduler.execute(dataTask, client, createRequest(path), scope, priority, callback);
+    }
+
+    @Test
+    public void testHighestPrioritySentFirst() {
+        scheduler.setMaxActiveRequests(1);
+
+        execute("sync0", root, RequestPriority.HISTORY_SYNC, new Recorder());
+        execute("sync1", root, RequestPriority.HISTORY_SYNC, new Recorder());
+        execute("fee", root, RequestPriority.FEE_ESTIMATE, new Recorder());
+        execute("submit", root, RequestPriority.SUBMIT, new Recorder());
+        assertEquals(1, dataTask.sent.size());
+        assertEquals(3, scheduler.getQueuedCount(RequestPriority.HISTORY_SYNC)
+                + scheduler.getQueuedCount(RequestPriority.FEE_ESTIMATE)
+                + scheduler.getQueuedCount(RequestPriority.SUBMIT));
+
+        dataTask.complete(0);
+        dataTask.complete(1);
+        dataTask.complete(2);
+        assertEquals(Arrays.asList("/sync0", "/submit", "/fee", "/sync1"), dataTask.sentPaths());
+    }
+
+    @Test
+    public void testPriorityLimitLeavesRoomForOthers() {
+        scheduler.setPriorityLimit(RequestPriority.HISTORY_SYNC, 2);
+
+        execute("sync0", root, RequestPriority.HISTORY_SYNC, new Recorder());
+        execute("sync1", root, RequestPriority.HISTORY_SYNC, new Recorder());
+        execute("sync2", root, RequestPriority.HISTORY_SYNC, new Recorder());
+        assertEquals(2, scheduler.getActiveCount(RequestPriority.HISTORY_SYNC));
+        assertEquals(1, scheduler.getQueuedCount(RequestPriority.HISTORY_SYNC));
+
+        execute("submit", root, RequestPriority.SUBMIT, new Recorder());
+        assertEquals(3, dataTask.sent.size());
+        assertEquals(1, scheduler.getActiveCount(RequestPriority.SUBMIT));
+
+        dataTask.complete(0);
+        assertEquals(4, dataTask.sent.size());
+        assertEquals(0, scheduler.getQueuedCount(RequestPriority.HISTORY_SYNC));
+    }
+
+    @Test
+    public void testCancelIsScoped() {
+        scheduler.setMaxActiveRequests(1);
+
+        RequestScope system = root.createChild();
+        RequestScope manager = system.createChild();
+        RequestScope otherSystem = root.createChild();
+
+        Recorder first = new Recorder();
+        Recorder managerRequest = new Recorder();
+        Recorder otherRequest = new Recorder();
+
+        execute("first", otherSystem, RequestPriority.GENERAL, first);
+        execute("manager", manager, RequestPriority.GENERAL, managerRequest);
+        execute("other", otherSystem, RequestPriority.GENERAL, otherRequest);
+
+        // Cancelling the System cancels its WalletManager's requests, and only those
+        scheduler.cancel(client, system);
+        assertEquals(1, managerRequest.events.size());
+        assertEquals("Canceled", managerRequest.events.get(0));
+        assertTrue(otherRequest.events.isEmpty());
+
+        dataTask.complete(0);
+        assertEquals(2, dataTask.sent.size());
+        assertEquals("/other", dataTask.sent.get(1).url().encodedPath());
+        assertSame(otherSystem, dataTask.sent.get(1).tag(RequestScope.class));
+    }
+}
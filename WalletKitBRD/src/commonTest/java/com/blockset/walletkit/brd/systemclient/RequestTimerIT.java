@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.Assert.*;
+
+public class RequestTimerIT {
+
+    private static final Callback IGNORED = new Callback() {
+        @Override
+        public void onResponse(Call call, Response response) {
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+        }
+    };
+
+    @Test
+    public void testQueuedTimeIsNotCounted() throws Exception {
+        List<Callback> sent = new ArrayList<>();
+        RequestTimer timer = new RequestTimer();
+        DataTask dataTask = timer.wrap((client, request, callback) -> sent.add(callback));
+
+        RequestScheduler scheduler = new RequestScheduler();
+        scheduler.setMaxActiveRequests(1);
+
+        Request request = new Request.Builder().url("https://api.blockset.com/transfers").build();
+        scheduler.execute(dataTask, new OkHttpClient(), request, RequestScope.createRoot(), RequestPriority.HISTORY_SYNC, IGNORED);
+        scheduler.execute(dataTask, new OkHttpClient(), request, RequestScope.createRoot(), RequestPriority.HISTORY_SYNC, IGNORED);
+        assertEquals(1, sent.size());
+
+        // The first is on the network, and the second queued, for 100 ms
+        Thread.sleep(100);
+        sent.get(0).onFailure(null, new IOException("done"));
+        long first = timer.getElapsed(TimeUnit.MILLISECONDS);
+        assertTrue(first >= 100);
+
+        // The second is then sent, and fails at once
+        assertEquals(2, sent.size());
+        sent.get(1).onFailure(null, new IOException("done"));
+        assertTrue(timer.getElapsed(TimeUnit.MILLISECONDS) - first < 100);
+    }
+}
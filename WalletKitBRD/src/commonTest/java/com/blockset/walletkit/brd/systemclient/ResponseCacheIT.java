@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.blockset.walletkit.SystemClient.Blockchain;
+import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.CompletionHandler;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.io.Files;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+public class ResponseCacheIT {
+
+    private static final String BLOCKCHAINS =
+            "{\"_embedded\":{\"blockchains\":[{" +
+                    "\"id\":\"bitcoin-mainnet\",\"name\":\"Bitcoin\",\"network\":\"mainnet\",\"is_mainnet\":true," +
+                    "\"native_currency_id\":\"bitcoin-mainnet:__native__\",\"verified_height\":654321," +
+                    "\"fee_estimates\":[],\"confirmations_until_final\":6}]}}";
+
+    // A local stand-in for the Blockset server; answers synchronously and honors `If-None-Match`
+    private static class MockBlocksetServer implements DataTask {
+        final List<Request> requests = new ArrayList<>();
+        String etag = "\"v1\"";
+        String body = BLOCKCHAINS;
+
+        @Override
+        public void execute(OkHttpClient client, Request request, okhttp3.Callback callback) {
+            requests.add(request);
+
+            boolean notModified = etag.equals(request.header("If-None-Match"));
+            Response response = new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(notModified ? 304 : 200)
+                    .message(notModified ? "Not Modified" : "OK")
+                    .header("ETag", etag)
+                    .body(ResponseBody.create(notModified ? "" : body, MediaType.get("application/json")))
+                    .build();
+            try {
+                callback.onResponse(null, response);
+            } catch (IOException e) {
+                callback.onFailure(null, e);
+            }
+        }
+    }
+
+    private static class Result implements CompletionHandler<List<Blockchain>, SystemClientError> {
+        List<Blockchain> data;
+        SystemClientError error;
+
+        @Override
+        public void handleData(List<Blockchain> data) {
+            this.data = data;
+        }
+
+        @Override
+        public void handleError(SystemClientError error) {
+            this.error = error;
+        }
+    }
+
+    private MockBlocksetServer server;
+    private File directory;
+
+    @Before
+    public void setup() {
+        server = new MockBlocksetServer();
+        directory = Files.createTempDir();
+    }
+
+    private BdbApiClient createClient(long ttlInSeconds) {
+        BdbApiClient client = new BdbApiClient(new OkHttpClient(),
+                "https://api.blockset.com",
+                server,
+                ObjectCoder.createObjectCoderWithFailOnUnknownProperties());
+        client.setResponseCacheDirectory(directory);
+        client.setResponseCacheTtl("blockchains", ttlInSeconds, TimeUnit.SECONDS);
+        return client;
+    }
+
+    private List<Blockchain> getBlockchains(BdbApiClient client) {
+        Result result = new Result();
+        client.sendGetForArray("blockchains", ImmutableMultimap.of("testnet", "false"), BlocksetBlockchain.class, result);
+        assertNull(result.error);
+        assertNotNull(result.data);
+        return result.data;
+    }
+
+    @Test
+    public void testNotModifiedReusesDecodedResponse() {
+        BdbApiClient client = createClient(0);
+
+        List<Blockchain> first = getBlockchains(client);
+        assertEquals(1, first.size());
+        assertNull(server.requests.get(0).header("If-None-Match"));
+
+        List<Blockchain> second = getBlockchains(client);
+        assertEquals(2, server.requests.size());
+        assertEquals("\"v1\"", server.requests.get(1).header("If-None-Match"));
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testModifiedResponseReplacesEntry() {
+        BdbApiClient client = createClient(0);
+
+        List<Blockchain> first = getBlockchains(client);
+
+        server.etag = "\"v2\"";
+        List<Blockchain> second = getBlockchains(client);
+        assertNotSame(first, second);
+
+        List<Blockchain> third = getBlockchains(client);
+        assertEquals("\"v2\"", server.requests.get(2).header("If-None-Match"));
+        assertSame(second, third);
+    }
+
+    @Test
+    public void testFreshEntrySkipsNetwork() {
+        BdbApiClient client = createClient(60);
+
+        List<Blockchain> first = getBlockchains(client);
+        List<Blockchain> second = getBlockchains(client);
+        assertEquals(1, server.requests.size());
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testDiskEntryRevalidatesAfterRestart() {
+        getBlockchains(createClient(0));
+
+        List<Blockchain> restarted = getBlockchains(createClient(0));
+        assertEquals(2, server.requests.size());
+        assertEquals("\"v1\"", server.requests.get(1).header("If-None-Match"));
+        assertEquals("bitcoin-mainnet", restarted.get(0).getId());
+    }
+
+    @Test
+    public void testDecodedResultIsUnmodifiable() {
+        BdbApiClient client = createClient(60);
+
+        List<Blockchain> first = getBlockchains(client);
+        try {
+            first.clear();
+            fail("a shared result was modified");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals(1, getBlockchains(client).size());
+    }
+
+    @Test
+    public void testInMemoryEntriesAreBounded() {
+        ResponseCache cache = new ResponseCache();
+        for (int i = 0; i <= ResponseCache.MAX_ENTRIES; i++) {
+            cache.put("key" + i, null, null, new byte[0]);
+            // Recently used entries are kept
+            assertNotNull(cache.get("key0"));
+        }
+        assertNull(cache.get("key1"));
+        assertNotNull(cache.get("key" + ResponseCache.MAX_ENTRIES));
+    }
+
+    @Test
+    public void testUncachedResourceIsNotConditional() {
+        BdbApiClient client = createClient(0);
+        client.removeResponseCacheTtl("blockchains");
+
+        getBlockchains(client);
+        getBlockchains(client);
+        assertNull(server.requests.get(1).header("If-None-Match"));
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.blockset.walletkit.SystemClient.Blockchain;
+import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.CompletionHandler;
+import com.google.common.collect.ImmutableMultimap;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyIT {
+
+    private static final String BLOCKCHAINS =
+            "{\"_embedded\":{\"blockchains\":[{" +
+                    "\"id\":\"bitcoin-mainnet\",\"name\":\"Bitcoin\",\"network\":\"mainnet\",\"is_mainnet\":true," +
+                    "\"native_currency_id\":\"bitcoin-mainnet:__native__\",\"verified_height\":654321," +
+                    "\"fee_estimates\":[],\"confirmations_until_final\":6}]}}";
+
+    // Answers each request with the next scripted status code; 200 once the script runs out
+    private static class ScriptedServer implements DataTask {
+        final List<Request> requests = Collections.synchronizedList(new ArrayList<>());
+        final Queue<Integer> codes = new ArrayDeque<>();
+
+        ScriptedServer(Integer... codes) {
+            this.codes.addAll(Arrays.asList(codes));
+        }
+
+        @Override
+        public void execute(OkHttpClient client, Request request, okhttp3.Callback callback) {
+            requests.add(request);
+
+            Integer next = codes.poll();
+            int code = null == next ? 200 : next;
+            Response response = new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .message("")
+                    .header("Retry-After", "0")
+                    .body(ResponseBody.create(200 == code ? BLOCKCHAINS : "", MediaType.get("application/json")))
+                    .build();
+            try {
+                callback.onResponse(null, response);
+            } catch (IOException e) {
+                callback.onFailure(null, e);
+            }
+        }
+    }
+
+    private static class Result<T> implements CompletionHandler<T, SystemClientError> {
+        final CountDownLatch done = new CountDownLatch(1);
+        T data;
+        SystemClientError error;
+
+        @Override
+        public void handleData(T data) {
+            this.data = data;
+            done.countDown();
+        }
+
+        @Override
+        public void handleError(SystemClientError error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static BdbApiClient createClient(ScriptedServer server) {
+        BdbApiClient client = new BdbApiClient(new OkHttpClient(),
+                "https://api.blockset.com",
+                server,
+                ObjectCoder.createObjectCoderWithFailOnUnknownProperties());
+        client.setRetryPolicy(new RetryPolicy(3, 0, 0, 1000, 10));
+        return client;
+    }
+
+    private static Request createRequest(String method, String url) {
+        return new Request.Builder()
+                .url(url)
+                .method(method, "GET".equals(method) ? null : RequestBody.create(new byte[0], null))
+                .build();
+    }
+
+    @Test
+    public void testBackoffIsExponentialWithJitter() {
+        RetryPolicy policy = new RetryPolicy(5, 1000, 5000, 60_000, 10);
+        Random random = new Random(1);
+
+        for (int i = 0; i < 100; i++) {
+            long first = policy.getRetryDelay(1, -1, random);
+            assertTrue(first >= 500 && first <= 1000);
+
+            long second = policy.getRetryDelay(2, -1, random);
+            assertTrue(second >= 1000 && second <= 2000);
+
+            long capped = policy.getRetryDelay(4, -1, random);
+            assertTrue(capped >= 2500 && capped <= 5000);
+        }
+        assertEquals(-1, policy.getRetryDelay(5, -1, random));
+    }
+
+    @Test
+    public void testRetryAfterIsHonored() {
+        RetryPolicy policy = new RetryPolicy(3, 100, 1000, 10_000, 10);
+        Random random = new Random(1);
+
+        assertEquals(5000, policy.getRetryDelay(1, 5000, random));
+        assertEquals(-1, policy.getRetryDelay(1, 20_000, random));
+
+        assertEquals(120_000, RequestRetrier.parseRetryAfter("120"));
+        assertEquals(-1, RequestRetrier.parseRetryAfter("soon"));
+        assertEquals(-1, RequestRetrier.parseRetryAfter(null));
+        assertEquals(0, RequestRetrier.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+    }
+
+    @Test
+    public void testOnlyIdempotentRequestsRetry() {
+        RequestRetrier retrier = new RequestRetrier("https://api.blockset.com", Executors.newSingleThreadScheduledExecutor());
+
+        assertTrue(retrier.acquireRetryDelay(createRequest("GET", "https://api.blockset.com/transactions"), 1, null) >= 0);
+        assertEquals(-1, retrier.acquireRetryDelay(createRequest("POST", "https://api.blockset.com/transactions"), 1, null));
+    }
+
+    @Test
+    public void testEndpointBudgetIsSeparateAndReplenished() {
+        RequestRetrier retrier = new RequestRetrier("https://api.blockset.com", Executors.newSingleThreadScheduledExecutor());
+        retrier.setPolicy(new RetryPolicy(3, 0, 0, 0, 2));
+
+        Request transactions = createRequest("GET", "https://api.blockset.com/transactions?blockchain_id=x");
+        Request nextPage = createRequest("GET", "https://api.blockset.com/transactions?cursor=y");
+        Request blocks = createRequest("GET", "https://api.blockset.com/blocks");
+
+        assertEquals(0, retrier.acquireRetryDelay(transactions, 1, null));
+        assertEquals(0, retrier.acquireRetryDelay(nextPage, 1, null));
+        assertEquals(-1, retrier.acquireRetryDelay(transactions, 1, null));
+        assertEquals(0, retrier.acquireRetryDelay(blocks, 1, null));
+
+        for (int i = 0; i < 10; i++) retrier.recordSuccess(nextPage);
+        assertEquals(0, retrier.acquireRetryDelay(transactions, 1, null));
+        assertEquals(4, retrier.getRetryCount());
+    }
+
+    @Test
+    public void testGetIsRetried() throws InterruptedException {
+        ScriptedServer server = new ScriptedServer(503, 429);
+        BdbApiClient client = createClient(server);
+
+        Result<List<Blockchain>> result = new Result<>();
+        client.sendGetForArray("blockchains", ImmutableMultimap.of(), BlocksetBlockchain.class, result);
+        result.await();
+
+        assertNull(result.error);
+        assertEquals(1, result.data.size());
+        assertEquals(3, server.requests.size());
+        assertEquals(2, client.getRetryCount());
+    }
+
+    @Test
+    public void testRetriesAreBounded() throws InterruptedException {
+        ScriptedServer server = new ScriptedServer(503, 503, 503, 503);
+        BdbApiClient client = createClient(server);
+
+        Result<List<Blockchain>> result = new Result<>();
+        client.sendGetForArray("blockchains", ImmutableMultimap.of(), BlocksetBlockchain.class, result);
+        result.await();
+
+        assertNotNull(result.error);
+        assertEquals(3, server.requests.size());
+    }
+
+    @Test
+    public void testPostIsNotRetried() throws InterruptedException {
+        ScriptedServer server = new ScriptedServer(503);
+        BdbApiClient client = createClient(server);
+
+        Result<Void> result = new Result<>();
+        client.sendPost("transactions", ImmutableMultimap.of(), Collections.emptyMap(), result);
+        result.await();
+
+        assertNotNull(result.error);
+        assertEquals(1, server.requests.size());
+        assertEquals(0, client.getRetryCount());
+    }
+}
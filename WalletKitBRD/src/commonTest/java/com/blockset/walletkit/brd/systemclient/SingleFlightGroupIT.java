@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.blockset.walletkit.SystemClient.Blockchain;
+import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.CompletionHandler;
+import com.google.common.collect.ImmutableMultimap;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightGroupIT {
+
+    private static final String BLOCKCHAINS =
+            "{\"_embedded\":{\"blockchains\":[{" +
+                    "\"id\":\"bitcoin-mainnet\",\"name\":\"Bitcoin\",\"network\":\"mainnet\",\"is_mainnet\":true," +
+                    "\"native_currency_id\":\"bitcoin-mainnet:__native__\",\"verified_height\":654321," +
+                    "\"fee_estimates\":[],\"confirmations_until_final\":6}]}}";
+
+    // Holds each request until answered
+    private static class HeldServer implements DataTask {
+        final List<Request> requests = new ArrayList<>();
+        final List<Callback> callbacks = new ArrayList<>();
+
+        @Override
+        public void execute(OkHttpClient client, Request request, Callback callback) {
+            requests.add(request);
+            callbacks.add(callback);
+        }
+
+        void answer(int index) throws IOException {
+            callbacks.get(index).onResponse(null, new Response.Builder()
+                    .request(requests.get(index))
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("")
+                    .body(ResponseBody.create(BLOCKCHAINS, MediaType.get("application/json")))
+                    .build());
+        }
+    }
+
+    private static class Result<T> implements CompletionHandler<T, SystemClientError> {
+        T data;
+        SystemClientError error;
+
+        @Override
+        public void handleData(T data) {
+            this.data = data;
+        }
+
+        @Override
+        public void handleError(SystemClientError error) {
+            this.error = error;
+        }
+    }
+
+    private static class Recorder implements CompletionHandler<String, SystemClientError> {
+        final List<String> events = new ArrayList<>();
+
+        BdbEmbeddedResponseReader.LinksListener links() {
+            return (prevUrl, nextUrl) -> events.add("links:" + nextUrl);
+        }
+
+        @Override
+        public void handleData(String data) {
+            events.add("data:" + data);
+        }
+
+        @Override
+        public void handleError(SystemClientError error) {
+            events.add("error");
+        }
+    }
+
+    private final SingleFlightGroup group = new SingleFlightGroup();
+    private final List<RequestScope> startedScopes = new ArrayList<>();
+    private final List<BdbEmbeddedResponseReader.LinksListener> startedLinks = new ArrayList<>();
+    private final List<CompletionHandler<String, SystemClientError>> startedHandlers = new ArrayList<>();
+
+    private void execute(String key, Recorder recorder) {
+        execute(key, RequestScope.createRoot(), recorder);
+    }
+
+    private void execute(String key, RequestScope scope, Recorder recorder) {
+        group.execute(key, scope, recorder.links(), recorder, (flightScope, links, handler) -> {
+            startedScopes.add(flightScope);
+            startedLinks.add(links);
+            startedHandlers.add(handler);
+        });
+    }
+
+    @Test
+    public void testIdenticalRequestsShareOneFlight() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        Recorder other = new Recorder();
+
+        execute("GET a", first);
+        execute("GET a", second);
+        execute("GET b", other);
+
+        assertEquals(2, startedHandlers.size());
+        assertEquals(1, group.getHitCount());
+        assertEquals(2, group.getMissCount());
+
+        startedLinks.get(0).handleLinks(null, "n");
+        startedHandlers.get(0).handleData("A");
+
+        assertEquals(2, first.events.size());
+        assertEquals("links:n", first.events.get(0));
+        assertEquals("data:A", first.events.get(1));
+        assertEquals(first.events, second.events);
+        assertTrue(other.events.isEmpty());
+    }
+
+    @Test
+    public void testLateJoinerGetsLinksBeforeData() {
+        Recorder first = new Recorder();
+        Recorder late = new Recorder();
+
+        execute("GET a", first);
+        startedLinks.get(0).handleLinks(null, "n");
+        execute("GET a", late);
+        assertTrue(late.events.isEmpty());
+
+        startedHandlers.get(0).handleData("A");
+        assertEquals(first.events, late.events);
+    }
+
+    @Test
+    public void testCompletedFlightIsForgotten() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+
+        execute("GET a", first);
+        startedHandlers.get(0).handleError(new SystemClientError.Unavailable());
+        execute("GET a", second);
+
+        assertEquals(2, startedHandlers.size());
+        assertEquals(0, group.getHitCount());
+        assertEquals("error", first.events.get(0));
+        assertTrue(second.events.isEmpty());
+    }
+
+    @Test
+    public void testCancelledCallerIsDetached() {
+        RequestScope root = RequestScope.createRoot();
+        RequestScope cancelledScope = root.createChild();
+        Recorder cancelled = new Recorder();
+        Recorder other = new Recorder();
+
+        execute("GET a", cancelledScope, cancelled);
+        execute("GET a", root.createChild(), other);
+        assertEquals(1, startedHandlers.size());
+
+        // The flight goes on for the other caller
+        assertTrue(group.cancel(cancelledScope).isEmpty());
+        assertEquals("error", cancelled.events.get(0));
+
+        startedLinks.get(0).handleLinks(null, "n");
+        startedHandlers.get(0).handleData("A");
+        assertEquals(1, cancelled.events.size());
+        assertEquals("links:n", other.events.get(0));
+        assertEquals("data:A", other.events.get(1));
+    }
+
+    @Test
+    public void testFlightIsAbandonedWithItsLastCaller() {
+        RequestScope root = RequestScope.createRoot();
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+
+        execute("GET a", root.createChild(), first);
+        execute("GET a", root.createChild(), second);
+
+        assertEquals(startedScopes, group.cancel(root));
+        assertEquals("error", first.events.get(0));
+        assertEquals("error", second.events.get(0));
+
+        // A new caller starts a new flight
+        Recorder next = new Recorder();
+        execute("GET a", next);
+        assertEquals(2, startedHandlers.size());
+        startedHandlers.get(1).handleData("A");
+        startedHandlers.get(0).handleData("B");
+        assertEquals(1, next.events.size());
+        assertEquals("data:A", next.events.get(0));
+    }
+
+    @Test
+    public void testScopedClientsShareOneCall() throws IOException {
+        HeldServer server = new HeldServer();
+        BdbApiClient client = new BdbApiClient(new OkHttpClient(),
+                "https://api.blockset.com",
+                server,
+                ObjectCoder.createObjectCoderWithFailOnUnknownProperties());
+        BdbApiClient cancelledClient = client.createScopedClient();
+        BdbApiClient otherClient = client.createScopedClient();
+
+        Result<List<Blockchain>> cancelled = new Result<>();
+        Result<List<Blockchain>> other = new Result<>();
+        cancelledClient.sendGetForArray("blockchains", ImmutableMultimap.of(), BlocksetBlockchain.class, cancelled);
+        otherClient.sendGetForArray("blockchains", ImmutableMultimap.of(), BlocksetBlockchain.class, other);
+        assertEquals(1, server.requests.size());
+        assertEquals(1, client.getCoalescedRequestCount());
+
+        cancelledClient.cancelRequests();
+        assertNotNull(cancelled.error);
+        assertNull(other.error);
+
+        server.answer(0);
+        assertNull(cancelled.data);
+        assertNull(other.error);
+        assertEquals(1, other.data.size());
+    }
+
+    @Test
+    public void testAbandonedCallIsCancelled() throws IOException {
+        HeldServer server = new HeldServer();
+        BdbApiClient client = new BdbApiClient(new OkHttpClient(),
+                "https://api.blockset.com",
+                server,
+                ObjectCoder.createObjectCoderWithFailOnUnknownProperties());
+        client.setMaxConcurrentRequests(1);
+        BdbApiClient scopedClient = client.createScopedClient();
+
+        // Queued behind another request, then abandoned by both its callers
+        client.sendGetForArray("currencies", ImmutableMultimap.of(), BlocksetCurrency.class, new Result<>());
+        Result<List<Blockchain>> first = new Result<>();
+        Result<List<Blockchain>> second = new Result<>();
+        scopedClient.sendGetForArray("blockchains", ImmutableMultimap.of(), BlocksetBlockchain.class, first);
+        scopedClient.sendGetForArray("blockchains", ImmutableMultimap.of(), BlocksetBlockchain.class, second);
+        scopedClient.cancelRequests();
+        assertNotNull(first.error);
+        assertNotNull(second.error);
+
+        // So it is never sent
+        server.callbacks.get(0).onFailure(null, new IOException("done"));
+        assertEquals(1, server.requests.size());
+    }
+}
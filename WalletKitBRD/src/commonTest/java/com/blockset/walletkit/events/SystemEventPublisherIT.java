@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.events;
+
+import com.blockset.walletkit.Network;
+import com.blockset.walletkit.Wallet;
+import com.blockset.walletkit.WalletManager;
+import com.blockset.walletkit.events.system.SystemCreatedEvent;
+import com.blockset.walletkit.events.transfer.TransferCreatedEvent;
+import com.blockset.walletkit.events.wallet.WalletCreatedEvent;
+import com.blockset.walletkit.events.wallet.WalletEvent;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class SystemEventPublisherIT {
+
+    // Runs tasks only when told to
+    private static final class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (true) {
+                List<Runnable> pending;
+                synchronized (this) {
+                    if (tasks.isEmpty()) return;
+                    pending = new ArrayList<>(tasks);
+                    tasks.clear();
+                }
+                for (Runnable task : pending) task.run();
+            }
+        }
+    }
+
+    private static final class RecordingSubscriber implements EventFlow.Subscriber<EventRecord> {
+        final List<EventRecord> records = new ArrayList<>();
+        EventFlow.Subscription subscription;
+        Throwable error;
+        boolean isComplete;
+
+        @Override
+        public void onSubscribe(EventFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(EventRecord item) {
+            records.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            isComplete = true;
+        }
+    }
+
+    // An instance of `type`, equal only to itself; a manager's network is `network`
+    private static <T> T createScope(Class<T> type, Network network) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":     return proxy == args[0];
+                case "hashCode":   return java.lang.System.identityHashCode(proxy);
+                case "toString":   return type.getSimpleName();
+                case "getNetwork": return network;
+                default:           throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+    }
+
+    private static EventRecord record(Object event) {
+        return new EventRecord(null, null, null, null, null, event);
+    }
+
+    @Test
+    public void testHonorsDemand() {
+        ManualExecutor executor = new ManualExecutor();
+        SystemEventPublisher publisher = new SystemEventPublisher(executor);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.publisher(EventFilter.all(), 10, SystemEventPublisher.BufferStrategy.ERROR).subscribe(subscriber);
+
+        for (int i = 0; i < 5; i++) publisher.publish(record(new SystemCreatedEvent()));
+        executor.runAll();
+        assertTrue(subscriber.records.isEmpty());
+
+        subscriber.subscription.request(2);
+        executor.runAll();
+        assertEquals(2, subscriber.records.size());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        executor.runAll();
+        assertEquals(5, subscriber.records.size());
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void testFiltersAtSource() {
+        ManualExecutor executor = new ManualExecutor();
+        SystemEventPublisher publisher = new SystemEventPublisher(executor);
+
+        Network network = createScope(Network.class, null);
+        WalletManager manager = createScope(WalletManager.class, network);
+        Wallet wallet = createScope(Wallet.class, network);
+        Wallet otherWallet = createScope(Wallet.class, network);
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.publisher(EventFilter.all().forWallet(wallet).forEventTypes(WalletEvent.class),
+                1, SystemEventPublisher.BufferStrategy.ERROR).subscribe(subscriber);
+
+        // Neither of these take room in the (one event) buffer
+        publisher.handleWalletEvent(null, manager, otherWallet, new WalletCreatedEvent());
+        publisher.handleTransferEvent(null, manager, wallet, null, new TransferCreatedEvent());
+        publisher.handleWalletEvent(null, manager, wallet, new WalletCreatedEvent());
+
+        subscriber.subscription.request(10);
+        executor.runAll();
+        assertNull(subscriber.error);
+        assertEquals(1, subscriber.records.size());
+        assertSame(wallet, subscriber.records.get(0).getWallet().get());
+        assertSame(network, subscriber.records.get(0).getNetwork().get());
+    }
+
+    @Test
+    public void testBufferStrategies() {
+        ManualExecutor executor = new ManualExecutor();
+        SystemEventPublisher publisher = new SystemEventPublisher(executor);
+
+        RecordingSubscriber oldest = new RecordingSubscriber();
+        RecordingSubscriber latest = new RecordingSubscriber();
+        RecordingSubscriber error = new RecordingSubscriber();
+        publisher.publisher(EventFilter.all(), 2, SystemEventPublisher.BufferStrategy.DROP_OLDEST).subscribe(oldest);
+        publisher.publisher(EventFilter.all(), 2, SystemEventPublisher.BufferStrategy.DROP_LATEST).subscribe(latest);
+        publisher.publisher(EventFilter.all(), 2, SystemEventPublisher.BufferStrategy.ERROR).subscribe(error);
+
+        List<Object> events = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            events.add(new SystemCreatedEvent());
+            publisher.publish(record(events.get(i)));
+        }
+
+        oldest.subscription.request(10);
+        latest.subscription.request(10);
+        executor.runAll();
+
+        assertSame(events.get(1), oldest.records.get(0).getEvent());
+        assertSame(events.get(2), oldest.records.get(1).getEvent());
+        assertSame(events.get(0), latest.records.get(0).getEvent());
+        assertSame(events.get(1), latest.records.get(1).getEvent());
+
+        // Failed without any request, and unsubscribed
+        assertTrue(error.error instanceof IllegalStateException);
+        assertTrue(error.records.isEmpty());
+    }
+
+    @Test
+    public void testCancelAndComplete() {
+        ManualExecutor executor = new ManualExecutor();
+        SystemEventPublisher publisher = new SystemEventPublisher(executor);
+        EventFlow.Publisher<EventRecord> events = publisher.publisher(EventFilter.all(), 10, SystemEventPublisher.BufferStrategy.ERROR);
+
+        RecordingSubscriber cancelled = new RecordingSubscriber();
+        RecordingSubscriber completed = new RecordingSubscriber();
+        events.subscribe(cancelled);
+        events.subscribe(completed);
+
+        publisher.publish(record(new SystemCreatedEvent()));
+        cancelled.subscription.cancel();
+        publisher.complete();
+
+        // Buffered events are passed on before completion
+        executor.runAll();
+        assertFalse(completed.isComplete);
+        completed.subscription.request(1);
+        executor.runAll();
+        assertEquals(1, completed.records.size());
+        assertTrue(completed.isComplete);
+
+        assertTrue(cancelled.records.isEmpty());
+        assertFalse(cancelled.isComplete);
+        assertFalse(publisher.hasSubscriptions());
+
+        // A late subscriber completes at once
+        RecordingSubscriber late = new RecordingSubscriber();
+        events.subscribe(late);
+        executor.runAll();
+        assertTrue(late.isComplete);
+    }
+
+    @Test
+    public void testNonPositiveRequestFails() {
+        ManualExecutor executor = new ManualExecutor();
+        SystemEventPublisher publisher = new SystemEventPublisher(executor);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.publisher(EventFilter.all(), 10, SystemEventPublisher.BufferStrategy.ERROR).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+        executor.runAll();
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+}
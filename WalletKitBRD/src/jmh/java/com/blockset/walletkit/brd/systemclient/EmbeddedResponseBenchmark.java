@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.blockset.walletkit.SystemClient.Transaction;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+/**
+ * Compares decoding a `transactions` page as BdbApiClient did before, reading the body into a
+ * String, then a `Map` tree, then binding the tree with `convertValue`, with the streaming
+ * {@link BdbEmbeddedResponseReader} it now uses.
+ *
+ * Run with `./gradlew :WalletKitBRD-JRE:jmh -PjmhArgs='EmbeddedResponseBenchmark -prof gc'`; the
+ * `gc.alloc.rate.norm` rows give the bytes allocated per page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddedResponseBenchmark {
+
+    // The response as it was decoded before, into a tree
+    private static final class TreeResponse {
+        @JsonProperty("_embedded")
+        private Map<String, Object> embedded;
+
+        @JsonProperty("_links")
+        private Links links;
+    }
+
+    private static final class Link {
+        @JsonProperty
+        private String href;
+    }
+
+    private static final class Links {
+        @JsonProperty
+        private Link next;
+
+        @JsonProperty
+        private Link prev;
+    }
+
+    private static final MediaType MEDIA_TYPE_JSON = MediaType.parse("application/json; charset=utf-8");
+
+    @Param({"100", "2000"})
+    public int transactionsCount;
+
+    private ObjectCoder coder;
+    private byte[] page;
+
+    @Setup
+    public void setup() {
+        coder = ObjectCoder.createObjectCoderWithFailOnUnknownProperties();
+        page = transactionsPage(transactionsCount).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Transaction> tree() throws Exception {
+        ResponseBody body = ResponseBody.create(page, MEDIA_TYPE_JSON);
+        TreeResponse response = coder.deserializeJson(TreeResponse.class, body.string());
+        return coder.deserializeObjectList(BlocksetTransaction.class, response.embedded.get("transactions"));
+    }
+
+    @Benchmark
+    public List<Transaction> streaming() throws Exception {
+        ResponseBody body = ResponseBody.create(page, MEDIA_TYPE_JSON);
+        return BdbEmbeddedResponseReader.<Transaction>read(coder,
+                body.byteStream(),
+                "transactions",
+                BlocksetTransaction.class).getData();
+    }
+
+    // A page as Blockset returns it, with two transfers and the raw data of each transaction
+    private static String transactionsPage(int count) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < 64; i++) raw.append("AQAAAAGRT0kHr5Q3Y2J5vB3x");
+
+        StringBuilder builder = new StringBuilder("{\"_embedded\":{\"transactions\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("{\"transaction_id\":\"bitcoin-mainnet:tx").append(i).append("\",")
+                    .append("\"identifier\":\"tx").append(i).append("\",")
+                    .append("\"hash\":\"tx").append(i).append("\",")
+                    .append("\"blockchain_id\":\"bitcoin-mainnet\",")
+                    .append("\"size\":225,")
+                    .append("\"fee\":{\"currency_id\":\"bitcoin-mainnet:__native__\",\"amount\":\"226\"},")
+                    .append("\"status\":\"confirmed\",")
+                    .append("\"_embedded\":{\"transfers\":[").append(transferJson(2 * i)).append(',').append(transferJson(2 * i + 1)).append("]},")
+                    .append("\"timestamp\":\"2021-03-01T00:00:00.000+0000\",")
+                    .append("\"index\":").append(i).append(',')
+                    .append("\"block_hash\":\"0000000000000000000b\",")
+                    .append("\"block_height\":").append(600000 + i).append(',')
+                    .append("\"acknowledgements\":6,")
+                    .append("\"confirmations\":6,")
+                    .append("\"raw\":\"").append(raw).append("\",")
+                    .append("\"meta\":{}}");
+        }
+        builder.append("]},\"_links\":{\"next\":{\"href\":\"https://api.blockset.com/transactions?cursor=x\"}}}");
+        return builder.toString();
+    }
+
+    private static String transferJson(int index) {
+        return "{\"transfer_id\":\"bitcoin-mainnet:t" + index + "\"," +
+                "\"blockchain_id\":\"bitcoin-mainnet\"," +
+                "\"index\":" + index + "," +
+                "\"amount\":{\"currency_id\":\"bitcoin-mainnet:__native__\",\"amount\":\"" + (1000 + index) + "\"}," +
+                "\"meta\":{}," +
+                "\"from_address\":\"1JfbZRwdDHKZmuiZgYArJZhcuuzuw2HuMu\"," +
+                "\"to_address\":\"bc1qar0srrr7xfkvy5l643lydnw9re59gtzzwf5mdq\"," +
+                "\"transaction_id\":\"bitcoin-mainnet:tx" + index + "\"," +
+                "\"acknowledgements\":6}";
+    }
+}
@@ -10,6 +10,7 @@ package com.blockset.walletkit.brd;
 import androidx.annotation.Nullable;
 
 import com.blockset.walletkit.nativex.cleaner.ReferenceCleaner;
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
 import com.blockset.walletkit.nativex.WKAmount;
 import com.blockset.walletkit.CurrencyPair;
 import com.blockset.walletkit.nativex.WKComparison;
@@ -52,7 +53,7 @@ final class Amount implements com.blockset.walletkit.Amount {
     /* package */
     static Amount create(WKAmount core) {
         Amount amount = new Amount(core);
-        ReferenceCleaner.register(amount, core::give);
+        ReferenceCleaner.registerScoped(amount, core::give);
         return amount;
     }
 
@@ -96,8 +97,8 @@ final class Amount implements com.blockset.walletkit.Amount {
     private Amount(WKAmount core) {
         this.core = core;
 
-        this.currencySupplier = Suppliers.memoize(() -> Currency.create(core.getCurrency()));
-        this.unitSupplier = Suppliers.memoize(() -> Unit.create(core.getUnit()));
+        this.currencySupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Currency.create(core.getCurrency())));
+        this.unitSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Unit.create(core.getUnit())));
         this.toStringSupplier = Suppliers.memoize(() -> toStringAsUnit(getUnit()).or("<nan>"));
     }
 
@@ -31,6 +31,30 @@ public final class ApiProvider implements Api.Provider {
         return INSTANCE;
     }
 
+    /**
+     * Get a snapshot of the queue depth and dispatch latency of each stripe of the executor on
+     * which WalletKit events, of all Systems, are handled.
+     */
+    public static List<StripedExecutor.StripeMetrics> getEventExecutorMetrics() {
+        return System.getListenerExecutorMetrics();
+    }
+
+    /**
+     * Get the monitor of the time wallet and transfer events take, of all Systems, from the core's
+     * callback to the SystemListener.  Monitoring is off until enabled.
+     */
+    public static EventLatencyMonitor getEventLatencyMonitor() {
+        return System.getEventLatencyMonitor();
+    }
+
+    /**
+     * Set the number of threads on which the core's requests of the SystemClient, of all Systems,
+     * are run.  Requests for the same WalletManager are run one at a time regardless.
+     */
+    public static void setClientCallbackThreads(int threads) {
+        System.getClientExecutor().setSize(threads);
+    }
+
     private static final Api.AccountProvider accountProvider = new Api.AccountProvider() {
         @Override
         public Optional<com.blockset.walletkit.Account> createFromPhrase(byte[] phraseUtf8, Date timestamp, String uids, boolean isMainnet) {
@@ -29,7 +29,7 @@ final class Currency implements com.blockset.walletkit.Currency {
     /* package */
     static Currency create(WKCurrency core) {
         Currency currency = new Currency(core);
-        ReferenceCleaner.register(currency, core::give);
+        ReferenceCleaner.registerScoped(currency, core::give);
         return currency;
     }
 
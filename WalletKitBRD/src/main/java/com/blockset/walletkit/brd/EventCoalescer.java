@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import androidx.annotation.Nullable;
+
+import com.blockset.walletkit.TransferState;
+import com.blockset.walletkit.events.transfer.TransferChangedEvent;
+import com.blockset.walletkit.events.transfer.TransferDeletedEvent;
+import com.blockset.walletkit.events.transfer.TransferEvent;
+import com.blockset.walletkit.events.wallet.WalletBalanceUpdatedEvent;
+import com.blockset.walletkit.events.wallet.WalletDeletedEvent;
+import com.blockset.walletkit.events.wallet.WalletEvent;
+import com.blockset.walletkit.events.wallet.WalletTransferChangedEvent;
+import com.blockset.walletkit.events.wallet.WalletTransferDeletedEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Coalesces a WalletManager's wallet and transfer events, as announced during a sync burst, before
+ * they are delivered to the listener.  Managers, wallets and transfers (of types `M`, `W` and `T`)
+ * are distinguished by equality.
+ *
+ * Within a window, starting at the first event held, a wallet's balance updates are collapsed into
+ * the latest; a transfer's changed events into one (from the first old state to the last new
+ * state); and a wallet's repeated transfer changed events for one transfer into one.  Held events
+ * are delivered, in the order first held, when the window ends, when the manager's sync stops or
+ * before any terminal event.  Terminal events - deletions and transfer changes into an included,
+ * failed or deleted state - are never held or dropped.  Other events are delivered immediately,
+ * and so may overtake held events of other wallets and transfers.
+ *
+ * Coalescing is off, and every event is delivered immediately, until a window is set.  A coalesced
+ * event is delivered with the latency trace of the first event collapsed into it.
+ */
+/* package */
+final class EventCoalescer<M, W, T> {
+
+    /* package */
+    interface Sink<M, W, T> {
+        void deliverWalletEvent(M manager, W wallet, WalletEvent event, @Nullable EventLatencyMonitor.Trace trace);
+
+        void deliverTransferEvent(M manager, W wallet, T transfer, TransferEvent event, @Nullable EventLatencyMonitor.Trace trace);
+    }
+
+    private static final class HeldEvent<W, T> {
+        private final W wallet;
+        private final T transfer;               // null for a wallet event
+        private WalletEvent walletEvent;
+        private TransferEvent transferEvent;
+        @Nullable private final EventLatencyMonitor.Trace trace;
+
+        private HeldEvent(W wallet,
+                          T transfer,
+                          WalletEvent walletEvent,
+                          TransferEvent transferEvent,
+                          @Nullable EventLatencyMonitor.Trace trace) {
+            this.wallet = wallet;
+            this.transfer = transfer;
+            this.walletEvent = walletEvent;
+            this.transferEvent = transferEvent;
+            this.trace = trace;
+        }
+    }
+
+    // A manager's held events; guarded by itself
+    private static final class Batch<W, T> {
+        private final Map<List<Object>, HeldEvent<W, T>> events = new LinkedHashMap<>();
+        private ScheduledFuture<?> flush;
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final Sink<M, W, T> sink;
+    private final Map<M, Batch<W, T>> batches = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    private volatile long windowNanos = 0;
+
+    /* package */
+    EventCoalescer(ScheduledExecutorService scheduler, Sink<M, W, T> sink) {
+        this.scheduler = scheduler;
+        this.sink = sink;
+    }
+
+    /** Set the window in which events are coalesced; 0 to stop coalescing. */
+    /* package */
+    void setWindow(long window, TimeUnit unit) {
+        checkArgument(window >= 0);
+        windowNanos = unit.toNanos(window);
+        if (0 == windowNanos) flushAll();
+    }
+
+    /** Get the number of events collapsed into others, and so never delivered on their own. */
+    /* package */
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /* package */
+    void walletEvent(M manager, W wallet, WalletEvent event, @Nullable EventLatencyMonitor.Trace trace) {
+        if (0 == windowNanos) {
+            sink.deliverWalletEvent(manager, wallet, event, trace);
+            return;
+        }
+
+        List<Object> key = null;
+        if (event instanceof WalletBalanceUpdatedEvent) {
+            key = Arrays.asList(wallet, WalletBalanceUpdatedEvent.class);
+        } else if (event instanceof WalletTransferChangedEvent) {
+            key = Arrays.asList(wallet, WalletTransferChangedEvent.class, ((WalletTransferChangedEvent) event).getTransfer());
+        }
+
+        Batch<W, T> batch = getBatch(manager);
+        synchronized (batch) {
+            if (null == key) {
+                // A terminal event follows everything held before it
+                if (event instanceof WalletDeletedEvent || event instanceof WalletTransferDeletedEvent) flush(manager, batch);
+                sink.deliverWalletEvent(manager, wallet, event, trace);
+                return;
+            }
+
+            HeldEvent<W, T> held = batch.events.get(key);
+            if (null == held) {
+                hold(manager, batch, key, new HeldEvent<>(wallet, null, event, null, trace));
+            } else {
+                // The latest balance supersedes; a repeated changed event adds nothing
+                if (event instanceof WalletBalanceUpdatedEvent) held.walletEvent = event;
+                coalescedCount.incrementAndGet();
+            }
+        }
+    }
+
+    /* package */
+    void transferEvent(M manager, W wallet, T transfer, TransferEvent event, @Nullable EventLatencyMonitor.Trace trace) {
+        if (0 == windowNanos) {
+            sink.deliverTransferEvent(manager, wallet, transfer, event, trace);
+            return;
+        }
+
+        Batch<W, T> batch = getBatch(manager);
+        synchronized (batch) {
+            if (!(event instanceof TransferChangedEvent)) {
+                if (event instanceof TransferDeletedEvent) flush(manager, batch);
+                sink.deliverTransferEvent(manager, wallet, transfer, event, trace);
+                return;
+            }
+
+            TransferChangedEvent changed = (TransferChangedEvent) event;
+            List<Object> key = Arrays.asList(transfer, TransferChangedEvent.class);
+            HeldEvent<W, T> held = batch.events.get(key);
+
+            if (isTerminal(changed.getNewState())) {
+                flush(manager, batch);
+                sink.deliverTransferEvent(manager, wallet, transfer, event, trace);
+            } else if (null == held) {
+                hold(manager, batch, key, new HeldEvent<>(wallet, transfer, null, event, trace));
+            } else {
+                held.transferEvent = new TransferChangedEvent(
+                        ((TransferChangedEvent) held.transferEvent).getOldState(),
+                        changed.getNewState());
+                coalescedCount.incrementAndGet();
+            }
+        }
+    }
+
+    /** Deliver all of `manager`'s held events; as when its sync stops. */
+    /* package */
+    void flush(M manager) {
+        Batch<W, T> batch = batches.get(manager);
+        if (null == batch) return;
+        synchronized (batch) {
+            flush(manager, batch);
+        }
+    }
+
+    /** Deliver all of `manager`'s held events and forget the manager; as when it is deleted. */
+    /* package */
+    void remove(M manager) {
+        Batch<W, T> batch = batches.remove(manager);
+        if (null == batch) return;
+        synchronized (batch) {
+            flush(manager, batch);
+        }
+    }
+
+    private void flushAll() {
+        for (M manager : new ArrayList<>(batches.keySet())) flush(manager);
+    }
+
+    private Batch<W, T> getBatch(M manager) {
+        return batches.computeIfAbsent(manager, m -> new Batch<>());
+    }
+
+    // Guarded by `batch`
+    private void hold(M manager, Batch<W, T> batch, List<Object> key, HeldEvent<W, T> event) {
+        batch.events.put(key, event);
+        if (null == batch.flush) {
+            batch.flush = scheduler.schedule(() -> flush(manager), windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Guarded by `batch`
+    private void flush(M manager, Batch<W, T> batch) {
+        if (null != batch.flush) {
+            batch.flush.cancel(false);
+            batch.flush = null;
+        }
+
+        for (HeldEvent<W, T> held : batch.events.values()) {
+            if (null == held.transfer) sink.deliverWalletEvent(manager, held.wallet, held.walletEvent, held.trace);
+            else sink.deliverTransferEvent(manager, held.wallet, held.transfer, held.transferEvent, held.trace);
+        }
+        batch.events.clear();
+    }
+
+    private static boolean isTerminal(TransferState state) {
+        switch (state.getType()) {
+            case INCLUDED:
+            case FAILED:
+            case DELETED:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import androidx.annotation.Nullable;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Measures the time taken by wallet and transfer events on their way from the core's callback to
+ * the SystemListener, by stage and by event type, and counts the events queued at each hop.
+ *
+ * An event is timed as it arrives from the core, once extracted (after waiting for its turn on the
+ * event executor), once announced (submitted to the System's executor, after any coalescing) and as
+ * the listener starts and ends.  Monitoring is off, and costs nothing, until enabled; events that
+ * arrive while it is off are not timed.
+ */
+public final class EventLatencyMonitor {
+
+    private static final Logger Log = Logger.getLogger(EventLatencyMonitor.class.getName());
+
+    /** The stages of an event's delivery, each timed from the end of the one before. */
+    public enum Stage {
+        /** From arrival from the core until extracted; the wait on the event executor and the extraction. */
+        EXTRACT,
+
+        /** From extracted until announced; creating the event and, if so configured, coalescing it. */
+        ANNOUNCE,
+
+        /** From announced until the listener starts; the wait on the System's executor. */
+        QUEUE,
+
+        /** From the start of the listener until its end. */
+        LISTENER,
+
+        /** From arrival from the core until the end of the listener. */
+        TOTAL
+    }
+
+    /**
+     * A snapshot of a histogram of latencies, in power of two microsecond buckets; a percentile is
+     * reported as the upper bound of the bucket in which it falls.
+     */
+    public static final class Histogram {
+        private final long[] buckets;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Histogram(long[] buckets, long count, long totalNanos, long maxNanos) {
+            this.buckets = buckets;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getAverage(TimeUnit unit) {
+            return 0 == count ? 0 : unit.convert(totalNanos / count, TimeUnit.NANOSECONDS);
+        }
+
+        public long getMax(TimeUnit unit) {
+            return unit.convert(maxNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /** Get the latency within which `percentile` (as 99.0) percent of events fall. */
+        public long getPercentile(double percentile, TimeUnit unit) {
+            checkArgument(percentile >= 0 && percentile <= 100);
+            if (0 == count) return 0;
+
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(1, rank)) {
+                    return Math.min(unit.convert(getBucketBoundMicros(i), TimeUnit.MICROSECONDS), getMax(unit));
+                }
+            }
+            return getMax(unit);
+        }
+
+        @Override
+        public String toString() {
+            return "Histogram{" +
+                    "count=" + count +
+                    ", averageMicros=" + getAverage(TimeUnit.MICROSECONDS) +
+                    ", p50Micros=" + getPercentile(50, TimeUnit.MICROSECONDS) +
+                    ", p99Micros=" + getPercentile(99, TimeUnit.MICROSECONDS) +
+                    ", maxMicros=" + getMax(TimeUnit.MICROSECONDS) +
+                    '}';
+        }
+    }
+
+    /** A snapshot of the latencies of one type of event. */
+    public static final class EventTypeMetrics {
+        private final String eventType;
+        private final Map<Stage, Histogram> histograms;
+
+        private EventTypeMetrics(String eventType, Map<Stage, Histogram> histograms) {
+            this.eventType = eventType;
+            this.histograms = histograms;
+        }
+
+        /** The event's simple class name; as `WalletBalanceUpdatedEvent`. */
+        public String getEventType() {
+            return eventType;
+        }
+
+        public Histogram getHistogram(Stage stage) {
+            return histograms.get(stage);
+        }
+
+        @Override
+        public String toString() {
+            return "EventTypeMetrics{" +
+                    "eventType=" + eventType +
+                    ", histograms=" + histograms +
+                    '}';
+        }
+    }
+
+    /** A snapshot of the events queued at each hop. */
+    public static final class QueueMetrics {
+        private final int extractQueueDepth;
+        private final int maxExtractQueueDepth;
+        private final int listenerQueueDepth;
+        private final int maxListenerQueueDepth;
+
+        private QueueMetrics(int extractQueueDepth,
+                             int maxExtractQueueDepth,
+                             int listenerQueueDepth,
+                             int maxListenerQueueDepth) {
+            this.extractQueueDepth = extractQueueDepth;
+            this.maxExtractQueueDepth = maxExtractQueueDepth;
+            this.listenerQueueDepth = listenerQueueDepth;
+            this.maxListenerQueueDepth = maxListenerQueueDepth;
+        }
+
+        /** The number of timed events arrived from the core and not yet extracted. */
+        public int getExtractQueueDepth() {
+            return extractQueueDepth;
+        }
+
+        public int getMaxExtractQueueDepth() {
+            return maxExtractQueueDepth;
+        }
+
+        /** The number of timed events announced and not yet passed to the listener. */
+        public int getListenerQueueDepth() {
+            return listenerQueueDepth;
+        }
+
+        public int getMaxListenerQueueDepth() {
+            return maxListenerQueueDepth;
+        }
+
+        @Override
+        public String toString() {
+            return "QueueMetrics{" +
+                    "extractQueueDepth=" + extractQueueDepth +
+                    ", maxExtractQueueDepth=" + maxExtractQueueDepth +
+                    ", listenerQueueDepth=" + listenerQueueDepth +
+                    ", maxListenerQueueDepth=" + maxListenerQueueDepth +
+                    '}';
+        }
+    }
+
+    /** The times at which one event reached each stage; created on its arrival from the core. */
+    /* package */
+    static final class Trace {
+        private final long arrived;
+        private long extracted;
+        private long announced;
+
+        private Trace(long arrived) {
+            this.arrived = arrived;
+        }
+    }
+
+    // Covers 1 microsecond to about 35 minutes
+    private static final int BUCKET_COUNT = 32;
+
+    private static long getBucketBoundMicros(int bucket) {
+        return 1L << bucket;
+    }
+
+    private static final class Recorder {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long nanos) {
+            long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+            int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros - 1));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private Histogram getHistogram() {
+            long[] counts = new long[BUCKET_COUNT];
+            long count = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets.get(i);
+                count += counts[i];
+            }
+            return new Histogram(counts, count, totalNanos.get(), maxNanos.get());
+        }
+    }
+
+    private final Map<Class<?>, Map<Stage, Recorder>> recorders = new ConcurrentHashMap<>();
+
+    private final AtomicInteger extractQueueDepth = new AtomicInteger();
+    private final AtomicInteger maxExtractQueueDepth = new AtomicInteger();
+    private final AtomicInteger listenerQueueDepth = new AtomicInteger();
+    private final AtomicInteger maxListenerQueueDepth = new AtomicInteger();
+
+    private volatile boolean isEnabled = false;
+
+    // Guarded by `this`
+    private ScheduledExecutorService logExecutor;
+    private ScheduledFuture<?> logFuture;
+
+    /* package */
+    EventLatencyMonitor() {
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /** Start, or stop, timing events as they arrive. */
+    public void setEnabled(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    /** Forget the latencies recorded so far; the queue depths, of events in flight, remain. */
+    public void reset() {
+        recorders.clear();
+        maxExtractQueueDepth.set(extractQueueDepth.get());
+        maxListenerQueueDepth.set(listenerQueueDepth.get());
+    }
+
+    public List<EventTypeMetrics> getMetrics() {
+        List<EventTypeMetrics> metrics = new ArrayList<>(recorders.size());
+        for (Map.Entry<Class<?>, Map<Stage, Recorder>> entry : recorders.entrySet()) {
+            Map<Stage, Histogram> histograms = new EnumMap<>(Stage.class);
+            for (Map.Entry<Stage, Recorder> stage : entry.getValue().entrySet()) {
+                histograms.put(stage.getKey(), stage.getValue().getHistogram());
+            }
+            metrics.add(new EventTypeMetrics(entry.getKey().getSimpleName(), Collections.unmodifiableMap(histograms)));
+        }
+        return metrics;
+    }
+
+    public QueueMetrics getQueueMetrics() {
+        return new QueueMetrics(extractQueueDepth.get(),
+                maxExtractQueueDepth.get(),
+                listenerQueueDepth.get(),
+                maxListenerQueueDepth.get());
+    }
+
+    /** Log the metrics, at INFO, every `period`; until {@link #stopLogging()}. */
+    public synchronized void startLogging(long period, TimeUnit unit) {
+        checkArgument(period > 0);
+        stopLogging();
+
+        if (null == logExecutor) {
+            logExecutor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("walletkit-latency-log").setDaemon(true).build());
+        }
+        logFuture = logExecutor.scheduleAtFixedRate(this::log, period, period, unit);
+    }
+
+    public synchronized void stopLogging() {
+        if (null != logFuture) {
+            logFuture.cancel(false);
+            logFuture = null;
+        }
+    }
+
+    private void log() {
+        Log.log(Level.INFO, getQueueMetrics().toString());
+        for (EventTypeMetrics metrics : getMetrics()) {
+            Log.log(Level.INFO, metrics.toString());
+        }
+    }
+
+    /** Start timing an event, as it arrives from the core; null if monitoring is off. */
+    /* package */
+    @Nullable Trace arrived() {
+        if (!isEnabled) return null;
+
+        maxExtractQueueDepth.accumulateAndGet(extractQueueDepth.incrementAndGet(), Math::max);
+        return new Trace(java.lang.System.nanoTime());
+    }
+
+    /* package */
+    void extracted(@Nullable Trace trace) {
+        if (null == trace) return;
+
+        extractQueueDepth.decrementAndGet();
+        trace.extracted = java.lang.System.nanoTime();
+    }
+
+    /** Get `listener`, to be submitted to the System's executor for `event`, timed if `trace` is. */
+    /* package */
+    Runnable announced(@Nullable Trace trace, @Nullable Object event, Runnable listener) {
+        if (null == trace || null == event) return listener;
+
+        maxListenerQueueDepth.accumulateAndGet(listenerQueueDepth.incrementAndGet(), Math::max);
+        trace.announced = java.lang.System.nanoTime();
+
+        return () -> {
+            long started = java.lang.System.nanoTime();
+            listenerQueueDepth.decrementAndGet();
+            try {
+                listener.run();
+            } finally {
+                long ended = java.lang.System.nanoTime();
+
+                Map<Stage, Recorder> stages = recorders.computeIfAbsent(event.getClass(), c -> {
+                    Map<Stage, Recorder> map = new EnumMap<>(Stage.class);
+                    for (Stage stage : Stage.values()) map.put(stage, new Recorder());
+                    return map;
+                });
+                stages.get(Stage.EXTRACT).record(trace.extracted - trace.arrived);
+                stages.get(Stage.ANNOUNCE).record(trace.announced - trace.extracted);
+                stages.get(Stage.QUEUE).record(started - trace.announced);
+                stages.get(Stage.LISTENER).record(ended - started);
+                stages.get(Stage.TOTAL).record(ended - trace.arrived);
+            }
+        };
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * An executor of keyed tasks on a bounded pool of worker threads.  Tasks with equal keys run one
+ * at a time, in submission order; tasks with different keys share the workers, which take turns
+ * between keys so that one key's long backlog does not hold up the others.
+ *
+ * Tasks submitted as priority tasks form a separate lane per key: they run in order with the
+ * key's other priority tasks, but ahead of, and independently of, the key's normal tasks.
+ */
+public final class KeyedWorkerPool {
+
+    private static final Logger Log = Logger.getLogger(KeyedWorkerPool.class.getName());
+
+    // A key's lane: its pending tasks, of which at most one is ever queued to, or running on, a worker
+    private final class Lane {
+        private final Object key;
+        private final boolean isPriority;
+
+        // Guarded by `lanes`
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        private Lane(Object key, boolean isPriority) {
+            this.key = key;
+            this.isPriority = isPriority;
+        }
+
+        private void runNext() {
+            Runnable task;
+            synchronized (lanes) {
+                task = tasks.remove();
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Log.log(Level.SEVERE, "task failed", e);
+            } finally {
+                completedCount.incrementAndGet();
+                synchronized (lanes) {
+                    if (tasks.isEmpty()) lanes.remove(key);
+                    else schedule(this);
+                }
+            }
+        }
+    }
+
+    // A worker's turn at a lane; priority lanes first, then in the order scheduled
+    private static final class Turn implements Runnable, Comparable<Turn> {
+        private final Lane lane;
+        private final long sequence;
+
+        private Turn(Lane lane, long sequence) {
+            this.lane = lane;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            lane.runNext();
+        }
+
+        @Override
+        public int compareTo(Turn that) {
+            if (this.lane.isPriority != that.lane.isPriority) return this.lane.isPriority ? -1 : 1;
+            return Long.compare(this.sequence, that.sequence);
+        }
+    }
+
+    private final ThreadPoolExecutor workers;
+    private final Map<Object, Lane> lanes = new HashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+
+    /* package */
+    KeyedWorkerPool(String name, int size) {
+        checkArgument(size > 0);
+        this.workers = new ThreadPoolExecutor(size, size,
+                30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build());
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /** Run `task` after every task previously submitted, to the same lane, with an equal key. */
+    /* package */
+    void execute(Object key, Runnable task) {
+        execute(key, false, task);
+    }
+
+    /**
+     * Run `task` after every task previously submitted with an equal key and priority.  A priority
+     * task is run ahead of all queued normal tasks.
+     */
+    /* package */
+    void execute(Object key, boolean isPriority, Runnable task) {
+        // Priority tasks are serialized on their own lane, not behind the key's normal tasks
+        Object laneKey = isPriority ? Arrays.asList(key, Boolean.TRUE) : key;
+
+        synchronized (lanes) {
+            Lane lane = lanes.get(laneKey);
+            if (null == lane) {
+                lane = new Lane(laneKey, isPriority);
+                lanes.put(laneKey, lane);
+                lane.tasks.add(task);
+                schedule(lane);
+            } else {
+                // Already scheduled; the task is run when its predecessors are done
+                lane.tasks.add(task);
+            }
+        }
+    }
+
+    private void schedule(Lane lane) {
+        workers.execute(new Turn(lane, sequence.getAndIncrement()));
+    }
+
+    /** Set the maximum number of tasks run at once. */
+    public void setSize(int size) {
+        checkArgument(size > 0);
+        if (size > workers.getMaximumPoolSize()) {
+            workers.setMaximumPoolSize(size);
+            workers.setCorePoolSize(size);
+        } else {
+            workers.setCorePoolSize(size);
+            workers.setMaximumPoolSize(size);
+        }
+    }
+
+    public int getSize() {
+        return workers.getMaximumPoolSize();
+    }
+
+    /** Get the number of tasks submitted and not yet started. */
+    public int getPendingCount() {
+        int count = 0;
+        synchronized (lanes) {
+            for (Lane lane : lanes.values()) count += lane.tasks.size();
+        }
+        return count;
+    }
+
+    /** Get the number of tasks completed. */
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+}
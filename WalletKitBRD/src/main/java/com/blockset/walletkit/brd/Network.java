@@ -10,6 +10,7 @@ package com.blockset.walletkit.brd;
 import androidx.annotation.Nullable;
 
 import com.blockset.walletkit.nativex.cleaner.ReferenceCleaner;
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
 import com.blockset.walletkit.nativex.WKAddressScheme;
 import com.blockset.walletkit.nativex.WKCurrency;
 import com.blockset.walletkit.nativex.WKNetwork;
@@ -40,7 +41,7 @@ final class Network implements com.blockset.walletkit.Network {
         Network network = new Network(
                 (needTake ? core.take() : core)
         );
-        ReferenceCleaner.register(network, core::give);
+        ReferenceCleaner.registerScoped(network, core::give);
         return network;
     }
 
@@ -73,16 +74,16 @@ final class Network implements com.blockset.walletkit.Network {
         nameSupplier = Suppliers.memoize(core::getName);
         isMainnetSupplier = Suppliers.memoize(core::isMainnet);
         typeSupplier = Suppliers.memoize(() -> Utilities.networkTypeFromCrypto(core.getCanonicalType()));
-        currencySupplier = Suppliers.memoize(() -> Currency.create(core.getCurrency()));
+        currencySupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Currency.create(core.getCurrency())));
 
-        currenciesSupplier = Suppliers.memoize(() -> {
+        currenciesSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> {
             Set<Currency> currencies = new HashSet<>();
             UnsignedLong count = core.getCurrencyCount();
             for (UnsignedLong i = UnsignedLong.ZERO; i.compareTo(count) < 0; i = i.plus(UnsignedLong.ONE)) {
                 currencies.add(Currency.create(core.getCurrency(i)));
             }
             return currencies;
-        });
+        }));
     }
 
     @Override
@@ -11,6 +11,7 @@ import com.blockset.walletkit.nativex.WKCurrency;
 import com.blockset.walletkit.nativex.WKNetwork;
 import com.blockset.walletkit.nativex.WKWallet;
 import com.blockset.walletkit.nativex.cleaner.ReferenceCleaner;
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
 import com.blockset.walletkit.nativex.WKPayProtReqBitPayAndBip70Callbacks;
 import com.blockset.walletkit.nativex.WKPayProtReqBitPayAndBip70Callbacks.BitPayAndBip70Validator;
 import com.blockset.walletkit.nativex.WKPayProtReqBitPayAndBip70Callbacks.BitPayAndBip70CommonNameExtractor;
@@ -186,7 +187,7 @@ final class PaymentProtocolRequest implements com.blockset.walletkit.PaymentProt
         this.memoSupplier = Suppliers.memoize(core::getMemo);
         this.paymentUrlSupplier = Suppliers.memoize(core::getPaymentUrl);
         this.commonNameSupplier = Suppliers.memoize(core::getCommonName);
-        this.amountSupplier = Suppliers.memoize(() -> core.getTotalAmount().transform(Amount::create));
+        this.amountSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> core.getTotalAmount().transform(Amount::create)));
         this.addressSupplier = Suppliers.memoize(() -> core.getPrimaryTargetAddress().transform(Address::create));
         this.networkFeeSupplier = Suppliers.memoize(() -> core.getRequiredNetworkFee().transform(NetworkFee::create));
         this.validitySupplier = Suppliers.memoize(() -> Utilities.paymentProtocolErrorFromCrypto(core.isValid()));
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * An executor of keyed tasks over a fixed number of single-threaded stripes.  Tasks with equal
+ * keys run on the same stripe, in submission order; tasks with different keys may run in
+ * parallel, on different stripes.
+ *
+ * Each stripe counts its queued tasks and the delay between a task's submission and its start.
+ */
+public final class StripedExecutor {
+
+    /** A snapshot of one stripe's queue and dispatch latency. */
+    public static final class StripeMetrics {
+        private final int stripe;
+        private final int queueDepth;
+        private final int maxQueueDepth;
+        private final long dispatchedCount;
+        private final long totalDispatchLatencyNanos;
+        private final long maxDispatchLatencyNanos;
+
+        private StripeMetrics(int stripe,
+                              int queueDepth,
+                              int maxQueueDepth,
+                              long dispatchedCount,
+                              long totalDispatchLatencyNanos,
+                              long maxDispatchLatencyNanos) {
+            this.stripe = stripe;
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.dispatchedCount = dispatchedCount;
+            this.totalDispatchLatencyNanos = totalDispatchLatencyNanos;
+            this.maxDispatchLatencyNanos = maxDispatchLatencyNanos;
+        }
+
+        public int getStripe() {
+            return stripe;
+        }
+
+        /** The number of tasks submitted and not yet started. */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        /** The number of tasks started. */
+        public long getDispatchedCount() {
+            return dispatchedCount;
+        }
+
+        public long getAverageDispatchLatency(TimeUnit unit) {
+            return 0 == dispatchedCount ? 0 : unit.convert(totalDispatchLatencyNanos / dispatchedCount, TimeUnit.NANOSECONDS);
+        }
+
+        public long getMaxDispatchLatency(TimeUnit unit) {
+            return unit.convert(maxDispatchLatencyNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return "StripeMetrics{" +
+                    "stripe=" + stripe +
+                    ", queueDepth=" + queueDepth +
+                    ", maxQueueDepth=" + maxQueueDepth +
+                    ", dispatchedCount=" + dispatchedCount +
+                    ", averageDispatchLatencyMicros=" + getAverageDispatchLatency(TimeUnit.MICROSECONDS) +
+                    ", maxDispatchLatencyMicros=" + getMaxDispatchLatency(TimeUnit.MICROSECONDS) +
+                    '}';
+        }
+    }
+
+    private static final class Stripe {
+        private final ExecutorService executor;
+
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+        private final AtomicLong dispatchedCount = new AtomicLong();
+        private final AtomicLong totalDispatchLatencyNanos = new AtomicLong();
+        private final AtomicLong maxDispatchLatencyNanos = new AtomicLong();
+
+        private Stripe(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        private void execute(Runnable task) {
+            long submitted = java.lang.System.nanoTime();
+            maxQueueDepth.accumulateAndGet(queueDepth.incrementAndGet(), Math::max);
+
+            executor.execute(() -> {
+                long latency = java.lang.System.nanoTime() - submitted;
+                queueDepth.decrementAndGet();
+                dispatchedCount.incrementAndGet();
+                totalDispatchLatencyNanos.addAndGet(latency);
+                maxDispatchLatencyNanos.accumulateAndGet(latency, Math::max);
+
+                task.run();
+            });
+        }
+
+        private StripeMetrics getMetrics(int index) {
+            return new StripeMetrics(index,
+                    queueDepth.get(),
+                    maxQueueDepth.get(),
+                    dispatchedCount.get(),
+                    totalDispatchLatencyNanos.get(),
+                    maxDispatchLatencyNanos.get());
+        }
+    }
+
+    private final List<Stripe> stripes;
+
+    /* package */
+    StripedExecutor(String name, int stripeCount) {
+        checkArgument(stripeCount > 0);
+
+        List<Stripe> stripes = new ArrayList<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new Stripe(Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat(name + "-" + i).build())));
+        }
+        this.stripes = Collections.unmodifiableList(stripes);
+    }
+
+    /** Run `task` on the stripe for `key`, after every task previously submitted with an equal key. */
+    /* package */
+    void execute(Object key, Runnable task) {
+        stripes.get(getStripe(key)).execute(task);
+    }
+
+    /**
+     * Run `task` after every task previously submitted, whatever its key; on whichever stripe is
+     * the last to reach it.
+     */
+    /* package */
+    void executeAfterAll(Runnable task) {
+        AtomicInteger remaining = new AtomicInteger(stripes.size());
+        for (Stripe stripe : stripes) {
+            stripe.execute(() -> {
+                if (0 == remaining.decrementAndGet()) task.run();
+            });
+        }
+    }
+
+    /* package */
+    int getStripe(Object key) {
+        int hash = key.hashCode();
+        // Spread the high bits, as pointer hashes differ mostly in those
+        hash ^= (hash >>> 16);
+        return Math.abs(hash % stripes.size());
+    }
+
+    public int getStripeCount() {
+        return stripes.size();
+    }
+
+    public List<StripeMetrics> getMetrics() {
+        List<StripeMetrics> metrics = new ArrayList<>(stripes.size());
+        for (int i = 0; i < stripes.size(); i++) {
+            metrics.add(stripes.get(i).getMetrics(i));
+        }
+        return metrics;
+    }
+}
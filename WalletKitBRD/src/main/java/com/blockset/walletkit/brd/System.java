@@ -63,6 +63,10 @@ import com.blockset.walletkit.errors.CurrencyUpdateError;
 import com.blockset.walletkit.errors.FeeEstimationError;
 import com.blockset.walletkit.errors.NetworkFeeUpdateError;
 import com.blockset.walletkit.errors.NetworkFeeUpdateFeesUnavailableError;
+import com.blockset.walletkit.events.EventFilter;
+import com.blockset.walletkit.events.EventFlow;
+import com.blockset.walletkit.events.EventRecord;
+import com.blockset.walletkit.events.SystemEventPublisher;
 import com.blockset.walletkit.events.network.NetworkEvent;
 import com.blockset.walletkit.events.system.SystemChangedEvent;
 import com.blockset.walletkit.events.system.SystemCreatedEvent;
@@ -103,6 +107,7 @@ import com.blockset.walletkit.brd.systemclient.BlocksetAmount;
 import com.blockset.walletkit.brd.systemclient.BlocksetCurrency;
 import com.blockset.walletkit.brd.systemclient.BlocksetTransfer;
 import com.blockset.walletkit.nativex.utility.SizeT;
+import com.blockset.walletkit.utility.ChunkedCompletionHandler;
 import com.blockset.walletkit.utility.CompletionHandler;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
@@ -112,6 +117,7 @@ import com.google.common.primitives.UnsignedLong;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -120,12 +126,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -158,12 +161,21 @@ final class System implements com.blockset.walletkit.System {
     /// If true, save removed system in the above array. Set to `false` for debugging 'release'.
     private static final boolean SYSTEMS_INACTIVE_RETAIN = true;
 
-    // Create a dedicated executor to pump CWM events as quickly as possible
-    private static final Executor EXECUTOR_LISTENER = Executors.newSingleThreadExecutor();
+    // Create dedicated executors to pump CWM events as quickly as possible.  Events are striped
+    // by System and WalletManager: each manager's events are handled in order, one at a time,
+    // while those of other managers, and other Systems, are handled in parallel.
+    private static final StripedExecutor EXECUTOR_LISTENER = new StripedExecutor("walletkit-listener",
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
 
-    // Create a dedicated executor to pump CWM callbacks. This is a separate executor
-    // than the one used to handle events as they *really* need to be pumped as fast as possible.
-    private static final Executor EXECUTOR_CLIENT = Executors.newSingleThreadExecutor();
+    // Create a dedicated pool to pump CWM callbacks. This is a separate pool than the one used
+    // to handle events as they *really* need to be pumped as fast as possible.  Callbacks are
+    // serialized by System and WalletManager; submit and fee estimate callbacks take a priority
+    // lane so that they are not held up behind a manager's, or another manager's, sync.
+    private static final KeyedWorkerPool EXECUTOR_CLIENT = new KeyedWorkerPool("walletkit-client",
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    // Times wallet and transfer events from the core's callback to the listener, when enabled
+    private static final EventLatencyMonitor EVENT_LATENCY = new EventLatencyMonitor();
 
     //
     // Keep a static reference to the callbacks so that they are never GC'ed
@@ -195,6 +207,7 @@ final class System implements com.blockset.walletkit.System {
 
         storagePath = storagePath + (storagePath.endsWith(File.separator) ? "" : File.separator) + cryptoAccount.getFilesystemIdentifier();
         checkState(ensurePath(storagePath));
+        query.setStoragePath(storagePath);
 
         Cookie context = new Cookie(SYSTEM_IDS.incrementAndGet());
 
@@ -394,10 +407,11 @@ final class System implements com.blockset.walletkit.System {
         static Optional<Extraction> extract(Cookie            context,
                                             WKWalletManager   coreWalletManager   ) {
             return extract(context).transform((e)-> {
-                e.manager = WalletManager.create(coreWalletManager,
-                                                 true,
-                                                 e.system,
-                                                 e.system.callbackCoordinator);
+                e.manager = e.system.managerWrappers.getOrCreate(coreWalletManager,
+                        () -> WalletManager.create(coreWalletManager,
+                                                   true,
+                                                   e.system,
+                                                   e.system.callbackCoordinator));
 
 
                 if (e.manager == null) {
@@ -421,7 +435,8 @@ final class System implements com.blockset.walletkit.System {
             return extract(context,
                            coreWalletManager).transform((e)-> {
                 if (e.manager != null) {
-                    e.wallet = e.manager.walletByCoreOrCreate(coreWallet, true);
+                    e.wallet = e.system.walletWrappers.getOrCreate(coreWallet,
+                            () -> e.manager.walletByCoreOrCreate(coreWallet, true));
                     if (e.wallet == null) {
                         Log.log(Level.SEVERE, "Extraction missed wallet");
                     }
@@ -449,7 +464,8 @@ final class System implements com.blockset.walletkit.System {
                            coreWalletManager,
                            coreWallet).transform((e)-> {
                 if (e.manager != null && e.wallet != null) {
-                    e.transfer = e.wallet.transferByCoreOrCreate(coreTransfer, true);
+                    e.transfer = e.system.transferWrappers.getOrCreate(coreTransfer,
+                            () -> e.wallet.transferByCoreOrCreate(coreTransfer, true));
                     if (e.transfer == null) {
                         Log.log(Level.SEVERE, "Extraction missed transfer");
                     }
@@ -481,6 +497,27 @@ final class System implements com.blockset.walletkit.System {
     private final String storagePath;
     private final SystemClient query;
     private final Cookie context;
+
+    // Per-WalletManager clients, keyed by core WalletManager, so that one manager's requests can
+    // be cancelled without cancelling the others'.
+    private final Map<WKWalletManager, SystemClient> managerQueries = new ConcurrentHashMap<>();
+
+    // The wrappers of core objects seen in callbacks, reused by later callbacks for the same objects
+    private final WeakWrapperMap<WalletManager> managerWrappers = new WeakWrapperMap<>();
+    private final WeakWrapperMap<Wallet> walletWrappers = new WeakWrapperMap<>();
+    private final WeakWrapperMap<Transfer> transferWrappers = new WeakWrapperMap<>();
+
+    // Per-Wallet indexes of transfers by hash, keyed by core Wallet; kept up to date by the
+    // wallet and transfer events, before any coalescing.
+    private final TransferHashIndex.ByWallet<WKWallet, Transfer> transferHashIndexes =
+            new TransferHashIndex.ByWallet<>(transfer -> transfer.getHash().transform(TransferHash::toString));
+
+    // Wallet and transfer events pass through here, to be coalesced if so configured
+    private final EventCoalescer<WalletManager, Wallet, Transfer> eventCoalescer;
+
+    // Events are also published, to subscribers of `events()`
+    private final SystemEventPublisher eventPublisher;
+
     private final WKListener cwmListener;
     private final WKClient cwmClient;
 
@@ -496,10 +533,28 @@ final class System implements com.blockset.walletkit.System {
         this.executor = executor;
         this.listener = listener;
         this.callbackCoordinator = new SystemCallbackCoordinator(executor);
+        this.eventPublisher = new SystemEventPublisher(executor);
+        this.eventCoalescer = new EventCoalescer<>(executor, new EventCoalescer.Sink<WalletManager, Wallet, Transfer>() {
+            @Override
+            public void deliverWalletEvent(WalletManager manager, Wallet wallet, WalletEvent event,
+                                           @Nullable EventLatencyMonitor.Trace trace) {
+                executor.submit(EVENT_LATENCY.announced(trace, event,
+                        () -> listener.handleWalletEvent(System.this, manager, wallet, event)));
+                eventPublisher.handleWalletEvent(System.this, manager, wallet, event);
+            }
+
+            @Override
+            public void deliverTransferEvent(WalletManager manager, Wallet wallet, Transfer transfer, TransferEvent event,
+                                             @Nullable EventLatencyMonitor.Trace trace) {
+                executor.submit(EVENT_LATENCY.announced(trace, event,
+                        () -> listener.handleTransferEvent(System.this, manager, wallet, transfer, event)));
+                eventPublisher.handleTransferEvent(System.this, manager, wallet, transfer, event);
+            }
+        });
         this.account = account;
         this.isMainnet = isMainnet;
         this.storagePath = storagePath;
-        this.query = query;
+        this.query = query.createScopedClient();
         this.context = context;
         this.cwmListener = cwmListener;
         this.cwmClient = cwmClient;
@@ -715,9 +770,25 @@ final class System implements com.blockset.walletkit.System {
 
     @Override
     public void setNetworkReachable(boolean isNetworkReachable) {
+        query.setNetworkReachable(isNetworkReachable);
         core.setIsReachable(isNetworkReachable);
     }
 
+    @Override
+    public EventFlow.Publisher<EventRecord> events(EventFilter filter) {
+        return events(filter, SystemEventPublisher.DEFAULT_BUFFER_SIZE, SystemEventPublisher.BufferStrategy.ERROR);
+    }
+
+    @Override
+    public EventFlow.Publisher<EventRecord> events(EventFilter filter, int bufferSize, SystemEventPublisher.BufferStrategy strategy) {
+        return eventPublisher.publisher(filter, bufferSize, strategy);
+    }
+
+    @Override
+    public void setEventCoalescingWindow(long window, TimeUnit unit) {
+        eventCoalescer.setWindow(window, unit);
+    }
+
     @Override
     public Account getAccount() {
         return account;
@@ -763,6 +834,22 @@ final class System implements com.blockset.walletkit.System {
                 : Optional.absent());
     }
 
+    /**
+     * Get the wrapper shared by events for `coreTransfer`, creating it, by taking `coreTransfer`,
+     * if there is none; so that repeated events for one transfer reuse one wrapper.
+     */
+    private Transfer sharedTransfer(WKTransfer coreTransfer, Wallet wallet) {
+        return transferWrappers.getOrCreate(coreTransfer, () -> Transfer.create(coreTransfer, wallet, true));
+    }
+
+    // Transfer hash indexes
+
+    /* package */
+    TransferHashIndex<Transfer> getTransferHashIndex(WKWallet coreWallet) {
+        // Dropped when the wallet is deleted
+        return transferHashIndexes.get(coreWallet);
+    }
+
     // WalletManager management
 
     private UnsignedLong getWalletManagersCount () {
@@ -798,6 +885,25 @@ final class System implements com.blockset.walletkit.System {
         return query;
     }
 
+    /* package */
+    SystemClient getSystemClient(WalletManager manager) {
+        return managerQueries.computeIfAbsent(manager.getCoreBRCryptoWalletManager(),
+                (m) -> query.createScopedClient());
+    }
+
+    /* package */
+    void cancelRequests(WalletManager manager) {
+        SystemClient managerQuery = managerQueries.get(manager.getCoreBRCryptoWalletManager());
+
+        // Without scoped client support `managerQuery` is `query`; leave the other managers be
+        if (null != managerQuery && managerQuery != query) managerQuery.cancelAll();
+    }
+
+    private void removeSystemClient(WKWalletManager coreManager) {
+        SystemClient managerQuery = managerQueries.remove(coreManager);
+        if (null != managerQuery && managerQuery != query) managerQuery.cancelAll();
+    }
+
     /* package */
     WKSystem getCoreBRCryptoSystem() {
         return core;
@@ -807,22 +913,74 @@ final class System implements com.blockset.walletkit.System {
 
     private void announceSystemEvent(SystemEvent event) {
         executor.submit(() -> listener.handleSystemEvent(this, event));
+        eventPublisher.handleSystemEvent(this, event);
+
+        // The events of the system's managers, on their own stripes, may still be queued behind
+        // its deletion; the published streams complete once those are handled
+        if (event instanceof SystemDeletedEvent) EXECUTOR_LISTENER.executeAfterAll(eventPublisher::complete);
     }
 
     private void announceNetworkEvent(Network network, NetworkEvent event) {
         executor.submit(() -> listener.handleNetworkEvent(this, network, event));
+        eventPublisher.handleNetworkEvent(this, network, event);
     }
 
     private void announceWalletManagerEvent(WalletManager walletManager, WalletManagerEvent event) {
+        // Deliver any coalesced wallet and transfer events ahead of the end of a sync
+        if (event instanceof WalletManagerSyncStoppedEvent) eventCoalescer.flush(walletManager);
+        else if (event instanceof WalletManagerDeletedEvent) eventCoalescer.remove(walletManager);
+
         executor.submit(() -> listener.handleManagerEvent(this, walletManager, event));
+        eventPublisher.handleManagerEvent(this, walletManager, event);
+    }
+
+    private void announceWalletEvent(WalletManager walletManager, Wallet wallet, WalletEvent event,
+                                     @Nullable EventLatencyMonitor.Trace trace) {
+        eventCoalescer.walletEvent(walletManager, wallet, event, trace);
+    }
+
+    private void announceTransferEvent(WalletManager walletManager, Wallet wallet, Transfer transfer, TransferEvent event,
+                                       @Nullable EventLatencyMonitor.Trace trace) {
+        eventCoalescer.transferEvent(walletManager, wallet, transfer, event, trace);
+    }
+
+    //
+    // Event Dispatch
+    //
+
+    /** Get a snapshot of each event dispatch stripe's queue and latency. */
+    /* package */
+    static List<StripedExecutor.StripeMetrics> getListenerExecutorMetrics() {
+        return EXECUTOR_LISTENER.getMetrics();
+    }
+
+    /* package */
+    static EventLatencyMonitor getEventLatencyMonitor() {
+        return EVENT_LATENCY;
     }
 
-    private void announceWalletEvent(WalletManager walletManager, Wallet wallet, WalletEvent event) {
-        executor.submit(() -> listener.handleWalletEvent(this, walletManager, wallet, event));
+    /** Get the client callback pool, on which the core's requests of the SystemClient are run. */
+    /* package */
+    static KeyedWorkerPool getClientExecutor() {
+        return EXECUTOR_CLIENT;
     }
 
-    private void announceTransferEvent(WalletManager walletManager, Wallet wallet, Transfer transfer, TransferEvent event) {
-        executor.submit(() -> listener.handleTransferEvent(this, walletManager, wallet, transfer, event));
+    // Events for the same System and WalletManager share a stripe, and so are handled in order
+    private static Object getListenerKey(Cookie context, @Nullable WKWalletManager coreWalletManager) {
+        return Arrays.asList(context, coreWalletManager);
+    }
+
+    // A System event concerning a WalletManager is ordered with that manager's own events
+    private static @Nullable WKWalletManager getSystemEventWalletManager(WKSystemEvent event) {
+        switch (event.type()) {
+            case MANAGER_ADDED:
+            case MANAGER_CHANGED:
+            case MANAGER_DELETED:
+            case RECEIVE_ADDRESS_SYNC:
+                return event.u.walletManager;
+            default:
+                return null;
+        }
     }
 
     //
@@ -832,7 +990,7 @@ final class System implements com.blockset.walletkit.System {
     private static void systemEventCallback(Cookie context,
             /* OwnershipGiven */ WKSystem coreSystem,
             /* OwnershipGiven */ WKSystemEvent event) {
-        EXECUTOR_LISTENER.execute(() -> {
+        EXECUTOR_LISTENER.execute(getListenerKey(context, getSystemEventWalletManager(event)), () -> {
 
             try {
 
@@ -886,6 +1044,13 @@ final class System implements com.blockset.walletkit.System {
                         sysEvent = new SystemManagerAddedEvent(manager);
                         break;
 
+                    case MANAGER_DELETED:
+
+                        // There is no event to announce; drop the manager's client, and its requests
+                        Log.log(Level.FINE, "System WalletManager Deleted");
+                        if (null != event.u.walletManager) system.removeSystemClient(event.u.walletManager);
+                        break;
+
                     case DISCOVERED_NETWORKS:
 
                         Log.log(Level.FINE, "System Discovered Networks");
@@ -937,7 +1102,7 @@ final class System implements com.blockset.walletkit.System {
     private static void networkEventCallback(Cookie context,
             /* OwnershipGiven */ WKNetwork coreNetwork,
             /* OwnershipGiven */ WKNetworkEvent event) {
-        EXECUTOR_LISTENER.execute(() -> {
+        EXECUTOR_LISTENER.execute(getListenerKey(context, null), () -> {
             try {
                 // Nothing
             } finally {
@@ -950,7 +1115,7 @@ final class System implements com.blockset.walletkit.System {
     private static void walletManagerEventCallback(Cookie context,
             /* OwnershipGiven */ WKWalletManager coreWalletManager,
             /* OwnershipGiven */ WKWalletManagerEvent event) {
-        EXECUTOR_LISTENER.execute(() -> {
+        EXECUTOR_LISTENER.execute(getListenerKey(context, coreWalletManager), () -> {
 
             try {
 
@@ -1097,11 +1262,13 @@ final class System implements com.blockset.walletkit.System {
             /* OwnershipGiven */ WKWalletManager coreWalletManager,
             /* OwnershipGiven */ WKWallet coreWallet,
             /* OwnershipGiven */ WKWalletEvent coreEvent) {
-        EXECUTOR_LISTENER.execute(() -> {
+        EventLatencyMonitor.Trace trace = EVENT_LATENCY.arrived();
+        EXECUTOR_LISTENER.execute(getListenerKey(context, coreWalletManager), () -> {
 
             try {
 
                 Optional<Extraction> optExtraction = Extraction.extract(context, coreWalletManager, coreWallet);
+                EVENT_LATENCY.extracted(trace);
                 if (!optExtraction.isPresent()) {
                     Log.log(Level.SEVERE,
                             String.format("%s: missed within extraction",
@@ -1138,6 +1305,7 @@ final class System implements com.blockset.walletkit.System {
                     case DELETED:
 
                         Log.log(Level.FINE, "WalletDeleted");
+                        system.transferHashIndexes.drop(coreWallet);
                         walletEvent = new WalletDeletedEvent();
                         break;
 
@@ -1148,7 +1316,8 @@ final class System implements com.blockset.walletkit.System {
                             Log.log(Level.SEVERE, "WalletTransferAdded: Extraction missed transfer");
                             return;
                         }
-                        transfer = Transfer.create(coreEvent.transfer(), wallet, true);
+                        transfer = system.sharedTransfer(coreEvent.transfer(), wallet);
+                        system.transferHashIndexes.update(coreWallet, transfer);
                         walletEvent = new WalletTransferAddedEvent(transfer);
                         break;
 
@@ -1159,7 +1328,8 @@ final class System implements com.blockset.walletkit.System {
                             Log.log(Level.SEVERE, "WalletTransferChanged: Extraction missed transfer");
                             return;
                         }
-                        transfer = Transfer.create(coreEvent.transfer(), wallet, true);
+                        transfer = system.sharedTransfer(coreEvent.transfer(), wallet);
+                        system.transferHashIndexes.update(coreWallet, transfer);
                         walletEvent = new WalletTransferChangedEvent(transfer);
                         break;
 
@@ -1170,7 +1340,8 @@ final class System implements com.blockset.walletkit.System {
                             Log.log(Level.SEVERE, "WalletTransferSubmitted: Extraction missed transfer");
                             return;
                         }
-                        transfer = Transfer.create(coreEvent.transferSubmit(), wallet, true);
+                        transfer = system.sharedTransfer(coreEvent.transferSubmit(), wallet);
+                        system.transferHashIndexes.update(coreWallet, transfer);
                         walletEvent = new WalletTransferSubmittedEvent(transfer);
                         break;
 
@@ -1181,7 +1352,8 @@ final class System implements com.blockset.walletkit.System {
                             Log.log(Level.SEVERE, "WalletTransferDeleted: Extraction missed transfer");
                             return;
                         }
-                        transfer = Transfer.create(coreEvent.transfer(), wallet, true);
+                        transfer = system.sharedTransfer(coreEvent.transfer(), wallet);
+                        system.transferHashIndexes.remove(coreWallet, transfer);
                         walletEvent = new WalletTransferDeletedEvent(transfer);
                         break;
 
@@ -1238,7 +1410,7 @@ final class System implements com.blockset.walletkit.System {
                 }
 
                 if (walletEvent != null)
-                    system.announceWalletEvent(manager, wallet, walletEvent);
+                    system.announceWalletEvent(manager, wallet, walletEvent, trace);
 
             } finally {
                 coreEvent.give();
@@ -1257,11 +1429,13 @@ final class System implements com.blockset.walletkit.System {
             /* OwnershipGiven */ WKWallet coreWallet,
             /* OwnershipGiven */ WKTransfer coreTransfer,
             /* OwnershipGiven */ WKTransferEvent event) {
-        EXECUTOR_LISTENER.execute(() -> {
+        EventLatencyMonitor.Trace trace = EVENT_LATENCY.arrived();
+        EXECUTOR_LISTENER.execute(getListenerKey(context, coreWalletManager), () -> {
 
             try {
 
                 Optional<Extraction> optExtraction = Extraction.extract(context, coreWalletManager, coreWallet, coreTransfer);
+                EVENT_LATENCY.extracted(trace);
                 if (!optExtraction.isPresent()) {
                     Log.log(Level.SEVERE,
                             String.format("%s: missed within extraction",
@@ -1288,6 +1462,8 @@ final class System implements com.blockset.walletkit.System {
                         TransferState oldState = Utilities.transferStateFromCrypto(event.u.state.oldState);
                         TransferState newState = Utilities.transferStateFromCrypto(event.u.state.newState);
                         Log.log(Level.FINE, String.format("TransferChanged (%s -> %s)", oldState, newState));
+                        // A transfer has a hash once signed
+                        if (null != transfer) system.transferHashIndexes.update(coreWallet, transfer);
                         transferEvent = new TransferChangedEvent(oldState, newState);
                         break;
 
@@ -1305,7 +1481,7 @@ final class System implements com.blockset.walletkit.System {
 
                 }
 
-                system.announceTransferEvent(manager, wallet, transfer, transferEvent);
+                system.announceTransferEvent(manager, wallet, transfer, transferEvent, trace);
 
             } finally {
                 coreTransfer.give();
@@ -1326,7 +1502,7 @@ final class System implements com.blockset.walletkit.System {
     // BTC client
 
     private static void getBlockNumber(Cookie context, WKWalletManager coreWalletManager, WKClientCallbackState callbackState) {
-        EXECUTOR_CLIENT.execute(() -> {
+        EXECUTOR_CLIENT.execute(getListenerKey(context, coreWalletManager), () -> {
 
             Extraction extract = null;
 
@@ -1341,7 +1517,7 @@ final class System implements com.blockset.walletkit.System {
                 System        system   = optExtraction.get().system;
                 WalletManager manager  = optExtraction.get().manager;
 
-                system.query.getBlockchain(manager.getNetwork().getUids(),
+                system.getSystemClient(manager).getBlockchain(manager.getNetwork().getUids(),
                         new CompletionHandler<Blockchain, SystemClientError>() {
 
                             @Override
@@ -1381,7 +1557,7 @@ final class System implements com.blockset.walletkit.System {
     }
 
     private static void getBlockNumberReceiveAddressSync(Cookie context, WKWalletManager coreWalletManager, WKClientCallbackState callbackState) {
-        EXECUTOR_CLIENT.execute(() -> {
+        EXECUTOR_CLIENT.execute(getListenerKey(context, coreWalletManager), () -> {
 
             Extraction extract = null;
 
@@ -1396,7 +1572,7 @@ final class System implements com.blockset.walletkit.System {
                 System        system   = optExtraction.get().system;
                 WalletManager manager  = optExtraction.get().manager;
 
-                system.query.getBlockchain(manager.getNetwork().getUids(),
+                system.getSystemClient(manager).getBlockchain(manager.getNetwork().getUids(),
                         new CompletionHandler<Blockchain, SystemClientError>() {
 
                             @Override
@@ -1504,9 +1680,39 @@ final class System implements com.blockset.walletkit.System {
         Collections.reverse(transactions);
     }
 
+    /**
+     * Create a handler that bundles each chunk of transactions as it arrives and, once all have
+     * arrived, passes `handler` the bundles sorted and filtered as by `canonicalizeTransactions`.
+     * On an error, any bundles already made are released.
+     */
+    private static ChunkedCompletionHandler<Transaction, SystemClientError> createTransactionBundlesHandler(
+            CompletionHandler<List<WKClientTransactionBundle>, SystemClientError> handler) {
+        TransactionChunkMerger<WKClientTransactionBundle> merger = new TransactionChunkMerger<>(
+                t -> makeTransactionBundle(t).transform(Collections::singletonList).or(Collections.emptyList()),
+                WKClientTransactionBundle::release);
+
+        return new ChunkedCompletionHandler<Transaction, SystemClientError>() {
+            @Override
+            public void handleChunk(List<Transaction> transactions) {
+                merger.add(transactions);
+            }
+
+            @Override
+            public void handleComplete() {
+                handler.handleData(merger.merge());
+            }
+
+            @Override
+            public void handleError(SystemClientError error) {
+                for (WKClientTransactionBundle bundle : merger.drain()) bundle.release();
+                handler.handleError(error);
+            }
+        };
+    }
+
      private static void getTransactions(Cookie context, WKWalletManager coreWalletManager, WKClientCallbackState callbackState,
                                          List<String> addresses, long begBlockNumber, long endBlockNumber) {
-        EXECUTOR_CLIENT.execute(() -> {
+        EXECUTOR_CLIENT.execute(getListenerKey(context, coreWalletManager), () -> {
 
             try {
 
@@ -1527,7 +1733,7 @@ final class System implements com.blockset.walletkit.System {
 
                 final List<String> canonicalAddresses = canonicalAddresses(addresses, manager.getNetwork().getType());
 
-                system.query.getTransactions(manager.getNetwork().getUids(),
+                system.getSystemClient(manager).getTransactions(manager.getNetwork().getUids(),
                         canonicalAddresses,
                         begBlockNumberUnsigned.equals(WKConstants.BLOCK_HEIGHT_UNBOUND) ? null : begBlockNumberUnsigned,
                         endBlockNumberUnsigned.equals(WKConstants.BLOCK_HEIGHT_UNBOUND) ? null : endBlockNumberUnsigned,
@@ -1536,20 +1742,12 @@ final class System implements com.blockset.walletkit.System {
                         false,
                         false,
                         null,
-                        new CompletionHandler<List<Transaction>, SystemClientError>() {
+                        createTransactionBundlesHandler(new CompletionHandler<List<WKClientTransactionBundle>, SystemClientError>() {
                             @Override
-                            public void handleData(List<Transaction> transactions) {
+                            public void handleData(List<WKClientTransactionBundle> bundles) {
                                 boolean success = false;
                                 Log.log(Level.FINE, "BRCryptoCWMGetTransactionsCallback received transactions");
 
-                                // Sort and filter `transactions` - will be ascending, duplicate free.
-                                canonicalizeTransactions(transactions);
-
-                                List<WKClientTransactionBundle> bundles = transactions.stream()
-                                        .map (t -> System.makeTransactionBundle(t).orNull())
-                                        .filter (Objects::nonNull)
-                                        .collect(Collectors.toList());
-
                                 manager.getCoreBRCryptoWalletManager().announceTransactionsSuccess(callbackState, bundles);
 
                                 success = true;
@@ -1562,7 +1760,7 @@ final class System implements com.blockset.walletkit.System {
                                 manager.getCoreBRCryptoWalletManager().announceTransactionsFailure(callbackState,
                                         Utilities.systemClientErrorToCrypto(error));
                             }
-                        });
+                        }));
 
             } catch (RuntimeException e) {
                 Log.log(Level.SEVERE, e.getMessage());
@@ -1576,7 +1774,7 @@ final class System implements com.blockset.walletkit.System {
 
     private static void getTransactionsReceiveAddressSync(Cookie context, WKWalletManager coreWalletManager, WKClientCallbackState callbackState,
                                         List<String> addresses, long begBlockNumber, long endBlockNumber) {
-        EXECUTOR_CLIENT.execute(() -> {
+        EXECUTOR_CLIENT.execute(getListenerKey(context, coreWalletManager), () -> {
 
             try {
 
@@ -1597,7 +1795,7 @@ final class System implements com.blockset.walletkit.System {
 
                 final List<String> canonicalAddresses = canonicalAddresses(addresses, manager.getNetwork().getType());
 
-                system.query.getTransactions(manager.getNetwork().getUids(),
+                system.getSystemClient(manager).getTransactions(manager.getNetwork().getUids(),
                         canonicalAddresses,
                         begBlockNumberUnsigned.equals(WKConstants.BLOCK_HEIGHT_UNBOUND) ? null : begBlockNumberUnsigned,
                         endBlockNumberUnsigned.equals(WKConstants.BLOCK_HEIGHT_UNBOUND) ? null : endBlockNumberUnsigned,
@@ -1606,20 +1804,12 @@ final class System implements com.blockset.walletkit.System {
                         false,
                         false,
                         null,
-                        new CompletionHandler<List<Transaction>, SystemClientError>() {
+                        createTransactionBundlesHandler(new CompletionHandler<List<WKClientTransactionBundle>, SystemClientError>() {
                             @Override
-                            public void handleData(List<Transaction> transactions) {
+                            public void handleData(List<WKClientTransactionBundle> bundles) {
                                 boolean success = false;
                                 Log.log(Level.FINE, "BRCryptoCWMGetTransactionsCallback received transactions");
 
-                                // Sort and filter `transactions` - will be ascending, duplicate free.
-                                canonicalizeTransactions(transactions);
-
-                                List<WKClientTransactionBundle> bundles = new ArrayList<>();
-                                for (Transaction transaction : transactions) {
-                                    makeTransactionBundle(transaction)
-                                            .transform(b -> { bundles.add (b); return true; });
-                                }
                                 manager.getCoreBRCryptoWalletManager().announceTransactionsReceiveAddressSyncSuccess(callbackState,
                                         bundles);
 
@@ -1634,7 +1824,7 @@ final class System implements com.blockset.walletkit.System {
                                 manager.getCoreBRCryptoWalletManager().announceTransactionsReceiveAddressSyncFailure(callbackState,
                                         Utilities.systemClientErrorToCrypto(error));
                             }
-                        });
+                        }));
 
             } catch (RuntimeException e) {
                 Log.log(Level.SEVERE, e.getMessage());
@@ -1688,7 +1878,7 @@ final class System implements com.blockset.walletkit.System {
 
     private static void getTransfers(Cookie context, WKWalletManager coreWalletManager, WKClientCallbackState callbackState,
                                      List<String> addresses, long begBlockNumber, long endBlockNumber) {
-        EXECUTOR_CLIENT.execute(() -> {
+        EXECUTOR_CLIENT.execute(getListenerKey(context, coreWalletManager), () -> {
 
             try {
 
@@ -1707,7 +1897,7 @@ final class System implements com.blockset.walletkit.System {
 
                 final List<String> canonicalAddresses = canonicalAddresses(addresses, manager.getNetwork().getType());
 
-                system.query.getTransactions(
+                system.getSystemClient(manager).getTransactions(
                         manager.getNetwork().getUids(),
                         canonicalAddresses,
                         begBlockNumberUnsigned.equals(WKConstants.BLOCK_HEIGHT_UNBOUND) ? null : begBlockNumberUnsigned,
@@ -1763,7 +1953,7 @@ final class System implements com.blockset.walletkit.System {
                                           @Nullable String proTransfer,
                                           SizeT isSweep,
                                           byte[] transaction) {
-        EXECUTOR_CLIENT.execute(() -> {
+        EXECUTOR_CLIENT.execute(getListenerKey(context, coreWalletManager), true, () -> {
 
             try {
                 Log.log(Level.FINE, "BRCryptoCWMSubmitTransactionCallback");
@@ -1777,6 +1967,7 @@ final class System implements com.blockset.walletkit.System {
                 System        system   = optExtraction.get().system;
                 WalletManager manager  = optExtraction.get().manager;
 
+                // Submitted on the System's client; a manager disconnecting must not abandon a submission
                 system.query.createTransaction(manager.getNetwork().getUids(), transaction, identifier, exchangeId, secondFactorCode, secondFactorBackup, proTransfer,
                         isSweep.equals(new SizeT(0)) ? false : true,
                         new CompletionHandler<TransactionIdentifier, SystemClientError>() {
@@ -1825,7 +2016,7 @@ final class System implements com.blockset.walletkit.System {
 
     private static void estimateTransactionFee(Cookie context, WKWalletManager coreWalletManager, WKClientCallbackState callbackState,
                                                byte[] transaction) {
-        EXECUTOR_CLIENT.execute(() -> {
+        EXECUTOR_CLIENT.execute(getListenerKey(context, coreWalletManager), true, () -> {
 
             try {
                 Log.log(Level.FINE, "BRCryptoCWMEstimateTransactionFeeCallback");
@@ -1839,7 +2030,7 @@ final class System implements com.blockset.walletkit.System {
                 System        system   = optExtraction.get().system;
                 WalletManager manager  = optExtraction.get().manager;
 
-                system.query.estimateTransactionFee(manager.getNetwork().getUids(),
+                system.getSystemClient(manager).estimateTransactionFee(manager.getNetwork().getUids(),
                         transaction,
                         new CompletionHandler<TransactionFee, SystemClientError>() {
                             @Override
@@ -1997,7 +2188,7 @@ final class System implements com.blockset.walletkit.System {
                                   com.blockset.walletkit.Network network,
                                   boolean create,
                                   CompletionHandler<byte[], AccountInitializationError> handler) {
-        EXECUTOR_CLIENT.execute(() -> {
+        EXECUTOR_CLIENT.execute(this, () -> {
             if (accountIsInitialized(account, network)) {
                 accountInitializeReportError(new AccountInitializationAlreadyInitializedError(), handler);
                 return;
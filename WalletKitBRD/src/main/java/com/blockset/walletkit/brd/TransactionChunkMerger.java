@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import com.blockset.walletkit.SystemClient.Transaction;
+import com.blockset.walletkit.brd.systemclient.BlocksetTransaction;
+import com.google.common.base.Function;
+import com.google.common.primitives.UnsignedLong;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Merges chunks of transactions, as delivered by a chunked `getTransactions`, into a single
+ * list ordered ascending by {BlockHeight, Index} and free of duplicates.
+ *
+ * Each chunk is sorted, de-duplicated and converted (e.g. to a native bundle) as it is added,
+ * so that only the converted results, and not the chunk's transactions, are held until
+ * `merge()`.  The chunks' sorted runs are then merged in a single pass.
+ *
+ * Not thread-safe; chunks are expected from a single (serialized) producer.
+ */
+/* package */
+final class TransactionChunkMerger<R> {
+
+    private static final Comparator<Entry<?>> ENTRY_COMPARATOR =
+            (Entry<?> e1, Entry<?> e2) -> {
+                int heightCompare = e1.blockHeight.compareTo(e2.blockHeight);
+                return heightCompare != 0 ? heightCompare : e1.index.compareTo(e2.index);
+            };
+
+    private static final class Entry<R> {
+        final UnsignedLong blockHeight;
+        final UnsignedLong index;
+        // Emptied if superseded by a greater duplicate
+        List<R> values = Collections.emptyList();
+
+        Entry(Transaction transaction) {
+            this.blockHeight = transaction.getBlockHeight().or(UnsignedLong.MAX_VALUE);
+            this.index = transaction.getIndex().or(UnsignedLong.MAX_VALUE);
+        }
+    }
+
+    // The position of the next entry to merge from a run
+    private static final class Cursor<R> {
+        final List<Entry<R>> run;
+        int position;
+
+        Cursor(List<Entry<R>> run) {
+            this.run = run;
+        }
+
+        Entry<R> current() {
+            return run.get(position);
+        }
+    }
+
+    private final Function<Transaction, List<R>> converter;
+    private final Consumer<R> disposer;
+
+    private final Map<String, Entry<R>> entriesById = new HashMap<>();
+    private final List<List<Entry<R>>> runs = new ArrayList<>();
+
+    /**
+     * @param converter Converts a transaction into zero or more results
+     * @param disposer Disposes of a result of a duplicate transaction, once superseded
+     */
+    /* package */
+    TransactionChunkMerger(Function<Transaction, List<R>> converter, Consumer<R> disposer) {
+        this.converter = converter;
+        this.disposer = disposer;
+    }
+
+    /* package */
+    void add(List<Transaction> chunk) {
+        List<Transaction> transactions = new ArrayList<>(chunk);
+        Collections.sort(transactions, BlocksetTransaction.blockHeightAndIndexComparator);
+
+        List<Entry<R>> run = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            Entry<R> entry = new Entry<>(transaction);
+
+            // Duplicates, within or between chunks, are the same transaction; as with
+            // `System.canonicalizeTransactions`, keep the greatest by {BlockHeight, Index}
+            Entry<R> existing = entriesById.get(transaction.getId());
+            if (null != existing) {
+                if (ENTRY_COMPARATOR.compare(entry, existing) <= 0) continue;
+
+                for (R value : existing.values) disposer.accept(value);
+                existing.values = Collections.emptyList();
+            }
+
+            entry.values = converter.apply(transaction);
+            entriesById.put(transaction.getId(), entry);
+            if (!entry.values.isEmpty()) run.add(entry);
+        }
+
+        if (!run.isEmpty()) runs.add(run);
+    }
+
+    /**
+     * Returns the results of all added chunks, in ascending transaction order.  The merger is
+     * left empty.
+     */
+    /* package */
+    List<R> merge() {
+        List<R> results = new ArrayList<>();
+
+        PriorityQueue<Cursor<R>> cursors = new PriorityQueue<>(Math.max(1, runs.size()),
+                (Cursor<R> c1, Cursor<R> c2) -> ENTRY_COMPARATOR.compare(c1.current(), c2.current()));
+        for (List<Entry<R>> run : runs) cursors.add(new Cursor<>(run));
+
+        while (!cursors.isEmpty()) {
+            Cursor<R> cursor = cursors.poll();
+            results.addAll(cursor.current().values);
+
+            cursor.position += 1;
+            if (cursor.position < cursor.run.size()) cursors.add(cursor);
+        }
+
+        clear();
+        return results;
+    }
+
+    /**
+     * Returns the results of all added chunks, unordered, for disposal.  The merger is left
+     * empty.
+     */
+    /* package */
+    List<R> drain() {
+        List<R> results = new ArrayList<>();
+        for (List<Entry<R>> run : runs) {
+            for (Entry<R> entry : run) results.addAll(entry.values);
+        }
+
+        clear();
+        return results;
+    }
+
+    private void clear() {
+        entriesById.clear();
+        runs.clear();
+    }
+}
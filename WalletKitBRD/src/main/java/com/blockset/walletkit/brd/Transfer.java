@@ -8,6 +8,7 @@
 package com.blockset.walletkit.brd;
 
 import com.blockset.walletkit.nativex.cleaner.ReferenceCleaner;
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
 import com.blockset.walletkit.nativex.WKTransfer;
 import com.blockset.walletkit.TransferDirection;
 import com.blockset.walletkit.TransferState;
@@ -31,7 +32,7 @@ final class Transfer implements com.blockset.walletkit.Transfer {
         Transfer transfer = new Transfer(
                 (take ? core.take() : core),
                 wallet);
-        ReferenceCleaner.register(transfer, core::give);
+        ReferenceCleaner.registerScoped(transfer, core::give);
         return transfer;
     }
 
@@ -64,13 +65,13 @@ final class Transfer implements com.blockset.walletkit.Transfer {
         this.core = core;
         this.wallet = wallet;
 
-        this.unitSupplier = Suppliers.memoize(() -> Unit.create(core.getUnitForAmount()));
-        this.unitForFeeSupplier = Suppliers.memoize(() -> Unit.create(core.getUnitForFee()));
+        this.unitSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Unit.create(core.getUnitForAmount())));
+        this.unitForFeeSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Unit.create(core.getUnitForFee())));
         this.estimatedFeeBasisSupplier = Suppliers.memoize(() -> core.getEstimatedFeeBasis().transform(TransferFeeBasis::create));
 
         this.sourceSupplier = Suppliers.memoize(() -> core.getSourceAddress().transform(Address::create));
         this.targetSupplier = Suppliers.memoize(() -> core.getTargetAddress().transform(Address::create));
-        this.amountSupplier = Suppliers.memoize(() -> Amount.create(core.getAmount()));
+        this.amountSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Amount.create(core.getAmount())));
         this.directionSupplier = Suppliers.memoize(() -> Utilities.transferDirectionFromCrypto(core.getDirection()));
 
         attributesSupplier = Suppliers.memoize(() -> {
@@ -8,6 +8,7 @@
 package com.blockset.walletkit.brd;
 
 import com.blockset.walletkit.nativex.cleaner.ReferenceCleaner;
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
 import com.blockset.walletkit.nativex.WKAmount;
 import com.blockset.walletkit.nativex.WKFeeBasis;
 import com.google.common.base.Optional;
@@ -52,16 +53,16 @@ class TransferFeeBasis implements com.blockset.walletkit.TransferFeeBasis {
     private TransferFeeBasis(WKFeeBasis core) {
         this.core = core;
 
-        this.unitSupplier = Suppliers.memoize(() -> Unit.create(core.getPricePerCostFactorUnit()));
+        this.unitSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Unit.create(core.getPricePerCostFactorUnit())));
         this.currencySupplier = Suppliers.memoize(() -> getUnit().getCurrency());
         this.costFactorSupplier = Suppliers.memoize(core::getCostFactor);
-        this.pricePerCostFactorSupplier = Suppliers.memoize(() -> Amount.create(core.getPricePerCostFactor()));
+        this.pricePerCostFactorSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Amount.create(core.getPricePerCostFactor())));
 
-        this.feeSupplier = Suppliers.memoize(() -> {
+        this.feeSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> {
             Optional<WKAmount> maybeAmount = core.getFee();
             checkState(maybeAmount.isPresent());
             return Amount.create(maybeAmount.get());
-        });
+        }));
     }
 
     @Override
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import androidx.annotation.Nullable;
+
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of one wallet's transfers by hash, so that finding a transfer by its hash does not
+ * read every transfer from the core.
+ *
+ * The index is built from the wallet's transfers on the first lookup and from then on kept up to
+ * date, one transfer at a time, as the wallet's transfers are added, changed and deleted.
+ * Transfers without a hash (such as those not yet signed) are added once they have one.
+ *
+ * Once built, the index holds a strong reference to each of the wallet's transfers that has a
+ * hash; so those wrappers, and their native references, are kept until the transfer is deleted
+ * or the index dropped, with its wallet.
+ */
+/* package */
+final class TransferHashIndex<T> {
+
+    /** Reads a transfer's hash, as with {@link TransferHash#toString()}, if it has one. */
+    /* package */
+    interface Hasher<T> {
+        Optional<String> getHash(T transfer);
+    }
+
+    /**
+     * The indexes of several wallets, keyed by wallet; each is created on first use and dropped
+     * when its wallet is deleted.
+     */
+    /* package */
+    static final class ByWallet<K, T> {
+        private final Hasher<T> hasher;
+        private final Map<K, TransferHashIndex<T>> indexes = new ConcurrentHashMap<>();
+
+        /* package */
+        ByWallet(Hasher<T> hasher) {
+            this.hasher = hasher;
+        }
+
+        /* package */
+        TransferHashIndex<T> get(K wallet) {
+            return indexes.computeIfAbsent(wallet, w -> new TransferHashIndex<>(hasher));
+        }
+
+        /** Index `transfer`, as added or changed, if `wallet` has an index. */
+        /* package */
+        void update(K wallet, T transfer) {
+            TransferHashIndex<T> index = indexes.get(wallet);
+            if (null != index) index.update(transfer);
+        }
+
+        /** Drop `transfer`, as deleted, if `wallet` has an index. */
+        /* package */
+        void remove(K wallet, T transfer) {
+            TransferHashIndex<T> index = indexes.get(wallet);
+            if (null != index) index.remove(transfer);
+        }
+
+        /** Drop the index of `wallet`, as deleted, and with it the transfers it holds. */
+        /* package */
+        void drop(K wallet) {
+            indexes.remove(wallet);
+        }
+
+        /* package */
+        int size() {
+            return indexes.size();
+        }
+    }
+
+    private final Hasher<T> hasher;
+
+    // Guarded by `this`; null until built
+    @Nullable
+    private Map<String, T> transfersByHash;
+
+    // Guarded by `this`; the hash each indexed transfer is indexed under
+    private final Map<T, String> hashesByTransfer = new HashMap<>();
+
+    /* package */
+    TransferHashIndex(Hasher<T> hasher) {
+        this.hasher = hasher;
+    }
+
+    /**
+     * Get the transfer with `hash`, first building the index from `transfers` if needed.
+     */
+    synchronized Optional<T> get(String hash, Supplier<List<T>> transfers) {
+        if (null == transfersByHash) {
+            transfersByHash = new HashMap<>();
+
+            // The transfers are held by the index, and so must outlive any ReferenceScope
+            for (T transfer : ReferenceScope.unscoped(transfers).get()) {
+                put(transfer);
+            }
+        }
+        return Optional.fromNullable(transfersByHash.get(hash));
+    }
+
+    /**
+     * Index `transfer`, as added or changed, under its current hash, if it has one.
+     */
+    synchronized void update(T transfer) {
+        if (null == transfersByHash) return;
+
+        remove(transfer);
+        put(transfer);
+    }
+
+    /**
+     * Drop `transfer`, as deleted.
+     */
+    synchronized void remove(T transfer) {
+        if (null == transfersByHash) return;
+
+        // Another transfer may since have been indexed under the same hash; it is kept
+        String hash = hashesByTransfer.remove(transfer);
+        if (null != hash && transfer.equals(transfersByHash.get(hash))) {
+            transfersByHash.remove(hash);
+        }
+    }
+
+    /* package */
+    synchronized boolean isBuilt() {
+        return null != transfersByHash;
+    }
+
+    /* package */
+    synchronized int size() {
+        return null == transfersByHash ? 0 : transfersByHash.size();
+    }
+
+    private void put(T transfer) {
+        Optional<String> hash = hasher.getHash(transfer);
+        if (!hash.isPresent()) return;
+
+        String key = hash.get();
+        transfersByHash.put(key, transfer);
+        hashesByTransfer.put(transfer, key);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import com.blockset.walletkit.TransferDirection;
+import com.blockset.walletkit.TransferState;
+import com.blockset.walletkit.nativex.WKTransferSnapshots;
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.primitives.UnsignedLong;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/* package */
+final class TransferSnapshot implements com.blockset.walletkit.TransferSnapshot {
+
+    /**
+     * Create views of each of `snapshots`, with amounts in `baseUnit` and fees in `baseUnitForFee`.
+     */
+    /* package */
+    static List<TransferSnapshot> create(WKTransferSnapshots snapshots,
+                                         Wallet wallet,
+                                         Unit baseUnit,
+                                         Unit baseUnitForFee) {
+        List<TransferSnapshot> views = new ArrayList<>(snapshots.getCount());
+        for (int i = 0; i < snapshots.getCount(); i++) {
+            views.add(new TransferSnapshot(snapshots, i, wallet, baseUnit, baseUnitForFee));
+        }
+        return views;
+    }
+
+    private final WKTransferSnapshots snapshots;
+    private final int index;
+    private final Wallet wallet;
+
+    // Created in the core when first read, and then kept; as with those memoized by a Transfer
+    private final Supplier<Amount> amountSupplier;
+    private final Supplier<Optional<Amount>> feeSupplier;
+
+    private TransferSnapshot(WKTransferSnapshots snapshots,
+                             int index,
+                             Wallet wallet,
+                             Unit baseUnit,
+                             Unit baseUnitForFee) {
+        this.snapshots = snapshots;
+        this.index = index;
+        this.wallet = wallet;
+
+        this.amountSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> {
+            Optional<Amount> amount = Amount.create(snapshots.getAmount(index), false, baseUnit);
+            checkState(amount.isPresent());
+            return amount.get();
+        }));
+        this.feeSupplier = Suppliers.memoize(ReferenceScope.unscoped(() ->
+                snapshots.getFee(index).transform(fee -> {
+                    Optional<Amount> amount = Amount.create(fee, false, baseUnitForFee);
+                    checkState(amount.isPresent());
+                    return amount.get();
+                })));
+    }
+
+    @Override
+    public Wallet getWallet() {
+        return wallet;
+    }
+
+    @Override
+    public Optional<String> getHash() {
+        return snapshots.getHash(index);
+    }
+
+    @Override
+    public TransferDirection getDirection() {
+        return Utilities.transferDirectionFromCrypto(snapshots.getDirection(index));
+    }
+
+    @Override
+    public TransferState.Type getStateType() {
+        return Utilities.transferStateTypeFromCrypto(snapshots.getStateType(index));
+    }
+
+    @Override
+    public Optional<UnsignedLong> getBlockNumber() {
+        return snapshots.getBlockNumber(index);
+    }
+
+    @Override
+    public Optional<Date> getBlockTimestamp() {
+        return snapshots.getBlockTimestamp(index)
+                .transform(t -> new Date(TimeUnit.SECONDS.toMillis(t.longValue())));
+    }
+
+    @Override
+    public Amount getAmount() {
+        return amountSupplier.get();
+    }
+
+    @Override
+    public Optional<Amount> getFee() {
+        return feeSupplier.get();
+    }
+
+    @Override
+    public Optional<String> getSource() {
+        return snapshots.getSource(index);
+    }
+
+    @Override
+    public Optional<String> getTarget() {
+        return snapshots.getTarget(index);
+    }
+
+    @Override
+    public String toString() {
+        return "TransferSnapshot{" +
+                "hash=" + getHash().orNull() +
+                ", direction=" + getDirection() +
+                ", state=" + getStateType() +
+                ", amount=" + snapshots.getAmount(index) +
+                '}';
+    }
+}
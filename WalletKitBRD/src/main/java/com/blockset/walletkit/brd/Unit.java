@@ -8,6 +8,7 @@
 package com.blockset.walletkit.brd;
 
 import com.blockset.walletkit.nativex.cleaner.ReferenceCleaner;
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
 import com.blockset.walletkit.nativex.WKUnit;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
@@ -33,7 +34,7 @@ final class Unit implements com.blockset.walletkit.Unit {
     /* package */
     static Unit create(WKUnit core) {
         Unit unit = new Unit(core);
-        ReferenceCleaner.register(unit, core::give);
+        ReferenceCleaner.registerScoped(unit, core::give);
         return unit;
     }
 
@@ -63,7 +64,7 @@ final class Unit implements com.blockset.walletkit.Unit {
 
         // don't cache base unit to avoid recursion; cost of get is cheap
 
-        this.currencySupplier = Suppliers.memoize(() -> Currency.create(core.getCurrency()));
+        this.currencySupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Currency.create(core.getCurrency())));
         this.nameSupplier = Suppliers.memoize(core::getName);
         this.symbolSupplier = Suppliers.memoize(core::getSymbol);
         this.uidsSupplier = Suppliers.memoize(core::getUids);
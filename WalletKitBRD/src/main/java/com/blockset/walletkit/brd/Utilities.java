@@ -22,6 +22,7 @@ import com.blockset.walletkit.nativex.WKTransferAttributeValidationError;
 import com.blockset.walletkit.nativex.WKTransferDirection;
 import com.blockset.walletkit.nativex.WKTransferIncludeStatus;
 import com.blockset.walletkit.nativex.WKTransferState;
+import com.blockset.walletkit.nativex.WKTransferStateType;
 import com.blockset.walletkit.nativex.WKTransferSubmitError;
 import com.blockset.walletkit.nativex.WKWalletManagerState;
 import com.blockset.walletkit.nativex.WKWalletState;
@@ -194,6 +195,21 @@ final class Utilities {
             default: throw new IllegalArgumentException("Unsupported type");
         }
     }
+
+    /* package */
+    static TransferState.Type transferStateTypeFromCrypto(WKTransferStateType type) {
+        switch (type) {
+            case CREATED:        return TransferState.Type.CREATED;
+            case SIGNED:         return TransferState.Type.SIGNED;
+            case SUBMITTED:      return TransferState.Type.SUBMITTED;
+            case INCLUDED:       return TransferState.Type.INCLUDED;
+            case ERRORED:        return TransferState.Type.FAILED;
+            case DELETED:        return TransferState.Type.DELETED;
+            case AUTHENTICATION: return TransferState.Type.AUTHENTICATOR;
+            default: throw new IllegalArgumentException("Unsupported state");
+        }
+    }
+
     /* package */
     static TransferState transferStateFromCrypto(WKTransferState state) {
         Log.log(Level.SEVERE, "Transfer state type is " + state.type().toCore());
@@ -9,6 +9,7 @@ package com.blockset.walletkit.brd;
 
 import com.blockset.walletkit.NetworkType;
 import com.blockset.walletkit.nativex.cleaner.ReferenceCleaner;
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
 import com.blockset.walletkit.nativex.WKAddress;
 import com.blockset.walletkit.nativex.WKAmount;
 import com.blockset.walletkit.nativex.WKFeeBasis;
@@ -52,7 +53,7 @@ final class Wallet implements com.blockset.walletkit.Wallet {
     /* package */
     static Wallet create(WKWallet core, WalletManager walletManager, SystemCallbackCoordinator callbackCoordinator) {
         Wallet wallet = new Wallet(core, walletManager, callbackCoordinator);
-        ReferenceCleaner.register(wallet, core::give);
+        ReferenceCleaner.registerScoped(wallet, core::give);
         return wallet;
     }
 
@@ -83,9 +84,9 @@ final class Wallet implements com.blockset.walletkit.Wallet {
         this.walletManager = walletManager;
         this.callbackCoordinator = callbackCoordinator;
 
-        this.unitSupplier = Suppliers.memoize(() -> Unit.create(core.getUnit()));
-        this.unitForFeeSupplier = Suppliers.memoize(() -> Unit.create(core.getUnitForFee()));
-        this.defaultUnitCurrencySupplier = Suppliers.memoize(() -> Currency.create(core.getCurrency()));
+        this.unitSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Unit.create(core.getUnit())));
+        this.unitForFeeSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Unit.create(core.getUnitForFee())));
+        this.defaultUnitCurrencySupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Currency.create(core.getCurrency())));
     }
 
     /* package */
@@ -583,16 +584,17 @@ final class Wallet implements com.blockset.walletkit.Wallet {
     }
 
     @Override
-    public Optional<Transfer> getTransferByHash(com.blockset.walletkit.TransferHash hash) {
-        List<Transfer> transfers = getTransfers();
+    public List<TransferSnapshot> getTransferSnapshots() {
+        // The units are shared by the snapshots, and so outlive any ReferenceScope
+        Unit baseUnit = ReferenceScope.unscoped(() -> getUnit().getBase()).get();
+        Unit baseUnitForFee = ReferenceScope.unscoped(() -> getUnitForFee().getBase()).get();
 
-        for (Transfer transfer : transfers) {
-            Optional<TransferHash> optional = transfer.getHash();
-            if (optional.isPresent() && optional.get().equals(hash)) {
-                return Optional.of(transfer);
-            }
-        }
-        return Optional.absent();
+        return TransferSnapshot.create(core.getTransferSnapshots(), this, baseUnit, baseUnitForFee);
+    }
+
+    @Override
+    public Optional<Transfer> getTransferByHash(com.blockset.walletkit.TransferHash hash) {
+        return walletManager.getSystem().getTransferHashIndex(core).get(hash.toString(), this::getTransfers);
     }
 
     @Override
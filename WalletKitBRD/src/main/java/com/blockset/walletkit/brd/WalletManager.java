@@ -10,6 +10,7 @@ package com.blockset.walletkit.brd;
 import androidx.annotation.Nullable;
 
 import com.blockset.walletkit.nativex.cleaner.ReferenceCleaner;
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
 import com.blockset.walletkit.nativex.WKClient;
 import com.blockset.walletkit.nativex.WKListener;
 import com.blockset.walletkit.nativex.WKWallet;
@@ -112,21 +113,21 @@ final class WalletManager implements com.blockset.walletkit.WalletManager {
         this.callbackCoordinator = callbackCoordinator;
 
         this.accountSupplier = Suppliers.memoize(() -> Account.create(core.getAccount()));
-        this.networkSupplier = Suppliers.memoize(() -> Network.create(core.getNetwork(), false));
+        this.networkSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> Network.create(core.getNetwork(), false)));
         this.networkCurrencySupplier = Suppliers.memoize(() -> getNetwork().getCurrency());
         this.pathSupplier = Suppliers.memoize(core::getPath);
 
         this.networkFeeSupplier = Suppliers.memoize(() -> getNetwork().getMinimumFee());
-        this.networkBaseUnitSupplier = Suppliers.memoize(() -> {
+        this.networkBaseUnitSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> {
             Optional<Unit> maybeUnit = getNetwork().baseUnitFor(getCurrency());
             checkState(maybeUnit.isPresent());
             return maybeUnit.get();
-        });
-        this.networkDefaultUnitSupplier = Suppliers.memoize(() -> {
+        }));
+        this.networkDefaultUnitSupplier = Suppliers.memoize(ReferenceScope.unscoped(() -> {
             Optional<Unit> maybeUnit = getNetwork().defaultUnitFor(getCurrency());
             checkState(maybeUnit.isPresent());
             return maybeUnit.get();
-        });
+        }));
     }
 
     @Override
@@ -150,6 +151,7 @@ final class WalletManager implements com.blockset.walletkit.WalletManager {
     @Override
     public void disconnect() {
         core.disconnect();
+        system.cancelRequests(this);
     }
 
     @Override
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd;
+
+import com.blockset.walletkit.nativex.cleaner.ReferenceScope;
+import com.google.common.base.Supplier;
+import com.sun.jna.Pointer;
+import com.sun.jna.PointerType;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A map from core objects, by native pointer, to their Java wrappers; so that repeated lookups
+ * of one core object share one wrapper, along with its native reference and memoized fields.
+ *
+ * Wrappers are held weakly.  Once a wrapper is unreachable, and so may have given up its native
+ * reference, its entry is dropped and a lookup creates a new wrapper.
+ */
+/* package */
+final class WeakWrapperMap<V> {
+
+    private static final class Entry<V> extends WeakReference<V> {
+        private final long address;
+
+        private Entry(long address, V wrapper, ReferenceQueue<? super V> queue) {
+            super(wrapper, queue);
+            this.address = address;
+        }
+    }
+
+    private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+
+    // Guarded by `this`
+    private final Map<Long, Entry<V>> entries = new HashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Get the wrapper for `core` or, if there is none, create one with `factory`.  If `factory`
+     * returns null, nothing is added and null is returned.
+     */
+    V getOrCreate(PointerType core, Supplier<V> factory) {
+        long address = Pointer.nativeValue(core.getPointer());
+
+        V wrapper = get(address);
+        if (null != wrapper) {
+            hitCount.incrementAndGet();
+            return wrapper;
+        }
+
+        // Create outside the lock, as creation calls into the core; and outside of any
+        // ReferenceScope, as the wrapper is shared
+        missCount.incrementAndGet();
+        V created = ReferenceScope.unscoped(factory).get();
+        if (null == created) return null;
+
+        synchronized (this) {
+            expungeStaleEntries();
+
+            // On a race, keep the first wrapper; the other is released once unreachable
+            Entry<V> entry = entries.get(address);
+            wrapper = null == entry ? null : entry.get();
+            if (null != wrapper) return wrapper;
+
+            entries.put(address, new Entry<>(address, created, queue));
+            return created;
+        }
+    }
+
+    private synchronized V get(long address) {
+        Entry<V> entry = entries.get(address);
+        return null == entry ? null : entry.get();
+    }
+
+    /** Get the number of live wrappers. */
+    synchronized int size() {
+        expungeStaleEntries();
+        return entries.size();
+    }
+
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expungeStaleEntries() {
+        Entry<V> stale;
+        while (null != (stale = (Entry<V>) queue.poll())) {
+            // Only if not already replaced by a newer wrapper at the same address
+            if (entries.get(stale.address) == stale) entries.remove(stale.address);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import java.util.List;
+
+/**
+ * How a multi-address query was split into per-chunk requests, and the per-network history
+ * the split was based on.
+ */
+public final class AddressChunkPlan {
+
+    private final String blockchainId;
+    private final List<List<String>> chunks;
+    private final int targetChunkSize;
+    private final int maxUrlBytes;
+    private final int samples;
+    private final double millisPerAddress;
+    private final double resultsPerAddress;
+
+    /* package */
+    AddressChunkPlan(String blockchainId,
+                     List<List<String>> chunks,
+                     int targetChunkSize,
+                     int maxUrlBytes,
+                     int samples,
+                     double millisPerAddress,
+                     double resultsPerAddress) {
+        this.blockchainId = blockchainId;
+        this.chunks = chunks;
+        this.targetChunkSize = targetChunkSize;
+        this.maxUrlBytes = maxUrlBytes;
+        this.samples = samples;
+        this.millisPerAddress = millisPerAddress;
+        this.resultsPerAddress = resultsPerAddress;
+    }
+
+    public String getBlockchainId() {
+        return blockchainId;
+    }
+
+    /* package */
+    List<List<String>> getChunks() {
+        return chunks;
+    }
+
+    public int getAddressCount() {
+        int count = 0;
+        for (List<String> chunk : chunks) count += chunk.size();
+        return count;
+    }
+
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /** The number of addresses per chunk aimed for, before the URL byte budget is applied. */
+    public int getTargetChunkSize() {
+        return targetChunkSize;
+    }
+
+    /** The estimated URL length, in bytes, of the longest chunk's request. */
+    public int getMaxUrlBytes() {
+        return maxUrlBytes;
+    }
+
+    /** The number of completed chunks in this network's history; zero if there is none. */
+    public int getSamples() {
+        return samples;
+    }
+
+    /** The historical response time, per address, of this network's chunks. */
+    public double getMillisPerAddress() {
+        return millisPerAddress;
+    }
+
+    /** The historical number of results, per address, of this network's chunks. */
+    public double getResultsPerAddress() {
+        return resultsPerAddress;
+    }
+
+    @Override
+    public String toString() {
+        return "AddressChunkPlan{" +
+                "blockchainId='" + blockchainId + '\'' +
+                ", addresses=" + getAddressCount() +
+                ", chunks=" + getChunkCount() +
+                ", targetChunkSize=" + targetChunkSize +
+                ", maxUrlBytes=" + maxUrlBytes +
+                ", samples=" + samples +
+                ", millisPerAddress=" + millisPerAddress +
+                ", resultsPerAddress=" + resultsPerAddress +
+                '}';
+    }
+}
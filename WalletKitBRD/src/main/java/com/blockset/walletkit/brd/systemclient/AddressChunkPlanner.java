@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Multimap;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Splits the addresses of a multi-address query (transfers, transactions) into chunks, each
+ * queried with its own request.
+ *
+ * Every chunk's request URL is kept within a byte budget, so that long addresses (e.g. bech32)
+ * make for smaller chunks than short ones.  Within that budget, chunks are sized from each
+ * network's history: the response time and the number of results, per address, of its
+ * completed chunks.  A chunk is aimed at completing within a target time and with a target
+ * number of results - large enough to avoid needless requests, small enough that its pages
+ * don't serialize the whole query.  A network without history gets the initial chunk size.
+ */
+/* package */
+final class AddressChunkPlanner {
+
+    // Servers commonly reject request lines beyond 8 KiB
+    /* package */ static final int DEFAULT_URL_BYTE_BUDGET = 7 * 1024;
+
+    /* package */ static final int DEFAULT_INITIAL_CHUNK_SIZE = 50;
+    /* package */ static final int DEFAULT_MAX_CHUNK_SIZE = 250;
+
+    private static final long TARGET_CHUNK_MILLIS = 5000;
+    private static final long TARGET_CHUNK_RESULTS = 300;
+
+    // Weight of the newest sample in the history
+    private static final double HISTORY_WEIGHT = 0.3;
+
+    private static final int ADDRESS_PARAMETER_BYTES = "&address=".length();
+
+    private static final class History {
+        int samples;
+        double millisPerAddress;
+        double resultsPerAddress;
+
+        void add(double millisPerAddress, double resultsPerAddress) {
+            if (0 == samples) {
+                this.millisPerAddress = millisPerAddress;
+                this.resultsPerAddress = resultsPerAddress;
+            } else {
+                this.millisPerAddress += HISTORY_WEIGHT * (millisPerAddress - this.millisPerAddress);
+                this.resultsPerAddress += HISTORY_WEIGHT * (resultsPerAddress - this.resultsPerAddress);
+            }
+            samples += 1;
+        }
+    }
+
+    private final int baseUrlBytes;
+
+    // Guarded by `this`
+    private final Map<String, History> histories = new HashMap<>();
+    private final Map<String, AddressChunkPlan> plans = new HashMap<>();
+
+    private volatile int urlByteBudget = DEFAULT_URL_BYTE_BUDGET;
+    private volatile int maxChunkSize = DEFAULT_MAX_CHUNK_SIZE;
+
+    /* package */
+    AddressChunkPlanner(String baseUrl) {
+        this.baseUrlBytes = baseUrl.length();
+    }
+
+    /* package */
+    void setUrlByteBudget(int bytes) {
+        checkArgument(bytes > 0);
+        this.urlByteBudget = bytes;
+    }
+
+    /* package */
+    void setMaxChunkSize(int size) {
+        checkArgument(size > 0);
+        this.maxChunkSize = size;
+    }
+
+    /**
+     * Plan the chunks for querying `resource` with `params` plus one `address` parameter per
+     * address.
+     */
+    /* package */
+    AddressChunkPlan plan(String blockchainId,
+                         String resource,
+                         Multimap<String, String> params,
+                         List<String> addresses) {
+        int samples;
+        double millisPerAddress;
+        double resultsPerAddress;
+
+        synchronized (this) {
+            History history = histories.get(blockchainId);
+            samples           = null == history ? 0 : history.samples;
+            millisPerAddress  = null == history ? 0 : history.millisPerAddress;
+            resultsPerAddress = null == history ? 0 : history.resultsPerAddress;
+        }
+
+        int maxChunkSize = this.maxChunkSize;
+        int targetChunkSize = Math.min(maxChunkSize, DEFAULT_INITIAL_CHUNK_SIZE);
+        if (samples > 0) {
+            double target = maxChunkSize;
+            if (millisPerAddress  > 0) target = Math.min(target, TARGET_CHUNK_MILLIS  / millisPerAddress);
+            if (resultsPerAddress > 0) target = Math.min(target, TARGET_CHUNK_RESULTS / resultsPerAddress);
+            targetChunkSize = Math.max(1, (int) target);
+        }
+
+        // Balance the chunks, rather than leave a short one at the end
+        int chunkCount = (addresses.size() + targetChunkSize - 1) / targetChunkSize;
+        int balancedChunkSize = (addresses.size() + chunkCount - 1) / Math.max(1, chunkCount);
+
+        int fixedBytes = baseUrlBytes + 1 + resource.length() + 1;
+        for (Map.Entry<String, String> param : params.entries()) {
+            fixedBytes += param.getKey().length() + 1 + encodedLength(param.getValue()) + 1;
+        }
+
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        int chunkBytes = fixedBytes;
+        int maxUrlBytes = 0;
+
+        for (String address : addresses) {
+            int addressBytes = ADDRESS_PARAMETER_BYTES + encodedLength(address);
+            if (!chunk.isEmpty() && (chunk.size() >= balancedChunkSize || chunkBytes + addressBytes > urlByteBudget)) {
+                chunks.add(Collections.unmodifiableList(chunk));
+                maxUrlBytes = Math.max(maxUrlBytes, chunkBytes);
+                chunk = new ArrayList<>();
+                chunkBytes = fixedBytes;
+            }
+            chunk.add(address);
+            chunkBytes += addressBytes;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(Collections.unmodifiableList(chunk));
+            maxUrlBytes = Math.max(maxUrlBytes, chunkBytes);
+        }
+
+        AddressChunkPlan plan = new AddressChunkPlan(
+                blockchainId,
+                Collections.unmodifiableList(chunks),
+                targetChunkSize,
+                maxUrlBytes,
+                samples,
+                millisPerAddress,
+                resultsPerAddress);
+
+        synchronized (this) {
+            plans.put(blockchainId, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Record a completed chunk of `addressCount` addresses whose pages spent, in all, `millis` on
+     * the network, and that produced `resultCount` results.
+     */
+    /* package */
+    void record(String blockchainId, int addressCount, long millis, int resultCount) {
+        if (addressCount <= 0) return;
+
+        synchronized (this) {
+            History history = histories.get(blockchainId);
+            if (null == history) {
+                history = new History();
+                histories.put(blockchainId, history);
+            }
+            history.add((double) millis / addressCount, (double) resultCount / addressCount);
+        }
+    }
+
+    /** Get the most recent plan for `blockchainId`. */
+    /* package */
+    synchronized Optional<AddressChunkPlan> getPlan(String blockchainId) {
+        return Optional.fromNullable(plans.get(blockchainId));
+    }
+
+    private static int encodedLength(@Nullable String value) {
+        if (null == value) return 0;
+        try {
+            return URLEncoder.encode(value, "UTF-8").length();
+        } catch (UnsupportedEncodingException e) {
+            return value.length();
+        }
+    }
+}
@@ -14,10 +14,11 @@ import com.blockset.walletkit.errors.SystemClientError;
 import com.blockset.walletkit.errors.SystemClientSubmitError;
 import com.blockset.walletkit.utility.CompletionHandler;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.ConnectException;
-import java.net.InetAddress;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
@@ -25,6 +26,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -48,12 +51,144 @@ public class BdbApiClient {
     private final String baseUrl;
     private final DataTask dataTask;
     private final ObjectCoder coder;
+    private final SingleFlightGroup singleFlight;
+    private final ResponseCache responseCache;
+    private final RequestScheduler scheduler;
+    private final RequestRetrier retrier;
+    private final ConnectivityMonitor connectivity;
+    private final RequestScope scope;
+    private final RequestPriority priority;
 
     public BdbApiClient(OkHttpClient client, String baseUrl, DataTask dataTask, ObjectCoder coder) {
         this.client = client;
         this.baseUrl = baseUrl;
         this.dataTask = dataTask;
         this.coder = coder;
+        this.singleFlight = new SingleFlightGroup();
+        this.responseCache = new ResponseCache();
+        this.scheduler = new RequestScheduler();
+        this.retrier = new RequestRetrier(baseUrl, Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("blockset-retry-%d").setDaemon(true).build()));
+        this.connectivity = new ConnectivityMonitor();
+        this.scope = RequestScope.createRoot();
+        this.priority = RequestPriority.GENERAL;
+    }
+
+    // A view of `base` that sends its requests, with `dataTask`, within `scope` at `priority`
+    private BdbApiClient(BdbApiClient base, DataTask dataTask, RequestScope scope, RequestPriority priority) {
+        this.client = base.client;
+        this.baseUrl = base.baseUrl;
+        this.dataTask = dataTask;
+        this.coder = base.coder;
+        this.singleFlight = base.singleFlight;
+        this.responseCache = base.responseCache;
+        this.scheduler = base.scheduler;
+        this.retrier = base.retrier;
+        this.connectivity = base.connectivity;
+        this.scope = scope;
+        this.priority = priority;
+        this.capabilities = base.capabilities;
+    }
+
+    // Scheduling
+
+    /**
+     * Create a client, sharing this client's connections, caches and scheduler, whose requests
+     * are cancelled both by its own `cancelRequests()` and by that of this client.
+     */
+    /* package */
+    BdbApiClient createScopedClient() {
+        return new BdbApiClient(this, dataTask, scope.createChild(), priority);
+    }
+
+    /** Get a view of this client that sends its requests at `priority`. */
+    /* package */
+    BdbApiClient withPriority(RequestPriority priority) {
+        return priority == this.priority ? this : new BdbApiClient(this, dataTask, scope, priority);
+    }
+
+    /** Get a view of this client whose requests' network time is added to `timer`. */
+    /* package */
+    BdbApiClient withTimer(RequestTimer timer) {
+        return new BdbApiClient(this, timer.wrap(dataTask), scope, priority);
+    }
+
+    /**
+     * Cancel all queued and active requests of this client and of its scoped clients.  A read
+     * shared with another client's identical request fails here but goes on for the other.
+     */
+    /* package */
+    void cancelRequests() {
+        for (RequestScope flightScope : singleFlight.cancel(scope)) {
+            scheduler.cancel(client, flightScope);
+        }
+        scheduler.cancel(client, scope);
+    }
+
+    /**
+     * Get a count that changes whenever this client's requests are cancelled; a sequence of
+     * requests, such as the pages of a query, compares it to see if it was cancelled meanwhile.
+     */
+    /* package */
+    long getCancelGeneration() {
+        return scope.getCancelGeneration();
+    }
+
+    /**
+     * Set the maximum number of requests, of all priorities, sent concurrently.  Further
+     * requests are queued, by priority.
+     */
+    public void setMaxConcurrentRequests(int count) {
+        scheduler.setMaxActiveRequests(count);
+    }
+
+    /** Set the maximum number of `priority` requests sent concurrently. */
+    public void setConcurrentRequestLimit(RequestPriority priority, int count) {
+        scheduler.setPriorityLimit(priority, count);
+    }
+
+    /** Get the number of `priority` requests currently sent and not yet completed. */
+    public int getActiveRequestCount(RequestPriority priority) {
+        return scheduler.getActiveCount(priority);
+    }
+
+    /** Get the number of `priority` requests waiting to be sent. */
+    public int getQueuedRequestCount(RequestPriority priority) {
+        return scheduler.getQueuedCount(priority);
+    }
+
+    // Retries
+
+    /** Set when, and how soon, failed idempotent requests are sent again. */
+    public void setRetryPolicy(RetryPolicy policy) {
+        retrier.setPolicy(policy);
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retrier.getPolicy();
+    }
+
+    /** Get the number of requests sent again after failing. */
+    public long getRetryCount() {
+        return retrier.getRetryCount();
+    }
+
+    // Connectivity
+
+    /**
+     * Set if the network is reachable.  While unreachable, requests fail with `LostConnectivity`
+     * without being sent.
+     */
+    public void setNetworkReachable(boolean isNetworkReachable) {
+        connectivity.setNetworkReachable(isNetworkReachable);
+    }
+
+    /**
+     * Set the minimum interval between probes of the network, made when requests fail to connect
+     * to tell lost connectivity from an unavailable server.
+     */
+    public void setConnectivityProbeInterval(long interval, TimeUnit unit) {
+        connectivity.setProbeInterval(interval, unit);
     }
 
     // Create (Crud)
@@ -68,6 +203,7 @@ public class BdbApiClient {
                 body,
                 "POST",
                 new EmptyResponseParser(),
+                null,
                 handler);
     }
 
@@ -82,6 +218,7 @@ public class BdbApiClient {
                 body,
                 "POST",
                 new RootObjectResponseParser<>(coder, clazz),
+                null,
                 handler);
     }
 
@@ -96,6 +233,7 @@ public class BdbApiClient {
                 body,
                 "POST",
                 new RootObjectResponseParser<>(coder, clazz),
+                null,
                 handler);
     }
 
@@ -112,6 +250,7 @@ public class BdbApiClient {
                 null,
                 "GET",
                 new RootObjectResponseParser<>(coder, clazz),
+                null,
                 handler);
     }
 
@@ -126,6 +265,7 @@ public class BdbApiClient {
                 null,
                 "GET",
                 new EmbeddedArrayResponseParser<>(resource, coder, clazz),
+                null,
                 handler);
     }
 
@@ -141,6 +281,7 @@ public class BdbApiClient {
                 null,
                 "GET",
                 new EmbeddedArrayResponseParser<>(embeddedPath, coder, clazz),
+                null,
                 handler);
     }
 
@@ -149,12 +290,22 @@ public class BdbApiClient {
                                        Multimap<String, String> params,
                                        Class<? extends T> clazz,
                                        CompletionHandler<PagedData<T>, SystemClientError> handler) {
+        sendGetForArrayWithPaging(resource, params, clazz, null, handler);
+    }
+
+    /* package */
+    <T> void sendGetForArrayWithPaging(String resource,
+                                       Multimap<String, String> params,
+                                       Class<? extends T> clazz,
+                                       @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
+                                       CompletionHandler<PagedData<T>, SystemClientError> handler) {
         makeAndSendRequest(
                 Collections.singletonList(resource),
                 params,
                 null,
                 "GET",
                 new EmbeddedPagedArrayResponseHandler<>(resource, coder, clazz),
+                linksListener,
                 handler);
     }
 
@@ -163,10 +314,20 @@ public class BdbApiClient {
                                        String url,
                                        Class<? extends T> clazz,
                                        CompletionHandler<PagedData<T>, SystemClientError> handler) {
+        sendGetForArrayWithPaging(resource, url, clazz, null, handler);
+    }
+
+    /* package */
+    <T> void sendGetForArrayWithPaging(String resource,
+                                       String url,
+                                       Class<? extends T> clazz,
+                                       @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
+                                       CompletionHandler<PagedData<T>, SystemClientError> handler) {
         makeAndSendRequest(
                 url,
                 "GET",
                 new EmbeddedPagedArrayResponseHandler<>(resource, coder, clazz),
+                linksListener,
                 handler);
     }
 
@@ -182,6 +343,7 @@ public class BdbApiClient {
                 null,
                 "GET",
                 new RootObjectResponseParser<>(coder, clazz),
+                null,
                 handler);
     }
 
@@ -200,6 +362,7 @@ public class BdbApiClient {
                 null,
                 "GET",
                 new RootObjectResponseParser<>(coder, clazz),
+                null,
                 handler);
     }
 
@@ -216,6 +379,7 @@ public class BdbApiClient {
                 body,
                 "PUT",
                 new RootObjectResponseParser<>(coder, clazz),
+                null,
                 handler);
     }
 
@@ -231,6 +395,7 @@ public class BdbApiClient {
                 json,
                 "PUT",
                 new RootObjectResponseParser<>(coder, clazz),
+                null,
                 handler);
     }
 
@@ -247,12 +412,14 @@ public class BdbApiClient {
                 null,
                 "DELETE",
                 new EmptyResponseParser(),
+                null,
                 handler);
     }
 
     private <T> void makeAndSendRequest(String fullUrl,
                                         String httpMethod,
                                         ResponseParser<? extends T> parser,
+                                        @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
                                         CompletionHandler<T, SystemClientError> handler) {
         HttpUrl url = HttpUrl.parse(fullUrl);
         if (null == url) {
@@ -269,7 +436,7 @@ public class BdbApiClient {
         requestBuilder.header("Accept", capabilities.getVersionDescription());
         requestBuilder.method(httpMethod, null);
 
-        sendRequest(requestBuilder.build(), dataTask, parser, handler);
+        sendRequestCachingReads(requestBuilder.build(), parser, linksListener, handler);
     }
 
     private <T> void makeAndSendRequest(List<String> pathSegments,
@@ -277,6 +444,7 @@ public class BdbApiClient {
                                         @Nullable Object json,
                                         String httpMethod,
                                         ResponseParser<? extends T> parser,
+                                        @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
                                         CompletionHandler<T, SystemClientError> handler) {
         RequestBody httpBody;
         if (json == null) {
@@ -315,36 +483,210 @@ public class BdbApiClient {
         requestBuilder.header("Accept", capabilities.getVersionDescription());
         requestBuilder.method(httpMethod, httpBody);
 
-        sendRequest(requestBuilder.build(), dataTask, parser, handler);
+        sendRequestCachingReads(requestBuilder.build(), parser, linksListener, handler);
+    }
+
+    // Single-flight
+
+    /**
+     * Get the number of requests that were satisfied by joining an identical request already
+     * in flight.
+     */
+    public long getCoalescedRequestCount() {
+        return singleFlight.getHitCount();
+    }
+
+    /**
+     * Get the number of coalescable (read) requests that went to the network.
+     */
+    public long getUncoalescedRequestCount() {
+        return singleFlight.getMissCount();
     }
 
-    private boolean lostConnectivity() {
-        try {
-            return !InetAddress.getByName("1.1.1.1").isReachable(1000); // Cloudflare DNS
-        } catch (UnknownHostException e) {
-            return true;
-        } catch (Exception e) {
-            return false; // unsure
+    private static <T> String getRequestKey(Request request, ResponseParser<? extends T> parser) {
+        // The URL carries the resource path and the params; the parser determines the result
+        return request.method() + " " + request.url() + " " + parser.getResultKey();
+    }
+
+    private <T> void sendRequestCoalescingReads(Request request,
+                                                ResponseParser<? extends T> parser,
+                                                @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
+                                                @Nullable CachedRead cachedRead,
+                                                CompletionHandler<T, SystemClientError> handler) {
+        if (!"GET".equals(request.method())) {
+            sendRequest(request, dataTask, parser, linksListener, cachedRead, handler);
+            return;
         }
+
+        // Sent within the flight's own scope, which is cancelled once all its callers' scopes are
+        singleFlight.execute(getRequestKey(request, parser), scope, linksListener, handler,
+                (flightScope, flightLinksListener, flightHandler) ->
+                        new BdbApiClient(this, dataTask, flightScope, priority)
+                                .sendRequest(request, dataTask, parser, flightLinksListener, cachedRead, flightHandler));
+    }
+
+    // Response Cache
+
+    /**
+     * Set the directory in which cached responses are persisted.  With a `null` directory,
+     * responses are cached in memory only.
+     */
+    public void setResponseCacheDirectory(@Nullable File directory) {
+        responseCache.setDirectory(directory);
     }
 
+    /**
+     * Cache the `resource` (such as "blockchains" or "currencies") list responses.  A cached
+     * response younger than `ttl` is used without contacting Blockset; an older one is
+     * revalidated with a conditional GET.
+     */
+    public void setResponseCacheTtl(String resource, long ttl, TimeUnit unit) {
+        responseCache.setTtl(resource, ttl, unit);
+    }
+
+    /** Stop caching `resource` responses. */
+    public void removeResponseCacheTtl(String resource) {
+        responseCache.removeTtl(resource);
+    }
+
+    // The cache entry, if any, that a request is revalidating
+    private static final class CachedRead {
+        private final String key;
+        private final @Nullable ResponseCache.Entry entry;
+
+        CachedRead(String key, @Nullable ResponseCache.Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    private static final class RecordingLinksListener implements BdbEmbeddedResponseReader.LinksListener {
+        private @Nullable String prevUrl;
+        private @Nullable String nextUrl;
+
+        @Override
+        public void handleLinks(@Nullable String prevUrl, @Nullable String nextUrl) {
+            this.prevUrl = prevUrl;
+            this.nextUrl = nextUrl;
+        }
+    }
+
+    private <T> void sendRequestCachingReads(Request request,
+                                             ResponseParser<? extends T> parser,
+                                             @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
+                                             CompletionHandler<T, SystemClientError> handler) {
+        String resource = parser.getResource();
+        if (!"GET".equals(request.method()) || !responseCache.isCacheable(resource)) {
+            sendRequestCoalescingReads(request, parser, linksListener, null, handler);
+            return;
+        }
+
+        String key = getRequestKey(request, parser);
+        ResponseCache.Entry entry = responseCache.get(key);
+
+        if (null != entry && responseCache.isFresh(resource, entry)) {
+            T data = null;
+            try {
+                data = decodeCachedResponse(entry, parser);
+            } catch (SystemClientError | IOException e) {
+                Log.log(Level.FINE, String.format("cached response unusable: '%s'", e));
+            }
+
+            if (null != data) {
+                announceCachedLinks(entry, linksListener);
+                handler.handleData(data);
+                return;
+            }
+        }
+
+        Request.Builder requestBuilder = request.newBuilder();
+        if (null != entry && null != entry.getEtag())
+            requestBuilder.header("If-None-Match", entry.getEtag());
+        if (null != entry && null != entry.getLastModified())
+            requestBuilder.header("If-Modified-Since", entry.getLastModified());
+
+        sendRequestCoalescingReads(requestBuilder.build(), parser, linksListener, new CachedRead(key, entry), handler);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T decodeCachedResponse(ResponseCache.Entry entry,
+                                       ResponseParser<? extends T> parser) throws SystemClientError, IOException {
+        Object decoded = entry.getDecoded();
+        if (null == decoded) {
+            // Links are recorded, not forwarded, so that a failed decode announces nothing
+            RecordingLinksListener recorder = new RecordingLinksListener();
+            decoded = parser.parseResponse(ResponseBody.create(entry.getBody(), MEDIA_TYPE_JSON), recorder);
+            if (null == decoded) throw new SystemClientError.BadResponse("Cached Response Transform error");
+
+            // Every caller, this one included, gets the entry's read-only result
+            entry.setDecoded(decoded, recorder.prevUrl, recorder.nextUrl);
+            decoded = entry.getDecoded();
+        }
+        return (T) decoded;
+    }
+
+    private static void announceCachedLinks(ResponseCache.Entry entry,
+                                            @Nullable BdbEmbeddedResponseReader.LinksListener linksListener) {
+        if (null != linksListener) linksListener.handleLinks(entry.getPrevUrl(), entry.getNextUrl());
+    }
+
+    private <T> void sendRequest(Request request,
+                                 DataTask dataTask,
+                                 ResponseParser<? extends T> parser,
+                                 @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
+                                 @Nullable CachedRead cachedRead,
+                                 CompletionHandler<T, SystemClientError> handler) {
+        sendRequest(request, dataTask, parser, linksListener, cachedRead, 1, scope.getCancelGeneration(), handler);
+    }
+
+    // Send `request`, for the `attempt`-th time.  Each request - e.g. each page of a paged query -
+    // is retried on its own, so a failure does not restart the requests preceding it.
     private <T> void sendRequest(Request request,
                                  DataTask dataTask,
                                  ResponseParser<? extends T> parser,
+                                 @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
+                                 @Nullable CachedRead cachedRead,
+                                 int attempt,
+                                 long cancelGeneration,
                                  CompletionHandler<T, SystemClientError> handler) {
-        dataTask.execute(client, request, new Callback() {
+        if (connectivity.isReportedUnreachable()) {
+            Log.log(Level.FINE, String.format("network unreachable; not sending: %s", request.url()));
+            handler.handleError(new SystemClientError.LostConnectivity());
+            return;
+        }
+
+        scheduler.execute(dataTask, client, request, scope, priority, new Callback() {
             @Override
             public void onResponse(Call call, Response response) throws IOException {
                 T data = null;
                 SystemClientError error = null;
 
+                if (RetryPolicy.isRetryableStatus(response.code())
+                        && retryRequest(request, dataTask, parser, linksListener, cachedRead, attempt, cancelGeneration,
+                                        response.header("Retry-After"), handler)) {
+                    response.close();
+                    return;
+                }
+
                 try (ResponseBody responseBody = response.body()) {
                     int responseCode = response.code();
-                    if (HttpStatusCodes.responseSuccess(request.method()).contains(responseCode)) {
+                    if (HttpStatusCodes.NOT_MODIFIED == responseCode && null != cachedRead && null != cachedRead.entry) {
+                        // Revalidated; reuse the previously decoded response
+                        data = decodeCachedResponse(cachedRead.entry, parser);
+                        responseCache.refresh(cachedRead.entry);
+                        announceCachedLinks(cachedRead.entry, linksListener);
+                    } else if (HttpStatusCodes.responseSuccess(request.method()).contains(responseCode)) {
                         if (responseBody == null) {
                             error = new SystemClientError.BadResponse("No Data");
+                        } else if (null != cachedRead) {
+                            ResponseCache.Entry entry = responseCache.put(cachedRead.key,
+                                    response.header("ETag"),
+                                    response.header("Last-Modified"),
+                                    responseBody.bytes());
+                            data = decodeCachedResponse(entry, parser);
+                            announceCachedLinks(entry, linksListener);
                         } else {
-                            data = parser.parseResponse(responseBody.string());
+                            data = parser.parseResponse(responseBody, linksListener);
                         }
                     } else {
                         switch (responseCode) {
@@ -474,6 +816,9 @@ public class BdbApiClient {
                     error = e;
                 } catch (RuntimeException e) {
                     error = new SystemClientError.BadResponse(e.getMessage());
+                } catch (IOException e) {
+                    // The body is read while parsing; a failure mid-stream is a bad response
+                    error = new SystemClientError.BadResponse("Response Read Error: " + e.getLocalizedMessage());
                 }
 
                 // if anything goes wrong, make sure we report as an error
@@ -481,18 +826,25 @@ public class BdbApiClient {
                     Log.log(Level.SEVERE, String.format ("response failed with error: '%s'", error));
                     handler.handleError(error);
                 } else {
+                    retrier.recordSuccess(request);
                     handler.handleData(data);
                 }
             }
 
             @Override
             public void onFailure(Call call, IOException exception) {
+                if (exception instanceof SocketTimeoutException
+                        && retryRequest(request, dataTask, parser, linksListener, cachedRead, attempt, cancelGeneration,
+                                        null, handler)) {
+                    return;
+                }
+
                 Log.log(Level.SEVERE, String.format("send request failed: '%s'", exception.getLocalizedMessage()));
                 SystemClientError error = null;
                 try {
                     throw exception;
                 } catch (UnknownHostException | ConnectException e) {
-                    error = lostConnectivity()
+                    error = connectivity.lostConnectivity()
                             ? new SystemClientError.LostConnectivity()
                             : new SystemClientError.Unavailable();
                 } catch (SocketTimeoutException e) {
@@ -505,15 +857,59 @@ public class BdbApiClient {
         });
     }
 
+    // Schedule `request` to be sent again, if the retry policy allows; returns false if not.  A
+    // request whose scope is cancelled while it waits is failed rather than sent.
+    private <T> boolean retryRequest(Request request,
+                                     DataTask dataTask,
+                                     ResponseParser<? extends T> parser,
+                                     @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
+                                     @Nullable CachedRead cachedRead,
+                                     int attempt,
+                                     long cancelGeneration,
+                                     @Nullable String retryAfter,
+                                     CompletionHandler<T, SystemClientError> handler) {
+        long delay = retrier.acquireRetryDelay(request, attempt, retryAfter);
+        if (delay < 0) return false;
+
+        Log.log(Level.FINE, String.format("retrying request in %d ms (attempt %d): %s", delay, attempt + 1, request.url()));
+        retrier.schedule(() -> {
+            if (cancelGeneration != scope.getCancelGeneration()) {
+                handler.handleError(new SystemClientError.BadResponse("General Error: Canceled"));
+                return;
+            }
+            sendRequest(request, dataTask, parser, linksListener, cachedRead, attempt + 1, cancelGeneration, handler);
+        }, delay);
+        return true;
+    }
+
     private interface ResponseParser<T> {
         @Nullable
-        T parseResponse(String responseData) throws SystemClientError;
+        T parseResponse(ResponseBody responseBody,
+                        @Nullable BdbEmbeddedResponseReader.LinksListener linksListener) throws SystemClientError, IOException;
+
+        /** Identifies the parsed result; equal keys on equal responses produce equal results */
+        String getResultKey();
+
+        /** The embedded resource parsed, if any; used to decide on response caching */
+        @Nullable
+        String getResource();
     }
 
     private static class EmptyResponseParser implements ResponseParser<Void> {
 
         @Override
-        public Void parseResponse(String responseData) {
+        public Void parseResponse(ResponseBody responseBody,
+                                  @Nullable BdbEmbeddedResponseReader.LinksListener linksListener) {
+            return null;
+        }
+
+        @Override
+        public String getResultKey() {
+            return "Empty";
+        }
+
+        @Override
+        public String getResource() {
             return null;
         }
     }
@@ -530,9 +926,20 @@ public class BdbApiClient {
         }
 
         @Override
-        public T parseResponse(String responseData) throws SystemClientError {
+        public String getResultKey() {
+            return "Root:" + clazz.getName();
+        }
+
+        @Override
+        public String getResource() {
+            return null;
+        }
+
+        @Override
+        public T parseResponse(ResponseBody responseBody,
+                               @Nullable BdbEmbeddedResponseReader.LinksListener linksListener) throws SystemClientError, IOException {
             try {
-                T resp = coder.deserializeJson(clazz, responseData);
+                T resp = coder.deserializeJson(clazz, responseBody.string());
                 if (resp == null) {
                     throw new SystemClientError.BadResponse("Transform error");
                 }
@@ -544,6 +951,9 @@ public class BdbApiClient {
         }
     }
 
+    // The embedded array parsers stream `_embedded.<path>` and `_links` straight off the
+    // response body; see `BdbEmbeddedResponseReader`.
+
     private static class EmbeddedArrayResponseParser<T> implements ResponseParser<List<T>> {
 
         private final String path;
@@ -559,17 +969,20 @@ public class BdbApiClient {
         }
 
         @Override
-        public List<T> parseResponse(String responseData) throws SystemClientError {
-            try {
-                BdbEmbeddedResponse resp = coder.deserializeJson(BdbEmbeddedResponse.class, responseData);
-                List<T> data = (resp == null || !resp.containsEmbedded(path)) ?
-                        Collections.emptyList() :
-                        coder.deserializeObjectList(clazz, resp.getEmbedded(path).get());
-                if (data == null) {
-                    throw new SystemClientError.BadResponse("Transform EmbeddedArray error");
-                }
+        public String getResultKey() {
+            return "EmbeddedArray:" + path + ":" + clazz.getName();
+        }
 
-                return data;
+        @Override
+        public String getResource() {
+            return path;
+        }
+
+        @Override
+        public List<T> parseResponse(ResponseBody responseBody,
+                                     @Nullable BdbEmbeddedResponseReader.LinksListener linksListener) throws SystemClientError {
+            try {
+                return BdbEmbeddedResponseReader.<T>read(coder, responseBody.byteStream(), path, clazz, linksListener).getData();
             } catch (ObjectCoderException e) {
                 throw new SystemClientError.BadResponse("Transform EmbeddedArray Parse Error: " + e.getMessage());
             }
@@ -591,19 +1004,20 @@ public class BdbApiClient {
         }
 
         @Override
-        public PagedData<T> parseResponse(String responseData) throws SystemClientError {
-            try {
-                BdbEmbeddedResponse resp = coder.deserializeJson(BdbEmbeddedResponse.class, responseData);
-                List<T> data = (resp == null || !resp.containsEmbedded(path)) ?
-                        Collections.emptyList() :
-                        coder.deserializeObjectList(clazz, resp.getEmbedded(path).get());
-                if (data == null) {
-                    throw new SystemClientError.BadResponse("Transform PagedArray error");
-                }
+        public String getResultKey() {
+            return "EmbeddedPagedArray:" + path + ":" + clazz.getName();
+        }
 
-                String prevUrl = resp == null ? null : resp.getPreviousUrl().orNull();
-                String nextUrl = resp == null ? null : resp.getNextUrl().orNull();
-                return new PagedData<>(data, prevUrl, nextUrl);
+        @Override
+        public String getResource() {
+            return path;
+        }
+
+        @Override
+        public PagedData<T> parseResponse(ResponseBody responseBody,
+                                          @Nullable BdbEmbeddedResponseReader.LinksListener linksListener) throws SystemClientError {
+            try {
+                return BdbEmbeddedResponseReader.read(coder, responseBody.byteStream(), path, clazz, linksListener);
             } catch (ObjectCoderException e) {
                 throw new SystemClientError.BadResponse("Transform PagedArray Parse Error: " + e.getMessage());
             }
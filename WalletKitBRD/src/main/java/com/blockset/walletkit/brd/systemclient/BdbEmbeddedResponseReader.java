@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import androidx.annotation.Nullable;
+
+import com.blockset.walletkit.brd.systemclient.ObjectCoder.ObjectCoderException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the `_embedded.<path>` array and the `_links` of a Blockset response directly off
+ * the response stream, binding each array element into `clazz` as it is encountered.  No
+ * intermediate String, `Map` tree or `convertValue` pass is made.
+ *
+ * An optional {@link LinksListener} is told the page links as soon as `_links` has been read,
+ * which may well be before the embedded array has been fully bound.
+ */
+/* package */
+final class BdbEmbeddedResponseReader {
+
+    private static final String FIELD_EMBEDDED = "_embedded";
+    private static final String FIELD_LINKS    = "_links";
+    private static final String FIELD_NEXT     = "next";
+    private static final String FIELD_PREV     = "prev";
+    private static final String FIELD_HREF     = "href";
+
+    /* package */
+    interface LinksListener {
+        /**
+         * Called at most once per read, as soon as the links are known; with `null` links if the
+         * response has no `_links`.
+         */
+        void handleLinks(@Nullable String prevUrl, @Nullable String nextUrl);
+    }
+
+    /* package */
+    static <T> PagedData<T> read(ObjectCoder coder,
+                                 InputStream input,
+                                 String path,
+                                 Class<? extends T> clazz) throws ObjectCoderException {
+        return read(coder, input, path, clazz, null);
+    }
+
+    /* package */
+    static <T> PagedData<T> read(ObjectCoder coder,
+                                 InputStream input,
+                                 String path,
+                                 Class<? extends T> clazz,
+                                 @Nullable LinksListener listener) throws ObjectCoderException {
+        try (JsonParser parser = coder.createParser(input)) {
+            return new BdbEmbeddedResponseReader(coder, parser, listener).readResponse(path, clazz);
+        } catch (IOException e) {
+            throw new ObjectCoderException(e);
+        }
+    }
+
+    private final ObjectCoder coder;
+    private final JsonParser parser;
+    private @Nullable LinksListener listener;
+
+    private BdbEmbeddedResponseReader(ObjectCoder coder, JsonParser parser, @Nullable LinksListener listener) {
+        this.coder = coder;
+        this.parser = parser;
+        this.listener = listener;
+    }
+
+    private <T> PagedData<T> readResponse(String path, Class<? extends T> clazz) throws IOException, ObjectCoderException {
+        List<T> data = new ArrayList<>();
+        String prevUrl = null;
+        String nextUrl = null;
+
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            throw new ObjectCoderException(new IOException("No content to map due to end-of-input"));
+        }
+
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                token = parser.nextToken();
+
+                if (FIELD_EMBEDDED.equals(field) && token == JsonToken.START_OBJECT) {
+                    readEmbedded(path, clazz, data);
+
+                } else if (FIELD_LINKS.equals(field) && token == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String link = parser.getCurrentName();
+                        parser.nextToken();
+
+                        if      (FIELD_NEXT.equals(link)) nextUrl = readHref();
+                        else if (FIELD_PREV.equals(link)) prevUrl = readHref();
+                        else parser.skipChildren();
+                    }
+                    announceLinks(prevUrl, nextUrl);
+
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            // A `null` or non-object root has nothing embedded
+            parser.skipChildren();
+        }
+
+        announceLinks(prevUrl, nextUrl);
+        return new PagedData<>(data, prevUrl, nextUrl);
+    }
+
+    private void announceLinks(@Nullable String prevUrl, @Nullable String nextUrl) {
+        if (null != listener) {
+            LinksListener listener = this.listener;
+            this.listener = null;
+            listener.handleLinks(prevUrl, nextUrl);
+        }
+    }
+
+    private <T> void readEmbedded(String path, Class<? extends T> clazz, List<T> data) throws IOException, ObjectCoderException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            if (path.equals(field) && token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    data.add(coder.deserializeJson(clazz, parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private @Nullable String readHref() throws IOException {
+        String href = null;
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                if (FIELD_HREF.equals(field) && parser.currentToken() == JsonToken.VALUE_STRING)
+                    href = parser.getText();
+                else
+                    parser.skipChildren();
+            }
+        } else {
+            parser.skipChildren();
+        }
+        return href;
+    }
+}
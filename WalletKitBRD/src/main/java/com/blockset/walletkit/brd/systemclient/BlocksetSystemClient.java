@@ -11,6 +11,7 @@ import androidx.annotation.Nullable;
 
 import com.blockset.walletkit.SystemClient;
 import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.ChunkedCompletionHandler;
 import com.blockset.walletkit.utility.CompletionHandler;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -18,13 +19,12 @@ import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.io.BaseEncoding;
 import com.google.common.primitives.UnsignedLong;
 
+import java.io.File;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Arrays;
 import java.util.List;
@@ -38,12 +38,17 @@ import java.util.concurrent.atomic.AtomicInteger;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class BlocksetSystemClient implements SystemClient {
 
-    private static final int ADDRESS_COUNT = 50;
     private static final int DEFAULT_MAX_PAGE_SIZE = 20;
+    private static final int DEFAULT_PAGED_REQUEST_WINDOW = 2;
+    private static final String RESPONSE_CACHE_DIRECTORY = "blockset-cache";
+    // Blockchains carry the block height and fees; always revalidate them
+    private static final long DEFAULT_BLOCKCHAINS_CACHE_TTL_IN_SECONDS = 0;
+    private static final long DEFAULT_CURRENCIES_CACHE_TTL_IN_SECONDS = 15 * 60;
     private static final String DEFAULT_BDB_BASE_URL = "https://api.blockset.com";
     private static final DataTask DEFAULT_DATA_TASK = (cli, request, callback) -> cli.newCall(request).enqueue(callback);
     private static final List<String> resourcePathAccounts =
@@ -56,6 +61,14 @@ public class BlocksetSystemClient implements SystemClient {
     private final ExecutorService apiExecutor;
     private final ScheduledExecutorService scheduledApiExecutor;
 
+    private final AddressChunkPlanner addressChunkPlanner;
+
+    // The client from which this, if scoped, was created; holds the shared settings
+    private final BlocksetSystemClient root;
+
+    private volatile int pagedRequestWindow = DEFAULT_PAGED_REQUEST_WINDOW;
+    private boolean hasResponseCacheDirectory = false;
+
     public BlocksetSystemClient(OkHttpClient client) {
         this(client, null, null);
     }
@@ -73,6 +86,9 @@ public class BlocksetSystemClient implements SystemClient {
 
         ObjectCoder coder = ObjectCoder.createObjectCoderWithFailOnUnknownProperties();
         bdbClient = new BdbApiClient(client, bdbBaseURL, bdbDataTask, coder);
+        addressChunkPlanner = new AddressChunkPlanner(bdbBaseURL);
+        bdbClient.setResponseCacheTtl("blockchains", DEFAULT_BLOCKCHAINS_CACHE_TTL_IN_SECONDS, TimeUnit.SECONDS);
+        bdbClient.setResponseCacheTtl("currencies", DEFAULT_CURRENCIES_CACHE_TTL_IN_SECONDS, TimeUnit.SECONDS);
 
         apiExecutor = Executors.newCachedThreadPool();
         scheduledApiExecutor = Executors.newSingleThreadScheduledExecutor();
@@ -80,6 +96,17 @@ public class BlocksetSystemClient implements SystemClient {
         this.ridGenerator = new AtomicInteger(0);
 
         this.client = client;
+        this.root = this;
+    }
+
+    private BlocksetSystemClient(BlocksetSystemClient parent) {
+        this.ridGenerator = parent.ridGenerator;
+        this.client = parent.client;
+        this.bdbClient = parent.bdbClient.createScopedClient();
+        this.apiExecutor = parent.apiExecutor;
+        this.scheduledApiExecutor = parent.scheduledApiExecutor;
+        this.addressChunkPlanner = parent.addressChunkPlanner;
+        this.root = parent.root;
     }
 
     public static BlocksetSystemClient createForTest (OkHttpClient client,
@@ -100,16 +127,229 @@ public class BlocksetSystemClient implements SystemClient {
     }
 
     /**
-     * Cancel all client requests that are currently enqueued or executing
+     * Create a client sharing this client's connections, caches, settings and request
+     * scheduling, whose requests `cancelAll()` cancels without affecting this client's other
+     * requests.
+     */
+    @Override
+    public SystemClient createScopedClient() {
+        return new BlocksetSystemClient(this);
+    }
+
+    /**
+     * Cancel all client requests that are currently enqueued or executing, including those of
+     * any scoped clients created from this one.
      */
     @Override
     public void cancelAll () {
-        client.dispatcher().cancelAll();
+        bdbClient.cancelRequests();
         // In a race, any Callable on any Executor might run NOW, causing a `client` request.
         // That is okay; we'll have some more data.  That is, it is no different from if the 
         // request had completed just before the `cancelAll()` call.
     }
 
+    /**
+     * Set the maximum number of pages of a single paged query that may be requested but not
+     * yet parsed.  With a `window` of 1 pages are fetched strictly one after another; larger
+     * values request the next page as soon as the current page's links have been read.
+     *
+     * @param window the in-flight page window; must be positive
+     */
+    public void setPagedRequestWindow(int window) {
+        checkArgument(window > 0);
+        root.pagedRequestWindow = window;
+    }
+
+    /**
+     * Set the maximum number of requests sent concurrently.  Further requests are queued and
+     * sent, highest {@link RequestPriority} first, as earlier requests complete.
+     */
+    public void setMaxConcurrentRequests(int count) {
+        bdbClient.setMaxConcurrentRequests(count);
+    }
+
+    /**
+     * Set the maximum number of `priority` requests sent concurrently.  Limiting the bulk
+     * classes below the overall maximum keeps connections free for the others.
+     */
+    public void setConcurrentRequestLimit(RequestPriority priority, int count) {
+        bdbClient.setConcurrentRequestLimit(priority, count);
+    }
+
+    /**
+     * Get the number of `priority` requests sent and not yet completed.
+     */
+    public int getActiveRequestCount(RequestPriority priority) {
+        return bdbClient.getActiveRequestCount(priority);
+    }
+
+    /**
+     * Get the number of `priority` requests waiting to be sent.
+     */
+    public int getQueuedRequestCount(RequestPriority priority) {
+        return bdbClient.getQueuedRequestCount(priority);
+    }
+
+    /**
+     * Set when, and how soon, failed idempotent requests are sent again.  Transaction submissions
+     * are never retried.
+     */
+    public void setRetryPolicy(RetryPolicy policy) {
+        bdbClient.setRetryPolicy(policy);
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return bdbClient.getRetryPolicy();
+    }
+
+    /**
+     * Get the number of requests sent again after failing.
+     */
+    public long getRetryCount() {
+        return bdbClient.getRetryCount();
+    }
+
+    /**
+     * Get the number of read requests that shared the response of an identical read already in
+     * flight, rather than going to the network.
+     */
+    public long getCoalescedRequestCount() {
+        return bdbClient.getCoalescedRequestCount();
+    }
+
+    /**
+     * Get the number of read requests that went to the network.
+     */
+    public long getUncoalescedRequestCount() {
+        return bdbClient.getUncoalescedRequestCount();
+    }
+
+    /**
+     * Set the maximum length, in bytes, of the URL of each request made for a chunk of a
+     * multi-address query (transfers, transactions).  Longer addresses make for fewer
+     * addresses per chunk.
+     */
+    public void setAddressChunkUrlByteBudget(int bytes) {
+        addressChunkPlanner.setUrlByteBudget(bytes);
+    }
+
+    /**
+     * Set the maximum number of addresses in each chunk of a multi-address query.  Within this
+     * and the URL byte budget, chunks are sized from each network's observed response times
+     * and result counts.
+     */
+    public void setMaxAddressChunkSize(int size) {
+        addressChunkPlanner.setMaxChunkSize(size);
+    }
+
+    /**
+     * Get the plan of the most recent multi-address query for `blockchainId`, if any.
+     */
+    public Optional<AddressChunkPlan> getAddressChunkPlan(String blockchainId) {
+        return addressChunkPlanner.getPlan(blockchainId);
+    }
+
+    /**
+     * Persist cached `blockchains` and `currencies` responses in `storagePath`, unless a cache
+     * directory has already been set.
+     */
+    @Override
+    public void setStoragePath(String storagePath) {
+        synchronized (root) {
+            if (root.hasResponseCacheDirectory) return;
+            root.hasResponseCacheDirectory = true;
+        }
+        bdbClient.setResponseCacheDirectory(new File(storagePath, RESPONSE_CACHE_DIRECTORY));
+    }
+
+    /**
+     * While the network is unreachable, fail requests with `LostConnectivity` without sending
+     * them.
+     */
+    @Override
+    public void setNetworkReachable(boolean isNetworkReachable) {
+        bdbClient.setNetworkReachable(isNetworkReachable);
+    }
+
+    /**
+     * Set the minimum interval between probes of the network, made when requests fail to connect
+     * to tell lost connectivity from an unavailable Blockset.
+     */
+    public void setConnectivityProbeInterval(long interval, TimeUnit unit) {
+        bdbClient.setConnectivityProbeInterval(interval, unit);
+    }
+
+    /**
+     * Set the directory in which cached responses are persisted, replacing any directory
+     * derived from a System's storage path.  With a `null` directory, responses are cached in
+     * memory only.
+     */
+    public void setResponseCacheDirectory(@Nullable File directory) {
+        synchronized (root) {
+            root.hasResponseCacheDirectory = true;
+        }
+        bdbClient.setResponseCacheDirectory(directory);
+    }
+
+    /**
+     * Set the time for which a cached `resource` response, such as "blockchains" or
+     * "currencies", is used without revalidation.  With a zero `ttl` every use is revalidated
+     * with a conditional GET; a 304 response still avoids re-downloading and re-parsing.
+     */
+    public void setResponseCacheTtl(String resource, long ttl, TimeUnit unit) {
+        bdbClient.setResponseCacheTtl(resource, ttl, unit);
+    }
+
+    /**
+     * Stop caching `resource` responses.
+     */
+    public void removeResponseCacheTtl(String resource) {
+        bdbClient.removeResponseCacheTtl(resource);
+    }
+
+    private <T> PagedResultsPipeline<T> createPagedResultsPipeline(String resource,
+                                                                   Multimap<String, String> params,
+                                                                   Class<? extends T> clazz,
+                                                                   RequestPriority priority,
+                                                                   CompletionHandler<List<T>, SystemClientError> handler) {
+        return createPagedResultsPipeline(resource, params, clazz, priority, null, GetChunkedCoordinator.accumulating(handler));
+    }
+
+    private <T> PagedResultsPipeline<T> createPagedResultsPipeline(String resource,
+                                                                   Multimap<String, String> params,
+                                                                   Class<? extends T> clazz,
+                                                                   RequestPriority priority,
+                                                                   ChunkedCompletionHandler<T, SystemClientError> handler) {
+        return createPagedResultsPipeline(resource, params, clazz, priority, null, handler);
+    }
+
+    // If `timer` is provided, it is given the network time of the pages
+    private <T> PagedResultsPipeline<T> createPagedResultsPipeline(String resource,
+                                                                   Multimap<String, String> params,
+                                                                   Class<? extends T> clazz,
+                                                                   RequestPriority priority,
+                                                                   @Nullable RequestTimer timer,
+                                                                   ChunkedCompletionHandler<T, SystemClientError> handler) {
+        BdbApiClient pageClient = null == timer
+                ? bdbClient.withPriority(priority)
+                : bdbClient.withPriority(priority).withTimer(timer);
+
+        // Once cancelled, no further page is requested; not even one whose URL was already known
+        long cancelGeneration = pageClient.getCancelGeneration();
+        return new PagedResultsPipeline<>(
+                root.pagedRequestWindow,
+                apiExecutor,
+                (nextUrl, linksListener, pageHandler) -> {
+                    if (null == nextUrl)
+                        pageClient.sendGetForArrayWithPaging(resource, params, clazz, linksListener, pageHandler);
+                    else if (cancelGeneration != pageClient.getCancelGeneration())
+                        pageHandler.handleError(new SystemClientError.BadResponse("General Error: Canceled"));
+                    else
+                        pageClient.sendGetForArrayWithPaging(resource, nextUrl, clazz, linksListener, pageHandler);
+                },
+                handler);
+    }
+
     // Blockchain
     @Override
     public void getBlockchains(boolean isMainnet,
@@ -126,43 +366,12 @@ public class BlocksetSystemClient implements SystemClient {
     public void getBlockchain(String blockchainId,
                               CompletionHandler<Blockchain, SystemClientError> handler) {
         Multimap<String, String> params = ImmutableListMultimap.of("verified", "true");
-        bdbClient.sendGetWithId("blockchains", blockchainId, params, BlocksetBlockchain.class, handler);
+        bdbClient.withPriority(RequestPriority.BLOCK_HEIGHT)
+                .sendGetWithId("blockchains", blockchainId, params, BlocksetBlockchain.class, handler);
     }
 
     // Currency
 
-    private CompletionHandler<PagedData<Currency>, SystemClientError> createPagedResultsHandler(CompletionHandler<List<Currency>, SystemClientError> handler) {
-        List<Currency> allResults = new ArrayList<>();
-        return new CompletionHandler<PagedData<Currency>, SystemClientError>() {
-
-            private void submitGetNextBlocks(String nextUrl, CompletionHandler<PagedData<Currency>, SystemClientError> handler) {
-                apiExecutor.submit(() -> getNextBlocks(nextUrl, handler));
-            }
-
-            private void getNextBlocks(String nextUrl, CompletionHandler<PagedData<Currency>, SystemClientError> handler) {
-                bdbClient.sendGetForArrayWithPaging("blocks", nextUrl, BlocksetCurrency.class, handler);
-            }
-
-            @Override
-            public void handleData(PagedData<Currency> results) {
-                Optional<String> nextUrl = results.getNextUrl();
-                allResults.addAll(results.getData());
-
-                if (nextUrl.isPresent()) {
-                    submitGetNextBlocks(nextUrl.get(), this);
-
-                } else {
-                    handler.handleData(allResults);
-                }
-            }
-
-            @Override
-            public void handleError(SystemClientError error) {
-                handler.handleError(error);
-            }
-        };
-    }
-
     @Override
     public void getCurrencies(@Nullable String blockchainId,
                               @Nullable Boolean isMainnet,
@@ -176,8 +385,7 @@ public class BlocksetSystemClient implements SystemClient {
         paramsBuilder.put("verified", "true");
         ImmutableMultimap<String, String> params = paramsBuilder.build();
 
-        CompletionHandler<PagedData<Currency>, SystemClientError> pagedHandler = createPagedResultsHandler(handler);
-        bdbClient.sendGetForArrayWithPaging("currencies", params, BlocksetCurrency.class, pagedHandler);
+        createPagedResultsPipeline("currencies", params, BlocksetCurrency.class, RequestPriority.GENERAL, handler).start();
     }
 
     @Override
@@ -242,39 +450,18 @@ public class BlocksetSystemClient implements SystemClient {
 
     // Transfer
 
-    private CompletionHandler<PagedData<Transfer>, SystemClientError> createPagedTransferResultsHandler(
+    private CompletionHandler<List<Transfer>, SystemClientError> createPagedTransferResultsHandler(
             GetChunkedCoordinator<String, Transfer> coordinator,
-            List<String> chunkedAddresses) {
-
-        List<Transfer> allResults = new ArrayList<>();
-        return new CompletionHandler<PagedData<Transfer>, SystemClientError>() {
-
-            private void getTransfer(String id,
-                                    CompletionHandler<Transfer, SystemClientError> handler) {
-                bdbClient.sendGetWithId("transfers", id, ImmutableMultimap.of(), BlocksetTransfer.class, handler);
-            }
-
-            private void getNextTransfers(String nextUrl,
-                                          CompletionHandler<PagedData<Transfer>, SystemClientError> handler) {
-                bdbClient.sendGetForArrayWithPaging("transfers", nextUrl, BlocksetTransfer.class, handler);
-            }
-
-            private void submitGetNextTransfers(String nextUrl,
-                                                CompletionHandler<PagedData<Transfer>, SystemClientError> handler) {
-                apiExecutor.submit(() -> getNextTransfers(nextUrl, handler));
-            }
+            String blockchainId,
+            List<String> chunkedAddresses,
+            RequestTimer timer) {
 
+        return new CompletionHandler<List<Transfer>, SystemClientError>() {
             @Override
-            public void handleData(PagedData<Transfer> results) {
-                Optional<String> nextUrl = results.getNextUrl();
-                allResults.addAll(results.getData());
-
-                if (nextUrl.isPresent()) {
-                    submitGetNextTransfers(nextUrl.get(), this);
-
-                } else {
-                    coordinator.handleChunkData(chunkedAddresses, allResults);
-                }
+            public void handleData(List<Transfer> allResults) {
+                addressChunkPlanner.record(blockchainId, chunkedAddresses.size(),
+                        timer.getElapsed(TimeUnit.MILLISECONDS), allResults.size());
+                coordinator.handleChunkData(chunkedAddresses, allResults);
             }
 
             @Override
@@ -292,28 +479,43 @@ public class BlocksetSystemClient implements SystemClient {
                              @Nullable UnsignedLong endBlockNumber,
                              @Nullable Integer maxPageSize,
                              CompletionHandler<List<Transfer>, SystemClientError> handler) {
+        getTransfers(blockchainId, addresses, beginBlockNumber, endBlockNumber, maxPageSize,
+                GetChunkedCoordinator.accumulating(handler));
+    }
+
+    /* Throws 'IllegalArgumentException' if `addresses` is empty. */
+    @Override
+    public void getTransfers(String blockchainId,
+                             List<String> addresses,
+                             @Nullable UnsignedLong beginBlockNumber,
+                             @Nullable UnsignedLong endBlockNumber,
+                             @Nullable Integer maxPageSize,
+                             ChunkedCompletionHandler<Transfer, SystemClientError> handler) {
         if (addresses.isEmpty())
             throw new IllegalArgumentException("Empty `addresses`");
 
-        List<List<String>> chunkedAddressesList = Lists.partition(addresses, ADDRESS_COUNT);
-        GetChunkedCoordinator<String, Transfer> coordinator = new GetChunkedCoordinator<>(chunkedAddressesList, handler);
-
         if (null == maxPageSize) maxPageSize = DEFAULT_MAX_PAGE_SIZE;
 
+        ImmutableListMultimap.Builder<String, String> paramsBuilder = ImmutableListMultimap.builder();
+        paramsBuilder.put("blockchain_id", blockchainId);
+        if (beginBlockNumber != null) paramsBuilder.put("start_height", beginBlockNumber.toString());
+        if (endBlockNumber   != null) paramsBuilder.put("end_height",   endBlockNumber.toString());
+        paramsBuilder.put("merge_currencies", "true");
+        paramsBuilder.put("max_page_size", maxPageSize.toString());
+        ImmutableMultimap<String, String> params = paramsBuilder.build();
+
+        AddressChunkPlan plan = addressChunkPlanner.plan(blockchainId, "transfers", params, addresses);
+        List<List<String>> chunkedAddressesList = plan.getChunks();
+        GetChunkedCoordinator<String, Transfer> coordinator = new GetChunkedCoordinator<>(chunkedAddressesList, handler);
+
         for (int i = 0; i < chunkedAddressesList.size(); i++) {
             List<String> chunkedAddresses = chunkedAddressesList.get(i);
 
-            ImmutableListMultimap.Builder<String, String> paramsBuilder = ImmutableListMultimap.builder();
-            paramsBuilder.put("blockchain_id", blockchainId);
-            if (beginBlockNumber != null) paramsBuilder.put("start_height", beginBlockNumber.toString());
-            if (endBlockNumber   != null) paramsBuilder.put("end_height",   endBlockNumber.toString());
-            paramsBuilder.put("merge_currencies", "true");
-            paramsBuilder.put("max_page_size", maxPageSize.toString());
-            for (String address : chunkedAddresses) paramsBuilder.put("address", address);
-            ImmutableMultimap<String, String> params = paramsBuilder.build();
-
-            CompletionHandler<PagedData<Transfer>, SystemClientError> pagedHandler = createPagedTransferResultsHandler(coordinator, chunkedAddresses);
-            bdbClient.sendGetForArrayWithPaging("transfers", params, BlocksetTransfer.class, pagedHandler);
+            // Timed by the pages' network time, not from now, as chunks queue behind one another
+            RequestTimer timer = new RequestTimer();
+            CompletionHandler<List<Transfer>, SystemClientError> pagedHandler = createPagedTransferResultsHandler(coordinator, blockchainId, chunkedAddresses, timer);
+            createPagedResultsPipeline("transfers", withAddresses(params, chunkedAddresses), BlocksetTransfer.class, RequestPriority.HISTORY_SYNC, timer,
+                    GetChunkedCoordinator.accumulating(pagedHandler)).start();
         }
     }
 
@@ -329,20 +531,12 @@ public class BlocksetSystemClient implements SystemClient {
 
     // Transactions
 
-    private CompletionHandler<PagedData<Transaction>, SystemClientError> createPagedTransactionResultsHandler(GetChunkedCoordinator<String, Transaction> coordinator,
-                                                                                                              List<String> chunkedAddresses) {
-        List<Transaction> allResults = new ArrayList<>();
-        return new CompletionHandler<PagedData<Transaction>, SystemClientError>() {
-
-            private void getNextTransactions(String nextUrl,
-                                             CompletionHandler<PagedData<Transaction>, SystemClientError> handler) {
-                bdbClient.sendGetForArrayWithPaging("transactions", nextUrl, BlocksetTransaction.class, handler);
-            }
+    private CompletionHandler<List<Transaction>, SystemClientError> createPagedTransactionResultsHandler(GetChunkedCoordinator<String, Transaction> coordinator,
+                                                                                                        String blockchainId,
+                                                                                                        List<String> chunkedAddresses,
+                                                                                                        RequestTimer timer) {
 
-            private void submitGetNextTransactions(String nextUrl,
-                                                   CompletionHandler<PagedData<Transaction>, SystemClientError> handler) {
-                apiExecutor.submit(() -> getNextTransactions(nextUrl, handler));
-            }
+        return new CompletionHandler<List<Transaction>, SystemClientError>() {
 
             boolean transactionStatusIsValid(Transaction transaction) {
                 switch (transaction.getStatus()) {
@@ -368,15 +562,12 @@ public class BlocksetSystemClient implements SystemClient {
             }
 
             @Override
-            public void handleData(PagedData<Transaction> results) {
-                Optional<String> nextUrl = results.getNextUrl();
-                allResults.addAll(results.getData());
-
-                if (nextUrl.isPresent()) {
-                    submitGetNextTransactions(nextUrl.get(), this);
-                } else if (!transactionsAreAllValid(allResults)) {
+            public void handleData(List<Transaction> allResults) {
+                if (!transactionsAreAllValid(allResults)) {
                     coordinator.handleError(new SystemClientError.BadResponse("Invalid Transactions"));
                 } else {
+                    addressChunkPlanner.record(blockchainId, chunkedAddresses.size(),
+                            timer.getElapsed(TimeUnit.MILLISECONDS), allResults.size());
                     coordinator.handleChunkData(chunkedAddresses, allResults);
                 }
             }
@@ -400,36 +591,64 @@ public class BlocksetSystemClient implements SystemClient {
                                 boolean isSweep,
                                 @Nullable Integer maxPageSize,
                                 CompletionHandler<List<Transaction>, SystemClientError> handler) {
+        getTransactions(blockchainId, addresses, beginBlockNumber, endBlockNumber,
+                includeRaw, includeProof, includeTransfers, isSweep, maxPageSize,
+                GetChunkedCoordinator.accumulating(handler));
+    }
+
+    /* Throws 'IllegalArgumentException' if `addresses` is empty. */
+    @Override
+    public void getTransactions(String blockchainId,
+                                List<String> addresses,
+                                @Nullable UnsignedLong beginBlockNumber,
+                                @Nullable UnsignedLong endBlockNumber,
+                                boolean includeRaw,
+                                boolean includeProof,
+                                boolean includeTransfers,
+                                boolean isSweep,
+                                @Nullable Integer maxPageSize,
+                                ChunkedCompletionHandler<Transaction, SystemClientError> handler) {
         if (addresses.isEmpty())
             throw new IllegalArgumentException("Empty `addresses`");
 
-        List<List<String>> chunkedAddressesList = Lists.partition(addresses, ADDRESS_COUNT);
-        GetChunkedCoordinator<String, Transaction> coordinator = new GetChunkedCoordinator<>(chunkedAddressesList, handler);
-
         if (null == maxPageSize) maxPageSize = (includeTransfers ? 1 : 3) * DEFAULT_MAX_PAGE_SIZE;
 
+        ImmutableListMultimap.Builder<String, String> paramsBuilder = ImmutableListMultimap.builder();
+        paramsBuilder.put("blockchain_id", blockchainId);
+        paramsBuilder.put("include_proof", String.valueOf(includeProof));
+        paramsBuilder.put("include_raw", String.valueOf(includeRaw));
+        paramsBuilder.put("include_transfers", String.valueOf(includeTransfers));
+        paramsBuilder.put("is_sweep", String.valueOf(isSweep));
+        paramsBuilder.put("include_calls", "false");
+        paramsBuilder.put("merge_currencies", "true");
+        if (beginBlockNumber != null) paramsBuilder.put("start_height", beginBlockNumber.toString());
+        if (endBlockNumber != null) paramsBuilder.put("end_height", endBlockNumber.toString());
+        paramsBuilder.put("max_page_size", maxPageSize.toString());
+        ImmutableMultimap<String, String> params = paramsBuilder.build();
+
+        AddressChunkPlan plan = addressChunkPlanner.plan(blockchainId, "transactions", params, addresses);
+        List<List<String>> chunkedAddressesList = plan.getChunks();
+        GetChunkedCoordinator<String, Transaction> coordinator = new GetChunkedCoordinator<>(chunkedAddressesList, handler);
+
         for (int i = 0; i < chunkedAddressesList.size(); i++) {
             List<String> chunkedAddresses = chunkedAddressesList.get(i);
 
-            ImmutableListMultimap.Builder<String, String> paramsBuilder = ImmutableListMultimap.builder();
-            paramsBuilder.put("blockchain_id", blockchainId);
-            paramsBuilder.put("include_proof", String.valueOf(includeProof));
-            paramsBuilder.put("include_raw", String.valueOf(includeRaw));
-            paramsBuilder.put("include_transfers", String.valueOf(includeTransfers));
-            paramsBuilder.put("is_sweep", String.valueOf(isSweep));
-            paramsBuilder.put("include_calls", "false");
-            paramsBuilder.put("merge_currencies", "true");
-            if (beginBlockNumber != null) paramsBuilder.put("start_height", beginBlockNumber.toString());
-            if (endBlockNumber != null) paramsBuilder.put("end_height", endBlockNumber.toString());
-            paramsBuilder.put("max_page_size", maxPageSize.toString());
-            for (String address : chunkedAddresses) paramsBuilder.put("address", address);
-            ImmutableMultimap<String, String> params = paramsBuilder.build();
-
-            CompletionHandler<PagedData<Transaction>, SystemClientError> pagedHandler = createPagedTransactionResultsHandler(coordinator, chunkedAddresses);
-            bdbClient.sendGetForArrayWithPaging("transactions", params, com.blockset.walletkit.brd.systemclient.BlocksetTransaction.class, pagedHandler);
+            // Timed by the pages' network time, not from now, as chunks queue behind one another
+            RequestTimer timer = new RequestTimer();
+            CompletionHandler<List<Transaction>, SystemClientError> pagedHandler = createPagedTransactionResultsHandler(coordinator, blockchainId, chunkedAddresses, timer);
+            createPagedResultsPipeline("transactions", withAddresses(params, chunkedAddresses), com.blockset.walletkit.brd.systemclient.BlocksetTransaction.class, RequestPriority.HISTORY_SYNC, timer,
+                    GetChunkedCoordinator.accumulating(pagedHandler)).start();
         }
     }
 
+    private static ImmutableMultimap<String, String> withAddresses(ImmutableMultimap<String, String> params,
+                                                                   List<String> addresses) {
+        ImmutableListMultimap.Builder<String, String> paramsBuilder = ImmutableListMultimap.builder();
+        paramsBuilder.putAll(params);
+        for (String address : addresses) paramsBuilder.put("address", address);
+        return paramsBuilder.build();
+    }
+
     @Override
     public void getTransaction(String transactionId,
                                boolean includeRaw,
@@ -480,7 +699,8 @@ public class BlocksetSystemClient implements SystemClient {
 
         params.put("is_sweep", String.valueOf(isSweep));
 
-        bdbClient.sendPost("transactions", ImmutableMultimap.of(), ImmutableMap.copyOf(params), BlocksetTransactionIdentifier.class, handler);
+        bdbClient.withPriority(RequestPriority.SUBMIT)
+                .sendPost("transactions", ImmutableMultimap.of(), ImmutableMap.copyOf(params), BlocksetTransactionIdentifier.class, handler);
     }
 
     @Override
@@ -496,43 +716,27 @@ public class BlocksetSystemClient implements SystemClient {
                 "submit_context", String.format("WalletKit:%s:Data:%s (FeeEstimate)", blockchainId, sdata.substring(0, 20)),
                 "data", data);
 
-        bdbClient.sendPost("transactions", params, json, BlocksetTransactionFee.class, handler);
+        bdbClient.withPriority(RequestPriority.FEE_ESTIMATE)
+                .sendPost("transactions", params, json, BlocksetTransactionFee.class, handler);
     }
 
     // Blocks
 
-    private CompletionHandler<PagedData<BlocksetBlock>, SystemClientError> createPagedBlockResultsHandler(CompletionHandler<List<Block>, SystemClientError> handler) {
-        List<Block> allResults = new ArrayList<>();
-        return new CompletionHandler<PagedData<BlocksetBlock>, SystemClientError>() {
-
-            private void getNextBlocks(String nextUrl, CompletionHandler<PagedData<BlocksetBlock>, SystemClientError> handler) {
-                bdbClient.sendGetForArrayWithPaging("blocks", nextUrl, BlocksetBlock.class, handler);
-            }
-
-            private void submitGetNextBlocks(String nextUrl, CompletionHandler<PagedData<BlocksetBlock>, SystemClientError> handler) {
-                apiExecutor.submit(() -> getNextBlocks(nextUrl, handler));
-            }
-
-            @Override
-            public void handleData(PagedData<BlocksetBlock> results) {
-                Optional<String> nextUrl = results.getNextUrl();
-                allResults.addAll(results.getData());
-
-                if (nextUrl.isPresent()) {
-                    submitGetNextBlocks(nextUrl.get(), this);
-
-                } else {
-                    handler.handleData(allResults);
-                }
-            }
-
-            @Override
-            public void handleError(SystemClientError error) {
-                handler.handleError(error);
-            }
-        };
+    @Override
+    public void getBlocks(String blockchainId,
+                          UnsignedLong beginBlockNumber,
+                          UnsignedLong endBlockNumber,
+                          boolean includeRaw,
+                          boolean includeTxRaw,
+                          boolean includeTx,
+                          boolean includeTxProof,
+                          @Nullable Integer maxPageSize,
+                          CompletionHandler<List<Block>, SystemClientError> handler) {
+        getBlocks(blockchainId, beginBlockNumber, endBlockNumber, includeRaw, includeTxRaw, includeTx, includeTxProof,
+                maxPageSize, GetChunkedCoordinator.accumulating(handler));
     }
 
+    /** Delivers the blocks a page at a time, in order. */
     @Override
     public void getBlocks(String blockchainId,
                           UnsignedLong beginBlockNumber,
@@ -542,7 +746,7 @@ public class BlocksetSystemClient implements SystemClient {
                           boolean includeTx,
                           boolean includeTxProof,
                           @Nullable Integer maxPageSize,
-                          CompletionHandler<List<Block>, SystemClientError> handler) {
+                          ChunkedCompletionHandler<Block, SystemClientError> handler) {
 
         ImmutableListMultimap.Builder<String, String> paramsBuilder = ImmutableListMultimap.builder();
         paramsBuilder.put("blockchain_id", blockchainId);
@@ -557,8 +761,7 @@ public class BlocksetSystemClient implements SystemClient {
         paramsBuilder.put("merge_currencies", "true");
         ImmutableMultimap<String, String> params = paramsBuilder.build();
 
-        CompletionHandler<PagedData<BlocksetBlock>, SystemClientError> pagedHandler = createPagedBlockResultsHandler(handler);
-        bdbClient.sendGetForArrayWithPaging("blocks", params, BlocksetBlock.class, pagedHandler);
+        createPagedResultsPipeline("blocks", params, BlocksetBlock.class, RequestPriority.GENERAL, handler).start();
     }
 
     @Override
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Tracks whether the network is reachable, to tell a lost connection apart from an unavailable
+ * server when a request fails to connect.
+ *
+ * The network is unreachable while the application says so, via `setNetworkReachable(false)`;
+ * requests then fail without being sent.  Otherwise it is probed, on a connection failure, at
+ * most once per probe interval; failures in between, and those concurrent with a probe, use the
+ * last result.
+ */
+/* package */
+final class ConnectivityMonitor {
+
+    /* package */ interface Probe {
+        boolean isReachable();
+    }
+
+    /* package */ static final long DEFAULT_PROBE_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    // Ping Cloudflare DNS; reachable unless it is certainly not
+    private static final Probe DEFAULT_PROBE = () -> {
+        try {
+            return InetAddress.getByName("1.1.1.1").isReachable(1000);
+        } catch (UnknownHostException e) {
+            return false;
+        } catch (Exception e) {
+            return true; // unsure
+        }
+    };
+
+    private final Probe probe;
+    private final AtomicBoolean probing = new AtomicBoolean(false);
+
+    private volatile boolean reportedUnreachable = false;
+    private volatile long probeIntervalMillis = DEFAULT_PROBE_INTERVAL_MILLIS;
+
+    private volatile boolean lastProbeReachable = true;
+    private volatile long lastProbeMillis = Long.MIN_VALUE;
+
+    /* package */
+    ConnectivityMonitor() {
+        this(DEFAULT_PROBE);
+    }
+
+    /* package */
+    ConnectivityMonitor(Probe probe) {
+        this.probe = probe;
+    }
+
+    /** Record the application's view of the network; a reachable network is probed afresh. */
+    /* package */
+    void setNetworkReachable(boolean isNetworkReachable) {
+        reportedUnreachable = !isNetworkReachable;
+        if (isNetworkReachable) lastProbeMillis = Long.MIN_VALUE;
+    }
+
+    /* package */
+    void setProbeInterval(long interval, TimeUnit unit) {
+        checkArgument(interval >= 0);
+        probeIntervalMillis = unit.toMillis(interval);
+    }
+
+    /** Check if the application has reported the network unreachable; requests should fail fast. */
+    /* package */
+    boolean isReportedUnreachable() {
+        return reportedUnreachable;
+    }
+
+    /** Check if a failure to connect is due to lost connectivity, probing if the last probe is stale. */
+    /* package */
+    boolean lostConnectivity() {
+        if (reportedUnreachable) return true;
+
+        long now = java.lang.System.nanoTime() / 1_000_000;
+        if (lastProbeMillis == Long.MIN_VALUE || now - lastProbeMillis >= probeIntervalMillis) {
+            if (probing.compareAndSet(false, true)) {
+                try {
+                    lastProbeReachable = probe.isReachable();
+                    lastProbeMillis = java.lang.System.nanoTime() / 1_000_000;
+                } finally {
+                    probing.set(false);
+                }
+            }
+        }
+
+        return !lastProbeReachable;
+    }
+}
@@ -8,6 +8,7 @@
 package com.blockset.walletkit.brd.systemclient;
 
 import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.ChunkedCompletionHandler;
 import com.blockset.walletkit.utility.CompletionHandler;
 
 import java.util.ArrayList;
@@ -15,24 +16,46 @@ import java.util.List;
 
 import static com.google.common.base.Preconditions.checkState;
 
+/**
+ * Coordinates a request issued as several chunks.  Each chunk's results are passed to a
+ * {@link ChunkedCompletionHandler} as that chunk completes; the handler is then told of
+ * completion once every chunk has completed, or of the first error.
+ *
+ * Constructed with a {@link CompletionHandler} the coordinator instead accumulates all the
+ * chunks' results and delivers them as a single list.
+ */
 /* package */
 class GetChunkedCoordinator<ChunkType, ResultType> {
 
     private final List<List<ChunkType>> chunks;
-    private final List<ResultType> transactions;
-    private final CompletionHandler<List<ResultType>, SystemClientError> handler;
+    private final ChunkedCompletionHandler<ResultType, SystemClientError> handler;
 
     private SystemClientError error;
 
     /* package */
     GetChunkedCoordinator(List<List<ChunkType>> chunks,
-                          CompletionHandler<List<ResultType>, SystemClientError> handler) {
+                          ChunkedCompletionHandler<ResultType, SystemClientError> handler) {
 
         this.chunks = new ArrayList<>(chunks);
-        this.transactions = new ArrayList<>();
         this.handler = handler;
     }
 
+    /* package */
+    GetChunkedCoordinator(List<List<ChunkType>> chunks,
+                          CompletionHandler<List<ResultType>, SystemClientError> handler) {
+        this(chunks, accumulating(handler));
+    }
+
+    /**
+     * Create a chunked handler that accumulates all chunks and passes them to `handler` as a
+     * single list.
+     */
+    /* package */
+    static <ResultType> ChunkedCompletionHandler<ResultType, SystemClientError> accumulating(
+            CompletionHandler<List<ResultType>, SystemClientError> handler) {
+        return new AccumulatingHandler<>(handler);
+    }
+
     /* package */
     void handleChunkData(List<ChunkType> chunk, List<ResultType> data) {
         boolean transitionToSuccess = false;
@@ -42,7 +65,10 @@ class GetChunkedCoordinator<ChunkType, ResultType> {
 
             if (!isInErrorState()) {
                 chunks.remove(chunk);
-                transactions.addAll(data);
+
+                // Delivered while holding the lock so that chunks are never delivered
+                // concurrently, nor after an error.
+                handler.handleChunk(data);
                 transitionToSuccess = isInSuccessState();
             }
         }
@@ -79,10 +105,34 @@ class GetChunkedCoordinator<ChunkType, ResultType> {
     }
 
     private void handleSuccess() {
-        handler.handleData(transactions);
+        handler.handleComplete();
     }
 
     private void handleFailure() {
         handler.handleError(error);
     }
+
+    private static final class AccumulatingHandler<ResultType> implements ChunkedCompletionHandler<ResultType, SystemClientError> {
+        private final List<ResultType> results = new ArrayList<>();
+        private final CompletionHandler<List<ResultType>, SystemClientError> handler;
+
+        AccumulatingHandler(CompletionHandler<List<ResultType>, SystemClientError> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void handleChunk(List<ResultType> chunk) {
+            results.addAll(chunk);
+        }
+
+        @Override
+        public void handleComplete() {
+            handler.handleData(results);
+        }
+
+        @Override
+        public void handleError(SystemClientError error) {
+            handler.handleError(error);
+        }
+    }
 }
@@ -55,6 +55,17 @@ public final class HttpStatusCodes {
 
     private static Set<Integer> SUCCESS_CODES_DEFAULT = ImmutableSet.of(200);
 
+    /// Source: https://tools.ietf.org/html/rfc7232#section-4.1
+
+    // The 304 (Not Modified) status code indicates that a conditional GET
+    // or HEAD request has been received and would have resulted in a 200
+    // (OK) response if it were not for the fact that the condition
+    // evaluated to false.  In other words, there is no need for the server
+    // to transfer a representation of the target resource because the
+    // request indicates that the client, which made the request
+    // conditional, already has a valid representation.
+    public static final int NOT_MODIFIED = 304;
+
     public static Set<Integer> responseSuccess (String httpMethod){
         switch (httpMethod) {
             case "GET":
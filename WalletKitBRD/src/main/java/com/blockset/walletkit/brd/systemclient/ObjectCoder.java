@@ -7,6 +7,7 @@
  */
 package com.blockset.walletkit.brd.systemclient;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
@@ -14,6 +15,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -88,4 +91,26 @@ public final class ObjectCoder {
             throw new ObjectCoderException(e);
         }
     }
+
+    // streaming
+
+    public JsonParser createParser(InputStream input) throws ObjectCoderException {
+        try {
+            return mapper.getFactory().createParser(input);
+        } catch (IOException e) {
+            throw new ObjectCoderException(e);
+        }
+    }
+
+    /**
+     * Deserialize the value at the parser's current token, leaving the parser positioned
+     * on the value's last token.
+     */
+    public <X> X deserializeJson(Class<? extends X> clazz, JsonParser parser) throws ObjectCoderException {
+        try {
+            return mapper.readValue(parser, clazz);
+        } catch (IOException e) {
+            throw new ObjectCoderException(e);
+        }
+    }
 }
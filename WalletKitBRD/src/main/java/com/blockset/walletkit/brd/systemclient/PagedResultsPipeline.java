@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import androidx.annotation.Nullable;
+
+import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.ChunkedCompletionHandler;
+import com.blockset.walletkit.utility.CompletionHandler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Fetches the pages of a paged Blockset query, pipelining the requests.
+ *
+ * Blockset pages are chained by their `_links.next` URL, so page N+1 can't be requested
+ * before page N has told us where it is.  Rather than waiting for page N to be fully parsed
+ * and handled, page N+1 is requested as soon as page N's `_links` have been read.  At most
+ * `window` pages are requested-but-not-yet-parsed at any one time; a `window` of 1 is the
+ * strictly serial traversal.
+ *
+ * Pages may finish parsing out of order; their data is reassembled in page order and handed
+ * to the `handler` a page at a time, as each page and those before it are parsed, exactly as a
+ * serial traversal would; or, to a `CompletionHandler`, once, after the final page.  The first
+ * error wins; later pages and errors are ignored.
+ */
+/* package */
+final class PagedResultsPipeline<T> {
+
+    /* package */
+    interface PageRequester<T> {
+        /**
+         * Request a page.  A `null` `nextUrl` requests the first page.
+         */
+        void requestPage(@Nullable String nextUrl,
+                         BdbEmbeddedResponseReader.LinksListener linksListener,
+                         CompletionHandler<PagedData<T>, SystemClientError> handler);
+    }
+
+    private final int window;
+    private final Executor executor;
+    private final PageRequester<T> requester;
+    private final ChunkedCompletionHandler<T, SystemClientError> handler;
+
+    // Parsed pages waiting on an earlier page; keyed by page index
+    private final Map<Integer, List<T>> parsed = new HashMap<>();
+
+    private int inFlight = 0;
+    private int nextPageToDeliver = 0;
+    private int lastPage = -1;
+
+    // The next page, once its URL is known, if the window was full at the time
+    private int pendingPage = -1;
+    private @Nullable String pendingUrl;
+
+    private boolean done = false;
+
+    /* package */
+    PagedResultsPipeline(int window,
+                         Executor executor,
+                         PageRequester<T> requester,
+                         CompletionHandler<List<T>, SystemClientError> handler) {
+        this(window, executor, requester, GetChunkedCoordinator.accumulating(handler));
+    }
+
+    /* package */
+    PagedResultsPipeline(int window,
+                         Executor executor,
+                         PageRequester<T> requester,
+                         ChunkedCompletionHandler<T, SystemClientError> handler) {
+        checkArgument(window > 0);
+        this.window = window;
+        this.executor = executor;
+        this.requester = requester;
+        this.handler = handler;
+    }
+
+    /* package */
+    void start() {
+        synchronized (this) {
+            inFlight += 1;
+        }
+        requestPage(0, null);
+    }
+
+    private void requestPage(int page, @Nullable String url) {
+        requester.requestPage(
+                url,
+                (prevUrl, nextUrl) -> handlePageLinks(page, nextUrl),
+                new CompletionHandler<PagedData<T>, SystemClientError>() {
+                    @Override
+                    public void handleData(PagedData<T> data) {
+                        handlePageData(page, data.getData());
+                    }
+
+                    @Override
+                    public void handleError(SystemClientError error) {
+                        handlePageError(error);
+                    }
+                });
+    }
+
+    private void submitRequestPage(int page, String url) {
+        executor.execute(() -> requestPage(page, url));
+    }
+
+    private void handlePageLinks(int page, @Nullable String nextUrl) {
+        synchronized (this) {
+            if (done) return;
+
+            if (null == nextUrl) {
+                lastPage = page;
+            } else if (inFlight < window) {
+                inFlight += 1;
+                submitRequestPage(page + 1, nextUrl);
+            } else {
+                pendingPage = page + 1;
+                pendingUrl = nextUrl;
+            }
+        }
+    }
+
+    private void handlePageData(int page, List<T> data) {
+        synchronized (this) {
+            if (done) return;
+
+            inFlight -= 1;
+            parsed.put(page, data);
+
+            // Delivered while holding the lock so that pages are never delivered concurrently,
+            // nor after an error.
+            List<T> next;
+            while (null != (next = parsed.remove(nextPageToDeliver))) {
+                handler.handleChunk(next);
+                nextPageToDeliver += 1;
+            }
+
+            if (null != pendingUrl && inFlight < window) {
+                inFlight += 1;
+                submitRequestPage(pendingPage, pendingUrl);
+                pendingPage = -1;
+                pendingUrl = null;
+            }
+
+            done = lastPage != -1 && nextPageToDeliver > lastPage;
+            if (!done) return;
+        }
+
+        handler.handleComplete();
+    }
+
+    private void handlePageError(SystemClientError error) {
+        synchronized (this) {
+            if (done) return;
+            done = true;
+        }
+
+        handler.handleError(error);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import androidx.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A request and its response, as recorded by {@link RecordingDataTask} and served by
+ * {@link ReplayingDataTask}.  Requests are identified by method, URL and a hash of their body;
+ * request headers, such as credentials, are not recorded.
+ */
+/* package */
+final class RecordedExchange {
+
+    // creators
+
+    @JsonCreator
+    /* package */ static RecordedExchange create(@JsonProperty("method") String method,
+                                                 @JsonProperty("url") String url,
+                                                 @JsonProperty("request_body_sha256") @Nullable String requestBodyHash,
+                                                 @JsonProperty("code") int code,
+                                                 @JsonProperty("message") String message,
+                                                 @JsonProperty("headers") List<String> headers,
+                                                 @JsonProperty("body") String body) {
+        return new RecordedExchange(
+                checkNotNull(method),
+                checkNotNull(url),
+                requestBodyHash,
+                code,
+                checkNotNull(message),
+                checkNotNull(headers),
+                BaseEncoding.base64().decode(checkNotNull(body)));
+    }
+
+    /* package */
+    static RecordedExchange create(Request request, Response response, byte[] body) throws IOException {
+        List<String> headers = new ArrayList<>();
+        Headers responseHeaders = response.headers();
+        for (int i = 0; i < responseHeaders.size(); i++) {
+            headers.add(responseHeaders.name(i));
+            headers.add(responseHeaders.value(i));
+        }
+
+        return new RecordedExchange(
+                request.method(),
+                request.url().toString(),
+                hashBody(request),
+                response.code(),
+                response.message(),
+                headers,
+                body);
+    }
+
+    /** Identify `request`, for matching against recorded requests. */
+    /* package */
+    static String getKey(Request request) throws IOException {
+        return getKey(request.method(), request.url().toString(), hashBody(request));
+    }
+
+    private static String getKey(String method, String url, @Nullable String requestBodyHash) {
+        return method + " " + url + (null == requestBodyHash ? "" : " " + requestBodyHash);
+    }
+
+    private static @Nullable String hashBody(Request request) throws IOException {
+        RequestBody body = request.body();
+        if (null == body) return null;
+
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return Hashing.sha256().hashBytes(buffer.readByteArray()).toString();
+    }
+
+    // fields
+
+    private final String method;
+    private final String url;
+    private final @Nullable String requestBodyHash;
+    private final int code;
+    private final String message;
+    private final List<String> headers;    // name, value, name, value, ...
+    private final byte[] body;
+
+    private RecordedExchange(String method,
+                             String url,
+                             @Nullable String requestBodyHash,
+                             int code,
+                             String message,
+                             List<String> headers,
+                             byte[] body) {
+        this.method = method;
+        this.url = url;
+        this.requestBodyHash = requestBodyHash;
+        this.code = code;
+        this.message = message;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    // getters
+
+    @JsonProperty("method")
+    public String getMethod() {
+        return method;
+    }
+
+    @JsonProperty("url")
+    public String getUrl() {
+        return url;
+    }
+
+    @JsonProperty("request_body_sha256")
+    public @Nullable String getRequestBodyHash() {
+        return requestBodyHash;
+    }
+
+    @JsonProperty("code")
+    public int getCode() {
+        return code;
+    }
+
+    @JsonProperty("message")
+    public String getMessage() {
+        return message;
+    }
+
+    @JsonProperty("headers")
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    @JsonProperty("body")
+    public String getEncodedBody() {
+        return BaseEncoding.base64().encode(body);
+    }
+
+    /* package */
+    String getKey() {
+        return getKey(method, url, requestBodyHash);
+    }
+
+    /* package */
+    boolean isNotModified() {
+        return HttpStatusCodes.NOT_MODIFIED == code;
+    }
+
+    /* package */
+    int getBodySize() {
+        return body.length;
+    }
+
+    /** Recreate the recorded response, as a response to `request`. */
+    /* package */
+    Response toResponse(Request request) {
+        Response.Builder builder = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message(message);
+
+        String contentType = null;
+        for (int i = 0; i + 1 < headers.size(); i += 2) {
+            builder.addHeader(headers.get(i), headers.get(i + 1));
+            if ("Content-Type".equalsIgnoreCase(headers.get(i))) contentType = headers.get(i + 1);
+        }
+
+        return builder
+                .body(ResponseBody.create(body, null == contentType ? null : MediaType.parse(contentType)))
+                .build();
+    }
+}
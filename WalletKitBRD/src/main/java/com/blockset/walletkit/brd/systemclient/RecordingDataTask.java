@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A {@link DataTask} that records each request and its response, as sent and received by another
+ * DataTask, into a directory; for replay, offline, by a {@link ReplayingDataTask}.
+ *
+ * Each exchange is written, in the order responses arrive, to its own file.  Failed requests
+ * (those without a response) are not recorded.
+ */
+public final class RecordingDataTask implements DataTask {
+
+    private static final Logger Log = Logger.getLogger(RecordingDataTask.class.getName());
+
+    /* package */ static final String FILE_SUFFIX = ".exchange.json";
+
+    private final DataTask dataTask;
+    private final File directory;
+    private final ObjectCoder coder;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /** Record the requests sent, and responses received, by OkHttp. */
+    public RecordingDataTask(File directory) {
+        this((client, request, callback) -> client.newCall(request).enqueue(callback), directory);
+    }
+
+    /** Record the requests sent, and responses received, by `dataTask`. */
+    public RecordingDataTask(DataTask dataTask, File directory) {
+        checkArgument(directory.isDirectory() || directory.mkdirs());
+
+        this.dataTask = dataTask;
+        this.directory = directory;
+        this.coder = ObjectCoder.createObjectCoderWithFailOnUnknownProperties();
+
+        // Append to, rather than overwrite, an earlier recording
+        File[] recorded = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+        this.sequence.set(null == recorded ? 0 : recorded.length);
+    }
+
+    @Override
+    public void execute(OkHttpClient client, Request request, Callback callback) {
+        dataTask.execute(client, request, new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                RecordedExchange exchange;
+                try (ResponseBody responseBody = response.body()) {
+                    byte[] body = null == responseBody ? new byte[0] : responseBody.bytes();
+                    exchange = RecordedExchange.create(request, response, body);
+                } catch (IOException e) {
+                    // E.g. the connection reset while reading the body; were this thrown, OkHttp
+                    // would only log it and `callback` would never complete
+                    callback.onFailure(call, e);
+                    return;
+                }
+
+                record(exchange);
+
+                // The original body has been consumed; pass on one that reads the recorded bytes
+                callback.onResponse(call, exchange.toResponse(response.request()));
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                callback.onFailure(call, e);
+            }
+        });
+    }
+
+    private void record(RecordedExchange exchange) {
+        File file = new File(directory, String.format("%08d%s", sequence.getAndIncrement(), FILE_SUFFIX));
+        try {
+            Files.asCharSink(file, StandardCharsets.UTF_8).write(coder.serializeObject(exchange));
+        } catch (IOException | ObjectCoder.ObjectCoderException e) {
+            // Recording is best effort; the response is still delivered
+            Log.log(Level.WARNING, String.format("failed to record exchange: %s", exchange.getKey()), e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import androidx.annotation.Nullable;
+
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A {@link DataTask} that serves the responses recorded by a {@link RecordingDataTask}, without
+ * using the network; for reproducible, offline runs of the sync pipeline.
+ *
+ * A request is answered with the responses recorded for the same method, URL and body, in the
+ * order recorded; once those run out, the last is repeated.  A `304 Not Modified` is only served
+ * to a conditional request.  A request with no recorded response fails.
+ *
+ * Responses are delivered asynchronously, after a fixed latency and then the time to transfer
+ * their body over a link of limited bandwidth shared by all responses.
+ */
+public final class ReplayingDataTask implements DataTask {
+
+    private static final int DEFAULT_CALLBACK_THREADS = RequestScheduler.DEFAULT_MAX_ACTIVE_REQUESTS;
+
+    private final Map<String, List<RecordedExchange>> exchanges = new HashMap<>();
+    private final ScheduledExecutorService executor;
+
+    private final AtomicInteger replayedCount = new AtomicInteger();
+    private final AtomicInteger missedCount = new AtomicInteger();
+
+    private volatile long latencyNanos = 0;
+    private volatile long bytesPerSecond = 0;
+
+    // Guarded by `this`
+    private final Map<String, Integer> positions = new HashMap<>();
+    private long linkFreeAtNanos = Long.MIN_VALUE;
+
+    /** Serve the exchanges recorded in `directory`. */
+    public ReplayingDataTask(File directory) throws IOException {
+        this(directory, DEFAULT_CALLBACK_THREADS);
+    }
+
+    /** Serve the exchanges recorded in `directory`, calling back on up to `threads` threads. */
+    public ReplayingDataTask(File directory, int threads) throws IOException {
+        checkArgument(threads > 0);
+
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(RecordingDataTask.FILE_SUFFIX));
+        if (null == files) throw new IOException("Not a recording directory: " + directory);
+        Arrays.sort(files);
+
+        ObjectCoder coder = ObjectCoder.createObjectCoderWithFailOnUnknownProperties();
+        for (File file : files) {
+            RecordedExchange exchange;
+            try {
+                exchange = coder.deserializeJson(RecordedExchange.class, Files.asCharSource(file, StandardCharsets.UTF_8).read());
+            } catch (ObjectCoder.ObjectCoderException e) {
+                throw new IOException("Unreadable exchange: " + file, e);
+            }
+
+            List<RecordedExchange> recorded = exchanges.get(exchange.getKey());
+            if (null == recorded) {
+                recorded = new ArrayList<>();
+                exchanges.put(exchange.getKey(), recorded);
+            }
+            recorded.add(exchange);
+        }
+
+        this.executor = Executors.newScheduledThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("blockset-replay-%d").setDaemon(true).build());
+    }
+
+    /** Set the delay before each response starts to arrive. */
+    public void setLatency(long latency, TimeUnit unit) {
+        checkArgument(latency >= 0);
+        latencyNanos = unit.toNanos(latency);
+    }
+
+    /** Set the bandwidth, shared by all responses, at which bodies arrive; 0 for unlimited. */
+    public void setBandwidth(long bytesPerSecond) {
+        checkArgument(bytesPerSecond >= 0);
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /** Get the number of requests answered with a recorded response. */
+    public int getReplayedCount() {
+        return replayedCount.get();
+    }
+
+    /** Get the number of requests for which no response was recorded. */
+    public int getMissedCount() {
+        return missedCount.get();
+    }
+
+    @Override
+    public void execute(OkHttpClient client, Request request, Callback callback) {
+        RecordedExchange exchange;
+        try {
+            exchange = select(RecordedExchange.getKey(request),
+                    null != request.header("If-None-Match") || null != request.header("If-Modified-Since"));
+        } catch (IOException e) {
+            executor.execute(() -> callback.onFailure(null, e));
+            return;
+        }
+
+        if (null == exchange) {
+            missedCount.incrementAndGet();
+            executor.execute(() -> callback.onFailure(null,
+                    new IOException("No recorded response: " + request.method() + " " + request.url())));
+            return;
+        }
+
+        replayedCount.incrementAndGet();
+        Response response = exchange.toResponse(request);
+        executor.schedule(() -> {
+            try {
+                callback.onResponse(null, response);
+            } catch (IOException e) {
+                callback.onFailure(null, e);
+            }
+        }, getDeliveryDelayNanos(exchange.getBodySize()), TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized @Nullable RecordedExchange select(String key, boolean isConditional) {
+        List<RecordedExchange> recorded = exchanges.get(key);
+        if (null == recorded) return null;
+
+        Integer position = positions.get(key);
+        for (int i = null == position ? 0 : position; i < recorded.size(); i++) {
+            if (isConditional || !recorded.get(i).isNotModified()) {
+                positions.put(key, i + 1);
+                return recorded.get(i);
+            }
+        }
+
+        // Exhausted; repeat the last suitable response
+        for (int i = recorded.size() - 1; i >= 0; i--) {
+            if (isConditional || !recorded.get(i).isNotModified()) return recorded.get(i);
+        }
+        return null;
+    }
+
+    // Latency, then the body's transfer once the link is free of earlier responses
+    private long getDeliveryDelayNanos(int bodySize) {
+        long now = java.lang.System.nanoTime();
+        long bytesPerSecond = this.bytesPerSecond;
+        long transferNanos = 0 == bytesPerSecond ? 0 : (long) (bodySize * 1e9 / bytesPerSecond);
+
+        long start = now + latencyNanos;
+        synchronized (this) {
+            if (linkFreeAtNanos != Long.MIN_VALUE && linkFreeAtNanos - start > 0) start = linkFreeAtNanos;
+            linkFreeAtNanos = start + transferNanos;
+        }
+        return start + transferNanos - now;
+    }
+}
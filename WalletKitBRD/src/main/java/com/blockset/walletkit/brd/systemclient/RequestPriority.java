@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+/**
+ * The classes of Blockset requests, highest priority first.  When requests are queued for a
+ * free connection, the highest priority request whose class is under its concurrency limit is
+ * sent first.
+ */
+public enum RequestPriority {
+    /** Transaction submission */
+    SUBMIT,
+
+    /** Transaction fee estimation */
+    FEE_ESTIMATE,
+
+    /** Blockchain (block height) updates */
+    BLOCK_HEIGHT,
+
+    /** Everything else: currencies, subscriptions, single transfers, blocks, accounts */
+    GENERAL,
+
+    /** Transfer and transaction history; the bulk of a sync */
+    HISTORY_SYNC
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import androidx.annotation.Nullable;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+
+/**
+ * Applies a {@link RetryPolicy} to the requests of a {@link BdbApiClient}: decides whether, and
+ * when, a failed request is sent again and keeps each endpoint's retry budget.
+ */
+/* package */
+final class RequestRetrier {
+
+    // Budgets are kept in tenths of a retry; each success returns a tenth to its endpoint
+    private static final int RETRY_COST = 10;
+    private static final int SUCCESS_REFILL = 1;
+
+    private final int baseUrlSegmentCount;
+    private final ScheduledExecutorService executor;
+    private final Random random = new Random();
+
+    private final AtomicLong retries = new AtomicLong();
+
+    // Guarded by `this`
+    private final Map<String, Integer> budgets = new HashMap<>();
+
+    private volatile RetryPolicy policy = RetryPolicy.DEFAULT;
+
+    /* package */
+    RequestRetrier(String baseUrl, ScheduledExecutorService executor) {
+        HttpUrl url = HttpUrl.parse(baseUrl);
+        this.baseUrlSegmentCount = null == url ? 0 : nonEmptySegmentCount(url.pathSegments());
+        this.executor = executor;
+    }
+
+    /* package */
+    void setPolicy(RetryPolicy policy) {
+        synchronized (this) {
+            budgets.clear();
+        }
+        this.policy = policy;
+    }
+
+    /* package */
+    RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    /** The number of requests sent again. */
+    /* package */
+    long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * Get the delay before sending `request` again after it failed, on its `attempt`-th send,
+     * with a retryable status or timeout; or -1 if it should not be sent again.  A non-negative
+     * delay draws on the endpoint's budget.
+     */
+    /* package */
+    long acquireRetryDelay(Request request, int attempt, @Nullable String retryAfter) {
+        RetryPolicy policy = this.policy;
+        if (!RetryPolicy.isIdempotent(request.method())) return -1;
+
+        long delay = policy.getRetryDelay(attempt, parseRetryAfter(retryAfter), random);
+        if (delay < 0) return -1;
+
+        String endpoint = getEndpoint(request);
+        synchronized (this) {
+            int budget = getBudget(policy, endpoint);
+            if (budget < RETRY_COST) return -1;
+            budgets.put(endpoint, budget - RETRY_COST);
+        }
+
+        retries.incrementAndGet();
+        return delay;
+    }
+
+    /** Record that `request` succeeded; replenishing its endpoint's budget. */
+    /* package */
+    void recordSuccess(Request request) {
+        RetryPolicy policy = this.policy;
+        String endpoint = getEndpoint(request);
+        synchronized (this) {
+            int budget = getBudget(policy, endpoint);
+            budgets.put(endpoint, Math.min(policy.getEndpointBudget() * RETRY_COST, budget + SUCCESS_REFILL));
+        }
+    }
+
+    /* package */
+    void schedule(Runnable retry, long delayMillis) {
+        executor.schedule(retry, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private int getBudget(RetryPolicy policy, String endpoint) {
+        Integer budget = budgets.get(endpoint);
+        return null == budget ? policy.getEndpointBudget() * RETRY_COST : budget;
+    }
+
+    // The resource following the base URL, e.g. "transactions" for both the first and the
+    // subsequent pages of a transactions query.
+    private String getEndpoint(Request request) {
+        List<String> segments = request.url().pathSegments();
+        return request.method() + " " + (segments.size() > baseUrlSegmentCount ? segments.get(baseUrlSegmentCount) : "");
+    }
+
+    private static int nonEmptySegmentCount(List<String> segments) {
+        int count = 0;
+        for (String segment : segments) if (!segment.isEmpty()) count += 1;
+        return count;
+    }
+
+    /**
+     * Parse a `Retry-After` header, either delay-seconds or an HTTP-date, into milliseconds from
+     * now; -1 if absent or unparsable.
+     */
+    /* package */
+    static long parseRetryAfter(@Nullable String retryAfter) {
+        if (null == retryAfter) return -1;
+        retryAfter = retryAfter.trim();
+
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(retryAfter)));
+        } catch (NumberFormatException e) {
+            // Not delay-seconds; try an HTTP-date
+        }
+
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            Date date = format.parse(retryAfter);
+            return Math.max(0, date.getTime() - java.lang.System.currentTimeMillis());
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Schedules Blockset requests onto a bounded number of concurrent connections, by priority.
+ *
+ * A request is sent immediately if fewer than the maximum number of requests are active and its
+ * priority class is under its own limit; otherwise it is queued.  As requests complete, queued
+ * requests are sent highest priority first (and, within a priority, first come first served).
+ * Keeping bulk classes below the overall maximum leaves connections free for submissions and
+ * fee estimates even during a full sync.
+ *
+ * Requests are tagged with their {@link RequestScope}; cancelling a scope fails its queued
+ * requests and cancels its active ones.
+ */
+/* package */
+final class RequestScheduler {
+
+    // Matches OkHttp's default per-host limit; more would queue in the Dispatcher, unprioritized
+    /* package */ static final int DEFAULT_MAX_ACTIVE_REQUESTS = 5;
+
+    private static final int[] DEFAULT_PRIORITY_LIMITS = {
+            5,  // SUBMIT
+            3,  // FEE_ESTIMATE
+            2,  // BLOCK_HEIGHT
+            3,  // GENERAL
+            3   // HISTORY_SYNC
+    };
+
+    private final class Pending {
+        private final DataTask dataTask;
+        private final OkHttpClient client;
+        private final Request request;
+        private final RequestScope scope;
+        private final RequestPriority priority;
+        private final Callback callback;
+
+        private final AtomicBoolean done = new AtomicBoolean(false);
+
+        Pending(DataTask dataTask,
+                OkHttpClient client,
+                Request request,
+                RequestScope scope,
+                RequestPriority priority,
+                Callback callback) {
+            this.dataTask = dataTask;
+            this.client = client;
+            this.request = request;
+            this.scope = scope;
+            this.priority = priority;
+            this.callback = callback;
+        }
+
+        void send() {
+            try {
+                dataTask.execute(client, request, createCallback());
+            } catch (RuntimeException e) {
+                // Raised by `callback` itself, from a synchronous DataTask
+                if (done.get()) throw e;
+
+                complete(this);
+                callback.onFailure(null, new IOException(e));
+            }
+        }
+
+        private Callback createCallback() {
+            return new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    try {
+                        callback.onResponse(call, response);
+                    } finally {
+                        complete(Pending.this);
+                    }
+                }
+
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    try {
+                        callback.onFailure(call, e);
+                    } finally {
+                        complete(Pending.this);
+                    }
+                }
+            };
+        }
+
+        void fail(IOException e) {
+            callback.onFailure(null, e);
+        }
+    }
+
+    // Guarded by `this`
+    private final List<ArrayDeque<Pending>> queues = new ArrayList<>();
+    private final int[] active = new int[RequestPriority.values().length];
+    private final int[] limits = DEFAULT_PRIORITY_LIMITS.clone();
+    private int activeCount;
+    private int maxActiveCount = DEFAULT_MAX_ACTIVE_REQUESTS;
+
+    /* package */
+    RequestScheduler() {
+        for (int i = 0; i < RequestPriority.values().length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+    }
+
+    /* package */
+    void setMaxActiveRequests(int count) {
+        checkArgument(count > 0);
+        synchronized (this) {
+            maxActiveCount = count;
+        }
+        sendReady();
+    }
+
+    /* package */
+    void setPriorityLimit(RequestPriority priority, int count) {
+        checkArgument(count > 0);
+        synchronized (this) {
+            limits[priority.ordinal()] = count;
+        }
+        sendReady();
+    }
+
+    /* package */
+    synchronized int getActiveCount(RequestPriority priority) {
+        return active[priority.ordinal()];
+    }
+
+    /* package */
+    synchronized int getQueuedCount(RequestPriority priority) {
+        return queues.get(priority.ordinal()).size();
+    }
+
+    /**
+     * Send `request`, tagged with `scope`, with `dataTask` once a connection is available for
+     * `priority`.
+     */
+    /* package */
+    void execute(DataTask dataTask,
+                 OkHttpClient client,
+                 Request request,
+                 RequestScope scope,
+                 RequestPriority priority,
+                 Callback callback) {
+        Request taggedRequest = request.newBuilder()
+                .tag(RequestScope.class, scope)
+                .build();
+
+        synchronized (this) {
+            queues.get(priority.ordinal()).addLast(new Pending(dataTask, client, taggedRequest, scope, priority, callback));
+        }
+        sendReady();
+    }
+
+    /**
+     * Cancel every queued and active request within `scope`, using `client`'s dispatcher for the
+     * active requests.
+     */
+    /* package */
+    void cancel(OkHttpClient client, RequestScope scope) {
+        List<Pending> cancelled = new ArrayList<>();
+        scope.markCancelled();
+
+        synchronized (this) {
+            for (ArrayDeque<Pending> queue : queues) {
+                Iterator<Pending> iterator = queue.iterator();
+                while (iterator.hasNext()) {
+                    Pending pending = iterator.next();
+                    if (pending.scope.isWithin(scope)) {
+                        iterator.remove();
+                        cancelled.add(pending);
+                    }
+                }
+            }
+        }
+
+        for (Pending pending : cancelled) {
+            pending.fail(new IOException("Canceled"));
+        }
+
+        List<Call> calls = new ArrayList<>(client.dispatcher().queuedCalls());
+        calls.addAll(client.dispatcher().runningCalls());
+        for (Call call : calls) {
+            RequestScope callScope = call.request().tag(RequestScope.class);
+            if (null != callScope && callScope.isWithin(scope)) call.cancel();
+        }
+    }
+
+    private void complete(Pending pending) {
+        if (!pending.done.compareAndSet(false, true)) return;
+
+        synchronized (this) {
+            active[pending.priority.ordinal()] -= 1;
+            activeCount -= 1;
+        }
+        sendReady();
+    }
+
+    private void sendReady() {
+        List<Pending> ready = new ArrayList<>();
+
+        synchronized (this) {
+            for (int i = 0; i < queues.size() && activeCount < maxActiveCount; i++) {
+                ArrayDeque<Pending> queue = queues.get(i);
+                while (!queue.isEmpty() && activeCount < maxActiveCount && active[i] < limits[i]) {
+                    ready.add(queue.removeFirst());
+                    active[i] += 1;
+                    activeCount += 1;
+                }
+            }
+        }
+
+        // Sent in priority order, outside the lock; a DataTask may complete synchronously
+        for (Pending pending : ready) {
+            pending.send();
+        }
+    }
+}
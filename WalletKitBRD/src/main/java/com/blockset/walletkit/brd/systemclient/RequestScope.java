@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A group of requests that are cancelled together.  Scopes nest - e.g. a client, its Systems
+ * and their WalletManagers - and cancelling a scope cancels the requests of its descendants.
+ */
+/* package */
+final class RequestScope {
+
+    private static final AtomicLong ID_GENERATOR = new AtomicLong();
+
+    /* package */
+    static RequestScope createRoot() {
+        return new RequestScope(null);
+    }
+
+    private final long id = ID_GENERATOR.incrementAndGet();
+    private final @Nullable RequestScope parent;
+    private final AtomicLong cancellations = new AtomicLong();
+
+    private RequestScope(@Nullable RequestScope parent) {
+        this.parent = parent;
+    }
+
+    /* package */
+    RequestScope createChild() {
+        return new RequestScope(this);
+    }
+
+    /** Check if `this` is `scope` or one of its descendants. */
+    /* package */
+    boolean isWithin(RequestScope scope) {
+        for (RequestScope s = this; null != s; s = s.parent) {
+            if (s == scope) return true;
+        }
+        return false;
+    }
+
+    /* package */
+    void markCancelled() {
+        cancellations.incrementAndGet();
+    }
+
+    /**
+     * Get a count that changes whenever `this` or an ancestor is cancelled; a request that waits
+     * (e.g. to be retried) compares it before and after to see if it was cancelled meanwhile.
+     */
+    /* package */
+    long getCancelGeneration() {
+        long generation = 0;
+        for (RequestScope s = this; null != s; s = s.parent) {
+            generation += s.cancellations.get();
+        }
+        return generation;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestScope{" + id + "}";
+    }
+}
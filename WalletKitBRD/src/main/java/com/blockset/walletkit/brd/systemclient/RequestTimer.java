@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+/**
+ * Totals the time a group of requests, such as the pages of one query, spend on the network;
+ * from when each is handed to its {@link DataTask} until its response, or failure, arrives.  Time
+ * spent queued, in the {@link RequestScheduler} or before a retry, is not counted.
+ *
+ * The time is added before the response is handled, so that it is counted by a handler that
+ * completes the group.
+ */
+/* package */
+final class RequestTimer {
+
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    /** Wrap `dataTask` so that the requests it executes are timed. */
+    /* package */
+    DataTask wrap(DataTask dataTask) {
+        return (client, request, callback) -> {
+            long start = java.lang.System.nanoTime();
+            dataTask.execute(client, request, new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    elapsedNanos.addAndGet(java.lang.System.nanoTime() - start);
+                    callback.onResponse(call, response);
+                }
+
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    elapsedNanos.addAndGet(java.lang.System.nanoTime() - start);
+                    callback.onFailure(call, e);
+                }
+            });
+        };
+    }
+
+    /* package */
+    long getElapsed(TimeUnit unit) {
+        return unit.convert(elapsedNanos.get(), TimeUnit.NANOSECONDS);
+    }
+}
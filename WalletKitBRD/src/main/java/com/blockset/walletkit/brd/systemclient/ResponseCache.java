@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An HTTP-semantics cache for slowly changing Blockset catalog resources.
+ *
+ * Entries are keyed by request (URL and result type) and hold the response's `ETag` and
+ * `Last-Modified` validators, the raw response body and, once decoded, the decoded result.  An
+ * entry younger than its resource's TTL is served without touching the network; an older
+ * entry is revalidated with a conditional GET and, on a 304, its decoded result is reused
+ * without re-parsing.
+ *
+ * Decoded results live in memory only; the validators and body are also written to the
+ * cache directory, when one is set, so that a restarted client can revalidate rather than
+ * re-download.  Disk failures are logged and otherwise ignored - the cache is an optimization.
+ *
+ * A decoded result is shared by every caller served from its entry, so decoded lists are held
+ * unmodifiable.  At most `MAX_ENTRIES` entries are held in memory, least recently used first out.
+ */
+/* package */
+final class ResponseCache {
+
+    private static final Logger Log = Logger.getLogger(ResponseCache.class.getName());
+
+    private static final int FILE_VERSION = 1;
+
+    // Enough for every page of the catalog resources; more are only possible with other TTLs set
+    /* package */ static final int MAX_ENTRIES = 256;
+
+    /* package */
+    static final class Entry {
+        private final String key;
+        private final @Nullable String etag;
+        private final @Nullable String lastModified;
+        private final byte[] body;
+
+        private volatile long storedAt;
+
+        // Decoded from `body`; with the links announced while decoding
+        private volatile @Nullable Object decoded;
+        private volatile @Nullable String prevUrl;
+        private volatile @Nullable String nextUrl;
+
+        private Entry(String key,
+                      @Nullable String etag,
+                      @Nullable String lastModified,
+                      byte[] body,
+                      long storedAt) {
+            this.key = key;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+            this.storedAt = storedAt;
+        }
+
+        /* package */
+        @Nullable String getEtag() {
+            return etag;
+        }
+
+        /* package */
+        @Nullable String getLastModified() {
+            return lastModified;
+        }
+
+        /* package */
+        byte[] getBody() {
+            return body;
+        }
+
+        /* package */
+        @Nullable Object getDecoded() {
+            return decoded;
+        }
+
+        /**
+         * Set the decoded result; a list, or the list of a page, is made unmodifiable so that no
+         * caller can change it for the others.
+         */
+        /* package */
+        void setDecoded(Object decoded, @Nullable String prevUrl, @Nullable String nextUrl) {
+            this.prevUrl = prevUrl;
+            this.nextUrl = nextUrl;
+            this.decoded = unmodifiable(decoded);
+        }
+
+        private static Object unmodifiable(Object decoded) {
+            if (decoded instanceof List) {
+                return Collections.unmodifiableList((List<?>) decoded);
+            }
+            if (decoded instanceof PagedData) {
+                PagedData<?> page = (PagedData<?>) decoded;
+                return new PagedData<>(Collections.unmodifiableList(page.getData()),
+                        page.getPrevUrl().orNull(),
+                        page.getNextUrl().orNull());
+            }
+            return decoded;
+        }
+
+        /* package */
+        @Nullable String getPrevUrl() {
+            return prevUrl;
+        }
+
+        /* package */
+        @Nullable String getNextUrl() {
+            return nextUrl;
+        }
+    }
+
+    private final Map<String, Long> ttlByResource = new ConcurrentHashMap<>();
+    // Guarded by itself; in access order, for eviction
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ResponseCache.Entry> eldest) {
+            // Evicted entries remain on disk, to be read again if needed
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private volatile @Nullable File directory;
+
+    /* package */
+    ResponseCache() {
+    }
+
+    /**
+     * Cache `resource` responses, serving them without revalidation for `ttl`.  A zero `ttl`
+     * revalidates every time.
+     */
+    /* package */
+    void setTtl(String resource, long ttl, TimeUnit unit) {
+        ttlByResource.put(resource, unit.toMillis(ttl));
+    }
+
+    /* package */
+    void removeTtl(String resource) {
+        ttlByResource.remove(resource);
+    }
+
+    /* package */
+    boolean isCacheable(@Nullable String resource) {
+        return null != resource && ttlByResource.containsKey(resource);
+    }
+
+    /* package */
+    void setDirectory(@Nullable File directory) {
+        this.directory = directory;
+    }
+
+    /* package */
+    boolean isFresh(String resource, Entry entry) {
+        Long ttl = ttlByResource.get(resource);
+        return null != ttl && java.lang.System.currentTimeMillis() - entry.storedAt < ttl;
+    }
+
+    /* package */
+    @Nullable Entry get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (null != entry) return entry;
+        }
+
+        Entry entry = read(key);
+        if (null != entry) {
+            synchronized (entries) {
+                Entry existing = entries.get(key);
+                if (null != existing) return existing;
+                entries.put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    /* package */
+    Entry put(String key, @Nullable String etag, @Nullable String lastModified, byte[] body) {
+        Entry entry = new Entry(key, etag, lastModified, body, java.lang.System.currentTimeMillis());
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        write(entry);
+        return entry;
+    }
+
+    /** Record that `entry` was just revalidated. */
+    /* package */
+    void refresh(Entry entry) {
+        entry.storedAt = java.lang.System.currentTimeMillis();
+        write(entry);
+    }
+
+    // Disk
+
+    private @Nullable File fileFor(String key) {
+        File directory = this.directory;
+        return null == directory
+                ? null
+                : new File(directory, Hashing.sha256().hashString(key, Charsets.UTF_8).toString());
+    }
+
+    private @Nullable Entry read(String key) {
+        File file = fileFor(key);
+        if (null == file || !file.isFile()) return null;
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (FILE_VERSION != input.readInt()) return null;
+            if (!key.equals(input.readUTF())) return null;
+
+            String etag = readNullableString(input);
+            String lastModified = readNullableString(input);
+            long storedAt = input.readLong();
+
+            byte[] body = new byte[input.readInt()];
+            input.readFully(body);
+
+            return new Entry(key, etag, lastModified, body, storedAt);
+        } catch (IOException e) {
+            Log.log(Level.FINE, "response cache read failed", e);
+            return null;
+        }
+    }
+
+    private synchronized void write(Entry entry) {
+        File file = fileFor(entry.key);
+        if (null == file) return;
+
+        File directory = file.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) return;
+
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            output.writeInt(FILE_VERSION);
+            output.writeUTF(entry.key);
+            writeNullableString(output, entry.etag);
+            writeNullableString(output, entry.lastModified);
+            output.writeLong(entry.storedAt);
+            output.writeInt(entry.body.length);
+            output.write(entry.body);
+        } catch (IOException e) {
+            Log.log(Level.FINE, "response cache write failed", e);
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(file) && (!file.delete() || !temp.renameTo(file))) {
+            temp.delete();
+        }
+    }
+
+    private static @Nullable String readNullableString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeNullableString(DataOutputStream output, @Nullable String value) throws IOException {
+        output.writeBoolean(null != value);
+        if (null != value) output.writeUTF(value);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * When, and how soon, a failed Blockset request is sent again.
+ *
+ * Only idempotent requests (GET, PUT, DELETE) are retried - never a POST, as a POST that failed
+ * in transit (e.g. a transaction submission) may nonetheless have been applied.  They are
+ * retried on a 429 (Too Many Requests), a 5xx gateway or server error, or a timeout, up to
+ * `maxAttempts` sends in all.
+ *
+ * Retries back off exponentially from `baseDelayMillis`, with jitter, up to `maxDelayMillis`; a
+ * `Retry-After` longer than that is honored, unless longer than `maxRetryAfterMillis` in which
+ * case the request fails rather than waits.  Each endpoint (e.g. "transactions") has a budget
+ * of `endpointBudget` retries, replenished as its requests succeed, so that an endpoint that is
+ * down is not hammered with retries.
+ */
+public final class RetryPolicy {
+
+    /** Up to two retries, from half a second, for at most 30 seconds (60 if asked) */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, 500, 30_000, 60_000, 10);
+
+    /** No retries */
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0, 0);
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long maxRetryAfterMillis;
+    private final int endpointBudget;
+
+    public RetryPolicy(int maxAttempts,
+                       long baseDelayMillis,
+                       long maxDelayMillis,
+                       long maxRetryAfterMillis,
+                       int endpointBudget) {
+        checkArgument(maxAttempts > 0);
+        checkArgument(baseDelayMillis >= 0 && maxDelayMillis >= baseDelayMillis);
+        checkArgument(maxRetryAfterMillis >= 0);
+        checkArgument(endpointBudget >= 0);
+
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxRetryAfterMillis = maxRetryAfterMillis;
+        this.endpointBudget = endpointBudget;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public long getMaxRetryAfterMillis() {
+        return maxRetryAfterMillis;
+    }
+
+    public int getEndpointBudget() {
+        return endpointBudget;
+    }
+
+    /* package */
+    static boolean isIdempotent(String httpMethod) {
+        switch (httpMethod) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /* package */
+    static boolean isRetryableStatus(int responseCode) {
+        switch (responseCode) {
+            case 429:   // Too Many Requests
+            case 500:   // Internal Server Error
+            case 502:   // Bad Gateway
+            case 503:   // Service Unavailable
+            case 504:   // Gateway Timeout
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Get the delay before sending, again, a request that failed on its `attempt`-th send; or
+     * -1 if it should not be sent again.
+     *
+     * @param retryAfterMillis the server's requested delay, or -1 if none
+     */
+    /* package */
+    long getRetryDelay(int attempt, long retryAfterMillis, Random random) {
+        if (attempt >= maxAttempts) return -1;
+        if (retryAfterMillis > maxRetryAfterMillis) return -1;
+
+        // Exponential, with 'equal jitter': half fixed, half random
+        long backoff = baseDelayMillis << Math.min(attempt - 1, 20);
+        backoff = Math.min(backoff, maxDelayMillis);
+        long delay = backoff / 2 + (long) (random.nextDouble() * (backoff - backoff / 2));
+
+        return Math.max(delay, retryAfterMillis);
+    }
+}
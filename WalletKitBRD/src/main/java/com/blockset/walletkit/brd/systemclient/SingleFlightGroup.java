@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.brd.systemclient;
+
+import androidx.annotation.Nullable;
+
+import com.blockset.walletkit.errors.SystemClientError;
+import com.blockset.walletkit.utility.CompletionHandler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent, identical requests into a single 'flight'.
+ *
+ * The first caller for a key starts the flight; any caller arriving with the same key while
+ * that flight is outstanding joins it and receives the same parsed result (or error).  Once a
+ * flight completes it is forgotten; the next caller starts a new one.  Results are shared
+ * between all callers and must be treated as read-only.
+ *
+ * Callers join a flight whatever their {@link RequestScope}; the flight is sent in a scope of its
+ * own.  Cancelling a caller's scope fails that caller alone, and the flight is only cancelled once
+ * none of its callers remain.
+ */
+/* package */
+final class SingleFlightGroup {
+
+    /* package */
+    interface FlightStarter<T> {
+        void start(RequestScope flightScope,
+                   BdbEmbeddedResponseReader.LinksListener linksListener,
+                   CompletionHandler<T, SystemClientError> handler);
+    }
+
+    private final Map<String, Flight<?>> flights = new HashMap<>();
+
+    private final AtomicLong hits   = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /* package */
+    <T> void execute(String key,
+                     RequestScope scope,
+                     @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
+                     CompletionHandler<T, SystemClientError> handler,
+                     FlightStarter<T> starter) {
+        Flight<T> flight;
+        boolean joined;
+
+        synchronized (flights) {
+            @SuppressWarnings("unchecked")
+            Flight<T> existing = (Flight<T>) flights.get(key);
+            joined = null != existing;
+
+            flight = joined ? existing : new Flight<>(key);
+            flight.waiters.add(new Waiter<>(scope, linksListener, handler));
+            if (!joined) flights.put(key, flight);
+        }
+
+        if (joined) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            starter.start(flight.scope, flight, flight);
+        }
+    }
+
+    /**
+     * Fail the callers within `scope`, detaching them from their flights.  Returns the scopes of
+     * the flights left without callers, which are to be cancelled.
+     */
+    /* package */
+    List<RequestScope> cancel(RequestScope scope) {
+        List<Waiter<?>> cancelled = new ArrayList<>();
+        List<RequestScope> abandoned = new ArrayList<>();
+
+        synchronized (flights) {
+            Iterator<Flight<?>> flightIterator = flights.values().iterator();
+            while (flightIterator.hasNext()) {
+                Flight<?> flight = flightIterator.next();
+
+                Iterator<? extends Waiter<?>> waiterIterator = flight.waiters.iterator();
+                while (waiterIterator.hasNext()) {
+                    Waiter<?> waiter = waiterIterator.next();
+                    if (waiter.scope.isWithin(scope)) {
+                        waiterIterator.remove();
+                        waiter.isDetached = true;
+                        cancelled.add(waiter);
+                    }
+                }
+
+                // Forgotten, so that the next caller starts a new flight rather than join this one
+                if (flight.waiters.isEmpty()) {
+                    flightIterator.remove();
+                    abandoned.add(flight.scope);
+                }
+            }
+        }
+
+        for (Waiter<?> waiter : cancelled) {
+            waiter.handler.handleError(new SystemClientError.BadResponse("General Error: Canceled"));
+        }
+        return abandoned;
+    }
+
+    /* package */
+    long getHitCount() {
+        return hits.get();
+    }
+
+    /* package */
+    long getMissCount() {
+        return misses.get();
+    }
+
+    private static final class Waiter<T> {
+        private final RequestScope scope;
+        private final @Nullable BdbEmbeddedResponseReader.LinksListener linksListener;
+        private final CompletionHandler<T, SystemClientError> handler;
+
+        // Only touched on the thread completing the flight
+        private boolean linksDelivered;
+
+        // Set, under `flights`, once the waiter's scope is cancelled
+        private volatile boolean isDetached;
+
+        Waiter(RequestScope scope,
+               @Nullable BdbEmbeddedResponseReader.LinksListener linksListener,
+               CompletionHandler<T, SystemClientError> handler) {
+            this.scope = scope;
+            this.linksListener = linksListener;
+            this.handler = handler;
+        }
+
+        void deliverLinks(@Nullable String prevUrl, @Nullable String nextUrl) {
+            if (!linksDelivered && !isDetached) {
+                linksDelivered = true;
+                if (null != linksListener) linksListener.handleLinks(prevUrl, nextUrl);
+            }
+        }
+    }
+
+    private final class Flight<T> implements BdbEmbeddedResponseReader.LinksListener, CompletionHandler<T, SystemClientError> {
+        private final String key;
+        private final RequestScope scope = RequestScope.createRoot();
+
+        // Guarded by `flights`
+        private final List<Waiter<T>> waiters = new ArrayList<>();
+        private boolean linksAnnounced;
+        private @Nullable String prevUrl;
+        private @Nullable String nextUrl;
+
+        Flight(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void handleLinks(@Nullable String prevUrl, @Nullable String nextUrl) {
+            List<Waiter<T>> waiters;
+            synchronized (flights) {
+                this.linksAnnounced = true;
+                this.prevUrl = prevUrl;
+                this.nextUrl = nextUrl;
+                waiters = new ArrayList<>(this.waiters);
+            }
+
+            for (Waiter<T> waiter : waiters) {
+                waiter.deliverLinks(prevUrl, nextUrl);
+            }
+        }
+
+        @Override
+        public void handleData(T data) {
+            for (Waiter<T> waiter : land()) {
+                // Late joiners get the links before the data, as a lone caller would
+                if (linksAnnounced) waiter.deliverLinks(prevUrl, nextUrl);
+                waiter.handler.handleData(data);
+            }
+        }
+
+        @Override
+        public void handleError(SystemClientError error) {
+            for (Waiter<T> waiter : land()) {
+                waiter.handler.handleError(error);
+            }
+        }
+
+        private List<Waiter<T>> land() {
+            synchronized (flights) {
+                if (flights.get(key) == this) flights.remove(key);
+                return new ArrayList<>(waiters);
+            }
+        }
+    }
+}
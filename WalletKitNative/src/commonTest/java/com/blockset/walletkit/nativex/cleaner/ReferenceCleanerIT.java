@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.nativex.cleaner;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ReferenceCleanerIT {
+
+    private static final class Collected {}
+
+    private static final class Scoped {}
+
+    private static ReferenceCleaner.TypeMetrics getTypeMetrics(String type) {
+        for (ReferenceCleaner.TypeMetrics metrics : ReferenceCleaner.getMetrics().getTypes()) {
+            if (metrics.getType().equals(type)) return metrics;
+        }
+        return null;
+    }
+
+    @Test
+    public void testReleasesUnreachableReferents() throws InterruptedException {
+        int count = 1000;
+        AtomicInteger released = new AtomicInteger();
+        ReferenceCleaner.Metrics before = ReferenceCleaner.getMetrics();
+
+        for (int i = 0; i < count; i++) {
+            ReferenceCleaner.register(new Collected(), released::incrementAndGet);
+        }
+        assertEquals(count, getTypeMetrics("Collected").getRegisteredCount());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (released.get() < count && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(count, released.get());
+
+        ReferenceCleaner.TypeMetrics type = getTypeMetrics("Collected");
+        assertEquals(0, type.getLiveCount());
+        assertEquals(count, type.getRegisteredCount());
+
+        ReferenceCleaner.Metrics after = ReferenceCleaner.getMetrics();
+        assertTrue(after.getDrainedCount() - before.getDrainedCount() >= count);
+        assertTrue(after.getDrainRate(before) > 0);
+        assertTrue(after.getBacklog() >= 0);
+    }
+
+    @Test
+    public void testCountsScopedHandles() {
+        AtomicInteger released = new AtomicInteger();
+        Object referent = new Scoped();
+
+        try (ReferenceScope scope = ReferenceScope.open()) {
+            ReferenceCleaner.registerScoped(referent, released::incrementAndGet);
+            assertEquals(1, scope.size());
+            assertEquals(1, getTypeMetrics("Scoped").getLiveCount());
+        }
+
+        assertEquals(1, released.get());
+        assertEquals(0, getTypeMetrics("Scoped").getLiveCount());
+        assertEquals(1, getTypeMetrics("Scoped").getRegisteredCount());
+    }
+
+    @Test
+    public void testThreadCount() throws InterruptedException {
+        assertEquals(ReferenceCleaner.DEFAULT_THREAD_COUNT, ReferenceCleaner.getThreadCount());
+
+        try {
+            ReferenceCleaner.setThreadCount(4);
+            assertEquals(4, ReferenceCleaner.getMetrics().getThreadCount());
+
+            // Surplus threads stop once idle
+            ReferenceCleaner.setThreadCount(1);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (ReferenceCleaner.getMetrics().getThreadCount() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, ReferenceCleaner.getMetrics().getThreadCount());
+        } finally {
+            ReferenceCleaner.setThreadCount(ReferenceCleaner.DEFAULT_THREAD_COUNT);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreadCount() {
+        ReferenceCleaner.setThreadCount(0);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.nativex.cleaner;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ReferenceScopeIT {
+
+    @Test
+    public void testReleasesInReverseOrderOnClose() {
+        List<Integer> released = new ArrayList<>();
+
+        try (ReferenceScope scope = ReferenceScope.open()) {
+            for (int i = 0; i < 3; i++) {
+                int index = i;
+                ReferenceCleaner.registerScoped(new Object(), () -> released.add(index));
+            }
+            assertEquals(3, scope.size());
+            assertTrue(released.isEmpty());
+        }
+
+        assertEquals(Arrays.asList(2, 1, 0), released);
+    }
+
+    @Test
+    public void testNestedScopes() {
+        AtomicInteger outerCount = new AtomicInteger();
+        AtomicInteger innerCount = new AtomicInteger();
+
+        try (ReferenceScope outer = ReferenceScope.open()) {
+            ReferenceCleaner.registerScoped(new Object(), outerCount::incrementAndGet);
+
+            try (ReferenceScope inner = ReferenceScope.open()) {
+                ReferenceCleaner.registerScoped(new Object(), innerCount::incrementAndGet);
+                assertEquals(1, inner.size());
+            }
+            assertEquals(1, innerCount.get());
+            assertEquals(0, outerCount.get());
+
+            // Registers with the outer scope once the inner is closed
+            ReferenceCleaner.registerScoped(new Object(), outerCount::incrementAndGet);
+            assertEquals(2, outer.size());
+        }
+        assertEquals(2, outerCount.get());
+    }
+
+    @Test
+    public void testUnscoped() {
+        AtomicInteger count = new AtomicInteger();
+
+        try (ReferenceScope scope = ReferenceScope.open()) {
+            Object referent = ReferenceScope.unscoped(() -> {
+                Object o = new Object();
+                ReferenceCleaner.registerScoped(o, count::incrementAndGet);
+                return o;
+            }).get();
+
+            assertNotNull(referent);
+            assertEquals(0, scope.size());
+
+            // The scope is restored
+            ReferenceCleaner.registerScoped(new Object(), count::incrementAndGet);
+            assertEquals(1, scope.size());
+        }
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testScopeIsPerThread() throws InterruptedException {
+        AtomicInteger count = new AtomicInteger();
+
+        try (ReferenceScope scope = ReferenceScope.open()) {
+            Thread thread = new Thread(() -> ReferenceCleaner.registerScoped(new Object(), count::incrementAndGet));
+            thread.start();
+            thread.join();
+
+            assertEquals(0, scope.size());
+        }
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void testCloseOutOfOrder() {
+        ReferenceScope outer = ReferenceScope.open();
+        ReferenceScope inner = ReferenceScope.open();
+
+        try {
+            outer.close();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        inner.close();
+        outer.close();
+
+        // Closing again has no effect
+        outer.close();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.nativex.library;
+
+import com.blockset.walletkit.nativex.WKTransferStateType;
+import com.blockset.walletkit.nativex.utility.SizeT;
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.StringArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a call through the indirect (proxy) interface, as `wkClientTransferBundleCreate` was
+ * bound before, with the same call direct-mapped, as it now is.
+ *
+ * Each transfer announced by a sync creates one bundle, so this is a call made once per transfer
+ * on every sync.  Run with `./gradlew :WalletKitNative-JRE:jmh -PjmhArgs=NativeCallBenchmark`.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NativeCallBenchmark {
+
+    // The binding as it was in WKNativeLibraryIndirect
+    private interface IndirectInterface extends Library {
+        Pointer wkClientTransferBundleCreate(int status,
+                                             String hash,
+                                             String identifier,
+                                             String uids,
+                                             String sourceAddr,
+                                             String targetAddr,
+                                             String amount,
+                                             String currency,
+                                             String fee,
+                                             long transferIndex,
+                                             long blockTimestamp,
+                                             long blockHeight,
+                                             long blockConfirmations,
+                                             long blockTransactionIndex,
+                                             String blockHash,
+                                             SizeT attributesCount,
+                                             String[] attributeKeys,
+                                             String[] attributeVals);
+    }
+
+    // Not otherwise bound; the bundles are released once announced
+    private static final class Release {
+        static native void wkClientTransferBundleRelease(Pointer bundle);
+
+        static {
+            Native.register(Release.class, WKNativeLibrary.LIBRARY);
+        }
+    }
+
+    private static final int STATUS = WKTransferStateType.INCLUDED.toCore();
+
+    @Param({"0", "2"})
+    public int attributesCount;
+
+    private IndirectInterface indirect;
+
+    private String[] keys;
+    private String[] vals;
+
+    @Setup
+    public void setup() {
+        indirect = Native.load(WKNativeLibrary.LIBRARY_NAME, IndirectInterface.class);
+
+        keys = new String[attributesCount];
+        vals = new String[attributesCount];
+        for (int i = 0; i < attributesCount; i++) {
+            keys[i] = "key" + i;
+            vals[i] = "val" + i;
+        }
+    }
+
+    @Benchmark
+    public void indirect() {
+        Release.wkClientTransferBundleRelease(
+                indirect.wkClientTransferBundleCreate(
+                        STATUS,
+                        "0x5a1f", "5a1f:0", "5a1f:0:0", "0xab01", "0xcd02", "1000000", "eth", "21000",
+                        0, 1600000000, 1000000, 10, 0,
+                        "0x0b1c",
+                        new SizeT(attributesCount),
+                        0 == attributesCount ? null : keys,
+                        0 == attributesCount ? null : vals));
+    }
+
+    @Benchmark
+    public void direct() {
+        Release.wkClientTransferBundleRelease(
+                WKNativeLibraryDirect.wkClientTransferBundleCreate(
+                        STATUS,
+                        "0x5a1f", "5a1f:0", "5a1f:0:0", "0xab01", "0xcd02", "1000000", "eth", "21000",
+                        0, 1600000000, 1000000, 10, 0,
+                        "0x0b1c",
+                        new SizeT(attributesCount),
+                        0 == attributesCount ? null : new StringArray(keys),
+                        0 == attributesCount ? null : new StringArray(vals)));
+    }
+}
@@ -7,11 +7,12 @@
  */
 package com.blockset.walletkit.nativex;
 
-import com.blockset.walletkit.nativex.library.WKNativeLibraryIndirect;
+import com.blockset.walletkit.nativex.library.WKNativeLibraryDirect;
 import com.blockset.walletkit.nativex.utility.SizeT;
 import com.google.common.primitives.UnsignedLong;
 import com.sun.jna.Pointer;
 import com.sun.jna.PointerType;
+import com.sun.jna.StringArray;
 
 import java.util.Map;
 
@@ -39,7 +40,7 @@ public class WKClientTransferBundle extends PointerType {
         String[] metaVals = meta.values().toArray(new String[metaCount]);
 
 
-        Pointer pointer = WKNativeLibraryIndirect.wkClientTransferBundleCreate(
+        Pointer pointer = WKNativeLibraryDirect.wkClientTransferBundleCreate(
                 status.toCore(),
                 hash,
                 identifier,
@@ -56,8 +57,8 @@ public class WKClientTransferBundle extends PointerType {
                 blockTransactionIndex.longValue(),
                 blockHash,
                 new SizeT(metaCount),
-                metaKeys,
-                metaVals);
+                (0 == metaCount ? null : new StringArray(metaKeys)),
+                (0 == metaCount ? null : new StringArray(metaVals)));
 
         return new WKClientTransferBundle(pointer);
     }
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.nativex;
+
+import com.blockset.walletkit.nativex.library.WKNativeLibraryDirect;
+import com.google.common.base.Optional;
+import com.google.common.primitives.UnsignedLong;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.LongByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+import javax.annotation.Nullable;
+
+/**
+ * The commonly read fields of a wallet's transfers, extracted together and held as one array per
+ * field.
+ *
+ * Each transfer is read in a single pass over the raw transfer pointers, with direct-mapped calls
+ * only; no {@link WKTransfer}, or other handle, is wrapped and no reference is left for cleanup.
+ * Amounts are held as base 10 integer strings, in base units.
+ */
+public final class WKTransferSnapshots {
+
+    /**
+     * Fill snapshots of `transfers`, giving each transfer once read; should one fail, all the
+     * transfers are still given.
+     */
+    /* package */
+    static WKTransferSnapshots fill(Pointer[] transfers) {
+        WKTransferSnapshots snapshots = new WKTransferSnapshots(transfers.length);
+        int next = 0;
+        try {
+            while (next < transfers.length) {
+                int index = next++;
+                try {
+                    snapshots.fill(index, transfers[index]);
+                } finally {
+                    WKNativeLibraryDirect.wkTransferGive(transfers[index]);
+                }
+            }
+        } finally {
+            // Only on a failure are there transfers not yet read
+            while (next < transfers.length) {
+                WKNativeLibraryDirect.wkTransferGive(transfers[next++]);
+            }
+        }
+        return snapshots;
+    }
+
+    private static final int INCLUDED_VALUE = WKTransferStateType.INCLUDED.toCore();
+
+    private final int count;
+
+    private final String[] hashes;
+    private final int[] directions;
+    private final int[] states;
+    private final long[] blockNumbers;
+    private final long[] blockTimestamps;
+    private final long[] transactionIndexes;
+    private final String[] amounts;
+    private final String[] fees;
+    private final String[] sources;
+    private final String[] targets;
+
+    private WKTransferSnapshots(int count) {
+        this.count = count;
+        this.hashes = new String[count];
+        this.directions = new int[count];
+        this.states = new int[count];
+        this.blockNumbers = new long[count];
+        this.blockTimestamps = new long[count];
+        this.transactionIndexes = new long[count];
+        this.amounts = new String[count];
+        this.fees = new String[count];
+        this.sources = new String[count];
+        this.targets = new String[count];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Optional<String> getHash(int index) {
+        return Optional.fromNullable(hashes[index]);
+    }
+
+    public WKTransferDirection getDirection(int index) {
+        return WKTransferDirection.fromCore(directions[index]);
+    }
+
+    public WKTransferStateType getStateType(int index) {
+        return WKTransferStateType.fromCore(states[index]);
+    }
+
+    /** The block number, if included. */
+    public Optional<UnsignedLong> getBlockNumber(int index) {
+        return states[index] == INCLUDED_VALUE
+                ? Optional.of(UnsignedLong.fromLongBits(blockNumbers[index]))
+                : Optional.absent();
+    }
+
+    /** The block timestamp, in seconds, if included. */
+    public Optional<UnsignedLong> getBlockTimestamp(int index) {
+        return states[index] == INCLUDED_VALUE
+                ? Optional.of(UnsignedLong.fromLongBits(blockTimestamps[index]))
+                : Optional.absent();
+    }
+
+    /** The index of the transaction in its block, if included. */
+    public Optional<UnsignedLong> getTransactionIndex(int index) {
+        return states[index] == INCLUDED_VALUE
+                ? Optional.of(UnsignedLong.fromLongBits(transactionIndexes[index]))
+                : Optional.absent();
+    }
+
+    /** The amount, undirected, in the base unit of the transfer's amount unit. */
+    public String getAmount(int index) {
+        return amounts[index];
+    }
+
+    /** The confirmed fee or, if unconfirmed, the estimated fee; in the base unit of the fee unit. */
+    public Optional<String> getFee(int index) {
+        return Optional.fromNullable(fees[index]);
+    }
+
+    public Optional<String> getSource(int index) {
+        return Optional.fromNullable(sources[index]);
+    }
+
+    public Optional<String> getTarget(int index) {
+        return Optional.fromNullable(targets[index]);
+    }
+
+    private void fill(int index, Pointer transfer) {
+        directions[index] = WKNativeLibraryDirect.wkTransferGetDirection(transfer);
+
+        Pointer hash = WKNativeLibraryDirect.wkTransferGetHash(transfer);
+        if (null != hash) {
+            try {
+                hashes[index] = toStringAndFree(WKNativeLibraryDirect.wkHashEncodeString(hash));
+            } finally {
+                WKNativeLibraryDirect.wkHashGive(hash);
+            }
+        }
+
+        Pointer state = WKNativeLibraryDirect.wkTransferGetState(transfer);
+        try {
+            states[index] = WKNativeLibraryDirect.wkTransferStateGetType(state);
+            if (states[index] == INCLUDED_VALUE) {
+                LongByReference blockNumber = new LongByReference();
+                LongByReference blockTimestamp = new LongByReference();
+                LongByReference transactionIndex = new LongByReference();
+                PointerByReference feeBasis = new PointerByReference();
+
+                WKNativeLibraryDirect.wkTransferStateExtractIncluded(
+                        state,
+                        blockNumber,
+                        blockTimestamp,
+                        transactionIndex,
+                        feeBasis,
+                        new WKTransferIncludeStatus.ByReference());
+
+                // The fee basis is extracted taken; the fee is read from the confirmed fee basis below
+                if (null != feeBasis.getValue()) {
+                    WKNativeLibraryDirect.wkFeeBasisGive(feeBasis.getValue());
+                }
+
+                blockNumbers[index] = blockNumber.getValue();
+                blockTimestamps[index] = blockTimestamp.getValue();
+                transactionIndexes[index] = transactionIndex.getValue();
+            }
+        } finally {
+            WKNativeLibraryDirect.wkTransferStateGive(state);
+        }
+
+        amounts[index] = amountToStringAndGive(WKNativeLibraryDirect.wkTransferGetAmount(transfer));
+
+        Pointer feeBasis = WKNativeLibraryDirect.wkTransferGetConfirmedFeeBasis(transfer);
+        if (null == feeBasis) {
+            feeBasis = WKNativeLibraryDirect.wkTransferGetEstimatedFeeBasis(transfer);
+        }
+        if (null != feeBasis) {
+            try {
+                Pointer fee = WKNativeLibraryDirect.wkFeeBasisGetFee(feeBasis);
+                if (null != fee) {
+                    fees[index] = amountToStringAndGive(fee);
+                }
+            } finally {
+                WKNativeLibraryDirect.wkFeeBasisGive(feeBasis);
+            }
+        }
+
+        sources[index] = addressToStringAndGive(WKNativeLibraryDirect.wkTransferGetSourceAddress(transfer));
+        targets[index] = addressToStringAndGive(WKNativeLibraryDirect.wkTransferGetTargetAddress(transfer));
+    }
+
+    private static String amountToStringAndGive(Pointer amount) {
+        try {
+            return toStringAndFree(WKNativeLibraryDirect.wkAmountGetStringPrefaced(amount, 10, ""));
+        } finally {
+            WKNativeLibraryDirect.wkAmountGive(amount);
+        }
+    }
+
+    @Nullable
+    private static String addressToStringAndGive(@Nullable Pointer address) {
+        if (null == address) return null;
+
+        try {
+            return toStringAndFree(WKNativeLibraryDirect.wkAddressAsString(address));
+        } finally {
+            WKNativeLibraryDirect.wkAddressGive(address);
+        }
+    }
+
+    private static String toStringAndFree(Pointer ptr) {
+        try {
+            return ptr.getString(0, "UTF-8");
+        } finally {
+            Native.free(Pointer.nativeValue(ptr));
+        }
+    }
+}
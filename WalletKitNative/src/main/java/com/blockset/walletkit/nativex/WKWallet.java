@@ -9,6 +9,7 @@ package com.blockset.walletkit.nativex;
 
 import com.blockset.walletkit.nativex.library.WKNativeLibraryDirect;
 import com.blockset.walletkit.nativex.library.WKNativeLibraryIndirect;
+import com.blockset.walletkit.nativex.utility.PointerArray;
 import com.blockset.walletkit.nativex.utility.SizeT;
 import com.blockset.walletkit.nativex.utility.SizeTByReference;
 import com.google.common.base.Optional;
@@ -78,6 +79,23 @@ public class WKWallet extends PointerType {
         return transfers;
     }
 
+    public WKTransferSnapshots getTransferSnapshots() {
+        Pointer thisPtr = this.getPointer();
+
+        SizeTByReference count = new SizeTByReference();
+        Pointer transfersPtr = WKNativeLibraryDirect.wkWalletGetTransfers(thisPtr, count);
+        if (null == transfersPtr) {
+            return WKTransferSnapshots.fill(new Pointer[0]);
+        }
+
+        try {
+            int transfersSize = UnsignedInts.checkedCast(count.getValue().longValue());
+            return WKTransferSnapshots.fill(transfersPtr.getPointerArray(0, transfersSize));
+        } finally {
+            Native.free(Pointer.nativeValue(transfersPtr));
+        }
+    }
+
 
     public boolean containsTransfer(WKTransfer transfer) {
         Pointer thisPtr = this.getPointer();
@@ -196,18 +214,14 @@ public class WKWallet extends PointerType {
                                                boolean isSweep) {
         Pointer thisPtr = this.getPointer();
 
-        int attributesCount  = attributes.size();
-        WKTransferAttribute[] attributeRefs = new WKTransferAttribute[attributesCount];
-        for (int i = 0; i < attributesCount; i++) attributeRefs[i] = attributes.get(i);
-
         return Optional.fromNullable(
-                WKNativeLibraryIndirect.wkWalletCreateTransfer(
+                WKNativeLibraryDirect.wkWalletCreateTransfer(
                         thisPtr,
                         target.getPointer(),
                         amount.getPointer(),
                         estimatedFeeBasis.getPointer(),
-                        new SizeT(attributesCount),
-                        attributeRefs,
+                        new SizeT(attributes.size()),
+                        PointerArray.of(attributes),
                         exchangeId,
                         secondFactorCode,
                         secondFactorBackup,
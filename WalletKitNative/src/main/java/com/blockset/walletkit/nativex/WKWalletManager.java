@@ -10,6 +10,7 @@ package com.blockset.walletkit.nativex;
 import com.blockset.walletkit.nativex.library.WKNativeLibraryDirect;
 import com.blockset.walletkit.nativex.library.WKNativeLibraryIndirect;
 import com.blockset.walletkit.nativex.utility.Cookie;
+import com.blockset.walletkit.nativex.utility.PointerArray;
 import com.blockset.walletkit.nativex.utility.SizeT;
 import com.blockset.walletkit.nativex.utility.SizeTByReference;
 import com.google.common.base.Optional;
@@ -296,19 +297,15 @@ public class WKWalletManager extends PointerType {
                                  WKAddress target, WKAmount amount, WKNetworkFee fee, List<WKTransferAttribute> attributes) {
         Pointer thisPtr = this.getPointer();
 
-        int attributesCount  = attributes.size();
-        WKTransferAttribute[] attributeRefs = new WKTransferAttribute[attributesCount];
-        for (int i = 0; i < attributesCount; i++) attributeRefs[i] = attributes.get(i);
-
-        WKNativeLibraryIndirect.wkWalletManagerEstimateFeeBasis(
+        WKNativeLibraryDirect.wkWalletManagerEstimateFeeBasis(
                 thisPtr,
                 wallet.getPointer(),
                 cookie.getPointer(),
                 target.getPointer(),
                 amount.getPointer(),
                 fee.getPointer(),
-                new SizeT(attributesCount),
-                attributeRefs);
+                new SizeT(attributes.size()),
+                PointerArray.of(attributes));
     }
 
     public void estimateFeeBasisForWalletSweep(WKWallet wallet, Cookie cookie,
@@ -362,14 +359,11 @@ public class WKWalletManager extends PointerType {
     }
 
     public void announceTransactionsSuccess(WKClientCallbackState callbackState, List<WKClientTransactionBundle> bundles) {
-        int bundlesCount = bundles.size();
-        WKClientTransactionBundle[] bundlesArr = bundles.toArray(new WKClientTransactionBundle[bundlesCount]);
-
-        WKNativeLibraryIndirect.wkClientAnnounceTransactionsSuccess(
+        WKNativeLibraryDirect.wkClientAnnounceTransactionsSuccess(
                 this.getPointer(),
                 callbackState.getPointer(),
-                bundlesArr,
-                new SizeT(bundlesCount));
+                PointerArray.of(bundles),
+                new SizeT(bundles.size()));
     }
 
     public void announceTransactionsFailure(WKClientCallbackState callbackState, WKClientError error) {
@@ -399,14 +393,11 @@ public class WKWalletManager extends PointerType {
     }
 
     public void announceTransfersSuccess(WKClientCallbackState callbackState, List<WKClientTransferBundle> bundles) {
-        int bundlesCount = bundles.size();
-        WKClientTransferBundle[] bundlesArr = bundles.toArray(new WKClientTransferBundle[bundlesCount]);
-
-        WKNativeLibraryIndirect.wkClientAnnounceTransfersSuccess(
+        WKNativeLibraryDirect.wkClientAnnounceTransfersSuccess(
                 this.getPointer(),
                 callbackState.getPointer(),
-                bundlesArr,
-                new SizeT(bundlesCount));
+                PointerArray.of(bundles),
+                new SizeT(bundles.size()));
     }
 
     public void announceTransfersFailure(WKClientCallbackState callbackState, WKClientError error) {
@@ -8,13 +8,34 @@
 package com.blockset.walletkit.nativex.cleaner;
 
 import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 public final class ReferenceCleaner {
 
     private static final Logger Log = Logger.getLogger(ReferenceCleaner.class.getName());
 
+    /** The number of threads running the cleanup, unless set with {@link #setThreadCount}. */
+    public static final int DEFAULT_THREAD_COUNT = 2;
+
+    /** The maximum number of cleanups run by a thread at a time. */
+    private static final int BATCH_SIZE = 64;
+
+    // How long an idle cleanup thread waits before checking if it is still needed
+    private static final long IDLE_TIMEOUT_SECONDS = 1;
+
     /**
      * Register a runnable to be executed once all references to `referent`
      * have been dropped.
@@ -23,51 +44,321 @@ public final class ReferenceCleaner {
      * is deprecated as of JDK9.
      */
     public static void register(Object referent, Runnable runnable) {
-        INSTANCE.registerRunnable(referent, runnable);
+        INSTANCE.registerRunnable(referent, INSTANCE.counted(referent, runnable));
+    }
+
+    /**
+     * Register a runnable to be executed when the innermost {@link ReferenceScope} open on
+     * the current thread is closed or, if there is none, once all references to `referent`
+     * have been dropped.
+     *
+     * This is for wrappers that are commonly short-lived, such as amounts, so that they
+     * can be released without waiting on the garbage collector.
+     */
+    public static void registerScoped(Object referent, Runnable runnable) {
+        Runnable counted = INSTANCE.counted(referent, runnable);
+        if (!ReferenceScope.register(counted)) {
+            INSTANCE.registerRunnable(referent, counted);
+        }
+    }
+
+    /**
+     * Set the number of threads running the cleanup; threads are added immediately and
+     * removed once idle.
+     */
+    public static void setThreadCount(int threadCount) {
+        INSTANCE.setDrainerCount(threadCount);
+    }
+
+    public static int getThreadCount() {
+        return INSTANCE.drainerCount;
+    }
+
+    /**
+     * Get a snapshot of the native handles registered and of the cleanup's progress.
+     */
+    public static Metrics getMetrics() {
+        return INSTANCE.metrics();
+    }
+
+    /**
+     * The handles registered for wrappers of one type.
+     */
+    public static final class TypeMetrics {
+        private final String type;
+        private final long liveCount;
+        private final long registeredCount;
+
+        private TypeMetrics(String type, long liveCount, long registeredCount) {
+            this.type = type;
+            this.liveCount = liveCount;
+            this.registeredCount = registeredCount;
+        }
+
+        /** The wrapper's simple class name; as `Amount`. */
+        public String getType() {
+            return type;
+        }
+
+        /** The number of handles registered and not yet released. */
+        public long getLiveCount() {
+            return liveCount;
+        }
+
+        /** The number of handles registered, in total. */
+        public long getRegisteredCount() {
+            return registeredCount;
+        }
+
+        @Override
+        public String toString() {
+            return type + "{live=" + liveCount + ", registered=" + registeredCount + '}';
+        }
+    }
+
+    /**
+     * A snapshot of the cleaner.  Rates are computed between two snapshots.
+     */
+    public static final class Metrics {
+        private final long timestampNanos;
+        private final long enqueuedCount;
+        private final long drainedCount;
+        private final int threadCount;
+        private final List<TypeMetrics> types;
+
+        private Metrics(long timestampNanos,
+                        long enqueuedCount,
+                        long drainedCount,
+                        int threadCount,
+                        List<TypeMetrics> types) {
+            this.timestampNanos = timestampNanos;
+            this.enqueuedCount = enqueuedCount;
+            this.drainedCount = drainedCount;
+            this.threadCount = threadCount;
+            this.types = types;
+        }
+
+        /** The number of wrappers found unreachable, in total. */
+        public long getEnqueuedCount() {
+            return enqueuedCount;
+        }
+
+        /** The number of unreachable wrappers whose handles have been released, in total. */
+        public long getDrainedCount() {
+            return drainedCount;
+        }
+
+        /** The number of unreachable wrappers whose handles are yet to be released. */
+        public long getBacklog() {
+            return enqueuedCount - drainedCount;
+        }
+
+        public int getThreadCount() {
+            return threadCount;
+        }
+
+        /** The number of wrappers found unreachable per second, since `previous`. */
+        public double getEnqueueRate(Metrics previous) {
+            return rate(enqueuedCount - previous.enqueuedCount, previous);
+        }
+
+        /** The number of handles released per second, since `previous`. */
+        public double getDrainRate(Metrics previous) {
+            return rate(drainedCount - previous.drainedCount, previous);
+        }
+
+        /** The handles registered, by wrapper type, in no particular order. */
+        public List<TypeMetrics> getTypes() {
+            return types;
+        }
+
+        /** The number of handles registered and not yet released, of all types. */
+        public long getLiveCount() {
+            long count = 0;
+            for (TypeMetrics type : types) count += type.liveCount;
+            return count;
+        }
+
+        private double rate(long count, Metrics previous) {
+            long elapsedNanos = timestampNanos - previous.timestampNanos;
+            return elapsedNanos <= 0 ? 0 : count * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Metrics{" +
+                    "enqueued=" + enqueuedCount +
+                    ", drained=" + drainedCount +
+                    ", backlog=" + getBacklog() +
+                    ", threads=" + threadCount +
+                    ", types=" + types +
+                    '}';
+        }
+    }
+
+    private static final class TypeCounts {
+        final AtomicLong live = new AtomicLong();
+        final AtomicLong registered = new AtomicLong();
     }
 
     private static final ReferenceCleaner INSTANCE = new ReferenceCleaner();
 
     private final ReferenceQueue<Object> queue;
+    private final BlockingQueue<Reference> pending;
     private final Thread thread;
 
+    private final Map<Class<?>, TypeCounts> typeCounts = new ConcurrentHashMap<>();
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong drainedCount = new AtomicLong();
+
+    // The drainer count; the number of drainers running converges on it
+    private volatile int drainerCount;
+    private final AtomicInteger drainersRunning = new AtomicInteger();
+    private final AtomicInteger drainersStarted = new AtomicInteger();
+
     private ReferenceCleaner() {
         this.queue = new ReferenceQueue<>();
-        this.thread = new Thread(new ReferenceCleanerRunnable(queue));
+        this.pending = new LinkedBlockingQueue<>();
+
+        // A single thread moves references off the queue, as they are found unreachable; the
+        // drainers then release them in batches
+        this.thread = new Thread(new ReferenceCleanerRunnable(queue, pending, enqueuedCount));
         this.thread.setDaemon(true);
         this.thread.setName(getClass().getName());
         this.thread.start();
+
+        setDrainerCount(DEFAULT_THREAD_COUNT);
     }
 
     private void registerRunnable(Object referent, Runnable runnable) {
         Reference.create(queue, referent, runnable);
     }
 
+    private Runnable counted(Object referent, Runnable runnable) {
+        TypeCounts counts = typeCounts.get(referent.getClass());
+        if (null == counts) {
+            counts = typeCounts.computeIfAbsent(referent.getClass(), k -> new TypeCounts());
+        }
+
+        AtomicLong live = counts.live;
+        live.incrementAndGet();
+        counts.registered.incrementAndGet();
+        return () -> {
+            try {
+                runnable.run();
+            } finally {
+                live.decrementAndGet();
+            }
+        };
+    }
+
+    private synchronized void setDrainerCount(int count) {
+        checkArgument(count > 0, "Invalid thread count");
+
+        drainerCount = count;
+        while (drainersRunning.get() < count) {
+            drainersRunning.incrementAndGet();
+
+            Thread drainer = new Thread(new ReferenceDrainerRunnable());
+            drainer.setDaemon(true);
+            drainer.setName(getClass().getName() + "-" + drainersStarted.incrementAndGet());
+            drainer.start();
+        }
+    }
+
+    private Metrics metrics() {
+        List<TypeMetrics> types = new ArrayList<>(typeCounts.size());
+        for (Map.Entry<Class<?>, TypeCounts> entry : typeCounts.entrySet()) {
+            types.add(new TypeMetrics(
+                    entry.getKey().getSimpleName(),
+                    entry.getValue().live.get(),
+                    entry.getValue().registered.get()));
+        }
+
+        // Read drained first, so that the backlog is never negative
+        long drained = drainedCount.get();
+        return new Metrics(
+                System.nanoTime(),
+                enqueuedCount.get(),
+                drained,
+                drainersRunning.get(),
+                Collections.unmodifiableList(types));
+    }
+
     private static class ReferenceCleanerRunnable implements Runnable {
 
         final ReferenceQueue<Object> queue;
+        final BlockingQueue<Reference> pending;
+        final AtomicLong enqueuedCount;
 
-        ReferenceCleanerRunnable(ReferenceQueue<Object> queue) {
+        ReferenceCleanerRunnable(ReferenceQueue<Object> queue,
+                                 BlockingQueue<Reference> pending,
+                                 AtomicLong enqueuedCount) {
             this.queue = queue;
+            this.pending = pending;
+            this.enqueuedCount = enqueuedCount;
         }
 
         @Override
         public void run() {
             for (;;) {
-                Reference ref;
-
                 try {
-                    ref = (Reference) queue.remove();
+                    Reference ref = (Reference) queue.remove();
+                    do {
+                        enqueuedCount.incrementAndGet();
+                        pending.add(ref);
+                        ref = (Reference) queue.poll();
+                    } while (null != ref);
                 } catch (ClassCastException | InterruptedException e) {
                     Log.log(Level.SEVERE, "Error pumping queue", e);
-                    continue;
                 }
+            }
+        }
+    }
+
+    private class ReferenceDrainerRunnable implements Runnable {
+
+        @Override
+        public void run() {
+            List<Reference> batch = new ArrayList<>(BATCH_SIZE);
+
+            for (;;) {
+                Reference ref;
 
                 try {
-                    ref.run();
-                } catch (Throwable t) {
-                    Log.log(Level.SEVERE, "Error cleaning up", t);
+                    ref = pending.poll(IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Log.log(Level.SEVERE, "Error draining queue", e);
+                    continue;
                 }
+
+                if (null == ref) {
+                    if (retire()) return;
+                    continue;
+                }
+
+                batch.add(ref);
+                pending.drainTo(batch, BATCH_SIZE - 1);
+
+                for (Reference r : batch) {
+                    try {
+                        r.run();
+                    } catch (Throwable t) {
+                        Log.log(Level.SEVERE, "Error cleaning up", t);
+                    }
+                }
+
+                drainedCount.addAndGet(batch.size());
+                batch.clear();
+            }
+        }
+
+        // Stop this drainer, when idle, if there are more running than needed
+        private boolean retire() {
+            synchronized (ReferenceCleaner.this) {
+                if (drainersRunning.get() <= drainerCount) return false;
+                drainersRunning.decrementAndGet();
+                return true;
             }
         }
     }
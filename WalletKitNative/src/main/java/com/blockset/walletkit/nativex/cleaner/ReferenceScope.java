@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.nativex.cleaner;
+
+import com.google.common.base.Supplier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A scope, open on the current thread, in which short-lived native handles are released
+ * deterministically.
+ *
+ * While a scope is open, a handle registered through {@link ReferenceCleaner#registerScoped} is
+ * released when the scope is closed, instead of once its wrapper has been collected; no phantom
+ * reference is created for it.  Handles registered outside of any scope, or on another thread,
+ * are left to the {@link ReferenceCleaner}.
+ *
+ * A wrapper created in a scope must not be used once the scope is closed; copy out any values
+ * (such as an amount's string or double value) that are needed beyond it.  For example:
+ *
+ * <pre>
+ *     try (ReferenceScope scope = ReferenceScope.open()) {
+ *         Amount total = zero;
+ *         for (Amount amount: amounts) total = total.add(amount).get();
+ *         return total.doubleAmount(unit).get();
+ *     }
+ * </pre>
+ *
+ * Scopes nest; a handle belongs to the innermost open scope, and scopes must be closed in the
+ * reverse order that they were opened, on the thread that opened them.
+ */
+public final class ReferenceScope implements AutoCloseable {
+
+    private static final Logger Log = Logger.getLogger(ReferenceScope.class.getName());
+
+    private static final ThreadLocal<ReferenceScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Open a scope on the current thread; it must be closed, typically with try-with-resources.
+     */
+    public static ReferenceScope open() {
+        ReferenceScope scope = new ReferenceScope(Thread.currentThread(), CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Wrap `supplier` so that the handles it registers are left to the {@link ReferenceCleaner},
+     * even when called inside a scope.
+     *
+     * This is for values that outlive the call that creates them, such as those memoized by a
+     * long-lived wrapper.
+     */
+    public static <T> Supplier<T> unscoped(Supplier<T> supplier) {
+        return () -> {
+            ReferenceScope scope = CURRENT.get();
+            if (null == scope) return supplier.get();
+
+            CURRENT.remove();
+            try {
+                return supplier.get();
+            } finally {
+                CURRENT.set(scope);
+            }
+        };
+    }
+
+    /**
+     * Add `runnable` to the innermost scope open on the current thread, if there is one.
+     */
+    /* package */
+    static boolean register(Runnable runnable) {
+        ReferenceScope scope = CURRENT.get();
+        if (null == scope) return false;
+
+        scope.runnables.add(runnable);
+        return true;
+    }
+
+    private final Thread thread;
+    private final ReferenceScope parent;
+    private final List<Runnable> runnables;
+
+    private boolean closed;
+
+    private ReferenceScope(Thread thread, ReferenceScope parent) {
+        this.thread = thread;
+        this.parent = parent;
+        this.runnables = new ArrayList<>();
+        this.closed = false;
+    }
+
+    /**
+     * The number of handles that will be released when this scope is closed.
+     */
+    public int size() {
+        return runnables.size();
+    }
+
+    /**
+     * Release, most recent first, the handles registered in this scope.
+     *
+     * Closing a scope more than once has no effect.
+     *
+     * @throws IllegalStateException if called on another thread, or with an inner scope still open
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+
+        checkState(Thread.currentThread() == thread, "Closed on another thread");
+        checkState(CURRENT.get() == this, "Closed with an inner scope open");
+
+        closed = true;
+        if (null == parent) CURRENT.remove();
+        else CURRENT.set(parent);
+
+        for (int i = runnables.size() - 1; i >= 0; i--) {
+            try {
+                runnables.get(i).run();
+            } catch (Throwable t) {
+                Log.log(Level.SEVERE, "Error cleaning up", t);
+            }
+        }
+        runnables.clear();
+    }
+}
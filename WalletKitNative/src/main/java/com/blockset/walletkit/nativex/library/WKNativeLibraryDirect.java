@@ -315,7 +315,7 @@ public final class WKNativeLibraryDirect {
     public static native Pointer wkWalletGetUnit(Pointer wallet);
     public static native Pointer wkWalletGetUnitForFee(Pointer wallet);
     public static native Pointer wkWalletGetCurrency(Pointer wallet);
-    // INDIRECT: public static native Pointer wkWalletCreateTransfer(Pointer wallet, Pointer target, Pointer amount, Pointer feeBasis, SizeT attributesCount, Pointer arrayOfAttributes);
+    public static native Pointer wkWalletCreateTransfer(Pointer wallet, Pointer target, Pointer amount, Pointer feeBasis, SizeT attributesCount, Pointer /* PointerArray */ attributes, String exchangeId, String secondFactorCode, String secondFactorBackup, String proTransfer, boolean isSweep);
     public static native Pointer wkWalletCreateTransferForPaymentProtocolRequest(Pointer wallet, Pointer request, Pointer feeBasis);
     public static native SizeT wkWalletGetTransferAttributeCount(Pointer wallet, Pointer target);
     public static native Pointer wkWalletGetTransferAttributeAt(Pointer wallet, Pointer target, SizeT index);
@@ -363,7 +363,7 @@ public final class WKNativeLibraryDirect {
     public static native void wkWalletManagerSubmitForKey(Pointer cwm, Pointer wid, Pointer tid, Pointer key);
     public static native void wkWalletManagerSubmitSigned(Pointer cwm, Pointer wid, Pointer tid);
     public static native Pointer wkWalletManagerEstimateLimit(Pointer cwm, Pointer wid, int asMaximum, Pointer target, Pointer fee, IntByReference needEstimate, IntByReference isZeroIfInsuffientFunds);
-    // INDIRECT: public static native void wkWalletManagerEstimateFeeBasis(Pointer cwm, Pointer wid, Pointer cookie, Pointer target, Pointer amount, Pointer fee);
+    public static native void wkWalletManagerEstimateFeeBasis(Pointer cwm, Pointer wid, Pointer cookie, Pointer target, Pointer amount, Pointer fee, SizeT attributesCount, Pointer /* PointerArray */ attributes);
     public static native void wkWalletManagerEstimateFeeBasisForWalletSweep(Pointer sweeper, Pointer cwm, Pointer wid, Pointer cookie, Pointer fee);
     public static native void wkWalletManagerEstimateFeeBasisForPaymentProtocolRequest(Pointer cwm, Pointer wid, Pointer cookie, Pointer request, Pointer fee);
     public static native Pointer wkWalletManagerTake(Pointer cwm);
@@ -394,7 +394,24 @@ public final class WKNativeLibraryDirect {
                                                                       long blockHeight);
     public static native void wkClientTransactionBundleRelease (Pointer bundle);
 
-    // See 'Indirect': void wkClientTransferBundleCreate (int status, ...)
+    public static native Pointer wkClientTransferBundleCreate (int status,
+                                                               String hash,
+                                                               String identifier,
+                                                               String uids,
+                                                               String sourceAddr,
+                                                               String targetAddr,
+                                                               String amount,
+                                                               String currency,
+                                                               String fee,
+                                                               long transferIndex,
+                                                               long blockTimestamp,
+                                                               long blockHeight,
+                                                               long blockConfirmations,
+                                                               long blockTransactionIndex,
+                                                               String blockHash,
+                                                               SizeT attributesCount,
+                                                               StringArray attributeKeys,
+                                                               StringArray attributeVals);
 
     public static native Pointer wkClientCurrencyDenominationBundleCreate (String name, String code, String symbol, int decimals);
 
@@ -409,6 +426,10 @@ public final class WKNativeLibraryDirect {
     public static native void wkClientAnnounceBlockNumberReceiveAddressSyncSuccess(Pointer cwm, Pointer callbackState, long blockNumber, String verifiedBlockHash);
     public static native void wkClientAnnounceBlockNumberReceiveAddressSyncFailure(Pointer cwm, Pointer callbackState, Pointer error);
 
+    // Arrays are passed as a PointerArray, or NULL if empty
+    public static native void wkClientAnnounceTransactionsSuccess(Pointer cwm, Pointer callbackState, Pointer /* PointerArray */ bundles, SizeT bundlesCount);
+    public static native void wkClientAnnounceTransfersSuccess(Pointer cwm, Pointer callbackState, Pointer /* PointerArray */ bundles, SizeT bundlesCount);
+
     public static native int wkClientErrorGetType(Pointer error);
     public static native Pointer wkClientErrorCreate (int type, String details);
     public static native Pointer wkClientErrorCreateSubmission (int submitErrorType, String details);
@@ -11,7 +11,6 @@ import com.blockset.walletkit.nativex.WKClientCurrencyBundle;
 import com.blockset.walletkit.nativex.WKClientCurrencyDenominationBundle;
 import com.blockset.walletkit.nativex.WKClientError;
 import com.blockset.walletkit.nativex.WKClientTransactionBundle;
-import com.blockset.walletkit.nativex.WKClientTransferBundle;
 import com.blockset.walletkit.nativex.WKCurrency;
 import com.blockset.walletkit.nativex.WKNetworkFee;
 import com.blockset.walletkit.nativex.WKTransferAttribute;
@@ -38,11 +37,6 @@ public final class WKNativeLibraryIndirect {
         INSTANCE.wkNetworkSetNetworkFees(network, fees, count);
     }
 
-    public static Pointer wkWalletCreateTransfer(Pointer wallet, Pointer target, Pointer amount, Pointer feeBasis, SizeT attributesCount, WKTransferAttribute[] attributes, @Nullable String exchangeId, @Nullable String secondFactorCode, @Nullable String secondFactorBackup, @Nullable String proTransfer, Boolean isSweep) {
-        attributes = attributesCount.intValue() == 0 ? null : attributes;
-        return INSTANCE.wkWalletCreateTransfer(wallet, target, amount, feeBasis, attributesCount, attributes, exchangeId, secondFactorCode, secondFactorBackup, proTransfer, isSweep);
-    }
-
     public static void wkWalletGetAddressFromScript(Pointer wallet, @Nullable String outputScript, byte[] addressBuffer, SizeT addressBufferSize) {
         INSTANCE.wkWalletGetAddressFromScript(wallet, outputScript, addressBuffer, addressBufferSize);
     }
@@ -80,39 +74,6 @@ public final class WKNativeLibraryIndirect {
     }
 
 
-    public static Pointer wkClientTransferBundleCreate(int status,
-                                                       String hash,
-                                                       String identifier,
-                                                       String uids,
-                                                       String sourceAddr,
-                                                       String targetAddr,
-                                                       String amount,
-                                                       String currency,
-                                                       String fee,
-                                                       long transferIndex,
-                                                       long blockTimestamp,
-                                                       long blockHeight,
-                                                       long blockConfirmations,
-                                                       long blockTransactionIndex,
-                                                       String blockHash,
-                                                       SizeT attributesCount,
-                                                       String[] attributeKeys,
-                                                       String[] attributeVals) {
-        attributeKeys = attributesCount.intValue() == 0 ? null : attributeKeys;
-        attributeVals = attributesCount.intValue() == 0 ? null : attributeVals;
-        return INSTANCE.wkClientTransferBundleCreate(status,
-                hash, identifier, uids, sourceAddr, targetAddr,
-                amount, currency, fee,
-                transferIndex, blockTimestamp, blockHeight, blockConfirmations, blockTransactionIndex, blockHash,
-                attributesCount, attributeKeys, attributeVals);
-    }
-
-    public static void wkClientAnnounceTransactionsSuccess(Pointer cwm, Pointer callbackState, WKClientTransactionBundle[] bundles, SizeT bundlesCount) {
-        INSTANCE.wkClientAnnounceTransactionsSuccess(cwm, callbackState,
-                (0 == bundlesCount.intValue() ? null : bundles),
-                bundlesCount);
-    }
-
     public static void wkClientAnnounceTransactionsFailure(Pointer cwm, Pointer callbackState, Pointer error) {
         INSTANCE.wkClientAnnounceTransactionsFailure(cwm, callbackState, error);
     }
@@ -126,12 +87,6 @@ public final class WKNativeLibraryIndirect {
     public static void wkClientAnnounceTransactionsReceiveAddressSyncFailure(Pointer cwm, Pointer callbackState, Pointer error) {
         INSTANCE.wkClientAnnounceTransactionsReceiveAddressSyncFailure(cwm, callbackState, error);
     }
-    public static void wkClientAnnounceTransfersSuccess(Pointer cwm, Pointer callbackState, WKClientTransferBundle[] bundles, SizeT bundlesCount) {
-        INSTANCE.wkClientAnnounceTransfersSuccess(cwm, callbackState,
-                (0 == bundlesCount.intValue() ? null : bundles),
-                bundlesCount);
-    }
-
     public static void wkClientAnnounceTransfersFailure(Pointer cwm, Pointer callbackState, Pointer error) {
         INSTANCE.wkClientAnnounceTransfersFailure(cwm, callbackState, error);
     }
@@ -167,26 +122,6 @@ public final class WKNativeLibraryIndirect {
         INSTANCE.wkClientAnnounceCurrenciesFailure(system, error);
     }
 
-    public static void wkWalletManagerEstimateFeeBasis(Pointer cwm,
-                                                       Pointer wid,
-                                                       Pointer cookie,
-                                                       Pointer target,
-                                                       Pointer amount,
-                                                       Pointer fee,
-                                                       SizeT attributesCount,
-                                                       WKTransferAttribute[] attributes) {
-        attributes = attributes.length == 0 ? null : attributes;
-        INSTANCE.wkWalletManagerEstimateFeeBasis(
-                cwm,
-                wid,
-                cookie,
-                target,
-                amount,
-                fee,
-                attributesCount,
-                attributes);
-    }
-
     public static Pointer wkSystemCreateWalletManager(Pointer system,
                                                       Pointer network,
                                                       int mode,
@@ -208,43 +143,18 @@ public final class WKNativeLibraryIndirect {
         void wkNetworkSetNetworkFees(Pointer network, WKNetworkFee[] fees, SizeT count);
 
         // crypto/BRCryptoWallet.h
-        Pointer wkWalletCreateTransfer(Pointer wallet, Pointer target, Pointer amount, Pointer feeBasis, SizeT attributesCount, WKTransferAttribute[] attributes, @Nullable String exchangeId, @Nullable String secondFactorCode, @Nullable String secondFactorBackup, @Nullable String proTransfer, Boolean isSweep);
-
         void wkWalletGetAddressFromScript(Pointer wallet, @Nullable String outputScript, byte[] addressBuffer, SizeT addressBufferSize);
 
         Pointer wkWalletCreateTransferFromScript(Pointer wallet, @Nullable String outputScript, Pointer amount, Pointer feeBasis, SizeT attributesCount, WKTransferAttribute[] attributes, @Nullable String exchangeId, @Nullable String secondFactorCode, @Nullable String secondFactorBackup, @Nullable String proTransfer, Boolean isSweep);
 
         int wkWalletValidateTransferAttributes(Pointer wallet, SizeT countOfAttributes, WKTransferAttribute[] attributes, IntByReference validates);
 
-        Pointer wkClientTransferBundleCreate(int status,
-                                             String hash,
-                                             String identifier,
-                                             String uids,
-                                             String sourceAddr,
-                                             String targetAddr,
-                                             String amount,
-                                             String currency,
-                                             String fee,
-                                             long transferIndex,
-                                             long blockTimestamp,
-                                             long blockHeight,
-                                             long blockConfirmations,
-                                             long blockTransactionIndex,
-                                             String blockHash,
-                                             SizeT attributesCount,
-                                             String[] attributeKeys,
-                                             String[] attributeVals);
-
-        void wkClientAnnounceTransactionsSuccess(Pointer cwm, Pointer callbackState, WKClientTransactionBundle[] bundles, SizeT bundlesCount);
-
         void wkClientAnnounceTransactionsFailure(Pointer cwm, Pointer callbackState, Pointer error);
 
 	    void wkClientAnnounceTransactionsReceiveAddressSyncSuccess(Pointer cwm, Pointer callbackState, WKClientTransactionBundle[] bundles, SizeT bundlesCount);
 
         void wkClientAnnounceTransactionsReceiveAddressSyncFailure(Pointer cwm, Pointer callbackState, Pointer error);
 
-        void wkClientAnnounceTransfersSuccess(Pointer cwm, Pointer callbackState, WKClientTransferBundle[] bundles, SizeT bundlesCount);
-
         void wkClientAnnounceTransfersFailure(Pointer cwm, Pointer callbackState, Pointer error);
 
         Pointer wkClientCurrencyBundleCreate(String id,
@@ -272,16 +182,6 @@ public final class WKNativeLibraryIndirect {
                                                            Pointer callbackState,
                                                            Pointer error);
 
-        // crypto/BRCryptoWalletManager.h
-        void wkWalletManagerEstimateFeeBasis(Pointer cwm,
-                                             Pointer wallet,
-                                             Pointer cookie,
-                                             Pointer target,
-                                             Pointer amount,
-                                             Pointer fee,
-                                             SizeT attributesCount,
-                                             WKTransferAttribute[] attributes);
-
         // crypto/BRCryptoSystem.h
         Pointer wkSystemCreateWalletManager(Pointer system,
                                             Pointer network,
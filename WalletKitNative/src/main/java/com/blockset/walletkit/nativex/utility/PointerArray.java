@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2021 Blockset.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.blockset.walletkit.nativex.utility;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.PointerType;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * A native array of the pointers of core objects, for passing to direct-mapped functions that
+ * take an array along with its count; as {@link com.sun.jna.StringArray} does for strings.
+ *
+ * Direct mapping does not support arrays of pointers, nor does JNA allocate zero length memory,
+ * so an empty array is passed as NULL.  The array must remain reachable for the duration of the
+ * call, as is the case when passed as an argument.
+ */
+public final class PointerArray extends Memory {
+
+    /**
+     * Create an array of the pointers of `values`, in order, or null if there are none.
+     */
+    public static @Nullable PointerArray of(List<? extends PointerType> values) {
+        return values.isEmpty() ? null : new PointerArray(values);
+    }
+
+    private PointerArray(List<? extends PointerType> values) {
+        super((long) Native.POINTER_SIZE * values.size());
+
+        for (int i = 0; i < values.size(); i++) {
+            setPointer((long) Native.POINTER_SIZE * i, values.get(i).getPointer());
+        }
+    }
+}